@@ -35,6 +35,7 @@ import org.apache.tika.mime.MimeTypes;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.CompositeParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ParseRecord;
 import org.apache.tika.parser.Parser;
 import org.apache.tika.parser.ParserDecorator;
 import org.apache.tika.parser.PasswordProvider;
@@ -96,6 +97,44 @@ public class EmbeddedDocumentUtil implements Serializable {
         return ex;
     }
 
+    /**
+     * Creates the context for parsing one embedded document on a worker thread
+     * while other children of the same container are parsed on other threads.
+     * <p>
+     * {@link ParseContext#copy()} is shallow, so the values that carry
+     * per-document state are replaced in the copy: it gets its own
+     * {@link ParseRecord}, a child of the container's record that the caller
+     * should merge back on the parsing thread, and its own
+     * {@link ParsingEmbeddedDocumentExtractor} with the settings of
+     * <code>extractor</code>. A {@link PasswordProvider} is still shared, but
+     * calls to it are synchronized so that a stateful provider is never used
+     * by two workers at once.
+     *
+     * @param context   the container's context, which is not modified
+     * @param extractor the container's extractor
+     * @return a context for a single embedded document
+     */
+    public static ParseContext newWorkerContext(ParseContext context,
+                                                ParsingEmbeddedDocumentExtractor extractor) {
+        ParseContext workerContext = context.copy();
+        ParseRecord parentRecord = context.get(ParseRecord.class);
+        workerContext.set(ParseRecord.class,
+                parentRecord == null ? new ParseRecord() : parentRecord.newChildRecord());
+        ParsingEmbeddedDocumentExtractor workerExtractor =
+                new ParsingEmbeddedDocumentExtractor(workerContext);
+        workerExtractor.setWriteFileNameToContent(extractor.isWriteFileNameToContent());
+        workerContext.set(EmbeddedDocumentExtractor.class, workerExtractor);
+        PasswordProvider passwordProvider = context.get(PasswordProvider.class);
+        if (passwordProvider != null) {
+            workerContext.set(PasswordProvider.class, metadata -> {
+                synchronized (passwordProvider) {
+                    return passwordProvider.getPassword(metadata);
+                }
+            });
+        }
+        return workerContext;
+    }
+
     /**
      * Utility function to get the Parser that was sent in to the
      * ParseContext to handle embedded documents.  If it is stateful,
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.fork;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * On-disk cache of the classes and resources that a forked server had to
+ * fetch from the parent class loader through a {@link ClassLoaderProxy}.
+ * <p>
+ * The first forked server of a given classpath loads everything on demand,
+ * one round trip per class. Once it has finished its first call, the names
+ * it asked for are written into a jar in the cache directory, keyed by a
+ * hash of the classpath. Subsequent forked servers with the same classpath
+ * read from that jar directly and only fall back to the round trip for
+ * resources that are not in it; those are added to the jar after their
+ * first call.
+ * <p>
+ * The key covers the classpath entries and the size and modification time
+ * of the jar files on it. Directories on the classpath are keyed by path
+ * only, so the cache directory should be cleared when classes in such a
+ * directory are rebuilt.
+ */
+class ClassBundleCache {
+
+    private static final String PREFIX = "tika-fork-classes-";
+
+    private final Path directory;
+
+    ClassBundleCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the absolute path of the bundle for this loader, or
+     * <code>null</code> if there is none yet
+     */
+    String getBundle(ClassLoader loader) throws IOException {
+        Path bundle = getBundlePath(loader);
+        return Files.isRegularFile(bundle) ? bundle.toAbsolutePath().toString() : null;
+    }
+
+    /**
+     * Adds the resources that were served by the parent to the loader's bundle.
+     * Nothing is written if they are all in the bundle already.
+     *
+     * @param loader the loader that served the resources
+     * @param served names of the resources that were found by the loader
+     */
+    synchronized void update(ClassLoader loader, Set<String> served) throws IOException {
+        Path bundle = getBundlePath(loader);
+        Set<String> bundled = new HashSet<>();
+        if (Files.isRegularFile(bundle)) {
+            try (JarFile jar = new JarFile(bundle.toFile(), false)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    bundled.add(entries.nextElement().getName());
+                }
+            } catch (IOException e) {
+                //corrupt bundle, rebuild it from what we have
+                bundled.clear();
+            }
+        }
+        Set<String> added = new HashSet<>(served);
+        added.removeAll(bundled);
+        if (added.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Path tmp = Files.createTempFile(directory, PREFIX, ".tmp");
+        try {
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(tmp))) {
+                if (!bundled.isEmpty()) {
+                    try (JarFile jar = new JarFile(bundle.toFile(), false)) {
+                        for (String name : bundled) {
+                            JarEntry entry = jar.getJarEntry(name);
+                            if (entry != null) {
+                                try (InputStream is = jar.getInputStream(entry)) {
+                                    write(out, name, is);
+                                }
+                            }
+                        }
+                    }
+                }
+                for (String name : added) {
+                    try (InputStream is = loader.getResourceAsStream(name)) {
+                        if (is != null) {
+                            write(out, name, is);
+                        }
+                    }
+                }
+            }
+            //forked servers that already have the old bundle open keep reading from it
+            Files.move(tmp, bundle, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void write(JarOutputStream out, String name, InputStream is)
+            throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        IOUtils.copy(is, out);
+    }
+
+    Path getBundlePath(ClassLoader loader) throws IOException {
+        return directory.resolve(PREFIX + getClassPathKey(loader) + ".jar");
+    }
+
+    /**
+     * @return hex encoded hash of the classpath of the loader and its parents
+     */
+    static String getClassPathKey(ClassLoader loader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(System.getProperty("java.version")).append('\n');
+        for (ClassLoader l = loader; l != null; l = l.getParent()) {
+            sb.append(l.getClass().getName()).append('\n');
+            if (l instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) l).getURLs()) {
+                    appendEntry(sb, url);
+                }
+            }
+        }
+        String classPath = System.getProperty("java.class.path", "");
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                appendEntry(sb, Paths.get(entry));
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(UTF_8));
+            StringBuilder hex = new StringBuilder();
+            //128 bits are plenty
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format(Locale.ROOT, "%02x", digest[i] & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void appendEntry(StringBuilder sb, URL url) {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                appendEntry(sb, Paths.get(url.toURI()));
+                return;
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                //fall through
+            }
+        }
+        sb.append(url).append('\n');
+    }
+
+    private static void appendEntry(StringBuilder sb, Path path) {
+        sb.append(path.toAbsolutePath());
+        if (Files.isRegularFile(path)) {
+            try {
+                sb.append('|').append(Files.size(path)).append('|')
+                        .append(Files.getLastModifiedTime(path).toMillis());
+            } catch (IOException e) {
+                //key by path only
+            }
+        }
+        sb.append('\n');
+    }
+}
@@ -20,6 +20,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -27,6 +28,8 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 class ClassLoaderProxy extends ClassLoader implements ForkProxy {
 
@@ -44,17 +47,38 @@ class ClassLoaderProxy extends ClassLoader implements ForkProxy {
 
     private final int resource;
 
+    /**
+     * Path of a jar with resources of the parent class loader that are
+     * looked up locally before asking the parent, or <code>null</code>.
+     * See {@link ClassBundleCache}.
+     */
+    private final String bundle;
+
+    private transient JarFile bundleJar;
+
     private transient DataInputStream input;
 
     private transient DataOutputStream output;
 
     public ClassLoaderProxy(int resource) {
+        this(resource, null);
+    }
+
+    public ClassLoaderProxy(int resource, String bundle) {
         this.resource = resource;
+        this.bundle = bundle;
     }
 
     public void init(DataInputStream input, DataOutputStream output) {
         this.input = input;
         this.output = output;
+        if (bundle != null) {
+            try {
+                bundleJar = new JarFile(bundle, false);
+            } catch (IOException e) {
+                //load everything from the parent
+            }
+        }
     }
 
     @Override
@@ -62,6 +86,10 @@ class ClassLoaderProxy extends ClassLoader implements ForkProxy {
         if (notFound.contains(name)) {
             return null;
         }
+        byte[] data = readFromBundle(name);
+        if (data != null) {
+            return MemoryURLStreamHandler.createURL(data);
+        }
         try {
             // Send a request to load the resource data
             output.write(ForkServer.RESOURCE);
@@ -101,6 +129,12 @@ class ClassLoaderProxy extends ClassLoader implements ForkProxy {
 
     @Override
     protected synchronized Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bundled = readFromBundle(name.replace('.', '/') + ".class");
+        if (bundled != null) {
+            Class<?> clazz = defineClass(name, bundled, 0, bundled.length);
+            definePackageIfNecessary(name, clazz);
+            return clazz;
+        }
         try {
             // Send a request to load the class data
             output.write(ForkServer.RESOURCE);
@@ -123,6 +157,25 @@ class ClassLoaderProxy extends ClassLoader implements ForkProxy {
         }
     }
 
+    /**
+     * @return the resource from the bundle, or <code>null</code> if it is
+     * not there and has to be fetched from the parent
+     */
+    private byte[] readFromBundle(String name) {
+        if (bundleJar == null) {
+            return null;
+        }
+        JarEntry entry = bundleJar.getJarEntry(name);
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream stream = bundleJar.getInputStream(entry)) {
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     private void definePackageIfNecessary(String className, Class<?> clazz) {
         String packageName = toPackageName(className);
         if (packageName != null && getDefinedPackage(packageName) == null) {
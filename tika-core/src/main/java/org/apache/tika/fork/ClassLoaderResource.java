@@ -21,16 +21,43 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 class ClassLoaderResource implements ForkResource {
 
     private final ClassLoader loader;
 
+    /**
+     * Names of the single resources (code 1) that were found and sent,
+     * used to build the {@link ClassBundleCache} bundle.
+     */
+    private final Set<String> served = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
     public ClassLoaderResource(ClassLoader loader) {
         this.loader = loader;
     }
 
+    ClassLoader getLoader() {
+        return loader;
+    }
+
+    Set<String> getServed() {
+        return Collections.unmodifiableSet(served);
+    }
+
+    /**
+     * @return the number of requests that the forked server has made so far
+     */
+    int getRequests() {
+        return requests.get();
+    }
+
     /**
      * Processes a request for one (code 1) or many (code 2) class loader
      * resources. The requested resources are sent preceded with a boolean
@@ -44,9 +71,11 @@ class ClassLoaderResource implements ForkResource {
     public Throwable process(DataInputStream input, DataOutputStream output) throws IOException {
         byte type = input.readByte();
         String name = input.readUTF();
+        requests.incrementAndGet();
         if (type == 1) {
             InputStream stream = loader.getResourceAsStream(name);
             if (stream != null) {
+                served.add(name);
                 output.writeBoolean(true);
                 writeAndCloseStream(output, stream);
             } else {
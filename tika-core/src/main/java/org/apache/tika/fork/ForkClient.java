@@ -29,6 +29,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
@@ -62,9 +63,21 @@ class ForkClient {
 
     private volatile int filesProcessed = 0;
 
+    //null if class bundles are disabled
+    private final ClassBundleCache classBundleCache;
+
+    //the resource of the first class loader that was sent, if any
+    private ClassLoaderResource classLoaderResource;
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile long warmUpMillis = -1;
+
+    private volatile int warmUpClassLoaderRequests = -1;
+
     public ForkClient(Path tikaDir, ParserFactoryFactory parserFactoryFactory, List<String> java,
                       TimeoutLimits timeoutLimits) throws IOException, TikaException {
-        this(tikaDir, parserFactoryFactory, null, java, timeoutLimits);
+        this(tikaDir, parserFactoryFactory, null, java, timeoutLimits, null);
     }
 
     /**
@@ -75,14 +88,18 @@ class ForkClient {
      * @param classLoader          class loader to use for non-parser resource
      *                             (content-handler, etc.)
      * @param java                 java commandline to use for the commandline server
+     * @param classBundleCache     cache of class bundles for the class loader,
+     *                             or <code>null</code> to load every class on demand
      * @throws IOException
      * @throws TikaException
      */
     public ForkClient(Path tikaDir, ParserFactoryFactory parserFactoryFactory,
-                      ClassLoader classLoader, List<String> java, TimeoutLimits timeoutLimits)
+                      ClassLoader classLoader, List<String> java, TimeoutLimits timeoutLimits,
+                      ClassBundleCache classBundleCache)
             throws IOException, TikaException {
         jar = null;
         loader = null;
+        this.classBundleCache = classBundleCache;
         boolean ok = false;
         ProcessBuilder builder = new ProcessBuilder();
         List<String> command = new ArrayList<>(java);
@@ -132,7 +149,9 @@ class ForkClient {
 
 
     public ForkClient(ClassLoader loader, Object object, List<String> java,
-                      TimeoutLimits timeoutLimits) throws IOException, TikaException {
+                      TimeoutLimits timeoutLimits, ClassBundleCache classBundleCache)
+            throws IOException, TikaException {
+        this.classBundleCache = classBundleCache;
         boolean ok = false;
         try {
             this.loader = loader;
@@ -257,13 +276,51 @@ class ForkClient {
         for (Object arg : args) {
             sendObject(arg, r);
         }
-        return waitForResponse(r);
+        Throwable t = waitForResponse(r);
+        if (warmUpMillis < 0) {
+            finishWarmUp();
+        }
+        return t;
+    }
+
+    private void finishWarmUp() {
+        warmUpMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (classLoaderResource == null) {
+            return;
+        }
+        warmUpClassLoaderRequests = classLoaderResource.getRequests();
+        if (classBundleCache != null) {
+            try {
+                classBundleCache.update(classLoaderResource.getLoader(),
+                        classLoaderResource.getServed());
+            } catch (IOException e) {
+                //the bundle is only an optimization, the next server will
+                //fetch the missing resources on demand
+            }
+        }
     }
 
     public int getFilesProcessed() {
         return filesProcessed;
     }
 
+    /**
+     * @return milliseconds from the start of the forked process until the
+     * end of its first call, or -1 if it has not finished a call yet
+     */
+    public long getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    /**
+     * @return number of class loader requests that the forked process sent
+     * back to this process until the end of its first call, or -1 if it has not
+     * finished a call yet or if no class loader was sent
+     */
+    public int getWarmUpClassLoaderRequests() {
+        return warmUpClassLoaderRequests;
+    }
+
     /**
      * Serializes the object first into an in-memory buffer and then
      * writes it to the output stream with a preceding size integer.
@@ -288,8 +345,16 @@ class ForkClient {
             resources.add(new ContentHandlerResource((ContentHandler) object));
             object = new ContentHandlerProxy(n);
         } else if (object instanceof ClassLoader) {
-            resources.add(new ClassLoaderResource((ClassLoader) object));
-            object = new ClassLoaderProxy(n);
+            ClassLoaderResource resource = new ClassLoaderResource((ClassLoader) object);
+            resources.add(resource);
+            String bundle = null;
+            if (classLoaderResource == null) {
+                classLoaderResource = resource;
+                if (classBundleCache != null) {
+                    bundle = classBundleCache.getBundle((ClassLoader) object);
+                }
+            }
+            object = new ClassLoaderProxy(n, bundle);
         }
 
         try {
@@ -28,6 +28,8 @@ import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
@@ -49,6 +51,8 @@ public class ForkParser implements Parser, Closeable {
      */
     private static final long serialVersionUID = -4962742892274663950L;
 
+    private static final Logger LOG = LoggerFactory.getLogger(ForkParser.class);
+
     //these are used by the legacy usage
     private final ClassLoader loader;
     private final Parser parser;
@@ -80,6 +84,14 @@ public class ForkParser implements Parser, Closeable {
     @Field
     private int maxFilesProcessedPerClient = -1;
 
+    private Path classBundleDirectory = null;
+
+    private ClassBundleCache classBundleCache = null;
+
+    private volatile long lastWarmUpMillis = -1;
+
+    private volatile int lastWarmUpClassLoaderRequests = -1;
+
     /**
      * If you have a directory with, say, tike-app.jar and you want the
      * forked process/server to build a parser
@@ -250,6 +262,13 @@ public class ForkParser implements Parser, Closeable {
 
             t = client.call("parse", stream, tee, metadata, context);
             alive = true;
+            if (client.getFilesProcessed() == 1) {
+                lastWarmUpMillis = client.getWarmUpMillis();
+                lastWarmUpClassLoaderRequests = client.getWarmUpClassLoaderRequests();
+                LOG.debug("forked server {} warmed up in {} ms with {} class loader requests",
+                        client.getId(), client.getWarmUpMillis(),
+                        client.getWarmUpClassLoaderRequests());
+            }
         } catch (TikaException te) {
             // Problem occurred on our side
             alive = true;
@@ -318,16 +337,27 @@ public class ForkParser implements Parser, Closeable {
             return new ForkClient(tikaBin, parserFactoryFactory, java, timeoutLimits);
         } else if (loader != null && parser != null && tikaBin == null &&
                 parserFactoryFactory == null) {
-            return new ForkClient(loader, parser, java, timeoutLimits);
+            return new ForkClient(loader, parser, java, timeoutLimits, getClassBundleCache());
         } else if (loader != null && parser == null && tikaBin != null &&
                 parserFactoryFactory != null) {
-            return new ForkClient(tikaBin, parserFactoryFactory, loader, java, timeoutLimits);
+            return new ForkClient(tikaBin, parserFactoryFactory, loader, java, timeoutLimits,
+                    getClassBundleCache());
         } else {
             //TODO: make this more useful
             throw new IllegalStateException("Unexpected combination of state items");
         }
     }
 
+    private ClassBundleCache getClassBundleCache() {
+        if (classBundleDirectory == null) {
+            return null;
+        }
+        if (classBundleCache == null) {
+            classBundleCache = new ClassBundleCache(classBundleDirectory);
+        }
+        return classBundleCache;
+    }
+
     private synchronized void releaseClient(ForkClient client, boolean alive) {
         currentlyInUse--;
         if (currentlyInUse + pool.size() < poolSize && alive) {
@@ -391,4 +421,49 @@ public class ForkParser implements Parser, Closeable {
         this.maxFilesProcessedPerClient = maxFilesProcessedPerClient;
     }
 
+    /**
+     * By default, a forked server loads every class and resource that it
+     * does not have on its own classpath from this process, one request at
+     * a time, which makes the first parse of every new server slow.
+     * <p>
+     * If this is set, the resources that a server needed for its first parse
+     * are written to a jar in this directory, keyed by a hash of the classpath,
+     * and later servers read them from there, asking this process only for
+     * the resources that are missing from the jar. The directory can be shared
+     * by several ForkParsers and survives restarts. Default is <code>null</code>.
+     * <p>
+     * This only applies to the class loader that is sent to the forked server,
+     * so it has no effect if the ForkParser was created with only a tika bin
+     * directory and a {@link ParserFactoryFactory}.
+     *
+     * @param classBundleDirectory directory for the cached jars, or <code>null</code>
+     *                             to load everything on demand
+     */
+    public synchronized void setClassBundleDirectory(Path classBundleDirectory) {
+        this.classBundleDirectory = classBundleDirectory;
+        this.classBundleCache = null;
+    }
+
+    public synchronized Path getClassBundleDirectory() {
+        return classBundleDirectory;
+    }
+
+    /**
+     * @return time in milliseconds from the start of a forked server until the
+     * end of its first parse, for the server that most recently finished its
+     * first parse, or -1 if no server has finished a parse yet
+     */
+    public long getLastWarmUpMillis() {
+        return lastWarmUpMillis;
+    }
+
+    /**
+     * @return number of class loader requests that the server of
+     * {@link #getLastWarmUpMillis()} sent back to this process during its
+     * warm-up, or -1 if unknown
+     */
+    public int getLastWarmUpClassLoaderRequests() {
+        return lastWarmUpClassLoaderRequests;
+    }
+
 }
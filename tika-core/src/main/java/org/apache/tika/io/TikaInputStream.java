@@ -35,9 +35,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Blob;
 import java.sql.SQLException;
+import java.util.Arrays;
 
 import org.apache.commons.io.input.TaggedInputStream;
 import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
@@ -652,6 +654,53 @@ public class TikaInputStream extends TaggedInputStream {
         return n;
     }
 
+    /**
+     * Reads the remainder of this stream into memory without advancing the
+     * current stream position, as long as it is no longer than <code>maxBytes</code>.
+     * Unlike {@link #getPath(int)}, this never writes to disk, which makes it a
+     * cheap way to get random access to short streams that aren't backed by a file.
+     *
+     * @param maxBytes maximum number of bytes to read into memory
+     * @return the remaining bytes of the stream, or <code>null</code> if
+     * the stream is longer than <code>maxBytes</code>
+     * @throws IOException if the stream can not be read
+     */
+    public byte[] peekFully(int maxBytes) throws IOException {
+        if (maxBytes < 0) {
+            return null;
+        }
+        if (length != -1) {
+            if (length - position > maxBytes) {
+                return null;
+            }
+            byte[] buffer = new byte[(int) (length - position)];
+            int n = peek(buffer);
+            return n == buffer.length ? buffer : Arrays.copyOf(buffer, n);
+        }
+        //read one byte past the limit to find out whether the stream is longer
+        int limit = maxBytes < Integer.MAX_VALUE ? maxBytes + 1 : maxBytes;
+        mark(limit);
+        try {
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            byte[] buffer = new byte[8192];
+            int total = 0;
+            int n = 0;
+            while (total < limit && n != -1) {
+                n = read(buffer, 0, Math.min(buffer.length, limit - total));
+                if (n > 0) {
+                    bos.write(buffer, 0, n);
+                    total += n;
+                }
+            }
+            if (total > maxBytes) {
+                return null;
+            }
+            return bos.toByteArray();
+        } finally {
+            reset();
+        }
+    }
+
     /**
      * Returns the open container object if any, such as a
      * POIFS FileSystem in the event of an OLE2 document
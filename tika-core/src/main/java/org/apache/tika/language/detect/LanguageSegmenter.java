@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.language.detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into spans of a single language in one pass, for documents that
+ * mix languages, where a single result from {@link LanguageDetector#detect()}
+ * would only describe the first few thousand chars.
+ * <p>
+ * The text is cut into cells of <code>stepSize</code> chars. Each window of
+ * <code>windowSize</code> chars, starting at every cell, is run through the
+ * detector. Every cell gets the result with the highest raw score among the
+ * windows that cover it, and adjacent cells with the same language are merged
+ * into a {@link LanguageSpan}. Cells without a result are added to the
+ * preceding span (or the following one, at the start of the text).
+ * <p>
+ * Only one window is buffered, and the buffered chars are shared by all
+ * windows that overlap them, so each char is copied once and the cost is
+ * about <code>windowSize / stepSize</code> detector calls per cell.
+ * <p>
+ * This is not thread safe, and neither is the detector.
+ */
+public class LanguageSegmenter {
+
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+    public static final int DEFAULT_STEP_SIZE = 500;
+
+    private final LanguageDetector detector;
+
+    private final int windowSize;
+
+    private final int stepSize;
+
+    //number of cells in a window
+    private final int cellsPerWindow;
+
+    //the chars of the next window, starting at cell firstCell
+    private final char[] window;
+
+    private int length = 0;
+
+    //index of the first cell in the window
+    private long firstCell = 0;
+
+    //best result for each cell of the window, by position in the window
+    private final LanguageResult[] best;
+
+    private boolean scoredAny = false;
+
+    private final List<LanguageSpan> spans = new ArrayList<>();
+
+    //the span that is being built
+    private long spanStart = 0;
+    private long spanEnd = 0;
+    private LanguageResult spanLanguage = null;
+    private LanguageConfidence spanConfidence = null;
+    private double spanWeightedScore = 0;
+    private long spanScoredChars = 0;
+
+    public LanguageSegmenter(LanguageDetector detector) {
+        this(detector, DEFAULT_WINDOW_SIZE, DEFAULT_STEP_SIZE);
+    }
+
+    /**
+     * @param detector   detector with its models loaded
+     * @param windowSize number of chars passed to the detector at a time
+     * @param stepSize   distance between windows, must divide the window size
+     */
+    public LanguageSegmenter(LanguageDetector detector, int windowSize, int stepSize) {
+        if (stepSize <= 0 || windowSize < stepSize || windowSize % stepSize != 0) {
+            throw new IllegalArgumentException("window size (" + windowSize +
+                    ") must be a positive multiple of the step size (" + stepSize + ")");
+        }
+        this.detector = detector;
+        this.windowSize = windowSize;
+        this.stepSize = stepSize;
+        this.cellsPerWindow = windowSize / stepSize;
+        this.window = new char[windowSize];
+        this.best = new LanguageResult[cellsPerWindow];
+    }
+
+    public void addText(char[] cbuf, int off, int len) {
+        int end = off + len;
+        while (off < end) {
+            int n = Math.min(end - off, windowSize - length);
+            System.arraycopy(cbuf, off, window, length, n);
+            length += n;
+            off += n;
+            if (length == windowSize) {
+                score(length);
+                finishCell(stepSize);
+            }
+        }
+    }
+
+    public void addText(CharSequence text) {
+        char[] chars = text.toString().toCharArray();
+        addText(chars, 0, chars.length);
+    }
+
+    /**
+     * Detects the language of the text that is still buffered and returns
+     * all spans. The segmenter has to be {@link #reset()} before it is used again.
+     *
+     * @return the language spans, in order
+     */
+    public List<LanguageSpan> finish() {
+        //the first cell is covered by earlier windows, unless there were none
+        if (length > 0 && (length >= stepSize || !scoredAny)) {
+            score(length);
+        }
+        while (length > 0) {
+            finishCell(Math.min(stepSize, length));
+        }
+        if (spanLanguage != null) {
+            closeSpan();
+        }
+        return spans;
+    }
+
+    public void reset() {
+        length = 0;
+        firstCell = 0;
+        scoredAny = false;
+        spans.clear();
+        spanStart = 0;
+        spanEnd = 0;
+        spanLanguage = null;
+        for (int i = 0; i < best.length; i++) {
+            best[i] = null;
+        }
+    }
+
+    private void score(int len) {
+        scoredAny = true;
+        detector.reset();
+        detector.addText(window, 0, len);
+        List<LanguageResult> results = detector.detectAll();
+        if (results.isEmpty() || results.get(0).isUnknown()) {
+            return;
+        }
+        LanguageResult result = results.get(0);
+        int cells = (len + stepSize - 1) / stepSize;
+        for (int i = 0; i < cells; i++) {
+            if (best[i] == null || result.getRawScore() > best[i].getRawScore()) {
+                best[i] = result;
+            }
+        }
+    }
+
+    /**
+     * Adds the first cell of the window, which no later window covers, to
+     * the spans, and drops it from the window.
+     */
+    private void finishCell(int cellLength) {
+        long start = firstCell * stepSize;
+        addCell(start, start + cellLength, best[0]);
+        System.arraycopy(window, cellLength, window, 0, length - cellLength);
+        length -= cellLength;
+        System.arraycopy(best, 1, best, 0, best.length - 1);
+        best[best.length - 1] = null;
+        firstCell++;
+    }
+
+    private void addCell(long start, long end, LanguageResult result) {
+        if (result == null) {
+            //a cell without language joins the current span
+            spanEnd = end;
+            return;
+        }
+        if (spanLanguage != null && !spanLanguage.getLanguage().equals(result.getLanguage())) {
+            closeSpan();
+            spanStart = start;
+        }
+        if (spanLanguage == null) {
+            spanLanguage = result;
+            spanConfidence = result.getConfidence();
+            spanWeightedScore = 0;
+            spanScoredChars = 0;
+        } else if (result.getConfidence().compareTo(spanConfidence) > 0) {
+            //the enum goes from HIGH to NONE
+            spanConfidence = result.getConfidence();
+        }
+        spanWeightedScore += (double) result.getRawScore() * (end - start);
+        spanScoredChars += end - start;
+        spanEnd = end;
+    }
+
+    private void closeSpan() {
+        spans.add(new LanguageSpan(spanStart, spanEnd, spanLanguage.getLanguage(), spanConfidence,
+                (float) (spanWeightedScore / spanScoredChars)));
+        spanLanguage = null;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.language.detect;
+
+import java.util.Locale;
+
+/**
+ * A run of text that was detected as a single language by a
+ * {@link LanguageSegmenter}. Offsets are in chars from the start of the text.
+ */
+public class LanguageSpan {
+
+    private final long start;
+
+    private final long end;
+
+    private final String language;
+
+    private final LanguageConfidence confidence;
+
+    private final float rawScore;
+
+    public LanguageSpan(long start, long end, String language, LanguageConfidence confidence,
+                        float rawScore) {
+        this.start = start;
+        this.end = end;
+        this.language = language;
+        this.confidence = confidence;
+        this.rawScore = rawScore;
+    }
+
+    /**
+     * @return offset of the first char of the span
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return offset after the last char of the span
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * @return the lowest confidence of the windows in this span
+     */
+    public LanguageConfidence getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @return the mean raw score of the windows in this span, weighted by length
+     */
+    public float getRawScore() {
+        return rawScore;
+    }
+
+    /**
+     * @return <code>start-end:language:confidence</code>
+     */
+    @Override
+    public String toString() {
+        return start + "-" + end + ":" + language + ":" +
+                confidence.name().toLowerCase(Locale.ROOT);
+    }
+}
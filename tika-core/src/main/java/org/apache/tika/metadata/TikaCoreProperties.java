@@ -175,6 +175,14 @@ public interface TikaCoreProperties {
     Property TIKA_DETECTED_LANGUAGE_CONFIDENCE_RAW = Property.externalRealSeq(TIKA_META_PREFIX +
             "detected_language_confidence_raw");
 
+    /**
+     * Spans of the text that are in a single language, in order, as
+     * <code>start-end:language:confidence</code> with offsets in chars.
+     * See {@link org.apache.tika.language.detect.LanguageSegmenter}.
+     */
+    Property TIKA_DETECTED_LANGUAGE_SPANS = Property.externalTextBag(TIKA_META_PREFIX +
+            "detected_language_spans");
+
     Property RESOURCE_NAME_KEY = Property.internalText(TIKA_META_PREFIX + "resourceName");
     Property EMBEDDED_RELATIONSHIP_ID = Property.internalText(TIKA_META_PREFIX + "embeddedRelationshipId");
 
@@ -28,13 +28,13 @@ class Magic implements Clause, Comparable<Magic> {
 
     private final Clause clause;
 
-    private final String string;
+    //built on first use, most magics are never printed or compared this far
+    private String string;
 
     Magic(MimeType type, int priority, Clause clause) {
         this.type = type;
         this.priority = priority;
         this.clause = clause;
-        this.string = "[" + priority + "/" + clause + "]";
     }
 
     MimeType getType() {
@@ -54,6 +54,9 @@ class Magic implements Clause, Comparable<Magic> {
     }
 
     public String toString() {
+        if (string == null) {
+            string = "[" + priority + "/" + clause + "]";
+        }
         return string;
     }
 
@@ -66,7 +69,7 @@ class Magic implements Clause, Comparable<Magic> {
             diff = o.type.compareTo(type);
         }
         if (diff == 0) {
-            diff = o.string.compareTo(string);
+            diff = o.toString().compareTo(toString());
         }
         return diff;
     }
@@ -74,13 +77,13 @@ class Magic implements Clause, Comparable<Magic> {
     public boolean equals(Object o) {
         if (o instanceof Magic) {
             Magic that = (Magic) o;
-            return type.equals(that.type) && string.equals(that.string);
+            return type.equals(that.type) && toString().equals(that.toString());
         }
         return false;
     }
 
     public int hashCode() {
-        return type.hashCode() ^ string.hashCode();
+        return type.hashCode() ^ toString().hashCode();
     }
 
 }
@@ -183,7 +183,11 @@ public final class MimeTypes implements Detector, Serializable {
         if (type != null) {
             return type;
         }
-        type = patterns.matches(name.toLowerCase(Locale.ENGLISH));
+        String lowerCase = name.toLowerCase(Locale.ENGLISH);
+        //no need to match the same name twice
+        if (!lowerCase.equals(name)) {
+            type = patterns.matches(lowerCase);
+        }
         if (type != null) {
             return type;
         } else {
@@ -201,6 +201,49 @@ public class MimeTypesFactory {
             }
         }
 
-        return create(urls.toArray(new URL[0]));
+        MimeTypes mimeTypes = createFromImage(classLoader, classPrefix + coreFilePath, coreURL);
+        if (mimeTypes == null) {
+            return create(urls.toArray(new URL[0]));
+        }
+        // The core types came from the image, custom types are read on top of them
+        MimeTypesReader reader = new MimeTypesReader(mimeTypes);
+        for (URL url : urls.subList(1, urls.size())) {
+            try (InputStream stream = url.openStream()) {
+                reader.read(stream);
+            }
+        }
+        mimeTypes.init();
+        return mimeTypes;
+    }
+
+    /**
+     * Loads the core types from the precompiled {@link MimeTypesImage} next to
+     * the core XML file, if there is one and it was built from that file.
+     *
+     * @return the types, not yet initialized, or <code>null</code> if the XML
+     * needs to be read instead
+     */
+    private static MimeTypes createFromImage(ClassLoader classLoader, String corePath,
+                                             URL coreURL) throws IOException {
+        if (coreURL == null) {
+            return null;
+        }
+        URL imageURL = classLoader.getResource(MimeTypesImage.getImagePath(corePath));
+        if (imageURL == null) {
+            return null;
+        }
+        MimeTypes mimeTypes = new MimeTypes();
+        try (InputStream stream = imageURL.openStream()) {
+            if (MimeTypesImage.read(stream, MimeTypesImage.checksum(coreURL),
+                    new MimeTypesReader(mimeTypes))) {
+                LOG.debug("Loaded core mimes from image: {}", imageURL);
+                return mimeTypes;
+            }
+            LOG.debug("Mimes image {} was not built from {}, reading the xml", imageURL,
+                    coreURL);
+        } catch (IOException | MimeTypeException e) {
+            LOG.warn("Unable to load mimes image {}, reading the xml", imageURL, e);
+        }
+        return null;
     }
 }
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Precompiled form of a media type definition file, e.g. tika-mimetypes.xml.
+ * <p>
+ * The image is written at build time by {@link #main(String[])}. It holds the
+ * elements, attributes and text of the XML file in a compact binary form with
+ * a shared string table, together with the CRC32 checksum of the XML it was
+ * built from. Loading an image replays those events into a
+ * {@link MimeTypesReader}, so the result is exactly what reading the XML would
+ * give, without the cost of setting up and running an XML parser in every JVM.
+ * <p>
+ * An image is only used if its checksum matches the XML file that is on the
+ * class path; otherwise {@link MimeTypesFactory} falls back to the XML.
+ */
+public class MimeTypesImage {
+
+    private static final int MAGIC = 0x544d4931; //TMI1
+
+    private static final int VERSION = 1;
+
+    private static final int END = 0;
+    private static final int START_ELEMENT = 1;
+    private static final int END_ELEMENT = 2;
+    private static final int CHARACTERS = 3;
+
+    /**
+     * @param xmlPath path of the definition file, e.g. tika-mimetypes.xml
+     * @return the path of its image, e.g. tika-mimetypes.bin
+     */
+    public static String getImagePath(String xmlPath) {
+        String base = xmlPath.endsWith(".xml") ?
+                xmlPath.substring(0, xmlPath.length() - 4) : xmlPath;
+        return base + ".bin";
+    }
+
+    /**
+     * Writes the image of the given definition file.
+     *
+     * @param xml definition file, not closed
+     * @param out image, not closed
+     */
+    public static void write(InputStream xml, OutputStream out)
+            throws IOException, MimeTypeException {
+        byte[] bytes = IOUtils.toByteArray(xml);
+        Recorder recorder = new Recorder();
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(false);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.newSAXParser()
+                    .parse(new UnsynchronizedByteArrayInputStream(bytes), recorder);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new MimeTypeException("Invalid type configuration", e);
+        }
+        recorder.flushCharacters();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(checksum(bytes));
+        writeVInt(data, recorder.strings.size());
+        for (String s : recorder.strings) {
+            data.writeUTF(s);
+        }
+        for (int[] event : recorder.events) {
+            data.writeByte(event[0]);
+            for (int i = 1; i < event.length; i++) {
+                writeVInt(data, event[i]);
+            }
+        }
+        data.writeByte(END);
+        data.flush();
+    }
+
+    /**
+     * Replays an image into the given reader.
+     *
+     * @param image    image stream, not closed
+     * @param checksum checksum of the definition file that should be loaded,
+     *                 see {@link #checksum(InputStream)}
+     * @param reader   reader to replay the definitions into
+     * @return <code>false</code> if the image was built from a different file
+     * or with an incompatible version, in which case nothing was replayed
+     * @throws IOException       if the image is truncated
+     * @throws MimeTypeException if the definitions are invalid
+     */
+    static boolean read(InputStream image, long checksum, MimeTypesReader reader)
+            throws IOException, MimeTypeException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(image));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION ||
+                data.readLong() != checksum) {
+            return false;
+        }
+        String[] strings = new String[readVInt(data)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = data.readUTF();
+        }
+        AttributesImpl attributes = new AttributesImpl();
+        try {
+            while (true) {
+                int op = data.readByte();
+                switch (op) {
+                    case START_ELEMENT:
+                        String qName = strings[readVInt(data)];
+                        attributes.clear();
+                        int numAttributes = readVInt(data);
+                        for (int i = 0; i < numAttributes; i++) {
+                            String name = strings[readVInt(data)];
+                            attributes.addAttribute("", "", name, "CDATA",
+                                    strings[readVInt(data)]);
+                        }
+                        reader.startElement("", "", qName, attributes);
+                        break;
+                    case END_ELEMENT:
+                        reader.endElement("", "", strings[readVInt(data)]);
+                        break;
+                    case CHARACTERS:
+                        char[] chars = strings[readVInt(data)].toCharArray();
+                        reader.characters(chars, 0, chars.length);
+                        break;
+                    case END:
+                        return true;
+                    default:
+                        throw new IOException("Corrupt media type image, unknown event: " + op);
+                }
+            }
+        } catch (SAXException e) {
+            throw new MimeTypeException("Invalid type configuration", e);
+        }
+    }
+
+    /**
+     * @return the CRC32 checksum of the stream's content; the stream is not closed
+     */
+    public static long checksum(InputStream stream) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = stream.read(buffer)) != -1) {
+            crc.update(buffer, 0, n);
+        }
+        return crc.getValue();
+    }
+
+    static long checksum(URL url) throws IOException {
+        try (InputStream stream = url.openStream()) {
+            return checksum(stream);
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private static void writeVInt(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7f) != 0) {
+            out.writeByte((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte();
+            v |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new EOFException("Corrupt media type image, bad integer");
+    }
+
+    /**
+     * Writes the image of the built-in tika-mimetypes.xml. This runs during
+     * the build of tika-core, after the resources have been copied.
+     *
+     * @param args the class output directory, e.g. target/classes
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: MimeTypesImage <classes directory>");
+            System.exit(1);
+        }
+        String packagePath = MimeTypesImage.class.getPackage().getName().replace('.', '/');
+        Path dir = Paths.get(args[0], packagePath);
+        Path xml = dir.resolve("tika-mimetypes.xml");
+        Path image = dir.resolve(getImagePath("tika-mimetypes.xml"));
+        try (InputStream in = Files.newInputStream(xml);
+                OutputStream out = new BufferedOutputStream(Files.newOutputStream(image))) {
+            write(in, out);
+        }
+        System.out.println("Wrote " + image + " (" + Files.size(image) + " bytes) from " +
+                xml + " (" + Files.size(xml) + " bytes)");
+    }
+
+    /**
+     * Records the SAX events that {@link MimeTypesReader} reacts to. Adjacent
+     * character events are merged, and whitespace between elements is dropped;
+     * the reader trims all text it keeps.
+     */
+    private static class Recorder extends DefaultHandler {
+
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final List<int[]> events = new ArrayList<>();
+        private final StringBuilder characters = new StringBuilder();
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+            return new InputSource(new UnsynchronizedByteArrayInputStream(new byte[0]));
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                                 Attributes attributes) {
+            flushCharacters();
+            int[] event = new int[3 + 2 * attributes.getLength()];
+            event[0] = START_ELEMENT;
+            event[1] = id(qName);
+            event[2] = attributes.getLength();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                event[3 + 2 * i] = id(attributes.getQName(i));
+                event[4 + 2 * i] = id(attributes.getValue(i));
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flushCharacters();
+            events.add(new int[]{END_ELEMENT, id(qName)});
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            characters.append(ch, start, length);
+        }
+
+        void flushCharacters() {
+            if (characters.toString().trim().length() > 0) {
+                events.add(new int[]{CHARACTERS, id(characters.toString())});
+            }
+            characters.setLength(0);
+        }
+
+        private int id(String s) {
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(s, id);
+                strings.add(s);
+            }
+            return id;
+        }
+    }
+}
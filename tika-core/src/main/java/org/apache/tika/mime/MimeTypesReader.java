@@ -117,14 +117,10 @@ public class MimeTypesReader extends DefaultHandler implements MimeTypesReaderMe
      */
     private static int POOL_SIZE = 10;
     private static ArrayBlockingQueue<SAXParser> SAX_PARSERS = new ArrayBlockingQueue<>(POOL_SIZE);
+    //the pool is filled on first use, so that loading a precompiled
+    //MimeTypesImage does not pay for setting up XML parsers
+    private static volatile boolean POOL_INITIALIZED = false;
     static Logger LOG = LoggerFactory.getLogger(MimeTypesReader.class);
-    static {
-        try {
-            setPoolSize(POOL_SIZE);
-        } catch (TikaException e) {
-            throw new RuntimeException("problem initializing SAXParser pool", e);
-        }
-    }
 
     protected final MimeTypes types;
 
@@ -151,6 +147,13 @@ public class MimeTypesReader extends DefaultHandler implements MimeTypesReaderMe
      * @throws TikaException
      */
     private static SAXParser acquireSAXParser() throws TikaException {
+        if (!POOL_INITIALIZED) {
+            synchronized (MimeTypesReader.class) {
+                if (!POOL_INITIALIZED) {
+                    setPoolSize(POOL_SIZE);
+                }
+            }
+        }
         while (true) {
             SAXParser parser = null;
             try {
@@ -205,6 +208,7 @@ public class MimeTypesReader extends DefaultHandler implements MimeTypesReaderMe
                 SAX_PARSERS.offer(newSAXParser());
             }
             POOL_SIZE = poolSize;
+            POOL_INITIALIZED = true;
         } finally {
             READ_WRITE_LOCK.writeLock().unlock();
         }
@@ -17,11 +17,13 @@
 package org.apache.tika.mime;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 /**
  * Defines a MimeType pattern.
@@ -44,13 +46,22 @@ class Patterns implements Serializable {
      * Index of extension patterns of the form "*extension".
      */
     private final Map<String, MimeType> extensions = new HashMap<>();
+
+    /**
+     * The extension patterns, reversed, for longest suffix lookups.
+     */
+    private final SuffixTrie extensionTrie = new SuffixTrie();
+
     /**
      * Index of generic glob patterns, sorted by length.
      */
     private final SortedMap<String, MimeType> globs =
             new TreeMap<>(new LengthComparator());
-    private int minExtensionLength = Integer.MAX_VALUE;
-    private int maxExtensionLength = 0;
+
+    /**
+     * The compiled glob patterns, built on first use after a glob is added.
+     */
+    private transient volatile GlobMatcher globMatcher;
 
     public Patterns(MediaTypeRegistry registry) {
         this.registry = registry;
@@ -101,9 +112,7 @@ class Patterns implements Serializable {
         MimeType previous = extensions.get(extension);
         if (previous == null || registry.isSpecializationOf(previous.getType(), type.getType())) {
             extensions.put(extension, type);
-            int length = extension.length();
-            minExtensionLength = Math.min(minExtensionLength, length);
-            maxExtensionLength = Math.max(maxExtensionLength, length);
+            extensionTrie.put(extension, type);
         } else if (previous == type ||
                 registry.isSpecializationOf(type.getType(), previous.getType())) {
             // do nothing
@@ -116,6 +125,7 @@ class Patterns implements Serializable {
         MimeType previous = globs.get(glob);
         if (previous == null || registry.isSpecializationOf(previous.getType(), type.getType())) {
             globs.put(glob, type);
+            globMatcher = null;
         } else if (previous == type ||
                 registry.isSpecializationOf(type.getType(), previous.getType())) {
             // do nothing
@@ -144,27 +154,27 @@ class Patterns implements Serializable {
         }
 
         // First, try exact match of the provided resource name
-        if (names.containsKey(name)) {
-            return names.get(name);
+        MimeType type = names.get(name);
+        if (type != null) {
+            return type;
         }
 
-        // Then try "extension" (*.xxx) matching
-        int maxLength = Math.min(maxExtensionLength, name.length());
-        for (int n = maxLength; n >= minExtensionLength; n--) {
-            String extension = name.substring(name.length() - n);
-            if (extensions.containsKey(extension)) {
-                return extensions.get(extension);
-            }
+        // Then try "extension" (*.xxx) matching, longest extension first
+        type = extensionTrie.longestSuffix(name);
+        if (type != null) {
+            return type;
         }
 
         // And finally, try complex regexp matching
-        for (Map.Entry<String, MimeType> entry : globs.entrySet()) {
-            if (name.matches(entry.getKey())) {
-                return entry.getValue();
-            }
+        if (globs.isEmpty()) {
+            return null;
         }
-
-        return null;
+        GlobMatcher matcher = globMatcher;
+        if (matcher == null) {
+            matcher = new GlobMatcher(globs);
+            globMatcher = matcher;
+        }
+        return matcher.matches(name);
     }
 
     private String compile(String glob) {
@@ -187,6 +197,132 @@ class Patterns implements Serializable {
         return pattern.toString();
     }
 
+    /**
+     * Trie over the reversed extensions, so that the longest extension of a
+     * name is found in a single backwards walk over the name, without
+     * creating any substrings.
+     */
+    private static final class SuffixTrie implements Serializable {
+
+        private static final long serialVersionUID = 2896253716584562357L;
+
+        private final Node root = new Node();
+
+        void put(String suffix, MimeType type) {
+            Node node = root;
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                node = node.getOrAddChild(suffix.charAt(i));
+            }
+            node.type = type;
+        }
+
+        MimeType longestSuffix(String name) {
+            Node node = root;
+            MimeType match = root.type;
+            for (int i = name.length() - 1; i >= 0; i--) {
+                node = node.getChild(name.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (node.type != null) {
+                    match = node.type;
+                }
+            }
+            return match;
+        }
+    }
+
+    private static final class Node implements Serializable {
+
+        private static final long serialVersionUID = -3178541093712086521L;
+
+        private static final char[] NO_CHARS = new char[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        //sorted, for binary search
+        private char[] chars = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private MimeType type;
+
+        Node getChild(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i < 0 ? null : children[i];
+        }
+
+        Node getOrAddChild(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -i - 1;
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(chars, i, newChars, i + 1, chars.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            Node child = new Node();
+            newChars[i] = c;
+            newChildren[i] = child;
+            chars = newChars;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    /**
+     * The glob patterns, compiled once, in the order of {@link #globs}.
+     */
+    private static final class GlobMatcher {
+
+        //a backreference can't be moved into a combined pattern
+        private static final Pattern BACKREFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+
+        private final Pattern[] patterns;
+        private final MimeType[] types;
+
+        /**
+         * All of the globs as one alternation, so that a name that matches
+         * none of them is rejected in a single pass. This is <code>null</code>
+         * if any glob can't be combined.
+         */
+        private final Pattern combined;
+
+        GlobMatcher(SortedMap<String, MimeType> globs) {
+            patterns = new Pattern[globs.size()];
+            types = new MimeType[globs.size()];
+            StringBuilder sb = new StringBuilder();
+            boolean combinable = true;
+            int i = 0;
+            for (Map.Entry<String, MimeType> entry : globs.entrySet()) {
+                String glob = entry.getKey();
+                patterns[i] = Pattern.compile(glob);
+                types[i] = entry.getValue();
+                if (BACKREFERENCE.matcher(glob).find()) {
+                    combinable = false;
+                }
+                if (i > 0) {
+                    sb.append('|');
+                }
+                sb.append("(?:").append(glob).append(')');
+                i++;
+            }
+            combined = combinable ? Pattern.compile(sb.toString()) : null;
+        }
+
+        MimeType matches(String name) {
+            if (combined != null && !combined.matcher(name).matches()) {
+                return null;
+            }
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i].matcher(name).matches()) {
+                    return types[i];
+                }
+            }
+            return null;
+        }
+    }
+
     private static final class LengthComparator implements Comparator<String>, Serializable {
 
         /**
@@ -85,6 +85,22 @@ public class ParseContext implements Serializable {
         }
     }
 
+    /**
+     * Returns a shallow copy of this context. The values are not copied, so
+     * any stateful value is shared with this context; callers that hand the
+     * copy to another thread should replace those values in the copy. See
+     * {@link org.apache.tika.extractor.EmbeddedDocumentUtil#newWorkerContext}
+     * for parsing embedded documents in parallel.
+     *
+     * @return a new context with the same entries as this one
+     * @since Apache Tika 4.0.0
+     */
+    public ParseContext copy() {
+        ParseContext copy = new ParseContext();
+        copy.context.putAll(context);
+        return copy;
+    }
+
     public boolean isEmpty() {
         return context.size() == 0;
     }
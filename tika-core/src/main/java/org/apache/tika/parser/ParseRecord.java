@@ -59,6 +59,45 @@ public class ParseRecord {
         depth--;
     }
 
+    /**
+     * Creates a record for part of a parse that runs on another thread, e.g.
+     * one embedded document of a container whose children are parsed in
+     * parallel. The new record starts at this record's current depth so that
+     * the child is not mistaken for the container. Once the child is done,
+     * call {@link #merge(ParseRecord)} on the thread that owns this record.
+     *
+     * @since Apache Tika 4.0.0
+     */
+    public ParseRecord newChildRecord() {
+        ParseRecord child = new ParseRecord();
+        child.depth = depth;
+        return child;
+    }
+
+    /**
+     * Adds the parsers, exceptions, warnings and metadata of a record that
+     * was created by {@link #newChildRecord()} to this record.
+     *
+     * @since Apache Tika 4.0.0
+     */
+    public void merge(ParseRecord child) {
+        for (String parser : child.parsers) {
+            addParserClass(parser);
+        }
+        for (Exception e : child.exceptions) {
+            addException(e);
+        }
+        for (String warning : child.warnings) {
+            addWarning(warning);
+        }
+        for (Metadata m : child.metadataList) {
+            addMetadata(m);
+        }
+        if (child.writeLimitReached) {
+            writeLimitReached = true;
+        }
+    }
+
     public int getDepth() {
         return depth;
     }
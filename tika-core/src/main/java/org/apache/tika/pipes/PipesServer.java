@@ -74,8 +74,10 @@ import org.apache.tika.pipes.emitter.StreamEmitter;
 import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.pipes.extractor.EmbeddedDocumentBytesConfig;
 import org.apache.tika.pipes.extractor.EmittingEmbeddedDocumentBytesHandler;
+import org.apache.tika.pipes.fetcher.FetchKey;
 import org.apache.tika.pipes.fetcher.Fetcher;
 import org.apache.tika.pipes.fetcher.FetcherManager;
+import org.apache.tika.pipes.fetcher.RangeFetcher;
 import org.apache.tika.sax.BasicContentHandlerFactory;
 import org.apache.tika.sax.ContentHandlerFactory;
 import org.apache.tika.sax.RecursiveParserWrapperHandler;
@@ -483,7 +485,7 @@ public class PipesServer implements Runnable {
     protected MetadataListAndEmbeddedBytes parseFromTuple(FetchEmitTuple t, Fetcher fetcher) {
 
         Metadata metadata = new Metadata();
-        try (InputStream stream = fetcher.fetch(t.getFetchKey().getFetchKey(), metadata, t.getParseContext())) {
+        try (InputStream stream = fetch(t, fetcher, metadata)) {
             return parseWithStream(t, stream, metadata);
         } catch (SecurityException e) {
             LOG.error("security exception " + t.getId(), e);
@@ -496,6 +498,20 @@ public class PipesServer implements Runnable {
         return null;
     }
 
+    private InputStream fetch(FetchEmitTuple t, Fetcher fetcher, Metadata metadata)
+            throws TikaException, IOException {
+        FetchKey fetchKey = t.getFetchKey();
+        if (!fetchKey.hasRange()) {
+            return fetcher.fetch(fetchKey.getFetchKey(), metadata, t.getParseContext());
+        }
+        if (!(fetcher instanceof RangeFetcher)) {
+            throw new TikaException("Can't fetch a range from a fetcher that is not a " +
+                    "RangeFetcher: " + fetchKey.getFetcherName());
+        }
+        return ((RangeFetcher) fetcher).fetch(fetchKey.getFetchKey(), fetchKey.getRangeStart(),
+                fetchKey.getRangeEnd(), metadata, t.getParseContext());
+    }
+
     private String getNoFetcherMsg(String fetcherName) {
         StringBuilder sb = new StringBuilder();
         sb.append("Fetcher '").append(fetcherName).append("'");
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emits the documents of a batch on up to <code>maxInFlight</code> threads, for
+ * emitters that write each document on its own, e.g. to object stores. While one
+ * document is being uploaded, the next ones are already being serialized and sent.
+ * <p>
+ * {@link #emitAll(List, EmitTask)} returns once every document has been emitted or has
+ * failed. If any failed, it throws a {@link TikaEmitterException} that lists the
+ * emit keys of all of the documents that failed, not just the first one.
+ * <p>
+ * With <code>maxInFlight</code> of 1, the documents are emitted one after the other on
+ * the calling thread, and the first failure stops the batch, as in
+ * {@link AbstractEmitter#emit(List)}.
+ */
+public class EmitBatchExecutor implements Closeable {
+
+    /**
+     * Emits a single document. This is called from several threads at once.
+     */
+    public interface EmitTask {
+        void emit(EmitData emitData) throws IOException, TikaEmitterException;
+    }
+
+    private final int maxInFlight;
+    private final ExecutorService executorService;
+
+    /**
+     * @param name        used to name the threads
+     * @param maxInFlight the maximum number of documents that are emitted at the same time
+     */
+    public EmitBatchExecutor(String name, int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        if (maxInFlight > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executorService = Executors.newFixedThreadPool(maxInFlight, r -> {
+                Thread thread = new Thread(r, name + "-emit-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            executorService = null;
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void emitAll(List<? extends EmitData> emitData, EmitTask task)
+            throws IOException, TikaEmitterException {
+        if (executorService == null || emitData.size() < 2) {
+            for (EmitData d : emitData) {
+                task.emit(d);
+            }
+            return;
+        }
+        List<Future<Void>> futures = new ArrayList<>(emitData.size());
+        for (EmitData d : emitData) {
+            futures.add(executorService.submit(() -> {
+                task.emit(d);
+                return null;
+            }));
+        }
+        List<String> failedKeys = new ArrayList<>();
+        Throwable firstFailure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                for (Future<Void> future : futures) {
+                    future.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new TikaEmitterException("interrupted while waiting for emits", e);
+            } catch (ExecutionException e) {
+                failedKeys.add(emitData.get(i).getEmitKey().getEmitKey());
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                }
+            }
+        }
+        if (firstFailure != null) {
+            throw new TikaEmitterException("failed to emit " + failedKeys.size() + " of " +
+                    emitData.size() + " documents: " + failedKeys, firstFailure);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+}
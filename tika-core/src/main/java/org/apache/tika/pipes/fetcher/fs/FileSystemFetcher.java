@@ -19,6 +19,8 @@ package org.apache.tika.pipes.fetcher.fs;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -36,6 +38,8 @@ import org.apache.tika.config.InitializableProblemHandler;
 import org.apache.tika.config.Param;
 import org.apache.tika.exception.TikaConfigException;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.BoundedInputStream;
+import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.FileSystem;
 import org.apache.tika.metadata.Metadata;
@@ -43,9 +47,10 @@ import org.apache.tika.metadata.Property;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.pipes.fetcher.AbstractFetcher;
+import org.apache.tika.pipes.fetcher.RangeFetcher;
 import org.apache.tika.pipes.fetcher.fs.config.FileSystemFetcherConfig;
 
-public class FileSystemFetcher extends AbstractFetcher implements Initializable {
+public class FileSystemFetcher extends AbstractFetcher implements RangeFetcher, Initializable {
     public FileSystemFetcher() {
     }
 
@@ -68,6 +73,38 @@ public class FileSystemFetcher extends AbstractFetcher implements Initializable
 
     @Override
     public InputStream fetch(String fetchKey, Metadata metadata, ParseContext parseContext) throws IOException, TikaException {
+        Path p = resolve(fetchKey, metadata);
+        return TikaInputStream.get(p, metadata);
+    }
+
+    /**
+     * Fetches the bytes from <code>startRange</code> to <code>endRange</code>,
+     * both inclusive, e.g. a single record of a large container file.
+     */
+    @Override
+    public InputStream fetch(String fetchKey, long startRange, long endRange, Metadata metadata,
+                             ParseContext parseContext) throws IOException, TikaException {
+        if (startRange < 0 || endRange < startRange) {
+            throw new IllegalArgumentException(
+                    "invalid range: " + startRange + " - " + endRange);
+        }
+        Path p = resolve(fetchKey, metadata);
+        SeekableByteChannel channel = Files.newByteChannel(p);
+        try {
+            channel.position(startRange);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        metadata.set(Metadata.CONTENT_LENGTH, Long.toString(endRange - startRange + 1));
+        //the channel is closed when the TikaInputStream is closed
+        TemporaryResources tmp = new TemporaryResources();
+        tmp.addResource(channel);
+        return TikaInputStream.get(new BoundedInputStream(endRange - startRange + 1,
+                Channels.newInputStream(channel)), tmp, metadata);
+    }
+
+    private Path resolve(String fetchKey, Metadata metadata) throws IOException {
         if (fetchKey.contains("\u0000")) {
             throw new IllegalArgumentException("Path must not contain 'u0000'. " +
                     "Please review the life decisions that led you to requesting " +
@@ -94,8 +131,7 @@ public class FileSystemFetcher extends AbstractFetcher implements Initializable
                 throw new FileNotFoundException(p.toAbsolutePath().toString());
             }
         }
-
-        return TikaInputStream.get(p, metadata);
+        return p;
     }
 
     private void updateFileSystemMetadata(Path p, Metadata metadata) throws IOException {
@@ -82,11 +82,25 @@ public abstract class PipesIterator extends ConfigBase
 
     public static PipesIterator build(Path tikaConfigFile) throws IOException,
             TikaConfigException {
+        PipesIterator pipesIterator;
         try (InputStream is = Files.newInputStream(tikaConfigFile)) {
-            return buildSingle(
+            pipesIterator = buildSingle(
                     "pipesIterator",
                     PipesIterator.class, is);
         }
+        pipesIterator.initialize(tikaConfigFile);
+        return pipesIterator;
+    }
+
+    /**
+     * Called by {@link #build(Path)} after the iterator has been configured,
+     * for iterators that need more from the config file than their own
+     * element, e.g. the fetchers. The default does nothing.
+     *
+     * @param tikaConfigFile the config file the iterator was built from
+     */
+    public void initialize(Path tikaConfigFile) throws IOException, TikaConfigException {
+        //no-op
     }
 
     public String getFetcherName() {
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Finds the byte ranges of the records in a container file without parsing
+ * the records.
+ */
+interface ContainerScanner {
+
+    /**
+     * Reports the records of the container to the handler, in order.
+     */
+    void scan(InputStream stream, RecordHandler handler)
+            throws IOException, InterruptedException, TimeoutException;
+
+    interface RecordHandler {
+        /**
+         * @param start offset of the first byte of the record
+         * @param end   offset of the last byte of the record (inclusive)
+         * @param name  name of the record, e.g. a tar entry's path or a WARC
+         *              record's target URI, or <code>null</code>
+         */
+        void handle(long start, long end, String name)
+                throws InterruptedException, TimeoutException;
+    }
+}
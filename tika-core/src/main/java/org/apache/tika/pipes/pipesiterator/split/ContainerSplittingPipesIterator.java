@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.tika.config.Field;
+import org.apache.tika.config.InitializableProblemHandler;
+import org.apache.tika.exception.TikaConfigException;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.Property;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.pipes.FetchEmitTuple;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.fetcher.FetchKey;
+import org.apache.tika.pipes.fetcher.Fetcher;
+import org.apache.tika.pipes.fetcher.FetcherManager;
+import org.apache.tika.pipes.pipesiterator.PipesIterator;
+import org.apache.tika.utils.StringUtils;
+
+/**
+ * Wraps another {@link PipesIterator} and replaces each large mbox, WARC
+ * (<code>.warc</code> or <code>.warc.gz</code>) or uncompressed tar file with
+ * one tuple per record, so that the records of a single huge file are spread
+ * over all of the pipes clients instead of being parsed serially by one.
+ * <p>
+ * Each container is read once to find the record boundaries, through the
+ * fetcher that its tuple names. Record tuples use the fetcher and emitter of the
+ * original tuple with a byte range in their {@link FetchKey}, so the
+ * original fetcher must be a {@link org.apache.tika.pipes.fetcher.RangeFetcher}.
+ * Record ids and emit keys are the container's with <code>#&lt;index&gt;</code>
+ * appended, and the records' metadata links them back to the container via
+ * {@link #CONTAINER_ID} and {@link #CONTAINER_FETCH_KEY}. The record's name,
+ * if there is one, is also set as its {@link TikaCoreProperties#RESOURCE_NAME_KEY}.
+ * <p>
+ * Containers smaller than {@link #setMinSplitSize(long)}, containers without
+ * records and containers that can't be read are passed through unchanged.
+ * <p>
+ * In a tika-config, the iterator that lists the containers is configured as
+ * the <code>delegate</code>. When this is built via
+ * {@link PipesIterator#build(java.nio.file.Path)}, the fetchers are loaded from
+ * the same config file.
+ *
+ * <pre class="prettyprint">
+ *  &lt;properties&gt;
+ *      &lt;fetchers&gt;
+ *          &lt;fetcher class="org.apache.tika.pipes.fetcher.fs.FileSystemFetcher"&gt;
+ *              &lt;name&gt;fsf&lt;/name&gt;
+ *              &lt;basePath&gt;/path/to/input&lt;/basePath&gt;
+ *          &lt;/fetcher&gt;
+ *      &lt;/fetchers&gt;
+ *      &lt;pipesIterator
+ *          class="org.apache.tika.pipes.pipesiterator.split.ContainerSplittingPipesIterator"&gt;
+ *          &lt;!-- optional; default is 67108864 --&gt;
+ *          &lt;minSplitSize&gt;268435456&lt;/minSplitSize&gt;
+ *          &lt;delegate class="org.apache.tika.pipes.pipesiterator.fs.FileSystemPipesIterator"&gt;
+ *              &lt;basePath&gt;/path/to/input&lt;/basePath&gt;
+ *              &lt;fetcherName&gt;fsf&lt;/fetcherName&gt;
+ *              &lt;emitterName&gt;fse&lt;/emitterName&gt;
+ *          &lt;/delegate&gt;
+ *      &lt;/pipesIterator&gt;
+ *  &lt;/properties&gt;</pre>
+ */
+public class ContainerSplittingPipesIterator extends PipesIterator {
+
+    public static final long DEFAULT_MIN_SPLIT_SIZE = 64 * 1024 * 1024;
+
+    private static final String PREFIX = TikaCoreProperties.TIKA_META_PREFIX + "split" +
+            TikaCoreProperties.NAMESPACE_PREFIX_DELIMITER;
+
+    /**
+     * Id of the tuple of the container that a record was split from
+     */
+    public static final Property CONTAINER_ID = Property.externalText(PREFIX + "containerId");
+
+    /**
+     * Fetch key of the container that a record was split from
+     */
+    public static final Property CONTAINER_FETCH_KEY =
+            Property.externalText(PREFIX + "containerFetchKey");
+
+    /**
+     * 0-based index of the record among the records that were split from the container
+     */
+    public static final Property RECORD_INDEX = Property.externalInteger(PREFIX + "recordIndex");
+
+    /**
+     * Tar entry path or WARC target URI, if available
+     */
+    public static final Property RECORD_NAME = Property.externalText(PREFIX + "recordName");
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerSplittingPipesIterator.class);
+
+    private PipesIterator delegate;
+    private Fetcher fetcher;
+    private FetcherManager fetcherManager;
+    private long minSplitSize = DEFAULT_MIN_SPLIT_SIZE;
+
+    /**
+     * The iterator that lists the containers. In a tika-config, this is the
+     * <code>delegate</code> element with the class of the iterator.
+     */
+    public void setDelegate(PipesIterator delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Fetcher used to scan all of the containers, no matter which fetcher their
+     * tuples name; this should read the same files as those fetchers. If this is
+     * not set, the fetcher named in each tuple is looked up in the
+     * {@link #setFetcherManager(FetcherManager)}.
+     */
+    public void setFetcher(Fetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Used to look up the fetchers named in the delegate's tuples. This is set
+     * by {@link #initialize(Path)}.
+     */
+    public void setFetcherManager(FetcherManager fetcherManager) {
+        this.fetcherManager = fetcherManager;
+    }
+
+    /**
+     * Containers smaller than this are not split. The default is 64MB.
+     */
+    @Field
+    public void setMinSplitSize(long minSplitSize) {
+        this.minSplitSize = minSplitSize;
+    }
+
+    /**
+     * Loads the fetchers from the config file, because the containers have to
+     * be read through the fetchers named in the tuples.
+     */
+    @Override
+    public void initialize(Path tikaConfigFile) throws IOException, TikaConfigException {
+        delegate.initialize(tikaConfigFile);
+        setFetcherManager(FetcherManager.load(tikaConfigFile));
+    }
+
+    @Override
+    protected void enqueue() throws IOException, TimeoutException, InterruptedException {
+        if (fetcher == null && fetcherManager == null) {
+            throw new IllegalStateException("either a fetcher or a fetcher manager must be set");
+        }
+        for (FetchEmitTuple t : delegate) {
+            ContainerScanner scanner = getScanner(t.getFetchKey());
+            if (scanner == null) {
+                tryToAdd(t);
+            } else {
+                split(t, scanner);
+            }
+        }
+    }
+
+    private void split(FetchEmitTuple t, ContainerScanner scanner)
+            throws InterruptedException, TimeoutException {
+        RecordSplitter splitter = new RecordSplitter(t);
+        try (InputStream is = getFetcher(t.getFetchKey()).fetch(t.getFetchKey().getFetchKey(),
+                new Metadata(), t.getParseContext())) {
+            scanner.scan(is, splitter);
+        } catch (IOException | TikaException | IllegalArgumentException e) {
+            if (!splitter.sent) {
+                //nothing has been sent yet
+                LOG.warn("couldn't split {}; sending it as a single tuple", t.getId(), e);
+                tryToAdd(t);
+            } else {
+                LOG.warn("couldn't split {} after {} records; the rest of it is skipped",
+                        t.getId(), splitter.index, e);
+            }
+            return;
+        }
+        splitter.finish();
+    }
+
+    private Fetcher getFetcher(FetchKey fetchKey) throws IOException, TikaException {
+        if (fetcher != null) {
+            return fetcher;
+        }
+        return fetcherManager.getFetcher(fetchKey.getFetcherName());
+    }
+
+    static ContainerScanner getScanner(FetchKey fetchKey) {
+        if (fetchKey == null || fetchKey.hasRange() || fetchKey.getFetchKey() == null) {
+            return null;
+        }
+        String key = fetchKey.getFetchKey().toLowerCase(Locale.ROOT);
+        if (key.endsWith(".mbox")) {
+            return new MboxScanner();
+        } else if (key.endsWith(".warc") || key.endsWith(".warc.gz")) {
+            return new WarcScanner();
+        } else if (key.endsWith(".tar")) {
+            return new TarScanner();
+        }
+        return null;
+    }
+
+    @Override
+    public void checkInitialization(InitializableProblemHandler problemHandler)
+            throws TikaConfigException {
+        if (delegate == null) {
+            throw new TikaConfigException("'delegate' pipes iterator must be set");
+        }
+    }
+
+    /**
+     * Holds back the records of a container until it is known to be larger
+     * than {@link #minSplitSize}, and then turns them into tuples.
+     */
+    private class RecordSplitter implements ContainerScanner.RecordHandler {
+        private final FetchEmitTuple container;
+        private final String emitKeyBase;
+        //records seen before the container reached minSplitSize
+        private final List<long[]> heldBack = new ArrayList<>();
+        private final List<String> heldBackNames = new ArrayList<>();
+        private boolean sent = false;
+        private int index = 0;
+
+        RecordSplitter(FetchEmitTuple container) {
+            this.container = container;
+            String emitKey = container.getEmitKey().getEmitKey();
+            this.emitKeyBase = StringUtils.isBlank(emitKey) ?
+                    container.getFetchKey().getFetchKey() : emitKey;
+        }
+
+        @Override
+        public void handle(long start, long end, String name)
+                throws InterruptedException, TimeoutException {
+            if (sent) {
+                add(start, end, name);
+                return;
+            }
+            heldBack.add(new long[]{start, end});
+            heldBackNames.add(name);
+            if (end + 1 < minSplitSize) {
+                return;
+            }
+            sent = true;
+            for (int i = 0; i < heldBack.size(); i++) {
+                long[] r = heldBack.get(i);
+                add(r[0], r[1], heldBackNames.get(i));
+            }
+            heldBack.clear();
+            heldBackNames.clear();
+        }
+
+        void finish() throws InterruptedException, TimeoutException {
+            if (!sent) {
+                //too small or no records at all
+                tryToAdd(container);
+            }
+        }
+
+        private void add(long start, long end, String name)
+                throws InterruptedException, TimeoutException {
+            int recordIndex = index++;
+            String suffix = "#" + recordIndex;
+            FetchKey fetchKey = container.getFetchKey();
+
+            Metadata metadata = new Metadata();
+            Metadata containerMetadata = container.getMetadata();
+            for (String n : containerMetadata.names()) {
+                for (String v : containerMetadata.getValues(n)) {
+                    metadata.add(n, v);
+                }
+            }
+            metadata.set(CONTAINER_ID, container.getId());
+            metadata.set(CONTAINER_FETCH_KEY, fetchKey.getFetchKey());
+            metadata.set(RECORD_INDEX, recordIndex);
+            if (name != null) {
+                metadata.set(RECORD_NAME, name);
+                //so that detection and the emitters see the record's name, not the container's
+                metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, name);
+            }
+            tryToAdd(new FetchEmitTuple(container.getId() + suffix,
+                    new FetchKey(fetchKey.getFetcherName(), fetchKey.getFetchKey(), start, end),
+                    new EmitKey(container.getEmitKey().getEmitterName(), emitKeyBase + suffix),
+                    metadata, container.getParseContext(), container.getOnParseException()));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Splits an mbox on lines that start with <code>From </code>. Each record
+ * includes its separator line, so that it is still detected as an mbox with
+ * a single message and parsed exactly as it would be as part of the whole file.
+ */
+class MboxScanner implements ContainerScanner {
+
+    private static final byte[] DIVIDER = "From ".getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public void scan(InputStream stream, RecordHandler handler)
+            throws IOException, InterruptedException, TimeoutException {
+        ScanBuffer buffer = new ScanBuffer(stream);
+        long recordStart = -1;
+        boolean atLineStart = true;
+        while (true) {
+            if (buffer.pos >= buffer.limit && !buffer.fill()) {
+                break;
+            }
+            if (atLineStart && buffer.ensure(DIVIDER.length) && startsWithDivider(buffer)) {
+                long lineStart = buffer.position();
+                if (recordStart > -1) {
+                    handler.handle(recordStart, lineStart - 1, null);
+                }
+                recordStart = lineStart;
+            }
+            if (buffer.pos >= buffer.limit) {
+                //ensure() hit the end of the stream
+                break;
+            }
+            int i = buffer.pos;
+            while (i < buffer.limit && buffer.buffer[i] != '\n') {
+                i++;
+            }
+            atLineStart = i < buffer.limit;
+            buffer.pos = atLineStart ? i + 1 : i;
+        }
+        long end = buffer.position();
+        if (recordStart > -1 && end > recordStart) {
+            handler.handle(recordStart, end - 1, null);
+        }
+    }
+
+    private static boolean startsWithDivider(ScanBuffer buffer) {
+        for (int i = 0; i < DIVIDER.length; i++) {
+            if (buffer.buffer[buffer.pos + i] != DIVIDER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
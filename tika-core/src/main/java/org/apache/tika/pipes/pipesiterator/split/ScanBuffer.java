@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Buffered reader over a container stream that keeps track of the absolute
+ * offset of every byte, so that scanners can report record boundaries.
+ */
+class ScanBuffer {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final InputStream stream;
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    //offset of buffer[0] in the stream
+    private long bufferOffset = 0;
+    int pos = 0;
+    int limit = 0;
+    private boolean eof = false;
+
+    ScanBuffer(InputStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * @return the offset in the stream of the next byte to be read
+     */
+    long position() {
+        return bufferOffset + pos;
+    }
+
+    /**
+     * @return the next byte or -1 at the end of the stream
+     */
+    int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    /**
+     * @return the next byte without consuming it, or -1 at the end of the stream
+     */
+    int peek() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos] & 0xFF;
+    }
+
+    void readFully(byte[] bytes) throws IOException {
+        int off = 0;
+        while (off < bytes.length) {
+            if (pos >= limit && !fill()) {
+                throw new EOFException("truncated container");
+            }
+            int len = Math.min(bytes.length - off, limit - pos);
+            System.arraycopy(buffer, pos, bytes, off, len);
+            pos += len;
+            off += len;
+        }
+    }
+
+    /**
+     * Skips <code>n</code> bytes.
+     *
+     * @return <code>false</code> if the stream ended first
+     */
+    boolean skip(long n) throws IOException {
+        while (n > 0) {
+            if (pos >= limit && !fill()) {
+                return false;
+            }
+            int len = (int) Math.min(n, limit - pos);
+            pos += len;
+            n -= len;
+        }
+        return true;
+    }
+
+    /**
+     * Makes sure that at least <code>n</code> bytes (at most the size of the
+     * buffer) are available from {@link #pos}, compacting the buffer if needed.
+     *
+     * @return <code>false</code> if the stream ends first
+     */
+    boolean ensure(int n) throws IOException {
+        if (limit - pos >= n) {
+            return true;
+        }
+        if (pos > 0) {
+            int unread = limit - pos;
+            System.arraycopy(buffer, pos, buffer, 0, unread);
+            bufferOffset += pos;
+            pos = 0;
+            limit = unread;
+        }
+        while (limit < n) {
+            if (!readMore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Discards the consumed bytes and reads more.
+     *
+     * @return <code>false</code> at the end of the stream
+     */
+    boolean fill() throws IOException {
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        return readMore();
+    }
+
+    private boolean readMore() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read = stream.read(buffer, limit, buffer.length - limit);
+        while (read == 0) {
+            read = stream.read(buffer, limit, buffer.length - limit);
+        }
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reports the data of every regular file in an uncompressed tar as a record.
+ * Handles ustar name prefixes, GNU long names, base-256 sizes and the
+ * <code>path</code> and <code>size</code> keys of pax extended headers.
+ * A file whose data is cut off by the end of the stream is not reported.
+ * <p>
+ * This is not thread safe.
+ */
+class TarScanner implements ContainerScanner {
+
+    private static final int BLOCK_SIZE = 512;
+
+    //GNU long names and pax headers larger than this are skipped
+    private static final int MAX_EXTENDED_HEADER_SIZE = 1024 * 1024;
+
+    //from the GNU long name or pax header that precedes the next entry
+    private String nextName;
+    private long nextSize;
+
+    @Override
+    public void scan(InputStream stream, RecordHandler handler)
+            throws IOException, InterruptedException, TimeoutException {
+        ScanBuffer buffer = new ScanBuffer(stream);
+        byte[] header = new byte[BLOCK_SIZE];
+        nextName = null;
+        nextSize = -1;
+        while (buffer.ensure(BLOCK_SIZE)) {
+            buffer.readFully(header);
+            if (isZeroBlock(header)) {
+                break;
+            }
+            byte type = header[156];
+            if (type == 'L' || type == 'K' || type == 'x' || type == 'g') {
+                //the size of an extended header is always its own, never the pax size
+                long size = parseSize(header);
+                if (!readExtendedHeader(buffer, type, size)) {
+                    break;
+                }
+                continue;
+            }
+            long size = nextSize > -1 ? nextSize : parseSize(header);
+            String name = nextName != null ? nextName : getName(header);
+            nextName = null;
+            nextSize = -1;
+            long dataStart = buffer.position();
+            if (!buffer.skip(size)) {
+                //truncated in the middle of the data
+                break;
+            }
+            if ((type == '0' || type == 0 || type == '7') && size > 0) {
+                handler.handle(dataStart, dataStart + size - 1, name);
+            }
+            if (!buffer.skip(padding(size))) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Reads a GNU long name or a pax header into {@link #nextName} and
+     * {@link #nextSize}, and skips GNU long link names, pax global headers and
+     * extended headers that are too large.
+     *
+     * @return <code>false</code> if the stream ended first
+     */
+    private boolean readExtendedHeader(ScanBuffer buffer, byte type, long size)
+            throws IOException {
+        if (type == 'K' || type == 'g' || size > MAX_EXTENDED_HEADER_SIZE) {
+            return buffer.skip(size + padding(size));
+        }
+        byte[] data = new byte[(int) size];
+        buffer.readFully(data);
+        if (type == 'L') {
+            nextName = toString(data, 0, data.length);
+        } else {
+            String[] pathAndSize = parsePax(data);
+            if (pathAndSize[0] != null) {
+                nextName = pathAndSize[0];
+            }
+            if (pathAndSize[1] != null) {
+                try {
+                    nextSize = Long.parseLong(pathAndSize[1]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("invalid size in pax header", e);
+                }
+                if (nextSize < 0) {
+                    throw new IOException("invalid size in pax header: " + nextSize);
+                }
+            }
+        }
+        return buffer.skip(padding(size));
+    }
+
+    private static long padding(long size) {
+        long remainder = size % BLOCK_SIZE;
+        return remainder == 0 ? 0 : BLOCK_SIZE - remainder;
+    }
+
+    private static boolean isZeroBlock(byte[] header) {
+        for (byte b : header) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long parseSize(byte[] header) throws IOException {
+        if ((header[124] & 0x80) != 0) {
+            //base-256, for entries of 8GB and larger
+            long size = 0;
+            for (int i = 125; i < 136; i++) {
+                size = (size << 8) | (header[i] & 0xFF);
+            }
+            return size;
+        }
+        long size = 0;
+        for (int i = 124; i < 136; i++) {
+            byte b = header[i];
+            if (b == 0 || b == ' ') {
+                if (size > 0) {
+                    break;
+                }
+                continue;
+            }
+            if (b < '0' || b > '7') {
+                throw new IOException("invalid size in tar header");
+            }
+            size = (size << 3) + (b - '0');
+        }
+        return size;
+    }
+
+    private static String getName(byte[] header) {
+        String name = toString(header, 0, 100);
+        if (header[257] == 'u' && header[258] == 's' && header[259] == 't' &&
+                header[260] == 'a' && header[261] == 'r') {
+            String prefix = toString(header, 345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static String toString(byte[] bytes, int offset, int maxLength) {
+        int end = offset;
+        while (end < offset + maxLength && bytes[end] != 0) {
+            end++;
+        }
+        return new String(bytes, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the values of the <code>path</code> and <code>size</code> keys,
+     * or <code>null</code> if they are not present
+     */
+    private static String[] parsePax(byte[] data) {
+        String[] pathAndSize = new String[2];
+        int i = 0;
+        //records are "<length> <key>=<value>\n", where length includes everything
+        while (i < data.length) {
+            int space = i;
+            while (space < data.length && data[space] != ' ') {
+                space++;
+            }
+            int length;
+            try {
+                length = Integer.parseInt(
+                        new String(data, i, space - i, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                break;
+            }
+            if (length <= 0 || i + length > data.length || space >= i + length) {
+                break;
+            }
+            String record = new String(data, space + 1, i + length - space - 2,
+                    StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                pathAndSize[0] = record.substring(5);
+            } else if (record.startsWith("size=")) {
+                pathAndSize[1] = record.substring(5);
+            }
+            i += length;
+        }
+        return pathAndSize;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reports the <code>response</code>, <code>resource</code> and
+ * <code>conversion</code> records of a WARC file. Other record types
+ * (<code>warcinfo</code>, <code>request</code>, <code>metadata</code>, ...) carry
+ * no document to parse and are skipped.
+ * <p>
+ * Both plain WARC files and WARC files that are compressed as one gzip member
+ * per record (the usual <code>.warc.gz</code> layout) are supported. For the
+ * latter, the ranges cover whole gzip members, so every record can be
+ * fetched and decompressed on its own.
+ */
+class WarcScanner implements ContainerScanner {
+
+    private static final Set<String> RECORD_TYPES = Set.of("response", "resource", "conversion");
+
+    private static final int MAX_LINE_LENGTH = 65536;
+
+    //how much of a decompressed member is kept to read the WARC headers
+    private static final int MAX_HEADER_SIZE = 65536;
+
+    @Override
+    public void scan(InputStream stream, RecordHandler handler)
+            throws IOException, InterruptedException, TimeoutException {
+        ScanBuffer buffer = new ScanBuffer(stream);
+        if (buffer.ensure(2) && (buffer.buffer[buffer.pos] & 0xFF) == 0x1F &&
+                (buffer.buffer[buffer.pos + 1] & 0xFF) == 0x8B) {
+            scanGzip(buffer, handler);
+        } else {
+            scanPlain(buffer, handler);
+        }
+    }
+
+    private void scanPlain(ScanBuffer buffer, RecordHandler handler)
+            throws IOException, InterruptedException, TimeoutException {
+        Record pending = null;
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            //skip the blank lines between records
+            long recordStart = buffer.position();
+            boolean eof = !readLine(buffer, line);
+            while (!eof && line.length() == 0) {
+                recordStart = buffer.position();
+                eof = !readLine(buffer, line);
+            }
+            if (pending != null) {
+                pending.end = recordStart - 1;
+                pending.emit(handler);
+                pending = null;
+            }
+            if (eof) {
+                break;
+            }
+            if (!line.toString().startsWith("WARC/")) {
+                throw new IOException("expected a WARC record at offset " + recordStart);
+            }
+            StringBuilder headers = new StringBuilder();
+            while (readLine(buffer, line) && line.length() > 0) {
+                headers.append(line).append('\n');
+            }
+            Record record = parseHeaders(headers.toString(), recordStart);
+            if (record.contentLength < 0) {
+                throw new IOException("missing Content-Length in WARC record at offset " +
+                        recordStart);
+            }
+            if (!buffer.skip(record.contentLength)) {
+                record.end = buffer.position() - 1;
+                record.emit(handler);
+                break;
+            }
+            pending = record;
+        }
+    }
+
+    private void scanGzip(ScanBuffer buffer, RecordHandler handler)
+            throws IOException, InterruptedException, TimeoutException {
+        Inflater inflater = new Inflater(true);
+        byte[] out = new byte[65536];
+        byte[] header = new byte[MAX_HEADER_SIZE];
+        Record pending = null;
+        try {
+            while (buffer.peek() > -1) {
+                long memberStart = buffer.position();
+                skipGzipHeader(buffer);
+                inflater.reset();
+                int headerLength = 0;
+                while (!inflater.finished()) {
+                    if (inflater.needsInput()) {
+                        if (buffer.pos >= buffer.limit && !buffer.fill()) {
+                            throw new EOFException("truncated gzip member at offset " +
+                                    memberStart);
+                        }
+                        inflater.setInput(buffer.buffer, buffer.pos, buffer.limit - buffer.pos);
+                        buffer.pos = buffer.limit;
+                    }
+                    int n;
+                    try {
+                        n = inflater.inflate(out);
+                    } catch (DataFormatException e) {
+                        throw new IOException("corrupt gzip member at offset " + memberStart, e);
+                    }
+                    if (n == 0 && inflater.needsDictionary()) {
+                        throw new IOException("corrupt gzip member at offset " + memberStart);
+                    }
+                    int toCopy = Math.min(n, header.length - headerLength);
+                    System.arraycopy(out, 0, header, headerLength, toCopy);
+                    headerLength += toCopy;
+                }
+                //hand back what the inflater read past the end of the member
+                buffer.pos = buffer.limit - inflater.getRemaining();
+                //crc32 and isize
+                if (!buffer.skip(8)) {
+                    throw new EOFException("truncated gzip member at offset " + memberStart);
+                }
+                long memberEnd = buffer.position() - 1;
+                String text = new String(header, 0, headerLength, StandardCharsets.ISO_8859_1);
+                if (text.startsWith("WARC/")) {
+                    if (pending != null) {
+                        pending.emit(handler);
+                    }
+                    int endOfHeaders = text.indexOf("\r\n\r\n");
+                    pending = parseHeaders(endOfHeaders > -1 ? text.substring(0, endOfHeaders) :
+                            text, memberStart);
+                    pending.end = memberEnd;
+                } else if (pending != null) {
+                    //a record that was split across several members
+                    pending.end = memberEnd;
+                }
+            }
+            if (pending != null) {
+                pending.emit(handler);
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void skipGzipHeader(ScanBuffer buffer) throws IOException {
+        long start = buffer.position();
+        if (buffer.read() != 0x1F || buffer.read() != 0x8B || buffer.read() != 8) {
+            throw new IOException("expected a gzip member at offset " + start);
+        }
+        int flags = buffer.read();
+        //mtime, xfl, os
+        if (flags < 0 || !buffer.skip(6)) {
+            throw new EOFException("truncated gzip header at offset " + start);
+        }
+        if ((flags & 4) != 0) {
+            int xlen = buffer.read() | (buffer.read() << 8);
+            if (xlen < 0 || !buffer.skip(xlen)) {
+                throw new EOFException("truncated gzip header at offset " + start);
+            }
+        }
+        //file name and comment are zero-terminated
+        for (int flag : new int[]{8, 16}) {
+            if ((flags & flag) != 0) {
+                int b;
+                do {
+                    b = buffer.read();
+                } while (b > 0);
+                if (b < 0) {
+                    throw new EOFException("truncated gzip header at offset " + start);
+                }
+            }
+        }
+        if ((flags & 2) != 0 && !buffer.skip(2)) {
+            throw new EOFException("truncated gzip header at offset " + start);
+        }
+    }
+
+    /**
+     * Reads a line without its line ending into <code>line</code>.
+     *
+     * @return <code>false</code> if the stream ended before any byte was read
+     */
+    private static boolean readLine(ScanBuffer buffer, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int b = buffer.read();
+        if (b < 0) {
+            return false;
+        }
+        while (b > -1 && b != '\n') {
+            if (line.length() < MAX_LINE_LENGTH) {
+                line.append((char) b);
+            }
+            b = buffer.read();
+        }
+        int len = line.length();
+        if (len > 0 && line.charAt(len - 1) == '\r') {
+            line.setLength(len - 1);
+        }
+        return true;
+    }
+
+    private static Record parseHeaders(String headers, long start) {
+        Record record = new Record(start);
+        for (String line : headers.split("\r?\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            switch (name) {
+                case "warc-type":
+                    record.type = value.toLowerCase(Locale.ROOT);
+                    break;
+                case "warc-target-uri":
+                    record.name = value;
+                    break;
+                case "content-length":
+                    try {
+                        record.contentLength = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        //leave it at -1
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return record;
+    }
+
+    private static class Record {
+        private final long start;
+        private long end = -1;
+        private String type;
+        private String name;
+        private long contentLength = -1;
+
+        Record(long start) {
+            this.start = start;
+        }
+
+        void emit(RecordHandler handler) throws InterruptedException, TimeoutException {
+            if (type != null && RECORD_TYPES.contains(type) && end >= start) {
+                handler.handle(start, end, name);
+            }
+        }
+    }
+}
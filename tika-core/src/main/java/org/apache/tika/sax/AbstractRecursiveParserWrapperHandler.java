@@ -27,6 +27,7 @@ import org.xml.sax.helpers.DefaultHandler;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.Property;
 import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.sax.analytics.AnalyticsContentHandler;
 
 /**
  * This is a special handler to be used only with the
@@ -83,7 +84,8 @@ public abstract class AbstractRecursiveParserWrapperHandler extends DefaultHandl
 
     /**
      * This is called after parsing each embedded document.  Override this
-     * for custom behavior.  This is currently a no-op aside from tracking embedded depth.
+     * for custom behavior.  This is currently a no-op aside from tracking embedded depth
+     * and writing the results of an {@link AnalyticsContentHandler} to the metadata.
      * <p>
      * When overriding, make sure to call {@link #decrementEmbeddedDepth()}
      *
@@ -94,6 +96,7 @@ public abstract class AbstractRecursiveParserWrapperHandler extends DefaultHandl
     public void endEmbeddedDocument(ContentHandler contentHandler, Metadata metadata)
             throws SAXException {
         decrementEmbeddedDepth();
+        writeAnalytics(contentHandler, metadata);
     }
 
     /**
@@ -120,6 +123,13 @@ public abstract class AbstractRecursiveParserWrapperHandler extends DefaultHandl
             metadata.set(EMBEDDED_RESOURCE_LIMIT_REACHED, "true");
         }
         metadata.set(TikaCoreProperties.EMBEDDED_DEPTH, 0);
+        writeAnalytics(contentHandler, metadata);
+    }
+
+    private static void writeAnalytics(ContentHandler contentHandler, Metadata metadata) {
+        if (contentHandler instanceof AnalyticsContentHandler) {
+            ((AnalyticsContentHandler) contentHandler).writeTo(metadata);
+        }
     }
 
     /**
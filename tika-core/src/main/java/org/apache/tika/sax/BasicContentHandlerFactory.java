@@ -21,12 +21,17 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 import org.xml.sax.ContentHandler;
 import org.xml.sax.helpers.DefaultHandler;
 
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.analytics.AnalyticsContentHandler;
+import org.apache.tika.sax.analytics.ContentAnalyzer;
 
 /**
  * Basic factory for creating common types of ContentHandlers
@@ -40,6 +45,8 @@ public class BasicContentHandlerFactory implements ContentHandlerFactory, WriteL
 
     private final ParseContext parseContext;
 
+    private List<ContentAnalyzer> contentAnalyzers = Collections.emptyList();
+
     /**
      * Create a BasicContentHandlerFactory with {@link #throwOnWriteLimitReached} is true
      * @param type       basic type of handler
@@ -107,8 +114,38 @@ public class BasicContentHandlerFactory implements ContentHandlerFactory, WriteL
         }
     }
 
+    /**
+     * If this is not empty, every handler is wrapped in an
+     * {@link AnalyticsContentHandler} that runs these analyzers on the text.
+     * The results are written to each document's metadata by the
+     * {@link AbstractRecursiveParserWrapperHandler}, or by calling
+     * {@link AnalyticsContentHandler#writeTo(org.apache.tika.metadata.Metadata)}.
+     * <p>
+     * The analyzers see all of the text, including text beyond the write limit.
+     *
+     * @param contentAnalyzers analyzers to run on the text of each document
+     */
+    public void setContentAnalyzers(List<ContentAnalyzer> contentAnalyzers) {
+        this.contentAnalyzers = new ArrayList<>(contentAnalyzers);
+    }
+
+    public List<ContentAnalyzer> getContentAnalyzers() {
+        return Collections.unmodifiableList(contentAnalyzers);
+    }
+
+    private ContentHandler analyze(ContentHandler handler) {
+        if (contentAnalyzers.isEmpty()) {
+            return handler;
+        }
+        return new AnalyticsContentHandler(handler, contentAnalyzers);
+    }
+
     @Override
     public ContentHandler getNewContentHandler() {
+        return analyze(newContentHandler());
+    }
+
+    private ContentHandler newContentHandler() {
 
         if (type == HANDLER_TYPE.BODY) {
             return new BodyContentHandler(
@@ -140,6 +177,10 @@ public class BasicContentHandlerFactory implements ContentHandlerFactory, WriteL
 
     @Override
     public ContentHandler getNewContentHandler(OutputStream os, Charset charset) {
+        return analyze(newContentHandler(os, charset));
+    }
+
+    private ContentHandler newContentHandler(OutputStream os, Charset charset) {
 
         if (type == HANDLER_TYPE.IGNORE) {
             return new DefaultHandler();
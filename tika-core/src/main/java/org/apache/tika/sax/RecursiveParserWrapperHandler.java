@@ -32,6 +32,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.metadata.filter.MetadataFilter;
 import org.apache.tika.metadata.filter.NoOpFilter;
 import org.apache.tika.parser.RecursiveParserWrapper;
+import org.apache.tika.sax.analytics.AnalyticsContentHandler;
 import org.apache.tika.utils.ParserUtils;
 
 /**
@@ -173,7 +174,9 @@ public class RecursiveParserWrapperHandler extends AbstractRecursiveParserWrappe
     }
 
     void addContent(ContentHandler handler, Metadata metadata) {
-
+        if (handler instanceof AnalyticsContentHandler) {
+            handler = ((AnalyticsContentHandler) handler).getContentHandler();
+        }
         if (handler.getClass().equals(DefaultHandler.class)) {
             //no-op: we can't rely on just testing for
             //empty content because DefaultHandler's toString()
@@ -58,6 +58,7 @@ public class ToHTMLContentHandler extends ToXMLContentHandler {
 
             if (EMPTY_ELEMENTS.contains(localName)) {
                 namespaces.clear();
+                popElement();
                 return;
             }
         }
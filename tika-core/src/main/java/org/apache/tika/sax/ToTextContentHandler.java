@@ -24,6 +24,7 @@ import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.util.Locale;
 
+import org.apache.commons.io.output.StringBuilderWriter;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -75,11 +76,11 @@ public class ToTextContentHandler extends DefaultHandler {
 
     /**
      * Creates a content handler that writes character events
-     * to an internal string buffer. Use the {@link #toString()}
+     * to an internal, unsynchronized string buffer. Use the {@link #toString()}
      * method to access the collected character content.
      */
     public ToTextContentHandler() {
-        this(new StringWriter());
+        this(new StringBuilderWriter());
     }
 
     /**
@@ -153,8 +154,8 @@ public class ToTextContentHandler extends DefaultHandler {
      * Returns the contents of the internal string buffer where
      * all the received characters have been collected. Only works
      * when this object was constructed using the empty default
-     * constructor or by passing a {@link StringWriter} to the
-     * other constructor.
+     * constructor or by passing a {@link StringWriter} or a
+     * {@link StringBuilderWriter} to the other constructor.
      */
     @Override
     public String toString() {
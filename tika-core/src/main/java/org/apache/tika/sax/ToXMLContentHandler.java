@@ -35,11 +35,34 @@ import org.xml.sax.SAXException;
  */
 public class ToXMLContentHandler extends ToTextContentHandler {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Entities by character, for the characters that need escaping
+     */
+    private static final char[][] ESCAPES = new char['>' + 1][];
+
+    static {
+        ESCAPES['<'] = "&lt;".toCharArray();
+        ESCAPES['>'] = "&gt;".toCharArray();
+        ESCAPES['&'] = "&amp;".toCharArray();
+        ESCAPES['"'] = "&quot;".toCharArray();
+    }
+
     protected final Map<String, String> namespaces = new HashMap<>();
     private final String encoding;
 
     protected boolean inStartElement = false;
     private ElementInfo currentElement;
+    //element infos are reused by depth, this is the one for the root element
+    private ElementInfo rootElement;
+
+    /**
+     * Output is collected here and handed to the underlying writer in
+     * large chunks, see {@link #flushBuffer()}
+     */
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength = 0;
 
     /**
      * Creates an XML serializer that writes to the given byte stream
@@ -96,18 +119,17 @@ public class ToXMLContentHandler extends ToTextContentHandler {
             throws SAXException {
         lazyCloseStartElement();
 
-        currentElement = new ElementInfo(currentElement, namespaces);
+        pushElement();
 
         write('<');
-        write(currentElement.getQName(uri, localName));
+        writeQName(uri, localName);
 
         for (int i = 0; i < atts.getLength(); i++) {
             write(' ');
-            write(currentElement.getQName(atts.getURI(i), atts.getLocalName(i)));
+            writeQName(atts.getURI(i), atts.getLocalName(i));
             write('=');
             write('"');
-            char[] ch = atts.getValue(i).toCharArray();
-            writeEscaped(ch, 0, ch.length, true);
+            writeEscaped(atts.getValue(i), true);
             write('"');
         }
 
@@ -121,8 +143,7 @@ public class ToXMLContentHandler extends ToTextContentHandler {
             }
             write('=');
             write('"');
-            char[] ch = entry.getKey().toCharArray();
-            writeEscaped(ch, 0, ch.length, true);
+            writeEscaped(entry.getKey(), true);
             write('"');
         }
         namespaces.clear();
@@ -142,10 +163,7 @@ public class ToXMLContentHandler extends ToTextContentHandler {
         }
 
         namespaces.clear();
-
-        // Reset the position in the tree, to avoid endless stack overflow
-        // chains (see TIKA-1070)
-        currentElement = currentElement.parent;
+        popElement();
     }
 
     @Override
@@ -154,6 +172,60 @@ public class ToXMLContentHandler extends ToTextContentHandler {
         writeEscaped(ch, start, start + length, false);
     }
 
+    @Override
+    public void endDocument() throws SAXException {
+        flushBuffer();
+        super.endDocument();
+    }
+
+    @Override
+    public String toString() {
+        try {
+            flushBuffer();
+        } catch (SAXException e) {
+            //can only happen when writing to a stream, and then there
+            //is no content to return anyway
+        }
+        return super.toString();
+    }
+
+    /**
+     * Moves to the element info for the next level of the tree. These
+     * are reused, so that a start element does not allocate anything
+     * unless it declares namespaces.
+     */
+    private void pushElement() {
+        ElementInfo next = currentElement == null ? rootElement : currentElement.child;
+        if (next == null) {
+            next = new ElementInfo(currentElement);
+            if (currentElement == null) {
+                rootElement = next;
+            } else {
+                currentElement.child = next;
+            }
+        }
+        next.setNamespaces(namespaces);
+        currentElement = next;
+    }
+
+    /**
+     * Moves back to the parent of the current element.
+     */
+    void popElement() {
+        // Reset the position in the tree, to avoid endless stack overflow
+        // chains (see TIKA-1070)
+        currentElement = currentElement.parent;
+    }
+
+    private void writeQName(String uri, String localName) throws SAXException {
+        String prefix = currentElement.getPrefix(uri);
+        if (prefix.length() > 0) {
+            write(prefix);
+            write(':');
+        }
+        write(localName);
+    }
+
     private void lazyCloseStartElement() throws SAXException {
         if (inStartElement) {
             write('>');
@@ -168,7 +240,10 @@ public class ToXMLContentHandler extends ToTextContentHandler {
      * @throws SAXException if the character could not be written
      */
     protected void write(char ch) throws SAXException {
-        super.characters(new char[]{ch}, 0, 1);
+        if (bufferLength == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[bufferLength++] = ch;
     }
 
     /**
@@ -178,27 +253,40 @@ public class ToXMLContentHandler extends ToTextContentHandler {
      * @throws SAXException if the character string could not be written
      */
     protected void write(String string) throws SAXException {
-        super.characters(string.toCharArray(), 0, string.length());
+        write(string, 0, string.length());
     }
 
     /**
-     * Writes the given characters as-is followed by the given entity.
+     * Hands the buffered output to the underlying writer.
      *
-     * @param ch     character array
-     * @param from   start position in the array
-     * @param to     end position in the array
-     * @param entity entity code
-     * @return next position in the array,
-     * after the characters plus one entity
      * @throws SAXException if the characters could not be written
      */
-    private int writeCharsAndEntity(char[] ch, int from, int to, String entity)
-            throws SAXException {
-        super.characters(ch, from, to - from);
-        write('&');
-        write(entity);
-        write(';');
-        return to + 1;
+    private void flushBuffer() throws SAXException {
+        if (bufferLength > 0) {
+            int length = bufferLength;
+            bufferLength = 0;
+            super.characters(buffer, 0, length);
+        }
+    }
+
+    private void write(char[] ch, int from, int length) throws SAXException {
+        if (length > BUFFER_SIZE - bufferLength) {
+            flushBuffer();
+            if (length >= BUFFER_SIZE) {
+                //no point in copying large runs
+                super.characters(ch, from, length);
+                return;
+            }
+        }
+        System.arraycopy(ch, from, buffer, bufferLength, length);
+        bufferLength += length;
+    }
+
+    private static char[] getEscape(char c, boolean attribute) {
+        if (c > '>' || (c == '"' && !attribute)) {
+            return null;
+        }
+        return ESCAPES[c];
     }
 
     /**
@@ -212,31 +300,62 @@ public class ToXMLContentHandler extends ToTextContentHandler {
      * @throws SAXException if the characters could not be written
      */
     private void writeEscaped(char[] ch, int from, int to, boolean attribute) throws SAXException {
-        int pos = from;
-        while (pos < to) {
-            if (ch[pos] == '<') {
-                from = pos = writeCharsAndEntity(ch, from, pos, "lt");
-            } else if (ch[pos] == '>') {
-                from = pos = writeCharsAndEntity(ch, from, pos, "gt");
-            } else if (ch[pos] == '&') {
-                from = pos = writeCharsAndEntity(ch, from, pos, "amp");
-            } else if (attribute && ch[pos] == '"') {
-                from = pos = writeCharsAndEntity(ch, from, pos, "quot");
-            } else {
-                pos++;
+        for (int pos = from; pos < to; pos++) {
+            char[] escape = getEscape(ch[pos], attribute);
+            if (escape != null) {
+                write(ch, from, pos - from);
+                write(escape, 0, escape.length);
+                from = pos + 1;
+            }
+        }
+        write(ch, from, to - from);
+    }
+
+    /**
+     * Writes the given string with XML meta characters escaped.
+     *
+     * @see #writeEscaped(char[], int, int, boolean)
+     */
+    private void writeEscaped(String string, boolean attribute) throws SAXException {
+        int from = 0;
+        int length = string.length();
+        for (int pos = 0; pos < length; pos++) {
+            char[] escape = getEscape(string.charAt(pos), attribute);
+            if (escape != null) {
+                write(string, from, pos);
+                write(escape, 0, escape.length);
+                from = pos + 1;
+            }
+        }
+        write(string, from, length);
+    }
+
+    private void write(String string, int from, int to) throws SAXException {
+        while (from < to) {
+            if (bufferLength == BUFFER_SIZE) {
+                flushBuffer();
             }
+            int n = Math.min(to - from, BUFFER_SIZE - bufferLength);
+            string.getChars(from, from + n, buffer, bufferLength);
+            bufferLength += n;
+            from += n;
         }
-        super.characters(ch, from, to - from);
     }
 
     private static class ElementInfo {
 
         private final ElementInfo parent;
 
-        private final Map<String, String> namespaces;
+        //the info for the next level, kept for reuse
+        private ElementInfo child;
 
-        public ElementInfo(ElementInfo parent, Map<String, String> namespaces) {
+        private Map<String, String> namespaces = Collections.emptyMap();
+
+        public ElementInfo(ElementInfo parent) {
             this.parent = parent;
+        }
+
+        void setNamespaces(Map<String, String> namespaces) {
             if (namespaces.isEmpty()) {
                 this.namespaces = Collections.emptyMap();
             } else {
@@ -257,15 +376,6 @@ public class ToXMLContentHandler extends ToTextContentHandler {
             }
         }
 
-        public String getQName(String uri, String localName) throws SAXException {
-            String prefix = getPrefix(uri);
-            if (prefix.length() > 0) {
-                return prefix + ":" + localName;
-            } else {
-                return localName;
-            }
-        }
-
     }
 
 }
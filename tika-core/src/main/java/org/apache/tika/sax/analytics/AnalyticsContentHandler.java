@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.sax.ContentHandlerDecorator;
+
+/**
+ * Decorator that passes the text of a document through a set of
+ * {@link ContentAnalyzer}s on its way to the decorated handler, so that
+ * statistics such as the language or a digest of the text can be computed in
+ * a single pass, instead of by metadata filters that re-read
+ * {@link org.apache.tika.metadata.TikaCoreProperties#TIKA_CONTENT} after the parse.
+ * <p>
+ * The decorated handler may be a {@link org.xml.sax.helpers.DefaultHandler},
+ * in which case the text is analyzed but not stored.
+ * <p>
+ * Call {@link #writeTo(Metadata)} once the document has been parsed. The
+ * {@link org.apache.tika.sax.AbstractRecursiveParserWrapperHandler} does this for
+ * each document when the {@link org.apache.tika.sax.BasicContentHandlerFactory}
+ * has analyzers.
+ */
+public class AnalyticsContentHandler extends ContentHandlerDecorator {
+
+    private final ContentHandler handler;
+
+    private final List<ContentAnalyzer.Instance> instances;
+
+    private boolean written = false;
+
+    public AnalyticsContentHandler(ContentHandler handler, List<ContentAnalyzer> analyzers) {
+        super(handler);
+        this.handler = handler;
+        this.instances = new ArrayList<>(analyzers.size());
+        for (ContentAnalyzer analyzer : analyzers) {
+            instances.add(analyzer.newInstance());
+        }
+    }
+
+    /**
+     * @return the decorated handler
+     */
+    public ContentHandler getContentHandler() {
+        return handler;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        analyze(ch, start, length);
+        super.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        //this is how the XHTMLContentHandler separates blocks
+        analyze(ch, start, length);
+        super.ignorableWhitespace(ch, start, length);
+    }
+
+    private void analyze(char[] ch, int start, int length) {
+        for (ContentAnalyzer.Instance instance : instances) {
+            instance.characters(ch, start, length);
+        }
+    }
+
+    /**
+     * Writes the results of the analyzers to the metadata. This has no effect
+     * after the first call.
+     */
+    public void writeTo(Metadata metadata) {
+        if (written) {
+            return;
+        }
+        written = true;
+        for (ContentAnalyzer.Instance instance : instances) {
+            instance.finish(metadata);
+        }
+    }
+}
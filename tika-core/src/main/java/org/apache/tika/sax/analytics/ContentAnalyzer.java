@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax.analytics;
+
+import java.io.Serializable;
+
+import org.apache.tika.metadata.Metadata;
+
+/**
+ * Computes statistics on the text of a document incrementally, as the
+ * characters arrive at an {@link AnalyticsContentHandler}.
+ * <p>
+ * Implementations hold only configuration and must be thread safe; the
+ * per-document state lives in the {@link Instance} returned by
+ * {@link #newInstance()}.
+ */
+public interface ContentAnalyzer extends Serializable {
+
+    /**
+     * @return a new instance for one document
+     */
+    Instance newInstance();
+
+    interface Instance {
+
+        /**
+         * Called with the text of the document, in order. The array must not
+         * be retained after the call returns.
+         */
+        void characters(char[] ch, int start, int length);
+
+        /**
+         * Called once, after the last characters, to write the results.
+         */
+        void finish(Metadata metadata);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax.analytics;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.tika.config.Field;
+import org.apache.tika.language.detect.LanguageDetector;
+import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.language.detect.LanguageSegmenter;
+import org.apache.tika.language.detect.LanguageSpan;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+
+/**
+ * Detects the language of the text with a {@link LanguageDetector} and writes
+ * {@link TikaCoreProperties#TIKA_DETECTED_LANGUAGE} and the confidence.
+ * Only the first {@link #setMaxChars(int)} characters are used.
+ * <p>
+ * If {@link #setSegmentWindowSize(int)} is greater than 0, this also runs a
+ * {@link LanguageSegmenter} over all of the text and writes the spans to
+ * {@link TikaCoreProperties#TIKA_DETECTED_LANGUAGE_SPANS}.
+ * <p>
+ * By default, this uses the first language detector on the classpath, see
+ * {@link LanguageDetector#getDefaultLanguageDetector()}.
+ */
+public class LanguageDetectionAnalyzer implements ContentAnalyzer {
+
+    private String detectorClass = null;
+
+    private int maxChars = 20000;
+
+    private int segmentWindowSize = 0;
+
+    private int segmentStepSize = LanguageSegmenter.DEFAULT_STEP_SIZE;
+
+    //resolved once, looking up the default detector loads all services
+    private transient volatile Class<? extends LanguageDetector> resolvedClass;
+
+    /**
+     * @param detectorClass fully qualified name of the {@link LanguageDetector}
+     *                      to use, or <code>null</code> for the default
+     */
+    @Field
+    public void setDetectorClass(String detectorClass) {
+        this.detectorClass = detectorClass;
+        this.resolvedClass = null;
+    }
+
+    public String getDetectorClass() {
+        return detectorClass;
+    }
+
+    @Field
+    public void setMaxChars(int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public int getMaxChars() {
+        return maxChars;
+    }
+
+    /**
+     * @param segmentWindowSize window size of the segment-level detection in chars,
+     *                          or 0 to turn it off (default)
+     */
+    @Field
+    public void setSegmentWindowSize(int segmentWindowSize) {
+        this.segmentWindowSize = segmentWindowSize;
+    }
+
+    public int getSegmentWindowSize() {
+        return segmentWindowSize;
+    }
+
+    /**
+     * @param segmentStepSize distance between windows in chars, must divide the
+     *                        window size. Default is
+     *                        {@link LanguageSegmenter#DEFAULT_STEP_SIZE}.
+     */
+    @Field
+    public void setSegmentStepSize(int segmentStepSize) {
+        this.segmentStepSize = segmentStepSize;
+    }
+
+    public int getSegmentStepSize() {
+        return segmentStepSize;
+    }
+
+    @Override
+    public ContentAnalyzer.Instance newInstance() {
+        LanguageSegmenter segmenter = null;
+        if (segmentWindowSize > 0) {
+            segmenter = new LanguageSegmenter(loadModels(newDetector()), segmentWindowSize,
+                    segmentStepSize);
+        }
+        return new LanguageInstance(loadModels(newDetector()), maxChars, segmenter);
+    }
+
+    private static LanguageDetector loadModels(LanguageDetector detector) {
+        try {
+            detector.loadModels();
+            return detector;
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't load language models", e);
+        }
+    }
+
+    private LanguageDetector newDetector() {
+        Class<? extends LanguageDetector> clazz = resolvedClass;
+        if (clazz == null) {
+            if (detectorClass == null) {
+                LanguageDetector detector = LanguageDetector.getDefaultLanguageDetector();
+                resolvedClass = detector.getClass();
+                return detector;
+            }
+            try {
+                clazz = Class.forName(detectorClass, true, getClass().getClassLoader())
+                        .asSubclass(LanguageDetector.class);
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IllegalArgumentException(
+                        "Couldn't find language detector " + detectorClass, e);
+            }
+            resolvedClass = clazz;
+        }
+        try {
+            return clazz.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Couldn't create language detector " + clazz, e);
+        }
+    }
+
+    private static class LanguageInstance implements ContentAnalyzer.Instance {
+
+        private final LanguageDetector detector;
+
+        //null if segment-level detection is off
+        private final LanguageSegmenter segmenter;
+
+        private int remaining;
+
+        private boolean hasText = false;
+
+        LanguageInstance(LanguageDetector detector, int maxChars, LanguageSegmenter segmenter) {
+            this.detector = detector;
+            this.remaining = maxChars;
+            this.segmenter = segmenter;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (segmenter != null) {
+                segmenter.addText(ch, start, length);
+            }
+            if (remaining <= 0) {
+                return;
+            }
+            int len = Math.min(length, remaining);
+            if (!hasText) {
+                for (int i = start; i < start + len; i++) {
+                    if (!Character.isWhitespace(ch[i])) {
+                        hasText = true;
+                        break;
+                    }
+                }
+            }
+            detector.addText(ch, start, len);
+            remaining -= len;
+            if (detector.hasEnoughText()) {
+                remaining = 0;
+            }
+        }
+
+        @Override
+        public void finish(Metadata metadata) {
+            if (!hasText) {
+                return;
+            }
+            LanguageResult r = detector.detect();
+            metadata.set(TikaCoreProperties.TIKA_DETECTED_LANGUAGE, r.getLanguage());
+            metadata.set(TikaCoreProperties.TIKA_DETECTED_LANGUAGE_CONFIDENCE,
+                    r.getConfidence().name());
+            metadata.set(TikaCoreProperties.TIKA_DETECTED_LANGUAGE_CONFIDENCE_RAW, r.getRawScore());
+            if (segmenter != null) {
+                List<LanguageSpan> spans = segmenter.finish();
+                for (LanguageSpan span : spans) {
+                    metadata.add(TikaCoreProperties.TIKA_DETECTED_LANGUAGE_SPANS, span.toString());
+                }
+            }
+        }
+    }
+}
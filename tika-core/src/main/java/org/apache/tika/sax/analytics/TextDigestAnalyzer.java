@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax.analytics;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.Property;
+import org.apache.tika.metadata.TikaCoreProperties;
+
+/**
+ * Calculates the hex encoded SHA-256 digest of the UTF-8 encoded text.
+ * Nothing is written for documents without text.
+ */
+public class TextDigestAnalyzer implements ContentAnalyzer {
+
+    public static final Property CONTENT_SHA256 =
+            Property.externalText(TikaCoreProperties.TIKA_META_PREFIX + "content_sha256");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public ContentAnalyzer.Instance newInstance() {
+        return new DigestInstance();
+    }
+
+    private static class DigestInstance implements ContentAnalyzer.Instance {
+
+        private final MessageDigest digest;
+
+        //a code point takes at most 4 bytes
+        private final byte[] buffer = new byte[4096];
+
+        private int pos = 0;
+
+        //high surrogate at the end of the previous call, or 0
+        private char pendingHighSurrogate = 0;
+
+        private boolean empty = true;
+
+        DigestInstance() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                //every JVM has to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            int end = start + length;
+            for (int i = start; i < end; i++) {
+                char c = ch[i];
+                empty = false;
+                if (pos > buffer.length - 4) {
+                    flush();
+                }
+                if (pendingHighSurrogate != 0) {
+                    char high = pendingHighSurrogate;
+                    pendingHighSurrogate = 0;
+                    if (Character.isLowSurrogate(c)) {
+                        encode(Character.toCodePoint(high, c));
+                        continue;
+                    }
+                    encode('?');
+                }
+                if (Character.isHighSurrogate(c)) {
+                    pendingHighSurrogate = c;
+                } else if (Character.isLowSurrogate(c)) {
+                    //unpaired, same as String#getBytes
+                    encode('?');
+                } else {
+                    encode(c);
+                }
+            }
+        }
+
+        private void encode(int cp) {
+            if (cp < 0x80) {
+                buffer[pos++] = (byte) cp;
+            } else if (cp < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (cp >> 6));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (cp < 0x10000) {
+                buffer[pos++] = (byte) (0xE0 | (cp >> 12));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                buffer[pos++] = (byte) (0xF0 | (cp >> 18));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (cp & 0x3F));
+            }
+        }
+
+        private void flush() {
+            digest.update(buffer, 0, pos);
+            pos = 0;
+        }
+
+        @Override
+        public void finish(Metadata metadata) {
+            if (empty) {
+                return;
+            }
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                if (pos > buffer.length - 4) {
+                    flush();
+                }
+                encode('?');
+            }
+            flush();
+            byte[] bytes = digest.digest();
+            char[] hex = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                hex[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX[bytes[i] & 0xF];
+            }
+            metadata.set(CONTENT_SHA256, new String(hex));
+        }
+    }
+}
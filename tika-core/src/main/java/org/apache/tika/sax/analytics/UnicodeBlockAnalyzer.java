@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.tika.config.Field;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.Property;
+import org.apache.tika.metadata.TikaCoreProperties;
+
+/**
+ * Counts the non-whitespace code points of the text per
+ * {@link Character.UnicodeBlock}, and writes the most common blocks as
+ * <code>BLOCK_NAME=count</code>, from the most to the least common.
+ */
+public class UnicodeBlockAnalyzer implements ContentAnalyzer {
+
+    public static final Property UNICODE_BLOCKS =
+            Property.externalTextBag(TikaCoreProperties.TIKA_META_PREFIX + "content_unicode_blocks");
+
+    private int maxBlocks = 10;
+
+    /**
+     * @param maxBlocks maximum number of blocks to write, default 10
+     */
+    @Field
+    public void setMaxBlocks(int maxBlocks) {
+        this.maxBlocks = maxBlocks;
+    }
+
+    public int getMaxBlocks() {
+        return maxBlocks;
+    }
+
+    @Override
+    public ContentAnalyzer.Instance newInstance() {
+        return new BlockCountInstance(maxBlocks);
+    }
+
+    private static class BlockCountInstance implements ContentAnalyzer.Instance {
+
+        private final int maxBlocks;
+
+        private final Map<Character.UnicodeBlock, int[]> counts = new HashMap<>();
+
+        //most text stays within a block for a while, so cache the last one
+        private Character.UnicodeBlock lastBlock = null;
+        private int[] lastCount = null;
+
+        private char pendingHighSurrogate = 0;
+
+        BlockCountInstance(int maxBlocks) {
+            this.maxBlocks = maxBlocks;
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            int end = start + length;
+            for (int i = start; i < end; i++) {
+                char c = ch[i];
+                if (pendingHighSurrogate != 0) {
+                    char high = pendingHighSurrogate;
+                    pendingHighSurrogate = 0;
+                    if (Character.isLowSurrogate(c)) {
+                        count(Character.toCodePoint(high, c));
+                        continue;
+                    }
+                }
+                if (Character.isHighSurrogate(c)) {
+                    pendingHighSurrogate = c;
+                } else {
+                    count(c);
+                }
+            }
+        }
+
+        private void count(int cp) {
+            if (cp < 0x80) {
+                //fast path for ascii
+                if (cp > ' ') {
+                    increment(Character.UnicodeBlock.BASIC_LATIN);
+                }
+            } else if (!Character.isWhitespace(cp) && !Character.isSpaceChar(cp)) {
+                increment(Character.UnicodeBlock.of(cp));
+            }
+        }
+
+        private void increment(Character.UnicodeBlock block) {
+            if (block == null) {
+                //unassigned code points have no block
+                return;
+            }
+            if (block != lastBlock) {
+                lastBlock = block;
+                lastCount = counts.computeIfAbsent(block, b -> new int[1]);
+            }
+            lastCount[0]++;
+        }
+
+        @Override
+        public void finish(Metadata metadata) {
+            if (counts.isEmpty()) {
+                return;
+            }
+            List<Map.Entry<Character.UnicodeBlock, int[]>> entries =
+                    new ArrayList<>(counts.entrySet());
+            entries.sort((a, b) -> {
+                int cmp = Integer.compare(b.getValue()[0], a.getValue()[0]);
+                return cmp != 0 ? cmp : a.getKey().toString().compareTo(b.getKey().toString());
+            });
+            for (int i = 0; i < entries.size() && i < maxBlocks; i++) {
+                Map.Entry<Character.UnicodeBlock, int[]> e = entries.get(i);
+                metadata.add(UNICODE_BLOCKS, e.getKey() + "=" + e.getValue()[0]);
+            }
+        }
+    }
+}
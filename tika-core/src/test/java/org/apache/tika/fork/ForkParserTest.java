@@ -101,6 +101,28 @@ public class ForkParserTest extends TikaTest {
         }
     }
 
+    @Test
+    public void testClassBundle() throws Exception {
+        Path bundleDir = tempDir.resolve("bundles");
+        int[] requests = new int[2];
+        for (int i = 0; i < 2; i++) {
+            try (ForkParser parser = new ForkParser(ForkParserTest.class.getClassLoader(),
+                    new ForkTestParser())) {
+                parser.setClassBundleDirectory(bundleDir);
+                ContentHandler output = new BodyContentHandler();
+                InputStream stream = new ByteArrayInputStream(new byte[0]);
+                parser.parse(stream, output, new Metadata(), new ParseContext());
+                assertEquals("Hello, World!", output.toString().trim());
+                assertTrue(parser.getLastWarmUpMillis() >= 0);
+                requests[i] = parser.getLastWarmUpClassLoaderRequests();
+            }
+        }
+        assertTrue(Files.isRegularFile(new ClassBundleCache(bundleDir)
+                .getBundlePath(ForkParserTest.class.getClassLoader())));
+        assertTrue(requests[1] < requests[0],
+                "expected fewer requests with a bundle: " + requests[0] + " -> " + requests[1]);
+    }
+
     @Test
     public void testParallelParsing() throws Exception {
         try (ForkParser parser = new ForkParser(ForkParserTest.class.getClassLoader(),
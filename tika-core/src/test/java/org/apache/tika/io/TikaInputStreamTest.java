@@ -105,6 +105,26 @@ public class TikaInputStreamTest {
         stream.close();
     }
 
+    @Test
+    public void testPeekFully() throws IOException {
+        //unknown length
+        try (TikaInputStream stream = TikaInputStream.get(IOUtils.toInputStream("Hello, World!", UTF_8))) {
+            assertFalse(stream.hasLength());
+            assertNull(stream.peekFully(12));
+            assertEquals("Hello, World!", new String(stream.peekFully(13), UTF_8));
+            assertEquals('H', stream.read());
+            assertEquals("ello, World!", new String(stream.peekFully(100), UTF_8));
+            assertFalse(stream.hasFile());
+            assertEquals("ello, World!", readStream(stream));
+        }
+        //known length
+        try (TikaInputStream stream = TikaInputStream.get("Hello, World!".getBytes(UTF_8))) {
+            assertNull(stream.peekFully(12));
+            assertEquals("Hello, World!", new String(stream.peekFully(13), UTF_8));
+            assertEquals(0, stream.getPosition());
+        }
+    }
+
     private Path createTempFile(String data) throws IOException {
         Path file = Files.createTempFile(tempDir, "tika-", ".tmp");
         Files.write(file, data.getBytes(UTF_8));
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.language.detect;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class LanguageSegmenterTest {
+
+    @Test
+    public void testTwoLanguages() {
+        StringBuilder sb = new StringBuilder();
+        appendWords(sb, "abc ", 3000);
+        appendWords(sb, "XYZ ", 5000);
+        LanguageSegmenter segmenter = new LanguageSegmenter(new CaseDetector(), 1000, 250);
+        char[] chars = sb.toString().toCharArray();
+        //feed in odd sized pieces
+        for (int i = 0; i < chars.length; i += 333) {
+            segmenter.addText(chars, i, Math.min(333, chars.length - i));
+        }
+        List<LanguageSpan> spans = segmenter.finish();
+        assertEquals(2, spans.size());
+        assertEquals("lower", spans.get(0).getLanguage());
+        assertEquals(0, spans.get(0).getStart());
+        assertEquals("upper", spans.get(1).getLanguage());
+        assertEquals(spans.get(0).getEnd(), spans.get(1).getStart());
+        assertEquals(8000, spans.get(1).getEnd());
+        //the boundary is found within a step
+        assertTrue(Math.abs(spans.get(0).getEnd() - 3000) <= 250, spans.toString());
+    }
+
+    @Test
+    public void testShortText() {
+        LanguageSegmenter segmenter = new LanguageSegmenter(new CaseDetector());
+        segmenter.addText("XYZ XYZ");
+        List<LanguageSpan> spans = segmenter.finish();
+        assertEquals(1, spans.size());
+        assertEquals("0-7:upper:high", spans.get(0).toString());
+
+        segmenter.reset();
+        segmenter.addText("   ");
+        assertEquals(0, segmenter.finish().size());
+    }
+
+    @Test
+    public void testNoLanguageInTheMiddle() {
+        StringBuilder sb = new StringBuilder();
+        appendWords(sb, "abc ", 2000);
+        appendWords(sb, "    ", 2000);
+        appendWords(sb, "abc ", 2000);
+        LanguageSegmenter segmenter = new LanguageSegmenter(new CaseDetector(), 500, 500);
+        segmenter.addText(sb);
+        List<LanguageSpan> spans = segmenter.finish();
+        assertEquals(1, spans.size());
+        assertEquals("0-6000:lower:high", spans.get(0).toString());
+    }
+
+    private static void appendWords(StringBuilder sb, String word, int length) {
+        for (int i = 0; i < length; i += word.length()) {
+            sb.append(word);
+        }
+    }
+
+    /**
+     * "Detects" upper or lower case text
+     */
+    private static class CaseDetector extends LanguageDetector {
+
+        private int upper = 0;
+        private int lower = 0;
+
+        @Override
+        public LanguageDetector loadModels() {
+            return this;
+        }
+
+        @Override
+        public LanguageDetector loadModels(Set<String> languages) {
+            return this;
+        }
+
+        @Override
+        public boolean hasModel(String language) {
+            return true;
+        }
+
+        @Override
+        public LanguageDetector setPriors(Map<String, Float> languageProbabilities) {
+            return this;
+        }
+
+        @Override
+        public void reset() {
+            upper = 0;
+            lower = 0;
+        }
+
+        @Override
+        public void addText(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (Character.isUpperCase(cbuf[i])) {
+                    upper++;
+                } else if (Character.isLowerCase(cbuf[i])) {
+                    lower++;
+                }
+            }
+        }
+
+        @Override
+        public List<LanguageResult> detectAll() {
+            if (upper + lower == 0) {
+                return Collections.emptyList();
+            }
+            float score = (float) Math.max(upper, lower) / (upper + lower);
+            return Collections.singletonList(new LanguageResult(upper > lower ? "upper" : "lower",
+                    score > 0.9 ? LanguageConfidence.HIGH : LanguageConfidence.LOW, score));
+        }
+    }
+}
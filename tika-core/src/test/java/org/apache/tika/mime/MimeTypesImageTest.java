@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MimeTypesImageTest {
+
+    @TempDir
+    Path tmp;
+
+    private static byte[] buildImage() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream xml = MimeTypesReader.class.getResourceAsStream("tika-mimetypes.xml")) {
+            MimeTypesImage.write(xml, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static long coreChecksum() throws Exception {
+        return MimeTypesImage.checksum(MimeTypesReader.class.getResource("tika-mimetypes.xml"));
+    }
+
+    @Test
+    public void testImageMatchesXml() throws Exception {
+        MimeTypes fromXml = MimeTypesFactory.create("tika-mimetypes.xml");
+        MimeTypes fromImage = new MimeTypes();
+        assertTrue(MimeTypesImage.read(new ByteArrayInputStream(buildImage()), coreChecksum(),
+                new MimeTypesReader(fromImage)));
+        fromImage.init();
+
+        MediaTypeRegistry expectedRegistry = fromXml.getMediaTypeRegistry();
+        MediaTypeRegistry registry = fromImage.getMediaTypeRegistry();
+        assertEquals(expectedRegistry.getTypes(), registry.getTypes());
+        for (MediaType mediaType : expectedRegistry.getTypes()) {
+            assertEquals(expectedRegistry.getAliases(mediaType), registry.getAliases(mediaType));
+            assertEquals(expectedRegistry.getSupertype(mediaType),
+                    registry.getSupertype(mediaType));
+
+            MimeType expected = fromXml.forName(mediaType.toString());
+            MimeType type = fromImage.forName(mediaType.toString());
+            assertEquals(expected.getDescription(), type.getDescription());
+            assertEquals(expected.getAcronym(), type.getAcronym());
+            assertEquals(expected.getUniformTypeIdentifier(), type.getUniformTypeIdentifier());
+            assertEquals(expected.getLinks(), type.getLinks());
+            assertEquals(expected.getExtensions(), type.getExtensions());
+            assertEquals(expected.isInterpreted(), type.isInterpreted());
+            assertEquals(expected.hasRootXML(), type.hasRootXML());
+            assertEquals(expected.getMagics().toString(), type.getMagics().toString());
+        }
+
+        for (String name : new String[]{"test.pdf", "TEST.DOCX", "a.tar.gz", "Makefile",
+                "x.unknown", "README"}) {
+            assertEquals(fromXml.getMimeType(name), fromImage.getMimeType(name), name);
+        }
+        byte[] pdf = "%PDF-1.4\n".getBytes("US-ASCII");
+        assertEquals(fromXml.getMimeType(pdf), fromImage.getMimeType(pdf));
+    }
+
+    @Test
+    public void testChecksumMismatch() throws Exception {
+        MimeTypes types = new MimeTypes();
+        assertFalse(MimeTypesImage.read(new ByteArrayInputStream(buildImage()),
+                coreChecksum() + 1, new MimeTypesReader(types)));
+        assertNotNull(types.getRegisteredMimeType("application/octet-stream"));
+        assertEquals(null, types.getRegisteredMimeType("application/pdf"));
+    }
+
+    @Test
+    public void testCustomTypesOnTopOfImage() throws Exception {
+        Path dir = tmp.resolve("org/apache/tika/mime");
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(MimeTypesImage.getImagePath("tika-mimetypes.xml")),
+                buildImage());
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{tmp.toUri().toURL()},
+                MimeTypesImageTest.class.getClassLoader())) {
+            MimeTypes types = MimeTypesFactory
+                    .create("tika-mimetypes.xml", "custom-mimetypes.xml", loader);
+            //from the image
+            assertEquals("application/pdf", types.getMimeType("test.pdf").toString());
+            //from the test custom-mimetypes.xml
+            assertNotNull(types.getRegisteredMimeType("hello/world"));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Times loading the default types in fresh JVMs, as every forked parser
+ * process has to, once from tika-mimetypes.xml and once through
+ * {@link MimeTypes#getDefaultMimeTypes()}, which uses the precompiled
+ * {@link MimeTypesImage} if one was built. Run it with the same class path as
+ * the tests, after the build has written the image to target/classes.
+ * <p>
+ * Usage: MimeTypesStartupBenchmark [runs]
+ */
+public class MimeTypesStartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && (args[0].equals("xml") || args[0].equals("default"))) {
+            load(args[0]);
+            return;
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        long[] xml = new long[runs];
+        long[] image = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            xml[i] = fork("xml");
+            image[i] = fork("default");
+        }
+        report("xml", xml);
+        report("default", image);
+    }
+
+    private static void load(String mode) throws Exception {
+        long start = System.nanoTime();
+        MimeTypes types;
+        if (mode.equals("xml")) {
+            types = MimeTypesFactory
+                    .create(MimeTypesReader.class.getResource("tika-mimetypes.xml"));
+        } else {
+            types = MimeTypes.getDefaultMimeTypes();
+        }
+        long elapsed = System.nanoTime() - start;
+        //make sure the types are usable
+        if (types.getMediaTypeRegistry().getTypes().size() < 1000) {
+            throw new IllegalStateException("types were not loaded");
+        }
+        System.out.println(elapsed);
+    }
+
+    private static long fork(String mode) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator +
+                "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MimeTypesStartupBenchmark.class.getName());
+        command.add(mode);
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String last = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                last = line;
+            }
+        }
+        if (process.waitFor() != 0 || last == null) {
+            throw new IllegalStateException("child failed: " + last);
+        }
+        return Long.parseLong(last.trim());
+    }
+
+    private static void report(String mode, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.println(String.format(Locale.ROOT, "%-8s median %6.1f ms, min %6.1f ms", mode,
+                sorted[sorted.length / 2] / 1e6, sorted[0] / 1e6));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Times name based type lookups against the default types over a made up,
+ * but roughly realistic, mix of file names: mostly common extensions, some
+ * in upper case, some with several extensions, some literal names and some
+ * names that match nothing.
+ * <p>
+ * Usage: PatternsBenchmark [numNames] [iterations]
+ */
+public class PatternsBenchmark {
+
+    private static final String[] COMMON = {"pdf", "docx", "doc", "xlsx", "xls", "pptx", "txt",
+            "html", "htm", "xml", "json", "csv", "jpg", "jpeg", "png", "gif", "tif", "zip", "eml",
+            "msg", "rtf", "odt", "mp3", "mp4", "java", "py", "js", "css", "md"};
+
+    private static final String[] MULTI = {"tar.gz", "tar.bz2", "pdf.bak", "doc.old", "warc.gz",
+            "txt.gz", "xml.bz2"};
+
+    private static final String[] LITERAL = {"Makefile", "README", "LICENSE", "NOTICE", ".htaccess",
+            "i_investigation.txt", "a_assay.txt"};
+
+    @SuppressWarnings("deprecation")
+    public static void main(String[] args) throws Exception {
+        int numNames = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String[] names = generateNames(numNames, new Random(42));
+
+        MimeTypes mimeTypes = MimeTypes.getDefaultMimeTypes();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            for (String name : names) {
+                checksum += mimeTypes.getMimeType(name).hashCode();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(String.format(Locale.ROOT, "iteration %2d: %6.0f ns per name", i,
+                    (double) elapsed / names.length));
+        }
+        System.out.println("checksum: " + checksum);
+    }
+
+    private static String[] generateNames(int numNames, Random random) {
+        String[] names = new String[numNames];
+        for (int i = 0; i < numNames; i++) {
+            String base = "file_" + Integer.toString(random.nextInt(1_000_000), 36);
+            int r = random.nextInt(100);
+            if (r < 60) {
+                names[i] = base + "." + COMMON[random.nextInt(COMMON.length)];
+            } else if (r < 75) {
+                names[i] = (base + "." + COMMON[random.nextInt(COMMON.length)])
+                        .toUpperCase(Locale.ROOT);
+            } else if (r < 85) {
+                names[i] = base + "." + MULTI[random.nextInt(MULTI.length)];
+            } else if (r < 90) {
+                names[i] = LITERAL[random.nextInt(LITERAL.length)];
+            } else if (r < 95) {
+                //no extension
+                names[i] = "IMG" + random.nextInt(10000);
+            } else {
+                //unknown extension
+                names[i] = base + ".x" + Integer.toString(random.nextInt(100000), 36);
+            }
+        }
+        return names;
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.tika.mime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -85,6 +86,52 @@ public class PatternsTest {
         assertEquals(".doc", doc.getExtension());
     }
 
+    @Test
+    public void testLongestExtension() throws MimeTypeException {
+        MimeType gzip = types.forName("application/gzip");
+        MimeType tar = types.forName("application/x-gtar");
+        patterns.add("*.gz", gzip);
+        patterns.add("*.tar.gz", tar);
+
+        assertEquals(gzip, patterns.matches("data.gz"));
+        assertEquals(tar, patterns.matches("data.tar.gz"));
+        assertEquals(gzip, patterns.matches("data.star.gz"));
+        assertEquals(gzip, patterns.matches(".gz"));
+        assertNull(patterns.matches("gz"));
+        assertNull(patterns.matches("data.gzip"));
+        assertNull(patterns.matches(""));
+    }
+
+    @Test
+    public void testGlobs() throws MimeTypeException {
+        MimeType xml = types.forName("application/xml");
+        MimeType rdf = types.forName("application/rdf+xml");
+        MimeType name = types.forName("text/x-name");
+        MimeType backref = types.forName("text/x-backref");
+        patterns.add("*.xml", xml);
+        patterns.add("i_*.txt", text);
+        patterns.add("^rdf$", true, rdf);
+        patterns.add("Makefile", name);
+
+        assertEquals(text, patterns.matches("i_investigation.txt"));
+        assertEquals(rdf, patterns.matches("rdf"));
+        assertEquals(name, patterns.matches("Makefile"));
+        //extensions win over globs
+        assertEquals(xml, patterns.matches("i_data.xml"));
+        assertNull(patterns.matches("s_study.txt"));
+        assertNull(patterns.matches("rdfs"));
+
+        //a glob added after the first match is picked up
+        patterns.add("s_*.txt", text);
+        assertEquals(text, patterns.matches("s_study.txt"));
+
+        //backreferences can't be combined with the other globs, but still work
+        patterns.add("(ab)\\1", true, backref);
+        assertEquals(backref, patterns.matches("abab"));
+        assertEquals(text, patterns.matches("s_study.txt"));
+        assertNull(patterns.matches("abba"));
+    }
+
     @Test
     public void testExtensions() throws Exception {
         MimeType jpeg = fullTypes.forName("image/jpeg");
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+
+public class EmitBatchExecutorTest {
+
+    @Test
+    public void testBoundedInFlight() throws Exception {
+        List<EmitData> batch = batch(20);
+        Set<String> emitted = Collections.synchronizedSet(new HashSet<>());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        try (EmitBatchExecutor executor = new EmitBatchExecutor("test", 4)) {
+            executor.emitAll(batch, d -> {
+                int current = inFlight.incrementAndGet();
+                maxInFlight.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                emitted.add(d.getEmitKey().getEmitKey());
+                inFlight.decrementAndGet();
+            });
+        }
+        //everything was emitted before emitAll returned
+        assertEquals(20, emitted.size());
+        assertTrue(maxInFlight.get() > 1, "max in flight: " + maxInFlight.get());
+        assertTrue(maxInFlight.get() <= 4, "max in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        List<EmitData> batch = batch(10);
+        Set<String> emitted = Collections.synchronizedSet(new HashSet<>());
+        IOException first = new IOException("upload failed");
+        TikaEmitterException e;
+        try (EmitBatchExecutor executor = new EmitBatchExecutor("test", 3)) {
+            e = assertThrows(TikaEmitterException.class, () -> executor.emitAll(batch, d -> {
+                String key = d.getEmitKey().getEmitKey();
+                if (key.equals("doc3")) {
+                    throw first;
+                } else if (key.equals("doc7")) {
+                    throw new TikaEmitterException("rejected");
+                }
+                emitted.add(key);
+            }));
+        }
+        //the other documents were still emitted
+        assertEquals(8, emitted.size());
+        assertEquals("failed to emit 2 of 10 documents: [doc3, doc7]", e.getMessage());
+        assertSame(first, e.getCause());
+    }
+
+    @Test
+    public void testSequential() throws Exception {
+        List<EmitData> batch = batch(5);
+        List<String> emitted = new ArrayList<>();
+        try (EmitBatchExecutor executor = new EmitBatchExecutor("test", 1)) {
+            executor.emitAll(batch, d -> emitted.add(d.getEmitKey().getEmitKey()));
+            assertEquals(List.of("doc0", "doc1", "doc2", "doc3", "doc4"), emitted);
+
+            emitted.clear();
+            //the first failure stops the batch
+            assertThrows(IOException.class, () -> executor.emitAll(batch, d -> {
+                if (d.getEmitKey().getEmitKey().equals("doc2")) {
+                    throw new IOException("upload failed");
+                }
+                emitted.add(d.getEmitKey().getEmitKey());
+            }));
+            assertEquals(List.of("doc0", "doc1"), emitted);
+        }
+    }
+
+    private static List<EmitData> batch(int size) {
+        List<EmitData> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            batch.add(new EmitData(new EmitKey("test", "doc" + i),
+                    Collections.singletonList(new Metadata())));
+        }
+        return batch;
+    }
+}
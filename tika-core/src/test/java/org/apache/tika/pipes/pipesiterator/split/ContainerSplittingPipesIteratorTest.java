@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.pipes.FetchEmitTuple;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.fetcher.FetchKey;
+import org.apache.tika.pipes.fetcher.fs.FileSystemFetcher;
+import org.apache.tika.pipes.pipesiterator.PipesIterator;
+import org.apache.tika.pipes.pipesiterator.fs.FileSystemPipesIterator;
+
+public class ContainerSplittingPipesIteratorTest {
+
+    private static final String MBOX = "From a@example.com Mon Jun 01 10:00:00 2009\n" +
+            "Subject: one\n\nbody one\n>From quoted\n" +
+            "From b@example.com Mon Jun 01 11:00:00 2009\n" +
+            "Subject: two\n\nbody two\n";
+
+    private static final String WARC_INFO = "WARC/1.0\r\nWARC-Type: warcinfo\r\n" +
+            "Content-Length: 5\r\n\r\nhello\r\n\r\n";
+
+    private static final String WARC_RESPONSE = "WARC/1.0\r\nWARC-Type: response\r\n" +
+            "WARC-Target-URI: https://example.com/\r\nContent-Length: 11\r\n\r\n" +
+            "hello world\r\n\r\n";
+
+    @Test
+    public void testSplit(@TempDir Path dir) throws Exception {
+        Files.write(dir.resolve("test.mbox"), MBOX.getBytes(StandardCharsets.US_ASCII));
+        Files.write(dir.resolve("test.warc"),
+                (WARC_INFO + WARC_RESPONSE + WARC_RESPONSE).getBytes(StandardCharsets.US_ASCII));
+        Files.write(dir.resolve("test.txt"), "not a container".getBytes(StandardCharsets.US_ASCII));
+
+        FileSystemFetcher fetcher = getFetcher(dir);
+        List<FetchEmitTuple> tuples = iterate(dir, 0, "test.mbox", "test.txt", "test.warc");
+        assertEquals(5, tuples.size());
+
+        FetchEmitTuple first = tuples.get(0);
+        assertEquals("test.mbox#0", first.getId());
+        assertEquals("test.mbox#0", first.getEmitKey().getEmitKey());
+        assertEquals("test.mbox", first.getMetadata().get(ContainerSplittingPipesIterator.CONTAINER_ID));
+        assertEquals("0", first.getMetadata().get(ContainerSplittingPipesIterator.RECORD_INDEX));
+        String record = fetch(fetcher, first.getFetchKey());
+        assertTrue(record.startsWith("From a@example.com"));
+        assertTrue(record.endsWith(">From quoted\n"));
+        assertTrue(fetch(fetcher, tuples.get(1).getFetchKey()).contains("body two"));
+
+        assertFalse(tuples.get(2).getFetchKey().hasRange());
+        assertEquals("test.txt", tuples.get(2).getId());
+
+        //the warcinfo record is skipped
+        for (int i = 3; i < 5; i++) {
+            FetchEmitTuple t = tuples.get(i);
+            assertEquals("test.warc#" + (i - 3), t.getId());
+            assertEquals("https://example.com/",
+                    t.getMetadata().get(ContainerSplittingPipesIterator.RECORD_NAME));
+            assertEquals("https://example.com/",
+                    t.getMetadata().get(TikaCoreProperties.RESOURCE_NAME_KEY));
+            assertEquals(WARC_RESPONSE, fetch(fetcher, t.getFetchKey()));
+        }
+    }
+
+    @Test
+    public void testTooSmallToSplit(@TempDir Path dir) throws Exception {
+        Files.write(dir.resolve("test.mbox"), MBOX.getBytes(StandardCharsets.US_ASCII));
+        List<FetchEmitTuple> tuples = iterate(dir, 1000, "test.mbox");
+        assertEquals(1, tuples.size());
+        assertEquals("test.mbox", tuples.get(0).getId());
+        assertFalse(tuples.get(0).getFetchKey().hasRange());
+    }
+
+    @Test
+    public void testConfig(@TempDir Path dir) throws Exception {
+        Path input = Files.createDirectories(dir.resolve("input"));
+        Files.write(input.resolve("test.mbox"), MBOX.getBytes(StandardCharsets.US_ASCII));
+        String basePath = input.toAbsolutePath().toString();
+        String xml = "<properties>" +
+                "<fetchers><fetcher class=\"" + FileSystemFetcher.class.getName() + "\">" +
+                "<name>fsf</name><basePath>" + basePath + "</basePath></fetcher></fetchers>" +
+                "<pipesIterator class=\"" + ContainerSplittingPipesIterator.class.getName() +
+                "\"><minSplitSize>0</minSplitSize>" +
+                "<delegate class=\"" + FileSystemPipesIterator.class.getName() + "\">" +
+                "<basePath>" + basePath + "</basePath><fetcherName>fsf</fetcherName>" +
+                "<emitterName>fse</emitterName></delegate></pipesIterator></properties>";
+        Path config = dir.resolve("tika-config.xml");
+        Files.write(config, xml.getBytes(StandardCharsets.UTF_8));
+
+        PipesIterator iterator = PipesIterator.build(config);
+        List<FetchEmitTuple> tuples = new ArrayList<>();
+        for (FetchEmitTuple t : iterator) {
+            tuples.add(t);
+        }
+        assertEquals(2, tuples.size());
+        assertEquals("test.mbox#1", tuples.get(1).getId());
+        assertEquals("fsf", tuples.get(1).getFetchKey().getFetcherName());
+        assertEquals("fse", tuples.get(1).getEmitKey().getEmitterName());
+        assertTrue(fetch(getFetcher(input), tuples.get(1).getFetchKey()).contains("body two"));
+    }
+
+    private static List<FetchEmitTuple> iterate(Path dir, long minSplitSize, String... keys)
+            throws Exception {
+        PipesIterator delegate = new PipesIterator() {
+            @Override
+            protected void enqueue() throws InterruptedException, TimeoutException {
+                for (String key : keys) {
+                    tryToAdd(new FetchEmitTuple(key, new FetchKey("fs", key),
+                            new EmitKey("emitter", key), new Metadata(), new ParseContext(),
+                            FetchEmitTuple.ON_PARSE_EXCEPTION.EMIT));
+                }
+            }
+        };
+        ContainerSplittingPipesIterator iterator = new ContainerSplittingPipesIterator();
+        iterator.setDelegate(delegate);
+        iterator.setFetcher(getFetcher(dir));
+        iterator.setMinSplitSize(minSplitSize);
+        List<FetchEmitTuple> tuples = new ArrayList<>();
+        for (FetchEmitTuple t : iterator) {
+            tuples.add(t);
+        }
+        return tuples;
+    }
+
+    private static FileSystemFetcher getFetcher(Path dir) {
+        FileSystemFetcher fetcher = new FileSystemFetcher();
+        fetcher.setBasePath(dir.toAbsolutePath().toString());
+        return fetcher;
+    }
+
+    private static String fetch(FileSystemFetcher fetcher, FetchKey fetchKey) throws Exception {
+        try (InputStream is = fetcher.fetch(fetchKey.getFetchKey(), fetchKey.getRangeStart(),
+                fetchKey.getRangeEnd(), new Metadata(), new ParseContext())) {
+            return new String(is.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.pipesiterator.split;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+public class TarScannerTest {
+
+    @Test
+    public void testUstar() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("a.txt", 5, '0'), "hello");
+        writeEntry(tar, header("dir/", 0, '5'), "");
+        writeEntry(tar, header("dir/b.txt", 600, '0'), repeat('b', 600));
+        end(tar);
+        assertEquals(Arrays.asList("a.txt 512-516", "dir/b.txt 2048-2647"), scan(tar));
+    }
+
+    @Test
+    public void testPaxNameAndSize() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        String pax = paxRecord("path", "a/very/long/pax/name.txt") + paxRecord("size", "700");
+        writeEntry(tar, header("PaxHeaders/x", pax.length(), 'x'), pax);
+        //the size in the header is ignored in favour of the pax size
+        writeEntry(tar, header("short.txt", 0, '0'), repeat('x', 700));
+        writeEntry(tar, header("next.txt", 3, '0'), "abc");
+        end(tar);
+        assertEquals(Arrays.asList("a/very/long/pax/name.txt 1536-2235",
+                "next.txt 3072-3074"), scan(tar));
+    }
+
+    @Test
+    public void testGnuLongName() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        String longName = repeat('n', 150) + ".txt";
+        writeEntry(tar, header("././@LongLink", longName.length() + 1, 'L'), longName + "\0");
+        writeEntry(tar, header(longName.substring(0, 99), 4, '0'), "data");
+        writeEntry(tar, header("next.txt", 3, '0'), "abc");
+        end(tar);
+        assertEquals(Arrays.asList(longName + " 1536-1539", "next.txt 2560-2562"), scan(tar));
+    }
+
+    @Test
+    public void testPaxSizeFollowedByLongName() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        String pax = paxRecord("size", "1000");
+        writeEntry(tar, header("PaxHeaders/x", pax.length(), 'x'), pax);
+        //the pax size belongs to the file, not to the long name header in between
+        String longName = repeat('n', 700) + ".txt";
+        writeEntry(tar, header("././@LongLink", longName.length() + 1, 'L'), longName + "\0");
+        writeEntry(tar, header("short.txt", 0, '0'), repeat('x', 1000));
+        writeEntry(tar, header("next.txt", 3, '0'), "abc");
+        end(tar);
+        assertEquals(Arrays.asList(longName + " 3072-4071", "next.txt 4608-4610"), scan(tar));
+    }
+
+    @Test
+    public void testBase256Size() throws Exception {
+        long size = 8L * 1024 * 1024 * 1024 + 3;
+        byte[] header = header("huge.bin", 0, '0');
+        Arrays.fill(header, 124, 136, (byte) 0);
+        header[124] = (byte) 0x80;
+        for (int i = 0; i < 8; i++) {
+            header[135 - i] = (byte) (size >>> (8 * i));
+        }
+        long padded = (size + 511) / 512 * 512;
+        ByteArrayOutputStream tail = new ByteArrayOutputStream();
+        writeEntry(tail, header("next.txt", 3, '0'), "abc");
+        end(tail);
+
+        List<String> records = new ArrayList<>();
+        try (InputStream is = new SparseStream(header, padded, tail.toByteArray())) {
+            new TarScanner().scan(is, (start, end, name) -> records.add(
+                    String.format(Locale.ROOT, "%s %d-%d", name, start, end)));
+        }
+        long next = 512 + padded + 512;
+        assertEquals(Arrays.asList("huge.bin 512-" + (512 + size - 1),
+                "next.txt " + next + "-" + (next + 2)), records);
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeEntry(tar, header("a.txt", 5, '0'), "hello");
+        writeEntry(tar, header("b.txt", 1000, '0'), repeat('b', 1000));
+        byte[] bytes = tar.toByteArray();
+
+        //cut off in the middle of b.txt's data
+        assertEquals(Arrays.asList("a.txt 512-516"), scan(Arrays.copyOf(bytes, 1024 + 700)));
+        //cut off in the middle of b.txt's header
+        assertEquals(Arrays.asList("a.txt 512-516"), scan(Arrays.copyOf(bytes, 1024 + 100)));
+        //no end of archive blocks, but nothing is missing
+        assertEquals(Arrays.asList("a.txt 512-516", "b.txt 1536-2535"), scan(bytes));
+    }
+
+    private static List<String> scan(ByteArrayOutputStream tar) throws Exception {
+        return scan(tar.toByteArray());
+    }
+
+    private static List<String> scan(byte[] tar) throws Exception {
+        List<String> records = new ArrayList<>();
+        new TarScanner().scan(new ByteArrayInputStream(tar), (start, end, name) -> records.add(
+                String.format(Locale.ROOT, "%s %d-%d", name, start, end)));
+        return records;
+    }
+
+    private static byte[] header(String name, long size, char type) {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, Math.min(nameBytes.length, 100));
+        put(header, 100, "0000644");
+        put(header, 124, String.format(Locale.ROOT, "%011o", size));
+        header[156] = (byte) type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+        return header;
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    private static void writeEntry(ByteArrayOutputStream tar, byte[] header, String data)
+            throws IOException {
+        tar.write(header);
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        tar.write(bytes);
+        int remainder = bytes.length % 512;
+        if (remainder > 0) {
+            tar.write(new byte[512 - remainder]);
+        }
+    }
+
+    private static void end(ByteArrayOutputStream tar) throws IOException {
+        tar.write(new byte[1024]);
+    }
+
+    private static String paxRecord(String key, String value) {
+        String record = " " + key + "=" + value + "\n";
+        int length = record.length();
+        //the length includes its own digits
+        int total = length + Integer.toString(length).length();
+        if (Integer.toString(total).length() > Integer.toString(length).length()) {
+            total++;
+        }
+        return total + record;
+    }
+
+    private static String repeat(char c, int n) {
+        char[] chars = new char[n];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    /**
+     * Serves the head, then <code>gap</code> bytes without filling them in,
+     * then the tail, so that huge entries can be scanned without huge arrays.
+     */
+    private static class SparseStream extends InputStream {
+        private final byte[] head;
+        private final long gap;
+        private final byte[] tail;
+        private long pos = 0;
+
+        SparseStream(byte[] head, long gap, byte[] tail) {
+            this.head = head;
+            this.gap = gap;
+            this.tail = tail;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos < head.length) {
+                int n = Math.min(len, head.length - (int) pos);
+                System.arraycopy(head, (int) pos, b, off, n);
+                pos += n;
+                return n;
+            }
+            if (pos < head.length + gap) {
+                int n = (int) Math.min(len, head.length + gap - pos);
+                pos += n;
+                return n;
+            }
+            int tailPos = (int) (pos - head.length - gap);
+            if (tailPos >= tail.length) {
+                return -1;
+            }
+            int n = Math.min(len, tail.length - tailPos);
+            System.arraycopy(tail, tailPos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+}
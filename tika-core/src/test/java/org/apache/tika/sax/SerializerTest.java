@@ -69,6 +69,52 @@ public class SerializerTest {
         assertElementWithAttributes("<p class=\"test\">content</p>", new ToHTMLContentHandler());
     }
 
+    @Test
+    public void testToXMLContentHandlerBuffering() throws Exception {
+        //runs that are longer than the internal buffer, with escapes on both sides of its end
+        StringBuilder text = new StringBuilder();
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("a<b&c");
+            escaped.append("a&lt;b&amp;c");
+        }
+        ToXMLContentHandler handler = new ToXMLContentHandler();
+        handler.startDocument();
+        handler.startElement("", "p", "p", new AttributesImpl());
+        handler.characters(text.toString().toCharArray(), 0, text.length());
+        handler.endElement("", "p", "p");
+        assertEquals("<p>" + escaped + "</p>", handler.toString());
+
+        handler.startElement("", "p", "p", new AttributesImpl());
+        handler.characters("more".toCharArray(), 0, 4);
+        handler.endElement("", "p", "p");
+        handler.endDocument();
+        assertEquals("<p>" + escaped + "</p><p>more</p>", handler.toString());
+    }
+
+    @Test
+    public void testToXMLContentHandlerNamespaces() throws Exception {
+        String ns = "http://www.w3.org/1999/xhtml";
+        ToXMLContentHandler handler = new ToXMLContentHandler();
+        handler.startDocument();
+        handler.startPrefixMapping("x", ns);
+        handler.startElement(ns, "html", "x:html", new AttributesImpl());
+        handler.startElement(ns, "body", "x:body", new AttributesImpl());
+        handler.startPrefixMapping("", "urn:a");
+        handler.startElement("urn:a", "a", "a", new AttributesImpl());
+        handler.endElement("urn:a", "a", "a");
+        handler.endPrefixMapping("");
+        //the reused info for this level must not remember urn:a
+        handler.startElement(ns, "p", "x:p", new AttributesImpl());
+        handler.endElement(ns, "p", "x:p");
+        handler.endElement(ns, "body", "x:body");
+        handler.endElement(ns, "html", "x:html");
+        handler.endPrefixMapping("x");
+        handler.endDocument();
+        assertEquals("<x:html xmlns:x=\"" + ns + "\"><x:body><a xmlns=\"urn:a\" />" +
+                "<x:p /></x:body></x:html>", handler.toString());
+    }
+
     private void assertStartDocument(String expected, ContentHandler handler) throws Exception {
         handler.startDocument();
         assertEquals(expected, handler.toString());
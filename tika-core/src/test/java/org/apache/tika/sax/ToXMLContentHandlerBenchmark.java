@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Times serializing a large XHTML event stream, similar to what the parsers
+ * produce for a long document: paragraphs of text with some markup
+ * characters, links with attributes, tables and empty elements.
+ * <p>
+ * The input is <code>numParagraphs</code> (default 20,000) paragraphs of 20 to
+ * 119 words, generated with a fixed seed, with a link in every fifth paragraph,
+ * a 4x4 table before every fiftieth and a <code>br</code> at the end of each.
+ * The events are replayed from memory, so only the serialization is timed.
+ * <p>
+ * Each iteration (default 20) serializes the whole stream once with a new
+ * {@link ToXMLContentHandler} and once with a new {@link ToHTMLContentHandler},
+ * each writing to its default in-memory target, and prints the time of each
+ * and the total number of characters written. The first iterations warm up
+ * the JIT; look at the last ones.
+ * <p>
+ * Usage: ToXMLContentHandlerBenchmark [numParagraphs] [iterations]
+ */
+public class ToXMLContentHandlerBenchmark {
+
+    private static final String XHTML = XHTMLContentHandler.XHTML;
+
+    private static final String[] WORDS = {"the", "quick", "brown", "fox", "jumps", "over",
+            "lazy", "dog", "Tika", "parser", "a<b", "R&D", "\"quoted\"", "content", "document",
+            "metadata", "extraction", "x>y"};
+
+    public static void main(String[] args) throws Exception {
+        int numParagraphs = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        List<char[]> texts = generateTexts(numParagraphs, new Random(42));
+
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            ContentHandler xml = new ToXMLContentHandler("UTF-8");
+            replay(texts, xml);
+            long xmlElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ContentHandler html = new ToHTMLContentHandler();
+            replay(texts, html);
+            long htmlElapsed = System.nanoTime() - start;
+
+            long chars = xml.toString().length() + html.toString().length();
+            System.out.println(String.format(Locale.ROOT,
+                    "iteration %2d: xml %6.1f ms, html %6.1f ms, %d chars", i,
+                    xmlElapsed / 1e6, htmlElapsed / 1e6, chars));
+        }
+    }
+
+    private static void replay(List<char[]> texts, ContentHandler handler) throws SAXException {
+        AttributesImpl empty = new AttributesImpl();
+        handler.startDocument();
+        handler.startPrefixMapping("", XHTML);
+        handler.startElement(XHTML, "html", "html", empty);
+        handler.startElement(XHTML, "head", "head", empty);
+        AttributesImpl meta = new AttributesImpl();
+        meta.addAttribute("", "name", "name", "CDATA", "Content-Type");
+        meta.addAttribute("", "content", "content", "CDATA", "application/pdf");
+        handler.startElement(XHTML, "meta", "meta", meta);
+        handler.endElement(XHTML, "meta", "meta");
+        handler.endElement(XHTML, "head", "head");
+        handler.startElement(XHTML, "body", "body", empty);
+        AttributesImpl link = new AttributesImpl();
+        AttributesImpl cell = new AttributesImpl();
+        cell.addAttribute("", "class", "class", "CDATA", "cell");
+        int n = 0;
+        for (char[] text : texts) {
+            n++;
+            if (n % 50 == 0) {
+                handler.startElement(XHTML, "table", "table", empty);
+                for (int r = 0; r < 4; r++) {
+                    handler.startElement(XHTML, "tr", "tr", empty);
+                    for (int c = 0; c < 4; c++) {
+                        handler.startElement(XHTML, "td", "td", cell);
+                        handler.characters(text, 0, Math.min(12, text.length));
+                        handler.endElement(XHTML, "td", "td");
+                    }
+                    handler.endElement(XHTML, "tr", "tr");
+                }
+                handler.endElement(XHTML, "table", "table");
+            }
+            handler.startElement(XHTML, "p", "p", empty);
+            int half = text.length / 2;
+            handler.characters(text, 0, half);
+            if (n % 5 == 0) {
+                link.clear();
+                link.addAttribute("", "href", "href", "CDATA",
+                        "https://example.com/doc?id=" + n + "&page=2");
+                handler.startElement(XHTML, "a", "a", link);
+                handler.characters(text, half, Math.min(10, text.length - half));
+                handler.endElement(XHTML, "a", "a");
+            }
+            handler.characters(text, half, text.length - half);
+            handler.startElement(XHTML, "br", "br", empty);
+            handler.endElement(XHTML, "br", "br");
+            handler.endElement(XHTML, "p", "p");
+            handler.ignorableWhitespace(new char[]{'\n'}, 0, 1);
+        }
+        handler.endElement(XHTML, "body", "body");
+        handler.endElement(XHTML, "html", "html");
+        handler.endPrefixMapping("");
+        handler.endDocument();
+    }
+
+    private static List<char[]> generateTexts(int numParagraphs, Random random) {
+        List<char[]> texts = new ArrayList<>(numParagraphs);
+        for (int i = 0; i < numParagraphs; i++) {
+            StringBuilder sb = new StringBuilder();
+            int numWords = 20 + random.nextInt(100);
+            for (int w = 0; w < numWords; w++) {
+                if (w > 0) {
+                    sb.append(' ');
+                }
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            texts.add(sb.toString().toCharArray());
+        }
+        return texts;
+    }
+}
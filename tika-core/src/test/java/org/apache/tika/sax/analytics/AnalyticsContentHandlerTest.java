@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.sax.analytics;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.ContentHandler;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.sax.BasicContentHandlerFactory;
+import org.apache.tika.sax.BasicContentHandlerFactory.HANDLER_TYPE;
+import org.apache.tika.sax.RecursiveParserWrapperHandler;
+
+public class AnalyticsContentHandlerTest {
+
+    private static final String TEXT = "abc 😀 Жз 中中\n" +
+            "def 😀 ghi";
+
+    @Test
+    public void testSplitCharacters() throws Exception {
+        for (int step = 1; step < 6; step++) {
+            BasicContentHandlerFactory factory = newFactory(HANDLER_TYPE.TEXT);
+            ContentHandler handler = factory.getNewContentHandler();
+            char[] chars = TEXT.toCharArray();
+            for (int i = 0; i < chars.length; i += step) {
+                handler.characters(chars, i, Math.min(step, chars.length - i));
+            }
+            Metadata metadata = new Metadata();
+            ((AnalyticsContentHandler) handler).writeTo(metadata);
+            assertEquals(sha256Hex(TEXT),
+                    metadata.get(TextDigestAnalyzer.CONTENT_SHA256));
+            assertArrayEquals(new String[]{"BASIC_LATIN=9", "CJK_UNIFIED_IDEOGRAPHS=2",
+                            "CYRILLIC=2", "EMOTICONS=2"},
+                    metadata.getValues(UnicodeBlockAnalyzer.UNICODE_BLOCKS));
+            assertEquals(TEXT, handler.toString());
+        }
+    }
+
+    @Test
+    public void testRecursiveParserWrapperHandler() throws Exception {
+        BasicContentHandlerFactory factory = newFactory(HANDLER_TYPE.IGNORE);
+        RecursiveParserWrapperHandler rpwh = new RecursiveParserWrapperHandler(factory);
+
+        ContentHandler embedded = factory.getNewContentHandler();
+        embedded.characters("embedded".toCharArray(), 0, 8);
+        rpwh.startEmbeddedDocument(embedded, new Metadata());
+        rpwh.endEmbeddedDocument(embedded, new Metadata());
+
+        ContentHandler container = factory.getNewContentHandler();
+        container.characters(TEXT.toCharArray(), 0, TEXT.length());
+        rpwh.endDocument(container, new Metadata());
+
+        assertEquals(2, rpwh.getMetadataList().size());
+        Metadata containerMetadata = rpwh.getMetadataList().get(0);
+        Metadata embeddedMetadata = rpwh.getMetadataList().get(1);
+        assertEquals(sha256Hex(TEXT),
+                containerMetadata.get(TextDigestAnalyzer.CONTENT_SHA256));
+        assertEquals(sha256Hex("embedded"),
+                embeddedMetadata.get(TextDigestAnalyzer.CONTENT_SHA256));
+        assertTrue(Arrays.asList(embeddedMetadata.getValues(UnicodeBlockAnalyzer.UNICODE_BLOCKS))
+                .contains("BASIC_LATIN=8"));
+        //the text is analyzed but not stored
+        assertNull(containerMetadata.get(TikaCoreProperties.TIKA_CONTENT));
+    }
+
+    @Test
+    public void testNoText() throws Exception {
+        ContentHandler handler = newFactory(HANDLER_TYPE.TEXT)
+                .getNewContentHandler();
+        Metadata metadata = new Metadata();
+        ((AnalyticsContentHandler) handler).writeTo(metadata);
+        assertEquals(0, metadata.size());
+    }
+
+    private static BasicContentHandlerFactory newFactory(HANDLER_TYPE type) {
+        BasicContentHandlerFactory factory = new BasicContentHandlerFactory(type, -1);
+        factory.setContentAnalyzers(
+                Arrays.asList(new TextDigestAnalyzer(), new UnicodeBlockAnalyzer()));
+        return factory;
+    }
+
+    private static String sha256Hex(String s) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(s.getBytes(UTF_8))) {
+            sb.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -31,8 +31,12 @@ public class EvalConfig {
     private int maxTokens = 200000;
 
     private int maxContentLength = 5_000_000;
+    //if < 1, use the number of available processors
     private int numWorkers = 4;
     private Path errorLogFile = null;
+    //if true, workers hand rows off in batches to a single db writer thread
+    private boolean asyncWrites = false;
+    private int writeBatchSize = 1000;
 
 
     public static EvalConfig load(Path path) throws Exception {
@@ -72,6 +76,9 @@ public class EvalConfig {
     }
 
     public int getNumWorkers() {
+        if (numWorkers < 1) {
+            return Runtime.getRuntime().availableProcessors();
+        }
         return numWorkers;
     }
 
@@ -79,10 +86,19 @@ public class EvalConfig {
         return errorLogFile;
     }
 
+    public boolean isAsyncWrites() {
+        return asyncWrites;
+    }
+
+    public int getWriteBatchSize() {
+        return writeBatchSize;
+    }
+
     @Override
     public String toString() {
         return "EvalConfig{" + "minExtractLength=" + minExtractLength + ", maxExtractLength=" + maxExtractLength + ", jdbcString='" + jdbcString + '\'' + ", jdbcDriverClass='" +
                 jdbcDriverClass + '\'' + ", forceDrop=" + forceDrop + ", maxFilesToAdd=" + maxFilesToAdd + ", maxTokens=" + maxTokens + ", maxContentLength=" + maxContentLength +
-                ", numThreads=" + numWorkers + ", errorLogFile=" + errorLogFile + '}';
+                ", numThreads=" + numWorkers + ", errorLogFile=" + errorLogFile + ", asyncWrites=" + asyncWrites +
+                ", writeBatchSize=" + writeBatchSize + '}';
     }
 }
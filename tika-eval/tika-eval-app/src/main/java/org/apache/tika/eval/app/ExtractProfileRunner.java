@@ -51,6 +51,7 @@ import org.apache.tika.eval.app.db.Cols;
 import org.apache.tika.eval.app.db.JDBCUtil;
 import org.apache.tika.eval.app.db.MimeBuffer;
 import org.apache.tika.eval.app.db.TableInfo;
+import org.apache.tika.eval.app.io.AsyncDBWriter;
 import org.apache.tika.eval.app.io.DBWriter;
 import org.apache.tika.eval.app.io.ExtractReader;
 import org.apache.tika.eval.app.io.ExtractReaderException;
@@ -113,29 +114,42 @@ public class ExtractProfileRunner {
         MimeBuffer mimeBuffer = initTables(jdbcUtil, builder, dbPath, evalConfig);
         builder.populateRefTables(jdbcUtil, mimeBuffer);
 
+        int numWorkers = evalConfig.getNumWorkers();
+        //the workers, the crawler and the status reporter (and the async db writer)
+        int numTasks = numWorkers + 2;
+        AsyncDBWriter asyncWriter = null;
+        if (evalConfig.isAsyncWrites()) {
+            asyncWriter = new AsyncDBWriter(builder.getDBWriter(builder.tableInfos, jdbcUtil, mimeBuffer), evalConfig.getWriteBatchSize(), 2 * numWorkers);
+            numTasks++;
+        }
+
         AtomicInteger processed = new AtomicInteger(0);
-        AtomicInteger activeWorkers = new AtomicInteger(evalConfig.getNumWorkers());
+        AtomicInteger activeWorkers = new AtomicInteger(numWorkers);
         AtomicBoolean crawlerActive = new AtomicBoolean(true);
 
 
         ArrayBlockingQueue<FetchEmitTuple> queue = new ArrayBlockingQueue<>(1000);
         CallablePipesIterator pipesIterator = new CallablePipesIterator(createIterator(inputDir), queue);
-        ExecutorService executorService = Executors.newFixedThreadPool(evalConfig.getNumWorkers() + 2);
+        ExecutorService executorService = Executors.newFixedThreadPool(numTasks);
         ExecutorCompletionService<Long> executorCompletionService = new ExecutorCompletionService<>(executorService);
 
         StatusReporter statusReporter = new StatusReporter(pipesIterator, processed, activeWorkers, crawlerActive);
         executorCompletionService.submit(statusReporter);
 
         executorCompletionService.submit(pipesIterator);
-        for (int i = 0; i < evalConfig.getNumWorkers(); i++) {
+        if (asyncWriter != null) {
+            executorCompletionService.submit(asyncWriter);
+        }
+        for (int i = 0; i < numWorkers; i++) {
             ExtractReader extractReader = new ExtractReader(ExtractReader.ALTER_METADATA_LIST.AS_IS, evalConfig.getMinExtractLength(), evalConfig.getMaxExtractLength());
-            ExtractProfiler extractProfiler = new ExtractProfiler(inputDir, extractsDir, extractReader, builder.getDBWriter(builder.tableInfos, jdbcUtil, mimeBuffer));
+            IDBWriter writer = asyncWriter == null ? builder.getDBWriter(builder.tableInfos, jdbcUtil, mimeBuffer) : asyncWriter.newWriter();
+            ExtractProfiler extractProfiler = new ExtractProfiler(inputDir, extractsDir, extractReader, writer);
             executorCompletionService.submit(new ProfileWorker(queue, extractProfiler, processed));
         }
 
         int finished = 0;
         try {
-            while (finished < evalConfig.getNumWorkers() + 2) {
+            while (finished < numTasks) {
                 //blocking
                 Future<Long> future = executorCompletionService.take();
                 Long result = future.get();
@@ -145,7 +159,10 @@ public class ExtractProfileRunner {
                         queue.put(PipesIterator.COMPLETED_SEMAPHORE);
                         crawlerActive.set(false);
                     } else if (result == PROFILE_WORKER_COMPLETED_VALUE) {
-                        activeWorkers.decrementAndGet();
+                        if (activeWorkers.decrementAndGet() == 0 && asyncWriter != null) {
+                            //all workers have closed their writers
+                            asyncWriter.finish();
+                        }
                     }
                     finished++;
                 }
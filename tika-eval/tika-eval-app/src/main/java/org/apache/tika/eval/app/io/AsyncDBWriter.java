@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.app.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tika.eval.app.db.Cols;
+import org.apache.tika.eval.app.db.TableInfo;
+
+/**
+ * Decouples the profiling workers from the database. Each worker writes to
+ * its own writer from {@link #newWriter()}, which collects rows and hands
+ * them off in batches over a bounded queue. A single thread running
+ * {@link #call()} writes all of the rows through the wrapped {@link IDBWriter}.
+ * <p>
+ * Workers never wait on the (shared) connection or on each other's commits,
+ * and the database sees a single stream of large batches, so the number of
+ * workers can be scaled up to the number of cores.
+ * <p>
+ * Call {@link #finish()} once all of the writers from {@link #newWriter()}
+ * have been closed. {@link #call()} then closes the wrapped writer and returns
+ * {@link #COMPLETED_VALUE}.
+ */
+public class AsyncDBWriter implements Callable<Long> {
+
+    public static final long COMPLETED_VALUE = 4;
+
+    private static final List<Row> STOP = new ArrayList<>();
+
+    private final IDBWriter delegate;
+    private final int batchSize;
+    private final BlockingQueue<List<Row>> queue;
+    private volatile boolean running = true;
+    private volatile long rowsWritten = 0;
+
+    /**
+     * @param delegate  writer that does the actual writing. Only its
+     *                  {@link IDBWriter#getMimeId(String)} is called from
+     *                  other threads, so that must be thread safe.
+     * @param batchSize number of rows a worker collects before handing them off
+     * @param queueSize maximum number of batches waiting to be written
+     */
+    public AsyncDBWriter(IDBWriter delegate, int batchSize, int queueSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    /**
+     * @return a new writer for a single worker; writers are not thread safe
+     */
+    public IDBWriter newWriter() {
+        return new BatchingWriter();
+    }
+
+    /**
+     * Signals that all writers have been closed and no more rows are coming.
+     */
+    public void finish() throws InterruptedException {
+        queue.put(STOP);
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    @Override
+    public Long call() throws Exception {
+        try {
+            while (true) {
+                List<Row> batch = queue.take();
+                if (batch == STOP) {
+                    delegate.close();
+                    return COMPLETED_VALUE;
+                }
+                for (Row row : batch) {
+                    delegate.writeRow(row.table, row.data);
+                }
+                rowsWritten += batch.size();
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    private void put(List<Row> batch) throws IOException {
+        try {
+            while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+                if (!running) {
+                    throw new IOException("the database writer has stopped");
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private class BatchingWriter implements IDBWriter {
+
+        private List<Row> batch = new ArrayList<>(batchSize);
+
+        @Override
+        public void writeRow(TableInfo table, Map<Cols, String> data) throws IOException {
+            //callers may reuse the map
+            batch.add(new Row(table, new HashMap<>(data)));
+            if (batch.size() >= batchSize) {
+                put(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        /**
+         * Hands off the remaining rows. This does not close the wrapped writer.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!batch.isEmpty()) {
+                put(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        @Override
+        public int getMimeId(String mimeString) {
+            return delegate.getMimeId(mimeString);
+        }
+    }
+
+    private static class Row {
+        private final TableInfo table;
+        private final Map<Cols, String> data;
+
+        Row(TableInfo table, Map<Cols, String> data) {
+            this.table = table;
+            this.data = data;
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.tika.eval.app;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.net.URISyntaxException;
@@ -34,6 +35,8 @@ public class EvalConfigTest {
         assertEquals(20000, evalConfig.getMaxExtractLength());
         assertNull(evalConfig.getErrorLogFile());
         assertNull(evalConfig.getJdbcString());
+        assertFalse(evalConfig.isAsyncWrites());
+        assertEquals(1000, evalConfig.getWriteBatchSize());
     }
 
     private Path getConfig(String fileName) throws URISyntaxException {
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.app.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.eval.app.MockDBWriter;
+import org.apache.tika.eval.app.db.ColInfo;
+import org.apache.tika.eval.app.db.Cols;
+import org.apache.tika.eval.app.db.TableInfo;
+
+public class AsyncDBWriterTest {
+
+    private static final TableInfo TABLE =
+            new TableInfo("test", new ColInfo(Cols.ID, Types.INTEGER), new ColInfo(Cols.FILE_PATH, Types.VARCHAR, 128));
+
+    @Test
+    public void testAllRowsWritten() throws Exception {
+        MockDBWriter mockDBWriter = new MockDBWriter();
+        AsyncDBWriter asyncDBWriter = new AsyncDBWriter(mockDBWriter, 100, 4);
+        int numWorkers = 4;
+        int rowsPerWorker = 2503;
+        ExecutorService executorService = Executors.newFixedThreadPool(numWorkers + 1);
+        try {
+            Future<Long> writerFuture = executorService.submit(asyncDBWriter);
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int i = 0; i < numWorkers; i++) {
+                IDBWriter writer = asyncDBWriter.newWriter();
+                int workerId = i;
+                workers.add(executorService.submit(() -> {
+                    Map<Cols, String> data = new HashMap<>();
+                    for (int j = 0; j < rowsPerWorker; j++) {
+                        //the map is reused, as in the profilers
+                        data.clear();
+                        data.put(Cols.ID, Integer.toString(workerId * rowsPerWorker + j));
+                        data.put(Cols.FILE_PATH, "file-" + j);
+                        writer.writeRow(TABLE, data);
+                    }
+                    writer.close();
+                    return null;
+                }));
+            }
+            for (Future<Void> f : workers) {
+                f.get();
+            }
+            asyncDBWriter.finish();
+            assertEquals(AsyncDBWriter.COMPLETED_VALUE, writerFuture.get().longValue());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        List<Map<Cols, String>> rows = mockDBWriter.getTable(TABLE);
+        assertEquals(numWorkers * rowsPerWorker, rows.size());
+        assertEquals(numWorkers * rowsPerWorker, asyncDBWriter.getRowsWritten());
+        boolean[] seen = new boolean[numWorkers * rowsPerWorker];
+        for (Map<Cols, String> row : rows) {
+            seen[Integer.parseInt(row.get(Cols.ID))] = true;
+        }
+        for (boolean b : seen) {
+            assertTrue(b);
+        }
+    }
+
+    @Test
+    public void testWriterFailure() throws Exception {
+        MockDBWriter failingWriter = new MockDBWriter() {
+            @Override
+            public void writeRow(TableInfo tableInfo, Map<Cols, String> row) throws IOException {
+                throw new IOException("db is gone");
+            }
+        };
+        AsyncDBWriter asyncDBWriter = new AsyncDBWriter(failingWriter, 1, 1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            executorService.submit(asyncDBWriter);
+            IDBWriter writer = asyncDBWriter.newWriter();
+            Map<Cols, String> data = new HashMap<>();
+            data.put(Cols.ID, "1");
+            //once the writer thread has died, the queue fills and workers must not hang
+            assertThrows(IOException.class, () -> {
+                for (int i = 0; i < 10; i++) {
+                    writer.writeRow(TABLE, data);
+                }
+            });
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
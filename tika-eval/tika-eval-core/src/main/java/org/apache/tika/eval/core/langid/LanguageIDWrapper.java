@@ -33,6 +33,10 @@ public class LanguageIDWrapper implements StringStatsCalculator<List<LanguageRes
         MAX_TEXT_LENGTH = maxContentLengthForLangId;
     }
 
+    public static int getMaxTextLength() {
+        return MAX_TEXT_LENGTH;
+    }
+
     @Override
     public List<LanguageResult> calculate(String txt) {
         OpenNLPDetector detector = new OpenNLPDetector();
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.core.metadata;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+import org.apache.tika.eval.core.langid.LanguageIDWrapper;
+import org.apache.tika.eval.core.textstats.CommonTokens;
+import org.apache.tika.eval.core.tokens.AnalyzerManager;
+import org.apache.tika.eval.core.tokens.CommonTokenResult;
+import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.langdetect.opennlp.OpenNLPDetector;
+import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.sax.analytics.ContentAnalyzer;
+
+/**
+ * Streaming version of the {@link TikaEvalMetadataFilter}: writes the same
+ * token counts, out-of-vocabulary rate and language, but computes them while
+ * the text is being written, in chunks, so that the text of a document never
+ * has to be held in memory as a whole.
+ * <p>
+ * Use this with {@link org.apache.tika.sax.BasicContentHandlerFactory#setContentAnalyzers(List)}
+ * instead of the filter.
+ */
+public class TikaEvalContentAnalyzer implements ContentAnalyzer {
+
+    private static final String FIELD = "f";
+
+    private static final int MAX_TOKENS = 10_000_000;
+
+    //chunks are cut at the last whitespace after this many characters
+    static final int CHUNK_SIZE = 32768;
+
+    private static Analyzer ANALYZER;
+
+    private static CommonTokens COMMON_TOKENS;
+
+    private static synchronized Analyzer getAnalyzer() {
+        if (ANALYZER == null) {
+            ANALYZER = AnalyzerManager.newInstance(MAX_TOKENS).getGeneralAnalyzer();
+        }
+        return ANALYZER;
+    }
+
+    private static synchronized CommonTokens getCommonTokens() {
+        if (COMMON_TOKENS == null) {
+            COMMON_TOKENS = new CommonTokens();
+        }
+        return COMMON_TOKENS;
+    }
+
+    @Override
+    public ContentAnalyzer.Instance newInstance() {
+        return new TikaEvalInstance(getAnalyzer(), getCommonTokens());
+    }
+
+    private static class TikaEvalInstance implements ContentAnalyzer.Instance {
+
+        private final Analyzer analyzer;
+        private final CommonTokens commonTokens;
+        private final OpenNLPDetector detector = new OpenNLPDetector();
+        private final TokenCounts tokenCounts = new TokenCounts();
+
+        private char[] chunk = new char[CHUNK_SIZE * 2];
+        private int length = 0;
+        private boolean hasText = false;
+
+        TikaEvalInstance(Analyzer analyzer, CommonTokens commonTokens) {
+            this.analyzer = analyzer;
+            this.commonTokens = commonTokens;
+            detector.setMaxLength(LanguageIDWrapper.getMaxTextLength());
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int len) {
+            if (!hasText) {
+                for (int i = start; i < start + len; i++) {
+                    if (!Character.isWhitespace(ch[i])) {
+                        hasText = true;
+                        break;
+                    }
+                }
+            }
+            detector.addText(ch, start, len);
+            int end = start + len;
+            while (start < end) {
+                int n = Math.min(end - start, chunk.length - length);
+                System.arraycopy(ch, start, chunk, length, n);
+                length += n;
+                start += n;
+                if (length >= CHUNK_SIZE) {
+                    tokenizeChunk(false);
+                }
+            }
+        }
+
+        /**
+         * Tokenizes the buffered text up to the last whitespace and keeps the
+         * rest, so that no token is split across two chunks.
+         */
+        private void tokenizeChunk(boolean last) {
+            int cut = length;
+            if (!last) {
+                while (cut > 0 && !Character.isWhitespace(chunk[cut - 1])) {
+                    cut--;
+                }
+                if (cut == 0) {
+                    //one very long token, don't split a surrogate pair
+                    cut = Character.isHighSurrogate(chunk[length - 1]) ? length - 1 : length;
+                }
+            }
+            if (tokenCounts.getTotalTokens() < MAX_TOKENS) {
+                tokenize(cut);
+            }
+            System.arraycopy(chunk, cut, chunk, 0, length - cut);
+            length -= cut;
+        }
+
+        private void tokenize(int len) {
+            try (TokenStream ts = analyzer.tokenStream(FIELD,
+                    new CharArrayReader(chunk, 0, len))) {
+                CharTermAttribute termAtt = ts.getAttribute(CharTermAttribute.class);
+                ts.reset();
+                while (ts.incrementToken() && tokenCounts.getTotalTokens() < MAX_TOKENS) {
+                    tokenCounts.increment(termAtt.buffer(), 0, termAtt.length());
+                }
+                ts.end();
+            } catch (IOException e) {
+                //can't happen with a CharArrayReader
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish(Metadata metadata) {
+            if (!hasText) {
+                return;
+            }
+            tokenizeChunk(true);
+            chunk = null;
+            List<LanguageResult> languages = detector.detectAll();
+            CommonTokenResult commonTokenResult = commonTokens.calculate(languages, tokenCounts);
+            TikaEvalMetadataFilter.writeStats(tokenCounts, commonTokenResult, languages, metadata);
+        }
+    }
+}
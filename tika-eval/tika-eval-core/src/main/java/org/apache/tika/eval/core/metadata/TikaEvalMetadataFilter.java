@@ -84,13 +84,18 @@ public class TikaEvalMetadataFilter extends MetadataFilter {
     private void calcStats(String content, Metadata metadata) {
         Map<Class, Object> results = TEXT_STATS_CALCULATOR.calculate(content);
 
-        TokenCounts tokenCounts = (TokenCounts) results.get(BasicTokenCountStatsCalculator.class);
+        writeStats((TokenCounts) results.get(BasicTokenCountStatsCalculator.class),
+                (CommonTokenResult) results.get(CommonTokens.class),
+                (List<LanguageResult>) results.get(LanguageIDWrapper.class), metadata);
+    }
+
+    static void writeStats(TokenCounts tokenCounts, CommonTokenResult commonTokenResult,
+                           List<LanguageResult> probabilities, Metadata metadata) {
         metadata.set(NUM_TOKENS, tokenCounts.getTotalTokens());
         metadata.set(NUM_UNIQUE_TOKENS, tokenCounts.getTotalUniqueTokens());
 
 
         //common token results
-        CommonTokenResult commonTokenResult = (CommonTokenResult) results.get(CommonTokens.class);
         metadata.set(NUM_ALPHA_TOKENS, commonTokenResult.getAlphabeticTokens());
         metadata.set(NUM_UNIQUE_ALPHA_TOKENS, commonTokenResult.getUniqueAlphabeticTokens());
         metadata.set(NUM_COMMON_TOKENS, commonTokenResult.getCommonTokens());
@@ -101,8 +106,6 @@ public class TikaEvalMetadataFilter extends MetadataFilter {
         }
 
         //languages
-        List<LanguageResult> probabilities =
-                (List<LanguageResult>) results.get(LanguageIDWrapper.class);
         if (probabilities.size() > 0) {
             metadata.set(LANGUAGE, probabilities.get(0).getLanguage());
             metadata.set(LANGUAGE_CONFIDENCE, probabilities.get(0).getRawScore());
@@ -17,10 +17,8 @@
 package org.apache.tika.eval.core.textstats;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.tuple.Pair;
 
 import org.apache.tika.eval.core.tokens.AlphaIdeographFilterFactory;
@@ -28,6 +26,7 @@ import org.apache.tika.eval.core.tokens.CommonTokenCountManager;
 import org.apache.tika.eval.core.tokens.CommonTokenResult;
 import org.apache.tika.eval.core.tokens.LangModel;
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 import org.apache.tika.language.detect.LanguageResult;
 
 public class CommonTokens implements LanguageAwareTokenCountStats<CommonTokenResult> {
@@ -52,10 +51,11 @@ public class CommonTokens implements LanguageAwareTokenCountStats<CommonTokenRes
         int numCommonTokens = 0;
         int numUniqueAlphabeticTokens = 0;
         int numAlphabeticTokens = 0;
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            String token = e.getKey();
-            int count = e.getValue().intValue();
-            if (AlphaIdeographFilterFactory.isAlphabetic(token.toCharArray(), token.length())) {
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            String token = cursor.getKey();
+            int count = cursor.getValue();
+            if (AlphaIdeographFilterFactory.isAlphabetic(token)) {
                 numAlphabeticTokens += count;
                 numUniqueAlphabeticTokens++;
             }
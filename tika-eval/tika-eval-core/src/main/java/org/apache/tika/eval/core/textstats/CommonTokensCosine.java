@@ -18,15 +18,14 @@ package org.apache.tika.eval.core.textstats;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.math3.util.FastMath;
 
 import org.apache.tika.eval.core.tokens.CommonTokenCountManager;
 import org.apache.tika.eval.core.tokens.LangModel;
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 import org.apache.tika.language.detect.LanguageResult;
 
 public class CommonTokensCosine implements LanguageAwareTokenCountStats<Double> {
@@ -43,17 +42,18 @@ public class CommonTokensCosine implements LanguageAwareTokenCountStats<Double>
                 commonTokenCountManager.getLangTokens(languages.get(0).getLanguage());
         LangModel model = pair.getValue();
         double kl = 0.0;
-        if (tokenCounts.getTokens().entrySet().size() == 0) {
+        if (tokenCounts.getTokenIntMap().isEmpty()) {
             return 1.0;
         }
         double numerator = 0.0;
         double denominator = 0.0;
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            long modelCount = model.getCount(e.getKey());
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            long modelCount = model.getCount(cursor.getKey());
             if (modelCount > 0) {
-                numerator += e.getValue().intValue() * modelCount;
+                numerator += cursor.getValue() * modelCount;
             }
-            double sq = FastMath.pow(e.getValue().intValue(), 2);
+            double sq = FastMath.pow(cursor.getValue(), 2);
             denominator += sq;
         }
         denominator = Math.sqrt(denominator);
@@ -17,15 +17,14 @@
 package org.apache.tika.eval.core.textstats;
 
 import java.util.List;
-import java.util.Map;
 
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.math3.util.FastMath;
 
 import org.apache.tika.eval.core.tokens.CommonTokenCountManager;
 import org.apache.tika.eval.core.tokens.LangModel;
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 import org.apache.tika.language.detect.LanguageResult;
 
 public class CommonTokensKLDNormed implements LanguageAwareTokenCountStats<Double> {
@@ -42,16 +41,17 @@ public class CommonTokensKLDNormed implements LanguageAwareTokenCountStats<Doubl
                 commonTokenCountManager.getLangTokens(languages.get(0).getLanguage());
         LangModel model = pair.getValue();
         double kl = 0.0;
-        if (tokenCounts.getTokens().entrySet().size() == 0) {
+        if (tokenCounts.getTokenIntMap().isEmpty()) {
             return 1.0;
         }
         double worstCase = 0.0;
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            double p = (double) e.getValue().intValue() / (double) tokenCounts.getTotalTokens();
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            double p = (double) cursor.getValue() / (double) tokenCounts.getTotalTokens();
             if (p == 0.0) { //shouldn't happen, but be defensive
                 continue;
             }
-            double q = model.getProbability(e.getKey());
+            double q = model.getProbability(cursor.getKey());
             kl += p * FastMath.log(q / p);
         }
         for (int i = 0; i < tokenCounts.getTotalTokens(); i++) {
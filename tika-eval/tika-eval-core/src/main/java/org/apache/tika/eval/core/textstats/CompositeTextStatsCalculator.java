@@ -124,8 +124,7 @@ public class CompositeTextStatsCalculator {
                 CharTermAttribute termAtt = ts.getAttribute(CharTermAttribute.class);
                 ts.reset();
                 while (ts.incrementToken()) {
-                    String token = termAtt.toString();
-                    counts.increment(token);
+                    counts.increment(termAtt.buffer(), 0, termAtt.length());
                 }
             } finally {
                 ts.close();
@@ -137,13 +136,13 @@ public class CompositeTextStatsCalculator {
                 brcis.add(brf.getInstance());
             }
             try {
-                TermToBytesRefAttribute termAtt = ts.getAttribute(TermToBytesRefAttribute.class);
+                TermToBytesRefAttribute bytesAtt = ts.getAttribute(TermToBytesRefAttribute.class);
+                CharTermAttribute termAtt = ts.getAttribute(CharTermAttribute.class);
                 ts.reset();
                 int i = 0;
                 while (ts.incrementToken()) {
-                    final BytesRef bytesRef = termAtt.getBytesRef();
-                    String token = termAtt.toString();
-                    counts.increment(token);
+                    final BytesRef bytesRef = bytesAtt.getBytesRef();
+                    counts.increment(termAtt.buffer(), 0, termAtt.length());
                     for (BytesRefCalculator.BytesRefCalcInstance brci : brcis) {
                         if (i > 0) {
                             brci.update(whitespace, 0, 1);
@@ -19,13 +19,12 @@ package org.apache.tika.eval.core.textstats;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.codec.binary.Base32;
 import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.lang3.mutable.MutableInt;
 
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 
 /**
  * Copied nearly directly from Apache Nutch:
@@ -46,10 +45,11 @@ public class TextProfileSignature implements TokenCountStatsCalculator<String> {
     @Override
     public String calculate(TokenCounts tokenCounts) {
         int maxFreq = -1;
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            if (e.getKey().length() >= minTokenLength) {
-                if (e.getValue().intValue() > maxFreq) {
-                    maxFreq = e.getValue().intValue();
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            if (cursor.getKey().length() >= minTokenLength) {
+                if (cursor.getValue() > maxFreq) {
+                    maxFreq = cursor.getValue();
                 }
             }
         }
@@ -64,14 +64,15 @@ public class TextProfileSignature implements TokenCountStatsCalculator<String> {
         }
 
         List<Token> profile = new ArrayList<>();
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            String token = e.getKey();
+        cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            String token = cursor.getKey();
             if (token.length() >= minTokenLength) {
-                int quantCnt = (e.getValue().intValue() / quant) * quant;
+                int quantCnt = (cursor.getValue() / quant) * quant;
                 if (quantCnt < quant) {
                     continue;
                 }
-                profile.add(new Token((e.getValue().intValue() / quant) * quant, e.getKey()));
+                profile.add(new Token(quantCnt, token));
             }
         }
         profile.sort(new TokenComparator());
@@ -16,10 +16,10 @@
  */
 package org.apache.tika.eval.core.textstats;
 
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.math3.util.FastMath;
 
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 
 public class TokenEntropy implements TokenCountStatsCalculator<Double> {
 
@@ -29,8 +29,9 @@ public class TokenEntropy implements TokenCountStatsCalculator<Double> {
         double p = 0.0d;
         double base = 2.0;
         double totalTokens = (double) tokenCounts.getTotalTokens();
-        for (MutableInt i : tokenCounts.getTokens().values()) {
-            int termFreq = i.intValue();
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            int termFreq = cursor.getValue();
 
             p = (double) termFreq / totalTokens;
             ent += p * FastMath.log(base, p);
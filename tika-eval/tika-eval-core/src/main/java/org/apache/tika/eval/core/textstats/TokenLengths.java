@@ -16,22 +16,21 @@
  */
 package org.apache.tika.eval.core.textstats;
 
-import java.util.Map;
-
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 
 public class TokenLengths implements TokenCountStatsCalculator<SummaryStatistics> {
 
     @Override
     public SummaryStatistics calculate(TokenCounts tokenCounts) {
         SummaryStatistics summaryStatistics = new SummaryStatistics();
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            String token = e.getKey();
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            String token = cursor.getKey();
             int cp = token.codePointCount(0, token.length());
-            for (int i = 0; i < e.getValue().intValue(); i++) {
+            for (int i = 0; i < cursor.getValue(); i++) {
                 summaryStatistics.addValue(cp);
             }
         }
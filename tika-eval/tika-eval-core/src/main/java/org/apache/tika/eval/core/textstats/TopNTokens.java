@@ -16,12 +16,8 @@
  */
 package org.apache.tika.eval.core.textstats;
 
-import java.util.Map;
-
-import org.apache.commons.lang3.mutable.MutableInt;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
-
 import org.apache.tika.eval.core.tokens.TokenCounts;
+import org.apache.tika.eval.core.tokens.TokenIntMap;
 import org.apache.tika.eval.core.tokens.TokenIntPair;
 
 public class TopNTokens implements TokenCountStatsCalculator<TokenIntPair[]> {
@@ -36,13 +32,11 @@ public class TopNTokens implements TokenCountStatsCalculator<TokenIntPair[]> {
     public TokenIntPair[] calculate(TokenCounts tokenCounts) {
         TokenCountPriorityQueue queue = new TokenCountPriorityQueue(topN);
 
-        SummaryStatistics summaryStatistics = new SummaryStatistics();
-        for (Map.Entry<String, MutableInt> e : tokenCounts.getTokens().entrySet()) {
-            String token = e.getKey();
-            int termFreq = e.getValue().intValue();
-
+        TokenIntMap.Cursor cursor = tokenCounts.getTokenIntMap().cursor();
+        while (cursor.next()) {
+            int termFreq = cursor.getValue();
             if (queue.top() == null || queue.size() < topN || termFreq >= queue.top().getValue()) {
-                queue.insertWithOverflow(new TokenIntPair(token, termFreq));
+                queue.insertWithOverflow(new TokenIntPair(cursor.getKey(), termFreq));
             }
 
         }
@@ -53,16 +53,37 @@ public class AlphaIdeographFilterFactory extends TokenFilterFactory {
                     i++;
                 }
             }
-            if (Character.isDigit(cp)) {
+            if (!isAlphabetic(cp)) {
                 return false;
             }
-            if (!Character.isAlphabetic(cp) && !Character.isIdeographic(cp) && cp != UNDERSCORE) {
+        }
+        return true;
+    }
+
+    public static boolean isAlphabetic(CharSequence token) {
+        int length = token.length();
+        for (int i = 0; i < length; i++) {
+            int cp = token.charAt(i);
+            if (Character.isHighSurrogate(token.charAt(i))) {
+                if (i < length - 1) {
+                    cp = Character.toCodePoint(token.charAt(i), token.charAt(i + 1));
+                    i++;
+                }
+            }
+            if (!isAlphabetic(cp)) {
                 return false;
             }
         }
         return true;
     }
 
+    private static boolean isAlphabetic(int cp) {
+        if (Character.isDigit(cp)) {
+            return false;
+        }
+        return Character.isAlphabetic(cp) || Character.isIdeographic(cp) || cp == UNDERSCORE;
+    }
+
     @Override
     public TokenStream create(TokenStream tokenStream) {
         return new AlphaFilter(tokenStream);
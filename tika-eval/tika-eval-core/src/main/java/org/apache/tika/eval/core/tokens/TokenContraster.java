@@ -17,9 +17,6 @@
 
 package org.apache.tika.eval.core.tokens;
 
-import java.util.Map;
-
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.lucene.util.PriorityQueue;
 
 /**
@@ -53,19 +50,19 @@ public class TokenContraster {
         reset();
         this.tokensA = tokensA;
         this.tokensB = tokensB;
-        Map<String, MutableInt> mapA = tokensA.getTokens();
-        Map<String, MutableInt> mapB = tokensB.getTokens();
-        for (Map.Entry<String, MutableInt> e : mapA.entrySet()) {
-            MutableInt bVal = mapB.get(e.getKey());
-            int b = (bVal == null) ? 0 : bVal.intValue();
-            add(e.getKey(), e.getValue().intValue(), b);
+        TokenIntMap mapA = tokensA.getTokenIntMap();
+        TokenIntMap mapB = tokensB.getTokenIntMap();
+        TokenIntMap.Cursor cursor = mapA.cursor();
+        while (cursor.next()) {
+            add(cursor.getKey(), cursor.getValue(), mapB.get(cursor.getKey()));
         }
 
-        for (Map.Entry<String, MutableInt> e : mapB.entrySet()) {
-            if (mapA.containsKey(e.getKey())) {
+        cursor = mapB.cursor();
+        while (cursor.next()) {
+            if (mapA.containsKey(cursor.getKey())) {
                 continue;
             }
-            add(e.getKey(), 0, e.getValue().intValue());
+            add(cursor.getKey(), 0, cursor.getValue());
         }
         finishComputing();
         ContrastStatistics contrastStatistics = new ContrastStatistics();
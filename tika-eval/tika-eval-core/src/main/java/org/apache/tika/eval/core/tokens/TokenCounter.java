@@ -47,7 +47,7 @@ public class TokenCounter {
     private final TokenStatistics NULL_TOKEN_STAT =
             new TokenStatistics(0, 0, new TokenIntPair[0], 0.0d, new SummaryStatistics());
     private final Analyzer generalAnalyzer;
-    Map<String, Map<String, MutableInt>> map = new HashMap<>(); //Map<field, Map<token, count>>
+    Map<String, TokenIntMap> map = new HashMap<>(); //Map<field, counts by token>
     Map<String, TokenStatistics> tokenStatistics = new HashMap<>();
     private int topN = 10;
 
@@ -65,16 +65,9 @@ public class TokenCounter {
         TokenStream ts = analyzer.tokenStream(field, content);
         CharTermAttribute termAtt = ts.getAttribute(CharTermAttribute.class);
         ts.reset();
-        Map<String, MutableInt> tokenMap = map.computeIfAbsent(field, k -> new HashMap<>());
+        TokenIntMap tokenMap = map.computeIfAbsent(field, k -> new TokenIntMap());
         while (ts.incrementToken()) {
-            String token = termAtt.toString();
-            MutableInt cnt = tokenMap.get(token);
-            if (cnt == null) {
-                cnt = new MutableInt(1);
-                tokenMap.put(token, cnt);
-            } else {
-                cnt.increment();
-            }
+            tokenMap.increment(termAtt.buffer(), 0, termAtt.length());
             totalTokens++;
         }
         ts.close();
@@ -90,14 +83,15 @@ public class TokenCounter {
                 new TokenCountPriorityQueue(topN);
 
         SummaryStatistics summaryStatistics = new SummaryStatistics();
-        for (Map.Entry<String, MutableInt> e : tokenMap.entrySet()) {
-            String token = e.getKey();
-            int termFreq = e.getValue().intValue();
+        TokenIntMap.Cursor cursor = tokenMap.cursor();
+        while (cursor.next()) {
+            String token = cursor.getKey();
+            int termFreq = cursor.getValue();
 
             p = (double) termFreq / (double) totalTokens;
             ent += p * FastMath.log(base, p);
             int len = token.codePointCount(0, token.length());
-            for (int i = 0; i < e.getValue().intValue(); i++) {
+            for (int i = 0; i < termFreq; i++) {
                 summaryStatistics.addValue(len);
             }
             if (queue.top() == null || queue.size() < topN || termFreq >= queue.top().getValue()) {
@@ -134,7 +128,7 @@ public class TokenCounter {
     }
 
     public void clear(String field) {
-        Map<String, MutableInt> tokenMap = map.get(field);
+        TokenIntMap tokenMap = map.get(field);
         if (tokenMap != null) {
             tokenMap.clear();
         }
@@ -143,10 +137,15 @@ public class TokenCounter {
     }
 
     public Map<String, MutableInt> getTokens(String field) {
-        Map<String, MutableInt> ret = map.get(field);
-        if (ret == null) {
+        TokenIntMap tokenMap = map.get(field);
+        if (tokenMap == null) {
             return Collections.emptyMap();
         }
+        Map<String, MutableInt> ret = new HashMap<>();
+        TokenIntMap.Cursor cursor = tokenMap.cursor();
+        while (cursor.next()) {
+            ret.put(cursor.getKey(), new MutableInt(cursor.getValue()));
+        }
         return ret;
     }
 }
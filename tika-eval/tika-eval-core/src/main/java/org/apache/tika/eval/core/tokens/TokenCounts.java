@@ -24,23 +24,43 @@ import org.apache.commons.lang3.mutable.MutableInt;
 public class TokenCounts {
 
     private int totalTokens = 0;
-    private Map<String, MutableInt> tokens = new HashMap<>();
+    private final TokenIntMap tokens = new TokenIntMap();
 
     public void increment(String token) {
-        MutableInt i = tokens.get(token);
-        if (i == null) {
-            i = new MutableInt(1);
-            tokens.put(token, i);
-        } else {
-            i.increment();
-        }
+        tokens.increment(token);
         totalTokens++;
     }
 
-    public Map<String, MutableInt> getTokens() {
+    /**
+     * Counts the token in <code>buffer[offset, offset+length)</code> without
+     * allocating a String unless this is the first time the token is seen.
+     */
+    public void increment(char[] buffer, int offset, int length) {
+        tokens.increment(buffer, offset, length);
+        totalTokens++;
+    }
+
+    /**
+     * @return the live map of counts by token
+     */
+    public TokenIntMap getTokenIntMap() {
         return tokens;
     }
 
+    /**
+     * @return a copy of the counts by token
+     * @deprecated use {@link #getTokenIntMap()}, which does not copy or box
+     */
+    @Deprecated
+    public Map<String, MutableInt> getTokens() {
+        Map<String, MutableInt> map = new HashMap<>();
+        TokenIntMap.Cursor cursor = tokens.cursor();
+        while (cursor.next()) {
+            map.put(cursor.getKey(), new MutableInt(cursor.getValue()));
+        }
+        return map;
+    }
+
     public int getTotalTokens() {
         return totalTokens;
     }
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.core.tokens;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing (linear probing) hash map from tokens to int counts.
+ * <p>
+ * Tokens can be counted straight from a term buffer, e.g. Lucene's
+ * <code>CharTermAttribute#buffer()</code>. The hash is computed from the
+ * buffer, and a String for the token is only allocated the first time the
+ * token is inserted. Counts are kept in an int[], so nothing is boxed.
+ * <p>
+ * Iterate with a {@link Cursor}; the order is undefined.
+ * <p>
+ * Not thread safe.
+ */
+public class TokenIntMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    private int[] hashes;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+
+    public TokenIntMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize number of unique tokens that can be added
+     *                     without rehashing
+     */
+    public TokenIntMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds one to the count of the token in <code>buffer[offset, offset+length)</code>.
+     *
+     * @return the new count
+     */
+    public int increment(char[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && equals(keys[slot], buffer, offset, length)) {
+                return ++values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return insert(slot, new String(buffer, offset, length), hash);
+    }
+
+    /**
+     * Adds one to the count of the token.
+     *
+     * @return the new count
+     */
+    public int increment(CharSequence token) {
+        int hash = hash(token);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && equals(keys[slot], token)) {
+                return ++values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return insert(slot, token.toString(), hash);
+    }
+
+    /**
+     * @return the count of the token or 0 if it has not been added
+     */
+    public int get(char[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && equals(keys[slot], buffer, offset, length)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the count of the token or 0 if it has not been added
+     */
+    public int get(CharSequence token) {
+        int hash = hash(token);
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && equals(keys[slot], token)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public boolean containsKey(CharSequence token) {
+        return get(token) > 0;
+    }
+
+    /**
+     * @return the number of unique tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int insert(int slot, String key, int hash) {
+        keys[slot] = key;
+        hashes[slot] = hash;
+        values[slot] = 1;
+        size++;
+        //keep the table at most half full
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return 1;
+    }
+
+    private void rehash(int newCapacity) {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        return mix(h);
+    }
+
+    private static int hash(CharSequence token) {
+        int h = 0;
+        for (int i = 0; i < token.length(); i++) {
+            h = 31 * h + token.charAt(i);
+        }
+        return mix(h);
+    }
+
+    //murmur3's finalizer, so that similar tokens spread across the table
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static boolean equals(String key, char[] buffer, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equals(String key, CharSequence token) {
+        if (token instanceof String) {
+            return key.equals(token);
+        }
+        return key.contentEquals(token);
+    }
+
+    /**
+     * Iterates over the tokens and their counts:
+     * <pre>
+     * TokenIntMap.Cursor c = map.cursor();
+     * while (c.next()) {
+     *     c.getKey(); c.getValue();
+     * }
+     * </pre>
+     * The map must not be modified during the iteration.
+     */
+    public class Cursor {
+
+        private int slot = -1;
+
+        public boolean next() {
+            while (++slot < keys.length) {
+                if (keys[slot] != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String getKey() {
+            return keys[slot];
+        }
+
+        public int getValue() {
+            return values[slot];
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.core.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.Property;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.sax.analytics.AnalyticsContentHandler;
+import org.apache.tika.sax.analytics.ContentAnalyzer;
+
+public class TikaEvalContentAnalyzerTest {
+
+    private static final Property[] PROPERTIES = new Property[]{
+            TikaEvalMetadataFilter.NUM_TOKENS, TikaEvalMetadataFilter.NUM_UNIQUE_TOKENS,
+            TikaEvalMetadataFilter.NUM_ALPHA_TOKENS, TikaEvalMetadataFilter.NUM_UNIQUE_ALPHA_TOKENS,
+            TikaEvalMetadataFilter.NUM_COMMON_TOKENS, TikaEvalMetadataFilter.OUT_OF_VOCABULARY,
+            TikaEvalMetadataFilter.LANGUAGE, TikaEvalMetadataFilter.LANGUAGE_CONFIDENCE};
+
+    @Test
+    public void testSameAsFilter() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        //long enough for several chunks
+        while (sb.length() < 3 * TikaEvalContentAnalyzer.CHUNK_SIZE) {
+            sb.append("the quick brown fox, Zothro 1234 1235, jumped over the lazy dog\n");
+        }
+        String content = sb.toString();
+
+        Metadata expected = new Metadata();
+        expected.set(TikaCoreProperties.TIKA_CONTENT, content);
+        new TikaEvalMetadataFilter().filter(expected);
+
+        Metadata actual = new Metadata();
+        AnalyticsContentHandler handler = new AnalyticsContentHandler(
+                new DefaultHandler(),
+                Collections.<ContentAnalyzer>singletonList(new TikaEvalContentAnalyzer()));
+        char[] chars = content.toCharArray();
+        for (int i = 0; i < chars.length; i += 1000) {
+            handler.characters(chars, i, Math.min(1000, chars.length - i));
+        }
+        handler.writeTo(actual);
+
+        for (Property p : PROPERTIES) {
+            assertEquals(expected.get(p), actual.get(p), p.getName());
+        }
+        assertEquals("eng", actual.get(TikaEvalMetadataFilter.LANGUAGE));
+    }
+}
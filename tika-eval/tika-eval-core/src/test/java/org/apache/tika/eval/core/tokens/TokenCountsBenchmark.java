@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.core.tokens;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.lang3.mutable.MutableInt;
+
+import org.apache.tika.eval.core.textstats.TokenEntropy;
+
+/**
+ * Compares counting tokens into a <code>HashMap&lt;String, MutableInt&gt;</code>,
+ * as tika-eval used to, with {@link TokenCounts}, which counts straight from
+ * the term buffer.
+ * <p>
+ * The input is a single document of <code>tokensPerDoc</code> (default 50,000)
+ * whitespace separated tokens, generated with a fixed seed. Nine in ten tokens
+ * are sampled from the English common tokens file by term frequency; the
+ * rest are random base-36 numbers, as a long tail of rare tokens. Tokens are
+ * copied into a reused buffer one at a time, the way Lucene's
+ * CharTermAttribute hands them out.
+ * <p>
+ * Each iteration counts every token of the document and then calculates the
+ * token entropy from the counts. Both ways are first warmed up for
+ * <code>iterations</code> (default 200) iterations each, and then timed for
+ * as many iterations, one after the other. The mean time per document and the
+ * tokens per second are printed for each, followed by the difference between
+ * their entropies as a check that both counted the same.
+ * <p>
+ * Usage: TokenCountsBenchmark [tokensPerDoc] [iterations]
+ */
+public class TokenCountsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tokensPerDoc = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        char[] text = generateText(tokensPerDoc, new Random(42));
+
+        //warm up both
+        for (int i = 0; i < iterations; i++) {
+            countWithHashMap(text);
+            countWithTokenCounts(text);
+        }
+        long start = System.nanoTime();
+        double check = 0;
+        for (int i = 0; i < iterations; i++) {
+            check += countWithHashMap(text);
+        }
+        report("HashMap<String, MutableInt>", start, iterations, tokensPerDoc);
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            check -= countWithTokenCounts(text);
+        }
+        report("TokenCounts", start, iterations, tokensPerDoc);
+        System.out.println("difference in entropy (should be ~0): " + check);
+    }
+
+    private static double countWithHashMap(char[] text) {
+        Map<String, MutableInt> tokens = new HashMap<>();
+        TermBuffer term = new TermBuffer(text);
+        int total = 0;
+        while (term.next()) {
+            String token = new String(term.buffer, 0, term.length);
+            MutableInt cnt = tokens.get(token);
+            if (cnt == null) {
+                tokens.put(token, new MutableInt(1));
+            } else {
+                cnt.increment();
+            }
+            total++;
+        }
+        double ent = 0.0;
+        for (MutableInt i : tokens.values()) {
+            double p = (double) i.intValue() / total;
+            ent += p * Math.log(p) / Math.log(2.0);
+        }
+        return -1.0 * ent;
+    }
+
+    private static double countWithTokenCounts(char[] text) {
+        TokenCounts tokenCounts = new TokenCounts();
+        TermBuffer term = new TermBuffer(text);
+        while (term.next()) {
+            tokenCounts.increment(term.buffer, 0, term.length);
+        }
+        return new TokenEntropy().calculate(tokenCounts);
+    }
+
+    private static void report(String name, long startNanos, int iterations, int tokensPerDoc) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.println(String.format(Locale.ROOT, "%-30s %8.3f ms/doc %12.0f tokens/sec", name,
+                seconds * 1000 / iterations, (double) iterations * tokensPerDoc / seconds));
+    }
+
+    private static char[] generateText(int numTokens, Random random) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        List<Long> cumulative = new ArrayList<>();
+        long sum = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                TokenCountsBenchmark.class.getResourceAsStream("/common_tokens/eng"),
+                StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                String[] cols = line.split("\t");
+                if (!line.startsWith("#") && cols.length == 3) {
+                    sum += Long.parseLong(cols[2]);
+                    tokens.add(cols[0]);
+                    cumulative.add(sum);
+                }
+                line = reader.readLine();
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numTokens; i++) {
+            if (random.nextInt(10) == 0) {
+                //rare tokens: numbers, names, typos
+                sb.append(Long.toString(random.nextInt(1_000_000), 36));
+            } else {
+                long r = (long) (random.nextDouble() * sum);
+                int index = 0;
+                int hi = cumulative.size() - 1;
+                while (index < hi) {
+                    int mid = (index + hi) >>> 1;
+                    if (cumulative.get(mid) < r) {
+                        index = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                sb.append(tokens.get(index));
+            }
+            sb.append(' ');
+        }
+        return sb.toString().toCharArray();
+    }
+
+    /**
+     * Stand-in for Lucene's CharTermAttribute: whitespace tokens are copied
+     * into a reused buffer.
+     */
+    private static class TermBuffer {
+        private final char[] text;
+        private char[] buffer = new char[16];
+        private int length;
+        private int pos = 0;
+
+        TermBuffer(char[] text) {
+            this.text = text;
+        }
+
+        boolean next() {
+            while (pos < text.length && text[pos] == ' ') {
+                pos++;
+            }
+            if (pos >= text.length) {
+                return false;
+            }
+            length = 0;
+            while (pos < text.length && text[pos] != ' ') {
+                if (length == buffer.length) {
+                    char[] tmp = new char[buffer.length * 2];
+                    System.arraycopy(buffer, 0, tmp, 0, length);
+                    buffer = tmp;
+                }
+                buffer[length++] = text[pos++];
+            }
+            return true;
+        }
+    }
+}
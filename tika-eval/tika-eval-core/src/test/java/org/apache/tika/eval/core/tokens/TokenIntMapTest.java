@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.eval.core.tokens;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenIntMapTest {
+
+    @Test
+    public void testBasic() throws Exception {
+        TokenIntMap map = new TokenIntMap();
+        char[] buffer = "xxthe cat the".toCharArray();
+        assertEquals(1, map.increment(buffer, 2, 3));
+        assertEquals(1, map.increment(buffer, 6, 3));
+        assertEquals(2, map.increment(buffer, 10, 3));
+        assertEquals(3, map.increment("the"));
+        assertEquals(2, map.increment(new StringBuilder("cat")));
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.get("the"));
+        assertEquals(2, map.get(buffer, 6, 3));
+        assertEquals(0, map.get("dog"));
+        assertTrue(map.containsKey("cat"));
+        assertFalse(map.containsKey("ca"));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.get("the"));
+        assertFalse(map.cursor().next());
+    }
+
+    @Test
+    public void testRandom() throws Exception {
+        Random random = new Random(42);
+        TokenIntMap map = new TokenIntMap();
+        Map<String, Integer> expected = new HashMap<>();
+        char[] buffer = new char[32];
+        for (int i = 0; i < 200000; i++) {
+            //mix of frequent short tokens, rare long ones and surrogates
+            int len = 1 + random.nextInt(random.nextBoolean() ? 3 : 20);
+            for (int j = 0; j < len; j++) {
+                buffer[j] = random.nextInt(50) == 0 ? '\uD83D' : (char) ('a' + random.nextInt(6));
+            }
+            String token = new String(buffer, 0, len);
+            int count = expected.merge(token, 1, Integer::sum);
+            assertEquals(count, map.increment(buffer, 0, len));
+        }
+        assertEquals(expected.size(), map.size());
+        int seen = 0;
+        TokenIntMap.Cursor cursor = map.cursor();
+        while (cursor.next()) {
+            assertEquals(expected.get(cursor.getKey()).intValue(), cursor.getValue());
+            seen++;
+        }
+        assertEquals(expected.size(), seen);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.grpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.tika.FetchAndParseReply;
+import org.apache.tika.ParseBytesRequest;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.pipes.FetchEmitTuple;
+import org.apache.tika.pipes.PipesResult;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.fetcher.FetchKey;
+
+/**
+ * Receives the chunks of a single {@link ParseBytesRequest} stream.
+ * <p>
+ * Chunks are written to a file in the upload directory as they arrive. gRPC
+ * only asks the transport for the next message after {@link #onNext} returns,
+ * so a client that sends faster than the server can spool is slowed down by
+ * normal flow control. When the client completes the stream, the file is parsed
+ * through the {@link PipesClientPool} via the internal upload fetcher, and then
+ * deleted.
+ */
+class ParseBytesStreamObserver implements StreamObserver<ParseBytesRequest> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParseBytesStreamObserver.class);
+
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("[A-Za-z0-9]{1,12}");
+
+    private final PipesClientPool pipesClientPool;
+    private final Path uploadDir;
+    private final String uploadFetcherId;
+    private final StreamObserver<FetchAndParseReply> responseObserver;
+
+    private String fetchKey;
+    private Path spoolFile;
+    private OutputStream spoolStream;
+    private boolean failed = false;
+
+    ParseBytesStreamObserver(PipesClientPool pipesClientPool, Path uploadDir,
+                             String uploadFetcherId,
+                             StreamObserver<FetchAndParseReply> responseObserver) {
+        this.pipesClientPool = pipesClientPool;
+        this.uploadDir = uploadDir;
+        this.uploadFetcherId = uploadFetcherId;
+        this.responseObserver = responseObserver;
+    }
+
+    @Override
+    public void onNext(ParseBytesRequest parseBytesRequest) {
+        if (failed) {
+            return;
+        }
+        try {
+            if (spoolStream == null) {
+                fetchKey = parseBytesRequest.getFetchKey();
+                spoolFile = Files.createTempFile(uploadDir, "upload-", getSuffix(fetchKey));
+                spoolStream = Files.newOutputStream(spoolFile);
+            }
+            parseBytesRequest.getContent().writeTo(spoolStream);
+        } catch (IOException e) {
+            failed = true;
+            cleanUp();
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Could not spool upload for " + fetchKey)
+                    .withCause(e)
+                    .asRuntimeException());
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        LOG.warn("Upload stream for {} failed", fetchKey, throwable);
+        failed = true;
+        cleanUp();
+    }
+
+    @Override
+    public void onCompleted() {
+        if (failed) {
+            return;
+        }
+        try {
+            if (spoolStream == null) {
+                //the client completed without sending any chunks
+                fetchKey = "";
+                spoolFile = Files.createTempFile(uploadDir, "upload-", "");
+            } else {
+                spoolStream.close();
+                spoolStream = null;
+            }
+            PipesResult pipesResult = pipesClientPool.process(new FetchEmitTuple(fetchKey,
+                    new FetchKey(uploadFetcherId, spoolFile.getFileName().toString()),
+                    new EmitKey(), new Metadata(), new ParseContext(),
+                    FetchEmitTuple.ON_PARSE_EXCEPTION.SKIP));
+            responseObserver.onNext(TikaGrpcServerImpl.createReply(fetchKey, pipesResult));
+            responseObserver.onCompleted();
+        } catch (IOException e) {
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Problem parsing upload for " + fetchKey)
+                    .withCause(e)
+                    .asRuntimeException());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responseObserver.onError(Status.CANCELLED
+                    .withDescription("Interrupted while parsing upload for " + fetchKey)
+                    .asRuntimeException());
+        } finally {
+            cleanUp();
+        }
+    }
+
+    private void cleanUp() {
+        if (spoolStream != null) {
+            try {
+                spoolStream.close();
+            } catch (IOException e) {
+                LOG.debug("Problem closing spool stream", e);
+            }
+            spoolStream = null;
+        }
+        if (spoolFile != null) {
+            try {
+                Files.deleteIfExists(spoolFile);
+            } catch (IOException e) {
+                LOG.warn("Could not delete spooled upload {}", spoolFile, e);
+            }
+            spoolFile = null;
+        }
+    }
+
+    /**
+     * Keep a well-formed extension from the client's fetch key on the spool file so
+     * that name-based detection still works for the forked parser.
+     */
+    static String getSuffix(String fetchKey) {
+        String extension;
+        try {
+            extension = FilenameUtils.getExtension(fetchKey);
+        } catch (IllegalArgumentException e) {
+            //e.g. a ':' in the key on Windows
+            return "";
+        }
+        if (extension != null && SAFE_EXTENSION.matcher(extension).matches()) {
+            return "." + extension;
+        }
+        return "";
+    }
+}
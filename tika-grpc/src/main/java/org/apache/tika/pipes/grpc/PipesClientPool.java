@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.grpc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.tika.pipes.FetchEmitTuple;
+import org.apache.tika.pipes.PipesClient;
+import org.apache.tika.pipes.PipesConfigBase;
+import org.apache.tika.pipes.PipesResult;
+
+/**
+ * Fixed size pool of {@link PipesClient}s.
+ * <p>
+ * A {@link PipesClient} is single threaded, so each one is checked out for the
+ * duration of a single parse. Callers waiting for a client are served in arrival
+ * order (the underlying queue is fair), which keeps one busy bidirectional stream
+ * from starving unary requests.
+ * <p>
+ * {@link #submit(FetchEmitTuple)} admits at most one task per client; further
+ * submissions block until a running parse finishes, so asynchronous callers cannot
+ * queue an unbounded amount of work in front of the pool.
+ * <p>
+ * The number of clients is controlled by {@link PipesConfigBase#getNumClients()}.
+ */
+class PipesClientPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PipesClientPool.class);
+
+    private final ArrayBlockingQueue<PipesClient> idleClients;
+    private final List<PipesClient> allClients;
+    private final ExecutorService executorService;
+    //one permit per client; held from submit until the task finishes
+    private final Semaphore submitPermits;
+    private final AtomicInteger activeParses = new AtomicInteger(0);
+    private volatile boolean closed = false;
+
+    PipesClientPool(PipesConfigBase pipesConfig) {
+        this(createClients(pipesConfig));
+    }
+
+    PipesClientPool(List<PipesClient> pipesClients) {
+        int numClients = pipesClients.size();
+        if (numClients == 0) {
+            throw new IllegalArgumentException("pipes client pool needs at least one client");
+        }
+        this.idleClients = new ArrayBlockingQueue<>(numClients, true);
+        this.allClients = new ArrayList<>(pipesClients);
+        idleClients.addAll(pipesClients);
+        this.submitPermits = new Semaphore(numClients, true);
+        //the permits keep this queue from ever filling; it is bounded as a safeguard
+        this.executorService = new ThreadPoolExecutor(numClients, numClients, 0L,
+                TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(numClients));
+        LOG.info("Started pipes client pool with {} clients", numClients);
+    }
+
+    private static List<PipesClient> createClients(PipesConfigBase pipesConfig) {
+        int numClients = Math.max(1, pipesConfig.getNumClients());
+        List<PipesClient> pipesClients = new ArrayList<>(numClients);
+        for (int i = 0; i < numClients; i++) {
+            //clients are lazy, the forked process starts on the first parse
+            pipesClients.add(new PipesClient(pipesConfig));
+        }
+        return pipesClients;
+    }
+
+    /**
+     * Blocks until a client is available and then processes the tuple on the
+     * calling thread.
+     */
+    PipesResult process(FetchEmitTuple t) throws IOException, InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("pipes client pool has been closed");
+        }
+        PipesClient pipesClient = idleClients.take();
+        activeParses.incrementAndGet();
+        try {
+            return pipesClient.process(t);
+        } finally {
+            activeParses.decrementAndGet();
+            idleClients.add(pipesClient);
+        }
+    }
+
+    /**
+     * Hands the tuple to the next available client. Tasks are started in
+     * submission order. If every client already has a task, this blocks until
+     * one of them finishes.
+     *
+     * @return a future that completes with the result, or exceptionally with
+     * the {@link IOException} or {@link InterruptedException} thrown by the client
+     * @throws InterruptedException if interrupted while waiting for a free client
+     */
+    CompletableFuture<PipesResult> submit(FetchEmitTuple t) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("pipes client pool has been closed");
+        }
+        submitPermits.acquire();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return process(t);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                } finally {
+                    submitPermits.release();
+                }
+            }, executorService);
+        } catch (RuntimeException e) {
+            //rejected because the pool was closed
+            submitPermits.release();
+            throw e;
+        }
+    }
+
+    int getNumClients() {
+        return allClients.size();
+    }
+
+    int getActiveParses() {
+        return activeParses.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        executorService.shutdownNow();
+        try {
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        IOException ex = null;
+        for (PipesClient pipesClient : allClients) {
+            try {
+                pipesClient.close();
+            } catch (IOException e) {
+                ex = e;
+            }
+        }
+        if (ex != null) {
+            throw ex;
+        }
+    }
+}
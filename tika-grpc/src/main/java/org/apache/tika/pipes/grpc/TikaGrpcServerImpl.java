@@ -21,11 +21,17 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
@@ -42,6 +48,7 @@ import com.fasterxml.jackson.module.jsonSchema.JsonSchema;
 import com.fasterxml.jackson.module.jsonSchema.JsonSchemaGenerator;
 import com.google.rpc.Status;
 import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -61,6 +68,7 @@ import org.apache.tika.GetFetcherReply;
 import org.apache.tika.GetFetcherRequest;
 import org.apache.tika.ListFetchersReply;
 import org.apache.tika.ListFetchersRequest;
+import org.apache.tika.ParseBytesRequest;
 import org.apache.tika.SaveFetcherReply;
 import org.apache.tika.SaveFetcherRequest;
 import org.apache.tika.TikaGrpc;
@@ -71,7 +79,6 @@ import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.pipes.FetchEmitTuple;
-import org.apache.tika.pipes.PipesClient;
 import org.apache.tika.pipes.PipesConfig;
 import org.apache.tika.pipes.PipesResult;
 import org.apache.tika.pipes.emitter.EmitKey;
@@ -79,9 +86,10 @@ import org.apache.tika.pipes.fetcher.AbstractFetcher;
 import org.apache.tika.pipes.fetcher.FetchKey;
 import org.apache.tika.pipes.fetcher.config.AbstractConfig;
 import org.apache.tika.pipes.fetcher.config.FetcherConfigContainer;
+import org.apache.tika.pipes.fetcher.fs.FileSystemFetcher;
 import org.apache.tika.utils.XMLReaderUtils;
 
-class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
+class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(TikaGrpcServerImpl.class);
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     static {
@@ -89,12 +97,19 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
     }
     public static final JsonSchemaGenerator JSON_SCHEMA_GENERATOR = new JsonSchemaGenerator(OBJECT_MAPPER);
 
+    /**
+     * Name of the internal fetcher that reads documents spooled by {@link #parseBytes(StreamObserver)}.
+     * It is always written to the tika config so that the forked pipes servers can read uploads.
+     */
+    static final String UPLOAD_FETCHER_ID = "tika-grpc-upload";
+
     /**
      * FetcherID is key, The pair is the Fetcher object and the Metadata
      */
     PipesConfig pipesConfig;
-    PipesClient pipesClient;
+    PipesClientPool pipesClientPool;
     ExpiringFetcherStore expiringFetcherStore;
+    Path uploadDir;
 
     String tikaConfigPath;
 
@@ -112,7 +127,8 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
             tikaConfigPath = tikaConfigFile.getAbsolutePath();
         }
         pipesConfig = PipesConfig.load(tikaConfigFile.toPath());
-        pipesClient = new PipesClient(pipesConfig);
+        pipesClientPool = new PipesClientPool(pipesConfig);
+        uploadDir = Files.createTempDirectory("tika-grpc-upload");
 
         expiringFetcherStore = new ExpiringFetcherStore(pipesConfig.getStaleFetcherTimeoutSeconds(),
                 pipesConfig.getStaleFetcherDelaySeconds());
@@ -133,8 +149,8 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
             fetchersElement = tikaConfigDoc.createElement("fetchers");
             tikaConfigDoc.getDocumentElement().appendChild(fetchersElement);
         }
-        for (int i = 0; i < fetchersElement.getChildNodes().getLength(); ++i) {
-            fetchersElement.removeChild(fetchersElement.getChildNodes().item(i));
+        while (fetchersElement.hasChildNodes()) {
+            fetchersElement.removeChild(fetchersElement.getFirstChild());
         }
         for (var fetcherEntry : expiringFetcherStore.getFetchers().entrySet()) {
             AbstractFetcher fetcherObject = fetcherEntry.getValue();
@@ -150,6 +166,7 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
             populateFetcherConfigs(fetcherConfigParams, tikaConfigDoc, fetcher);
             fetchersElement.appendChild(fetcher);
         }
+        fetchersElement.appendChild(createUploadFetcherElement(tikaConfigDoc));
         DOMSource source = new DOMSource(tikaConfigDoc);
         FileWriter writer = new FileWriter(tikaConfigPath, StandardCharsets.UTF_8);
         StreamResult result = new StreamResult(writer);
@@ -159,6 +176,18 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
         transformer.transform(source, result);
     }
 
+    private Element createUploadFetcherElement(Document tikaConfigDoc) {
+        Element fetcher = tikaConfigDoc.createElement("fetcher");
+        fetcher.setAttribute("class", FileSystemFetcher.class.getName());
+        Element fetcherName = tikaConfigDoc.createElement("name");
+        fetcherName.setTextContent(UPLOAD_FETCHER_ID);
+        fetcher.appendChild(fetcherName);
+        Element basePath = tikaConfigDoc.createElement("basePath");
+        basePath.setTextContent(uploadDir.toAbsolutePath().toString());
+        fetcher.appendChild(basePath);
+        return fetcher;
+    }
+
     private void populateFetcherConfigs(Map<String, Object> fetcherConfigParams,
                                         Document tikaConfigDoc, Element fetcher) {
         for (var configParam : fetcherConfigParams.entrySet()) {
@@ -184,25 +213,113 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
         fetchAndParseImpl(request, responseObserver);
     }
 
+    /**
+     * Requests on a bidirectional stream are handed to the {@link PipesClientPool}
+     * as they arrive, so up to <code>numClients</code> parses may be in flight per
+     * server. Replies are sent as parses finish, which may not be the order in which
+     * the requests were received; use {@link FetchAndParseReply#getFetchKey()} to
+     * match replies to requests.
+     * <p>
+     * The stream uses manual flow control: it asks the client for
+     * <code>numClients</code> requests up front and for one more each time a reply
+     * has been sent and the client is ready to receive another, so a fast client
+     * cannot pile up requests in front of the pool.
+     */
     @Override
     public StreamObserver<FetchAndParseRequest> fetchAndParseBiDirectionalStreaming(
             StreamObserver<FetchAndParseReply> responseObserver) {
-        return new StreamObserver<>() {
-            @Override
-            public void onNext(FetchAndParseRequest fetchAndParseRequest) {
-                fetchAndParseImpl(fetchAndParseRequest, responseObserver);
+        ServerCallStreamObserver<FetchAndParseReply> serverCallStreamObserver =
+                (ServerCallStreamObserver<FetchAndParseReply>) responseObserver;
+        BiDirectionalStreamObserver requestObserver =
+                new BiDirectionalStreamObserver(serverCallStreamObserver);
+        serverCallStreamObserver.disableAutoRequest();
+        serverCallStreamObserver.setOnReadyHandler(requestObserver::requestMore);
+        serverCallStreamObserver.request(pipesClientPool.getNumClients());
+        return requestObserver;
+    }
+
+    private class BiDirectionalStreamObserver implements StreamObserver<FetchAndParseRequest> {
+        private final ServerCallStreamObserver<FetchAndParseReply> responseObserver;
+        //starts at 1 for the request stream itself; completion happens at 0
+        private final AtomicInteger pending = new AtomicInteger(1);
+        //requests that may be asked of the client once it is ready for more replies
+        private final AtomicInteger owedRequests = new AtomicInteger(0);
+        private final AtomicBoolean failed = new AtomicBoolean(false);
+
+        BiDirectionalStreamObserver(ServerCallStreamObserver<FetchAndParseReply> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+
+        @Override
+        public void onNext(FetchAndParseRequest fetchAndParseRequest) {
+            FetchEmitTuple fetchEmitTuple = createFetchEmitTuple(fetchAndParseRequest);
+            pending.incrementAndGet();
+            CompletableFuture<PipesResult> future;
+            try {
+                //only blocks if other streams are keeping every client busy
+                future = pipesClientPool.submit(fetchEmitTuple);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future = CompletableFuture.failedFuture(e);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
             }
+            future.whenComplete((pipesResult, t) -> {
+                try {
+                    FetchAndParseReply reply;
+                    if (t == null) {
+                        reply = createReply(fetchAndParseRequest.getFetchKey(), pipesResult);
+                    } else {
+                        reply = createErrorReply(fetchAndParseRequest.getFetchKey(), t);
+                    }
+                    synchronized (responseObserver) {
+                        if (!failed.get()) {
+                            responseObserver.onNext(reply);
+                        }
+                    }
+                } finally {
+                    owedRequests.incrementAndGet();
+                    requestMore();
+                    completeIfDone();
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Parse error occurred", throwable);
+            failed.set(true);
+        }
+
+        @Override
+        public void onCompleted() {
+            completeIfDone();
+        }
 
-            @Override
-            public void onError(Throwable throwable) {
-                LOG.error("Parse error occurred", throwable);
+        /**
+         * Asks the client for as many requests as have been replied to, but only
+         * while the transport can take more replies.
+         */
+        void requestMore() {
+            while (!failed.get() && responseObserver.isReady()) {
+                int owed = owedRequests.get();
+                if (owed == 0) {
+                    return;
+                }
+                if (owedRequests.compareAndSet(owed, 0)) {
+                    responseObserver.request(owed);
+                    return;
+                }
             }
+        }
 
-            @Override
-            public void onCompleted() {
-                responseObserver.onCompleted();
+        private void completeIfDone() {
+            if (pending.decrementAndGet() == 0 && !failed.get()) {
+                synchronized (responseObserver) {
+                    responseObserver.onCompleted();
+                }
             }
-        };
+        }
     }
 
     @Override
@@ -215,6 +332,25 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
 
     private void fetchAndParseImpl(FetchAndParseRequest request,
                                    StreamObserver<FetchAndParseReply> responseObserver) {
+        FetchEmitTuple fetchEmitTuple = createFetchEmitTuple(request);
+        try {
+            PipesResult pipesResult = pipesClientPool.process(fetchEmitTuple);
+            responseObserver.onNext(createReply(request.getFetchKey(), pipesResult));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public StreamObserver<ParseBytesRequest> parseBytes(
+            StreamObserver<FetchAndParseReply> responseObserver) {
+        return new ParseBytesStreamObserver(pipesClientPool, uploadDir, UPLOAD_FETCHER_ID,
+                responseObserver);
+    }
+
+    private FetchEmitTuple createFetchEmitTuple(FetchAndParseRequest request) {
         AbstractFetcher fetcher =
                 expiringFetcherStore.getFetcherAndLogAccess(request.getFetcherId());
         if (fetcher == null) {
@@ -222,44 +358,57 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
                     "Could not find fetcher with name " + request.getFetcherId());
         }
         Metadata tikaMetadata = new Metadata();
-        try {
-            ParseContext parseContext = new ParseContext();
-            String additionalFetchConfigJson = request.getAdditionalFetchConfigJson();
-            if (StringUtils.isNotBlank(additionalFetchConfigJson)) {
-                // The fetch and parse has the option to specify additional configuration
-                AbstractConfig abstractConfig = expiringFetcherStore
-                        .getFetcherConfigs()
-                        .get(fetcher.getName());
-                parseContext.set(FetcherConfigContainer.class, new FetcherConfigContainer()
-                        .setConfigClassName(abstractConfig
-                                .getClass().getName())
-                        .setJson(additionalFetchConfigJson));
-            }
-            PipesResult pipesResult = pipesClient.process(new FetchEmitTuple(request.getFetchKey(),
-                    new FetchKey(fetcher.getName(), request.getFetchKey()), new EmitKey(), tikaMetadata, parseContext, FetchEmitTuple.ON_PARSE_EXCEPTION.SKIP));
-            FetchAndParseReply.Builder fetchReplyBuilder =
-                    FetchAndParseReply.newBuilder()
-                                      .setFetchKey(request.getFetchKey())
-                            .setStatus(pipesResult.getStatus().name());
-            if (pipesResult.getStatus().equals(PipesResult.STATUS.FETCH_EXCEPTION)) {
-                fetchReplyBuilder.setErrorMessage(pipesResult.getMessage());
-            }
-            if (pipesResult.getEmitData() != null && pipesResult.getEmitData().getMetadataList() != null) {
-                for (Metadata metadata : pipesResult.getEmitData().getMetadataList()) {
-                    for (String name : metadata.names()) {
-                        String value = metadata.get(name);
-                        if (value != null) {
-                            fetchReplyBuilder.putFields(name, value);
-                        }
+        ParseContext parseContext = new ParseContext();
+        String additionalFetchConfigJson = request.getAdditionalFetchConfigJson();
+        if (StringUtils.isNotBlank(additionalFetchConfigJson)) {
+            // The fetch and parse has the option to specify additional configuration
+            AbstractConfig abstractConfig = expiringFetcherStore
+                    .getFetcherConfigs()
+                    .get(fetcher.getName());
+            parseContext.set(FetcherConfigContainer.class, new FetcherConfigContainer()
+                    .setConfigClassName(abstractConfig
+                            .getClass().getName())
+                    .setJson(additionalFetchConfigJson));
+        }
+        return new FetchEmitTuple(request.getFetchKey(),
+                new FetchKey(fetcher.getName(), request.getFetchKey()), new EmitKey(), tikaMetadata, parseContext, FetchEmitTuple.ON_PARSE_EXCEPTION.SKIP);
+    }
+
+    static FetchAndParseReply createReply(String fetchKey, PipesResult pipesResult) {
+        FetchAndParseReply.Builder fetchReplyBuilder =
+                FetchAndParseReply.newBuilder()
+                                  .setFetchKey(fetchKey)
+                        .setStatus(pipesResult.getStatus().name());
+        if (pipesResult.getStatus().equals(PipesResult.STATUS.FETCH_EXCEPTION)) {
+            fetchReplyBuilder.setErrorMessage(pipesResult.getMessage());
+        }
+        if (pipesResult.getEmitData() != null && pipesResult.getEmitData().getMetadataList() != null) {
+            for (Metadata metadata : pipesResult.getEmitData().getMetadataList()) {
+                for (String name : metadata.names()) {
+                    String value = metadata.get(name);
+                    if (value != null) {
+                        fetchReplyBuilder.putFields(name, value);
                     }
                 }
             }
-            responseObserver.onNext(fetchReplyBuilder.build());
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
         }
+        return fetchReplyBuilder.build();
+    }
+
+    /**
+     * A failure in one parse on a stream is reported for that fetch key only,
+     * rather than failing the whole stream.
+     */
+    private static FetchAndParseReply createErrorReply(String fetchKey, Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        PipesResult.STATUS status = cause instanceof InterruptedException ?
+                PipesResult.STATUS.INTERRUPTED_EXCEPTION : PipesResult.STATUS.UNSPECIFIED_CRASH;
+        LOG.warn("Problem processing fetch key {}", fetchKey, cause);
+        return FetchAndParseReply.newBuilder()
+                .setFetchKey(fetchKey)
+                .setStatus(status.name())
+                .setErrorMessage(Objects.toString(cause.getMessage(), cause.getClass().getName()))
+                .build();
     }
 
     @SuppressWarnings("raw")
@@ -281,6 +430,9 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
     }
 
     private void saveFetcher(String name, String fetcherClassName, Map<String, Object> paramsMap, Map<String, Param> tikaParamsMap) {
+        if (UPLOAD_FETCHER_ID.equals(name)) {
+            throw new IllegalArgumentException("Fetcher id " + UPLOAD_FETCHER_ID + " is reserved");
+        }
         try {
             if (paramsMap == null) {
                 paramsMap = new LinkedHashMap<>();
@@ -417,4 +569,11 @@ class TikaGrpcServerImpl extends TikaGrpc.TikaImplBase {
     private boolean deleteFetcher(String fetcherName) {
         return expiringFetcherStore.deleteFetcher(fetcherName);
     }
+
+    @Override
+    public void close() throws IOException {
+        expiringFetcherStore.close();
+        pipesClientPool.close();
+        FileUtils.deleteDirectory(uploadDir.toFile());
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.FetchAndParseReply;
+import org.apache.tika.FetchAndParseRequest;
+import org.apache.tika.SaveFetcherRequest;
+import org.apache.tika.TikaGrpc;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.pipes.FetchEmitTuple;
+import org.apache.tika.pipes.PipesClient;
+import org.apache.tika.pipes.PipesConfig;
+import org.apache.tika.pipes.PipesResult;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.fetcher.FetchKey;
+import org.apache.tika.pipes.fetcher.fs.FileSystemFetcher;
+
+public class PipesClientPoolTest {
+
+    static final Path TIKA_CONFIG_TEMPLATE = Paths.get("src", "test", "resources",
+            "tika-pipes-test-config.xml");
+
+    @Test
+    public void testSubmitBlocksWhenAllClientsAreBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        try (PipesClientPool pool = new PipesClientPool(blockingClients(2, release, active, maxActive))) {
+            List<CompletableFuture<PipesResult>> futures = new ArrayList<>();
+            futures.add(pool.submit(tuple("0")));
+            futures.add(pool.submit(tuple("1")));
+
+            CountDownLatch submitted = new CountDownLatch(1);
+            Thread submitter = new Thread(() -> {
+                try {
+                    futures.add(pool.submit(tuple("2")));
+                    submitted.countDown();
+                } catch (InterruptedException e) {
+                    //test will fail
+                }
+            });
+            submitter.start();
+            //both clients are busy, so the third submission has to wait
+            assertFalse(submitted.await(500, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            assertTrue(submitted.await(10, TimeUnit.SECONDS));
+            submitter.join();
+            for (CompletableFuture<PipesResult> future : futures) {
+                assertEquals(PipesResult.STATUS.EMPTY_OUTPUT, future.get(10, TimeUnit.SECONDS).getStatus());
+            }
+            assertEquals(2, maxActive.get());
+        }
+    }
+
+    @Test
+    public void testBiStreamOnlyRequestsWhatThePoolCanRun() throws Exception {
+        int numDocs = 10;
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        AtomicInteger submitted = new AtomicInteger();
+
+        File tikaConfig = new File("target", "tika-config-" + UUID.randomUUID() + ".xml");
+        FileUtils.copyFile(TIKA_CONFIG_TEMPLATE.toFile(), tikaConfig);
+        TikaGrpcServerImpl tikaGrpcServerImpl = new TikaGrpcServerImpl(tikaConfig.getAbsolutePath());
+        tikaGrpcServerImpl.pipesClientPool.close();
+        tikaGrpcServerImpl.pipesClientPool =
+                new PipesClientPool(blockingClients(2, release, active, maxActive)) {
+                    @Override
+                    CompletableFuture<PipesResult> submit(FetchEmitTuple t) throws InterruptedException {
+                        submitted.incrementAndGet();
+                        return super.submit(t);
+                    }
+                };
+
+        String serverName = InProcessServerBuilder.generateName();
+        Server server = InProcessServerBuilder
+                .forName(serverName)
+                .addService(tikaGrpcServerImpl)
+                .build()
+                .start();
+        ManagedChannel channel = InProcessChannelBuilder
+                .forName(serverName)
+                .build();
+        try {
+            TikaGrpc.newBlockingStub(channel).saveFetcher(SaveFetcherRequest
+                    .newBuilder()
+                    .setFetcherId("fetcher")
+                    .setFetcherClass(FileSystemFetcher.class.getName())
+                    .setFetcherConfigJson("{\"basePath\":\"target\"}")
+                    .build());
+            List<FetchAndParseReply> replies = new ArrayList<>();
+            CountDownLatch finished = new CountDownLatch(1);
+            StreamObserver<FetchAndParseRequest> requestObserver = TikaGrpc.newStub(channel)
+                    .fetchAndParseBiDirectionalStreaming(new StreamObserver<>() {
+                        @Override
+                        public void onNext(FetchAndParseReply fetchAndParseReply) {
+                            synchronized (replies) {
+                                replies.add(fetchAndParseReply);
+                            }
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                            finished.countDown();
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            finished.countDown();
+                        }
+                    });
+            for (int i = 0; i < numDocs; i++) {
+                requestObserver.onNext(FetchAndParseRequest
+                        .newBuilder()
+                        .setFetcherId("fetcher")
+                        .setFetchKey("doc-" + i)
+                        .build());
+            }
+            requestObserver.onCompleted();
+
+            //the server asks for one request per client and no more until a parse finishes
+            Thread.sleep(500);
+            assertEquals(2, submitted.get());
+
+            release.countDown();
+            assertTrue(finished.await(30, TimeUnit.SECONDS));
+            assertEquals(numDocs, replies.size());
+            assertEquals(numDocs, submitted.get());
+            assertEquals(2, maxActive.get());
+        } finally {
+            channel.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+            server.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+            tikaGrpcServerImpl.pipesClientPool.close();
+            FileUtils.deleteQuietly(tikaConfig);
+        }
+    }
+
+    private static List<PipesClient> blockingClients(int numClients, CountDownLatch release,
+                                                     AtomicInteger active, AtomicInteger maxActive)
+            throws Exception {
+        PipesConfig pipesConfig = PipesConfig.load(TIKA_CONFIG_TEMPLATE);
+        List<PipesClient> clients = new ArrayList<>();
+        for (int i = 0; i < numClients; i++) {
+            clients.add(new PipesClient(pipesConfig) {
+                @Override
+                public PipesResult process(FetchEmitTuple t) throws InterruptedException {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                        return PipesResult.EMPTY_OUTPUT;
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                }
+            });
+        }
+        return clients;
+    }
+
+    private static FetchEmitTuple tuple(String id) {
+        return new FetchEmitTuple(id, new FetchKey("fetcher", id), new EmitKey("emitter", id),
+                new Metadata());
+    }
+}
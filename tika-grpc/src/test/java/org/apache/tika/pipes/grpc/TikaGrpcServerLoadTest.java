@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.asarkar.grpc.test.GrpcCleanupExtension;
+import com.asarkar.grpc.test.Resources;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.apache.commons.io.FileUtils;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.tika.FetchAndParseReply;
+import org.apache.tika.FetchAndParseRequest;
+import org.apache.tika.SaveFetcherRequest;
+import org.apache.tika.TikaGrpc;
+import org.apache.tika.pipes.PipesResult;
+import org.apache.tika.pipes.fetcher.fs.FileSystemFetcher;
+
+/**
+ * Load harness for the pooled pipes clients, run against an in-process server
+ * with a multi-threaded executor so that requests really do overlap.
+ * <p>
+ * The defaults are small enough for a regular build. Set
+ * <code>-Dtika.grpc.load.numDocs=...</code> and <code>-Dtika.grpc.load.numUnaryThreads=...</code>
+ * for a more realistic run; throughput is logged at INFO.
+ */
+@ExtendWith(GrpcCleanupExtension.class)
+public class TikaGrpcServerLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(TikaGrpcServerLoadTest.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String FETCHER_ID = "load-test-fetcher";
+
+    static final int NUM_DOCS = Integer.getInteger("tika.grpc.load.numDocs", 20);
+    static final int NUM_UNARY_THREADS = Integer.getInteger("tika.grpc.load.numUnaryThreads", 4);
+
+    static File tikaConfigXmlTemplate = Paths
+            .get("src", "test", "resources", "tika-pipes-test-config.xml")
+            .toFile();
+    static File tikaConfigXml = new File("target", "tika-config-" + UUID.randomUUID() + ".xml");
+
+    @BeforeAll
+    static void init() throws Exception {
+        FileUtils.copyFile(tikaConfigXmlTemplate, tikaConfigXml);
+    }
+
+    private final List<TikaGrpcServerImpl> serverImpls = new ArrayList<>();
+
+    @AfterAll
+    static void clean() {
+        FileUtils.deleteQuietly(tikaConfigXml);
+    }
+
+    @AfterEach
+    void closeServers() throws Exception {
+        for (TikaGrpcServerImpl serverImpl : serverImpls) {
+            serverImpl.close();
+        }
+        serverImpls.clear();
+    }
+
+    @Test
+    public void testBiStreamLoad(Resources resources, @TempDir Path docs) throws Exception {
+        TikaGrpc.TikaStub tikaStub = TikaGrpc.newStub(startServer(resources, docs));
+        List<String> fetchKeys = writeDocs(docs);
+
+        List<FetchAndParseReply> replies = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean finished = new AtomicBoolean(false);
+        StreamObserver<FetchAndParseReply> replyObserver = new StreamObserver<>() {
+            @Override
+            public void onNext(FetchAndParseReply reply) {
+                replies.add(reply);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                finished.set(true);
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        StreamObserver<FetchAndParseRequest> requestObserver =
+                tikaStub.fetchAndParseBiDirectionalStreaming(replyObserver);
+        for (String fetchKey : fetchKeys) {
+            requestObserver.onNext(FetchAndParseRequest
+                    .newBuilder()
+                    .setFetcherId(FETCHER_ID)
+                    .setFetchKey(fetchKey)
+                    .build());
+        }
+        requestObserver.onCompleted();
+        Awaitility.await().atMost(Duration.ofSeconds(600)).until(finished::get);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(NUM_DOCS, replies.size());
+        Set<String> replied = new HashSet<>();
+        int outOfOrder = 0;
+        for (int i = 0; i < replies.size(); i++) {
+            FetchAndParseReply reply = replies.get(i);
+            assertTrue(replied.add(reply.getFetchKey()), "duplicate reply " + reply.getFetchKey());
+            assertEquals(PipesResult.STATUS.PARSE_SUCCESS.name(), reply.getStatus());
+            if (!fetchKeys.get(i).equals(reply.getFetchKey())) {
+                outOfOrder++;
+            }
+        }
+        assertEquals(new HashSet<>(fetchKeys), replied);
+        LOG.info("bidi stream: {} docs in {} ms ({} docs/sec); {} replies out of request order",
+                NUM_DOCS, elapsed, String.format(Locale.ROOT, "%.2f",
+                        NUM_DOCS * 1000.0 / Math.max(1, elapsed)), outOfOrder);
+    }
+
+    @Test
+    public void testConcurrentUnaryLoad(Resources resources, @TempDir Path docs) throws Exception {
+        TikaGrpc.TikaBlockingStub blockingStub = TikaGrpc.newBlockingStub(startServer(resources, docs));
+        List<String> fetchKeys = writeDocs(docs);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(NUM_UNARY_THREADS);
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<FetchAndParseReply>> futures = new ArrayList<>();
+            for (String fetchKey : fetchKeys) {
+                futures.add(executorService.submit(() -> blockingStub.fetchAndParse(FetchAndParseRequest
+                        .newBuilder()
+                        .setFetcherId(FETCHER_ID)
+                        .setFetchKey(fetchKey)
+                        .build())));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                FetchAndParseReply reply = futures.get(i).get();
+                assertEquals(fetchKeys.get(i), reply.getFetchKey());
+                assertEquals(PipesResult.STATUS.PARSE_SUCCESS.name(), reply.getStatus());
+            }
+            long elapsed = System.currentTimeMillis() - start;
+            LOG.info("unary x {} threads: {} docs in {} ms", NUM_UNARY_THREADS, NUM_DOCS, elapsed);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private ManagedChannel startServer(Resources resources, Path docs) throws Exception {
+        String serverName = InProcessServerBuilder.generateName();
+        TikaGrpcServerImpl tikaGrpcServerImpl = new TikaGrpcServerImpl(tikaConfigXml.getAbsolutePath());
+        Server server = InProcessServerBuilder
+                .forName(serverName)
+                .executor(Executors.newCachedThreadPool())
+                .addService(tikaGrpcServerImpl)
+                .build()
+                .start();
+        resources.register(server, Duration.ofSeconds(10));
+        serverImpls.add(tikaGrpcServerImpl);
+
+        ManagedChannel channel = InProcessChannelBuilder
+                .forName(serverName)
+                .build();
+        resources.register(channel, Duration.ofSeconds(10));
+
+        TikaGrpc.newBlockingStub(channel).saveFetcher(SaveFetcherRequest
+                .newBuilder()
+                .setFetcherId(FETCHER_ID)
+                .setFetcherClass(FileSystemFetcher.class.getName())
+                .setFetcherConfigJson(OBJECT_MAPPER.writeValueAsString(ImmutableMap
+                        .builder()
+                        .put("basePath", docs.toAbsolutePath().toString())
+                        .build()))
+                .build());
+        return channel;
+    }
+
+    private static List<String> writeDocs(Path docs) throws Exception {
+        List<String> fetchKeys = new ArrayList<>();
+        for (int i = 0; i < NUM_DOCS; ++i) {
+            String name = "load-" + i + ".html";
+            StringBuilder body = new StringBuilder();
+            //vary the size a bit so that parses finish out of order
+            for (int j = 0; j < (i % 7 + 1) * 200; j++) {
+                body.append("<p>paragraph ").append(j).append(" of doc ").append(i).append("</p>");
+            }
+            FileUtils.writeStringToFile(docs.resolve(name).toFile(),
+                    "<html><body>" + body + "</body></html>", StandardCharsets.UTF_8);
+            fetchKeys.add(name);
+        }
+        return fetchKeys;
+    }
+}
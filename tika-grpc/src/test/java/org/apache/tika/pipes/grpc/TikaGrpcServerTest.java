@@ -39,6 +39,7 @@ import com.asarkar.grpc.test.GrpcCleanupExtension;
 import com.asarkar.grpc.test.Resources;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ByteString;
 import io.grpc.ManagedChannel;
 import io.grpc.Server;
 import io.grpc.Status;
@@ -47,6 +48,7 @@ import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
 import org.apache.commons.io.FileUtils;
+import org.awaitility.Awaitility;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -62,6 +64,7 @@ import org.apache.tika.FetchAndParseReply;
 import org.apache.tika.FetchAndParseRequest;
 import org.apache.tika.GetFetcherReply;
 import org.apache.tika.GetFetcherRequest;
+import org.apache.tika.ParseBytesRequest;
 import org.apache.tika.SaveFetcherReply;
 import org.apache.tika.SaveFetcherRequest;
 import org.apache.tika.TikaGrpc;
@@ -277,6 +280,8 @@ public class TikaGrpcServerTest {
                     .setFetchKey("does not exist")
                     .build());
             requestStreamObserver.onCompleted();
+            // replies arrive asynchronously from the pipes client pool
+            Awaitility.await().atMost(Duration.ofSeconds(120)).until(finished::get);
             assertEquals(NUM_TEST_DOCS, successes.size());
             assertEquals(1, errors.size());
             assertTrue(finished.get());
@@ -284,4 +289,67 @@ public class TikaGrpcServerTest {
             FileUtils.deleteDirectory(testDocumentFolder);
         }
     }
+
+    @Test
+    public void testParseBytes(Resources resources) throws Exception {
+        String serverName = InProcessServerBuilder.generateName();
+        TikaGrpcServerImpl tikaGrpcServerImpl = new TikaGrpcServerImpl(tikaConfigXml.getAbsolutePath());
+        Server server = InProcessServerBuilder
+                .forName(serverName)
+                .directExecutor()
+                .addService(tikaGrpcServerImpl)
+                .build()
+                .start();
+        resources.register(server, Duration.ofSeconds(10));
+
+        ManagedChannel channel = InProcessChannelBuilder
+                .forName(serverName)
+                .directExecutor()
+                .build();
+        resources.register(channel, Duration.ofSeconds(10));
+        TikaGrpc.TikaStub tikaStub = TikaGrpc.newStub(channel);
+
+        List<FetchAndParseReply> replies = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean finished = new AtomicBoolean(false);
+        StreamObserver<ParseBytesRequest> requestStreamObserver = tikaStub.parseBytes(new StreamObserver<>() {
+            @Override
+            public void onNext(FetchAndParseReply fetchAndParseReply) {
+                replies.add(fetchAndParseReply);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                finished.set(true);
+            }
+        });
+        try {
+            byte[] bytes = "<html><body>the quick brown fox</body></html>".getBytes(StandardCharsets.UTF_8);
+            int chunkSize = 7;
+            for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+                requestStreamObserver.onNext(ParseBytesRequest
+                        .newBuilder()
+                        .setFetchKey("upload.html")
+                        .setContent(ByteString.copyFrom(bytes, offset, Math.min(chunkSize, bytes.length - offset)))
+                        .build());
+            }
+            requestStreamObserver.onCompleted();
+            Awaitility.await().atMost(Duration.ofSeconds(120)).until(finished::get);
+            assertEquals(1, replies.size());
+            FetchAndParseReply reply = replies.get(0);
+            assertEquals("upload.html", reply.getFetchKey());
+            assertEquals(PipesResult.STATUS.PARSE_SUCCESS.name(), reply.getStatus());
+            assertTrue(reply.getFieldsMap().get("X-TIKA:content").contains("quick brown fox"));
+            //the spooled upload is removed after the parse
+            File[] remaining = tikaGrpcServerImpl.uploadDir.toFile().listFiles();
+            assertNotNull(remaining);
+            assertEquals(0, remaining.length);
+        } finally {
+            tikaGrpcServerImpl.close();
+        }
+    }
 }
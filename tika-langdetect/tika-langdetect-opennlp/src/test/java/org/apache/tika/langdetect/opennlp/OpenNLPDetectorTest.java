@@ -31,7 +31,10 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.langdetect.LanguageDetectorTest;
+import org.apache.tika.langdetect.LanguageSegmenterBenchmark;
 import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.language.detect.LanguageSegmenter;
+import org.apache.tika.language.detect.LanguageSpan;
 
 public class OpenNLPDetectorTest {
 
@@ -77,4 +80,15 @@ public class OpenNLPDetectorTest {
         }
     }
 
+    @Test
+    public void testSegments() throws Exception {
+        String text = LanguageSegmenterBenchmark.getMixedText("en", "de");
+        OpenNLPDetector detector = new OpenNLPDetector();
+        detector.loadModels();
+        LanguageSegmenter segmenter = new LanguageSegmenter(detector);
+        segmenter.addText(text);
+        List<LanguageSpan> spans = segmenter.finish();
+        assertEquals("eng", spans.get(0).getLanguage());
+        assertEquals("deu", spans.get(spans.size() - 1).getLanguage());
+    }
 }
@@ -33,9 +33,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
 import org.apache.tika.langdetect.LanguageDetectorTest;
+import org.apache.tika.langdetect.LanguageSegmenterBenchmark;
 import org.apache.tika.language.detect.LanguageConfidence;
 import org.apache.tika.language.detect.LanguageDetector;
 import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.language.detect.LanguageSegmenter;
+import org.apache.tika.language.detect.LanguageSpan;
 import org.apache.tika.language.detect.LanguageWriter;
 
 public class OptimaizeLangDetectorTest extends LanguageDetectorTest {
@@ -284,4 +287,19 @@ public class OptimaizeLangDetectorTest extends LanguageDetectorTest {
         detector.detect(sb.toString());
     }
 
+    @Test
+    public void testSegments() throws Exception {
+        String en = LanguageSegmenterBenchmark.getMixedText("en");
+        String text = en + LanguageSegmenterBenchmark.getMixedText("de");
+        LanguageSegmenter segmenter =
+                new LanguageSegmenter(new OptimaizeLangDetector().loadModels());
+        segmenter.addText(text);
+        List<LanguageSpan> spans = segmenter.finish();
+        assertEquals("en", spans.get(0).getLanguage());
+        assertEquals("de", spans.get(spans.size() - 1).getLanguage());
+        assertEquals(text.length(), spans.get(spans.size() - 1).getEnd());
+        assertTrue(Math.abs(spans.get(spans.size() - 1).getStart() - en.length()) <=
+                LanguageSegmenter.DEFAULT_WINDOW_SIZE, spans.toString());
+    }
+
 }
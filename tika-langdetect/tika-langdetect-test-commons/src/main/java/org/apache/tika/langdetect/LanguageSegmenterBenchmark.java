@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.langdetect;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.io.IOUtils;
+
+import org.apache.tika.language.detect.LanguageDetector;
+import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.language.detect.LanguageSegmenter;
+import org.apache.tika.language.detect.LanguageSpan;
+
+/**
+ * Measures the throughput in chars/sec of document-level detection and of
+ * segment-level detection with a {@link LanguageSegmenter} on a text that
+ * mixes the test texts of several languages.
+ * <p>
+ * Usage: <code>LanguageSegmenterBenchmark [detectorClass...]</code>, with the
+ * detector modules on the classpath. Without arguments, all of the Optimaize,
+ * OpenNLP and Tika detectors that are on the classpath are measured.
+ */
+public class LanguageSegmenterBenchmark {
+
+    private static final String[] DEFAULT_DETECTORS =
+            new String[]{"org.apache.tika.langdetect.optimaize.OptimaizeLangDetector",
+                    "org.apache.tika.langdetect.opennlp.OpenNLPDetector",
+                    "org.apache.tika.langdetect.tika.TikaLanguageDetector"};
+
+    private static final String[] LANGUAGES = new String[]{"en", "de", "fr", "it", "nl", "sv"};
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        String[] detectors = args.length > 0 ? args : DEFAULT_DETECTORS;
+        String text = getMixedText(LANGUAGES);
+        System.out.printf(Locale.ROOT, "%d chars in %d languages%n", text.length(),
+                LANGUAGES.length);
+        for (String className : detectors) {
+            LanguageDetector detector;
+            try {
+                detector = (LanguageDetector) Class.forName(className).getDeclaredConstructor()
+                        .newInstance();
+            } catch (ClassNotFoundException e) {
+                System.out.println("not on the classpath: " + className);
+                continue;
+            }
+            detector.loadModels();
+            benchmark(detector, text);
+        }
+    }
+
+    /**
+     * @return the test texts of the languages, one after the other
+     */
+    public static String getMixedText(String... languages) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String language : languages) {
+            try (InputStream is = LanguageSegmenterBenchmark.class
+                    .getResourceAsStream("language-tests/" + language + ".test")) {
+                if (is == null) {
+                    throw new IOException("no test text for " + language);
+                }
+                sb.append(IOUtils.toString(is, UTF_8)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void benchmark(LanguageDetector detector, String text) {
+        char[] chars = text.toCharArray();
+        String name = detector.getClass().getSimpleName();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            detectDocument(detector, chars);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            detectDocument(detector, chars);
+        }
+        //some detectors return nothing if they aren't certain
+        List<LanguageResult> results = detector.detectAll();
+        report(name, "document", chars.length, System.nanoTime() - start,
+                results.isEmpty() ? "none" : results.get(0).getLanguage());
+
+        LanguageSegmenter segmenter = new LanguageSegmenter(detector);
+        List<LanguageSpan> spans = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            spans = segment(segmenter, chars);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            spans = segment(segmenter, chars);
+        }
+        report(name, "segments", chars.length, System.nanoTime() - start, spans.toString());
+    }
+
+    private static void detectDocument(LanguageDetector detector, char[] chars) {
+        detector.reset();
+        detector.addText(chars, 0, chars.length);
+        detector.detectAll();
+    }
+
+    private static List<LanguageSpan> segment(LanguageSegmenter segmenter, char[] chars) {
+        segmenter.reset();
+        //feed it in chunks, the way a content handler would
+        for (int i = 0; i < chars.length; i += 4096) {
+            segmenter.addText(chars, i, Math.min(4096, chars.length - i));
+        }
+        return segmenter.finish();
+    }
+
+    private static void report(String detector, String mode, int chars, long elapsedNanos,
+                               String result) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf(Locale.ROOT, "%-25s %-9s %,15.0f chars/sec  %s%n", detector, mode,
+                (double) chars * ITERATIONS / seconds, result);
+    }
+}
@@ -20,23 +20,32 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import javax.xml.XMLConstants;
 
+import org.apache.commons.io.ByteOrderMark;
+import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.io.input.CloseShieldInputStream;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Attribute;
 import org.jsoup.nodes.DataNode;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
 import org.jsoup.nodes.TextNode;
 import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.jsoup.parser.Tag;
 import org.jsoup.parser.TagSet;
 import org.jsoup.select.NodeFilter;
@@ -48,6 +57,7 @@ import org.xml.sax.helpers.AttributesImpl;
 import org.apache.tika.config.Field;
 import org.apache.tika.detect.EncodingDetector;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AbstractEncodingDetectorParser;
@@ -68,6 +78,11 @@ public class JSoupParser extends AbstractEncodingDetectorParser {
 
     public static final Charset DEFAULT_CHARSET = StandardCharsets.US_ASCII;
 
+    /**
+     * Inputs longer than this (in bytes) are parsed in streaming mode by default
+     */
+    public static final long DEFAULT_STREAMING_THRESHOLD = 50 * 1024 * 1024;
+
     private static final MediaType XHTML = MediaType.application("xhtml+xml");
     private static final MediaType WAP_XHTML = MediaType.application("vnd.wap.xhtml+xml");
     private static final MediaType X_ASP = MediaType.application("x-asp");
@@ -98,6 +113,12 @@ public class JSoupParser extends AbstractEncodingDetectorParser {
     @Field
     private boolean extractScripts = false;
 
+    @Field
+    private boolean streaming = false;
+
+    @Field
+    private long streamingThreshold = DEFAULT_STREAMING_THRESHOLD;
+
     public JSoupParser() {
         super();
     }
@@ -125,6 +146,43 @@ public class JSoupParser extends AbstractEncodingDetectorParser {
         this.extractScripts = extractScripts;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Whether or not to always parse in streaming mode. In streaming mode, SAX events
+     * are sent as soon as elements are complete, and elements are dropped once they
+     * have been sent, so only the open elements are kept in memory instead of the
+     * whole document. The output is the same as in the default (DOM) mode, except
+     * on some badly misnested markup that makes the HTML tree builder move elements
+     * that have already been sent.
+     * Default is <code>false</code>
+     *
+     * @param streaming
+     */
+    @Field
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public long getStreamingThreshold() {
+        return streamingThreshold;
+    }
+
+    /**
+     * Inputs with a known length (from the {@link TikaInputStream} or the
+     * Content-Length metadata) above this many bytes are parsed in streaming mode,
+     * see {@link #setStreaming(boolean)}. Set to -1 to never switch automatically.
+     * Default is {@link #DEFAULT_STREAMING_THRESHOLD}
+     *
+     * @param streamingThreshold
+     */
+    @Field
+    public void setStreamingThreshold(long streamingThreshold) {
+        this.streamingThreshold = streamingThreshold;
+    }
+
 
     public void parse(InputStream stream, ContentHandler handler, Metadata metadata,
                       ParseContext context) throws IOException, SAXException, TikaException {
@@ -160,6 +218,13 @@ public class JSoupParser extends AbstractEncodingDetectorParser {
         });
         */
 
+        if (useStreaming(stream, metadata)) {
+            parseStreaming(stream, charset, Parser.htmlParser().tagSet(tagSet),
+                    new XHTMLDowngradeHandler(
+                            new HtmlHandler(mapper, handler, metadata, context, extractScripts)));
+            return;
+        }
+
         //do better with baseUri?
         Document document = Jsoup.parse(CloseShieldInputStream.wrap(stream), charset.name(), "",
                 Parser.htmlParser().tagSet(tagSet));
@@ -176,6 +241,57 @@ public class JSoupParser extends AbstractEncodingDetectorParser {
         }
     }
 
+    private boolean useStreaming(InputStream stream, Metadata metadata) throws IOException {
+        if (streaming) {
+            return true;
+        }
+        if (streamingThreshold < 0) {
+            return false;
+        }
+        long length = -1;
+        TikaInputStream tis = TikaInputStream.cast(stream);
+        if (tis != null && tis.hasLength()) {
+            length = tis.getLength();
+        } else if (metadata.get(Metadata.CONTENT_LENGTH) != null) {
+            try {
+                length = Long.parseLong(metadata.get(Metadata.CONTENT_LENGTH).trim());
+            } catch (NumberFormatException e) {
+                //swallow
+            }
+        }
+        return length > streamingThreshold;
+    }
+
+    private void parseStreaming(InputStream stream, Charset charset, Parser parser,
+                                ContentHandler xhtml) throws IOException, SAXException {
+        // As Jsoup.parse() does, let a byte order mark override the detected charset
+        BOMInputStream bomStream = BOMInputStream.builder()
+                .setInputStream(CloseShieldInputStream.wrap(stream))
+                .setByteOrderMarks(ByteOrderMark.UTF_8, ByteOrderMark.UTF_16BE,
+                        ByteOrderMark.UTF_16LE, ByteOrderMark.UTF_32BE, ByteOrderMark.UTF_32LE)
+                .get();
+        if (bomStream.hasBOM()) {
+            charset = Charset.forName(bomStream.getBOMCharsetName());
+        }
+        Reader reader = new InputStreamReader(bomStream, charset);
+        xhtml.startDocument();
+        try (StreamParser streamParser = new StreamParser(parser).parse(reader, "")) {
+            StreamingNodeEmitter emitter =
+                    new StreamingNodeEmitter(new TikaNodeFilter(xhtml), streamParser.document());
+            Iterator<Element> completed = streamParser.iterator();
+            while (completed.hasNext()) {
+                emitter.completed(completed.next());
+            }
+            emitter.finish();
+        } catch (RuntimeSAXException e) {
+            throw e.getWrapped();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            xhtml.endDocument();
+        }
+    }
+
     public void parseString(String html, ContentHandler handler, Metadata metadata, ParseContext context) throws SAXException {
         // Get the HTML mapper from the parse context
         HtmlMapper mapper = context.get(HtmlMapper.class, new DefaultHtmlMapper());
@@ -264,6 +380,278 @@ public class JSoupParser extends AbstractEncodingDetectorParser {
         }
     }
 
+    /**
+     * Sends the elements that a {@link StreamParser} completes to a
+     * {@link TikaNodeFilter}, in document order, and drops their content from
+     * the document once it has been sent.
+     * <p>
+     * When an element is sent, the start tags of its ancestors are sent first
+     * (if they haven't been already), along with the text and other nodes that
+     * precede it. The ancestors' end tags are sent when they are completed in
+     * turn. Only the open ancestors and their unsent children are kept in the
+     * document.
+     * <p>
+     * Misnested markup can make the tree builder report an element as complete
+     * while it is still adding to it, or to its last descendants. So elements are
+     * only sent once one of their ancestors, or an element after them, is complete
+     * too. The chain of last child elements of a sent element, and any sent
+     * element whose last descendants haven't been reported as complete, are left
+     * in the document as empty shells until they can't be added to anymore.
+     * Anything that is added to a shell is sent later on, inside another start
+     * and end tag.
+     */
+    private class StreamingNodeEmitter implements NodeFilter {
+        //jsoup doesn't repair misnested markup below this depth of open
+        //elements either, so deeper shells are dropped
+        private static final int MAX_SHELL_DEPTH = 256;
+
+        private final TikaNodeFilter filter;
+        private final Document document;
+        //elements whose start tags have been sent, outermost first
+        private final List<Element> open = new ArrayList<>();
+        private final Set<Element> openSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        //completed elements that haven't been sent yet, in the order of completion
+        private final List<Element> pending = new ArrayList<>();
+        //sent elements that are still in the document
+        private final Set<Node> shells = Collections.newSetFromMap(new IdentityHashMap<>());
+        //elements that have been reported as complete and are still in the document
+        private final Set<Node> reported = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Element> ancestors = new ArrayList<>();
+        private final List<Element> pathA = new ArrayList<>();
+        private final List<Element> pathB = new ArrayList<>();
+
+        private StreamingNodeEmitter(TikaNodeFilter filter, Document document) {
+            this.filter = filter;
+            this.document = document;
+        }
+
+        private void completed(Element element) {
+            reported.add(element);
+            int kept = 0;
+            for (Element p : pending) {
+                if (isAncestorOrAfter(element, p)) {
+                    send(p);
+                } else {
+                    pending.set(kept++, p);
+                }
+            }
+            pending.subList(kept, pending.size()).clear();
+            pending.add(element);
+        }
+
+        private void finish() {
+            for (Element p : pending) {
+                send(p);
+            }
+            pending.clear();
+            while (!open.isEmpty()) {
+                close(pop());
+            }
+        }
+
+        private void send(Element element) {
+            //the element and its ancestors up to the innermost one that is open
+            ancestors.clear();
+            Element e = element;
+            while (e != null && !openSet.contains(e)) {
+                ancestors.add(e);
+                e = e.parent();
+            }
+            if (e == null && ancestors.get(ancestors.size() - 1) != document) {
+                //already sent, as part of an element that it was moved to
+                return;
+            }
+            //usually this only closes the element itself, or the last child of the
+            //open ancestor, but misnested markup may have moved open elements out
+            //from under it; those just get an end tag, and are started again if
+            //more of their content is sent
+            int common = 0;
+            if (e == element) {
+                common = open.lastIndexOf(e);
+            } else if (e != null) {
+                common = open.lastIndexOf(e) + 1;
+            }
+            while (open.size() > common) {
+                Element last = pop();
+                if (last == element) {
+                    close(element);
+                } else {
+                    filter.tail(last, 0);
+                    shells.add(last);
+                }
+            }
+            if (e == element) {
+                return;
+            }
+
+            for (int i = ancestors.size() - 1; i > 0; i--) {
+                Element ancestor = ancestors.get(i);
+                if (ancestor.parent() != null) {
+                    sendPreceding(ancestor.parent(), ancestor);
+                }
+                filter.head(ancestor, open.size());
+                push(ancestor);
+            }
+            if (element.parent() != null) {
+                sendPreceding(element.parent(), element);
+            }
+            NodeTraversor.filter(this, element);
+            hollow(element);
+        }
+
+        private void push(Element element) {
+            open.add(element);
+            openSet.add(element);
+        }
+
+        private Element pop() {
+            Element element = open.remove(open.size() - 1);
+            openSet.remove(element);
+            return element;
+        }
+
+        //sends the remaining children and the end tag of an open element
+        private void close(Element element) {
+            for (Node child : element.childNodes()) {
+                NodeTraversor.filter(this, child);
+            }
+            hollow(element);
+            filter.tail(element, 0);
+        }
+
+        //sends and removes the children that precede the given child
+        private void sendPreceding(Element parent, Node child) {
+            int index = child.siblingIndex();
+            for (int i = 0; i < index; i++) {
+                NodeTraversor.filter(this, parent.childNode(i));
+            }
+            for (int i = index - 1; i >= 0; i--) {
+                Node sent = parent.childNode(i);
+                if (mayGrow(sent)) {
+                    hollow((Element) sent);
+                } else {
+                    forget(sent);
+                    sent.remove();
+                }
+            }
+        }
+
+        //the tree builder may still add to the last descendants of a node if they
+        //haven't been reported as complete (misnested formatting elements), or
+        //are templates, so keep those until their parent closes
+        private boolean mayGrow(Node node) {
+            Node n = node;
+            while (n instanceof Element) {
+                if (!reported.contains(n) || "template".equals(n.normalName())) {
+                    return true;
+                }
+                n = n.childNodeSize() > 0 ? n.childNode(n.childNodeSize() - 1) : null;
+            }
+            return false;
+        }
+
+        //removes the content of a sent element, except for the chain of last
+        //child elements and the children that may still grow, which are kept
+        //as shells
+        private void hollow(Element element) {
+            hollow(element, MAX_SHELL_DEPTH);
+        }
+
+        private void hollow(Element element, int maxDepth) {
+            Element e = element;
+            for (int depth = 0; e != null; depth++) {
+                shells.add(e);
+                int last = e.childNodeSize() - 1;
+                for (int i = last - 1; i >= 0; i--) {
+                    Node child = e.childNode(i);
+                    if (depth < maxDepth && mayGrow(child)) {
+                        hollow((Element) child, maxDepth - depth - 1);
+                    } else {
+                        forget(child);
+                        child.remove();
+                    }
+                }
+                Node lastChild = last < 0 ? null : e.childNode(e.childNodeSize() - 1);
+                if (lastChild instanceof Element && depth < maxDepth) {
+                    e = (Element) lastChild;
+                } else {
+                    if (lastChild != null) {
+                        forget(lastChild);
+                        lastChild.remove();
+                    }
+                    e = null;
+                }
+            }
+        }
+
+        private void forget(Node node) {
+            NodeTraversor.traverse((n, depth) -> {
+                shells.remove(n);
+                reported.remove(n);
+            }, node);
+        }
+
+        //whether anything has been added to a shell since it was sent
+        private boolean hasUnsent(Node node) {
+            return NodeTraversor.filter((n, depth) -> shells.contains(n) ?
+                    FilterResult.CONTINUE : FilterResult.STOP, node) == FilterResult.STOP;
+        }
+
+        @Override
+        public NodeFilter.FilterResult head(Node node, int depth) {
+            if (!hasUnsent(node)) {
+                return FilterResult.SKIP_ENTIRELY;
+            }
+            return filter.head(node, depth);
+        }
+
+        @Override
+        public NodeFilter.FilterResult tail(Node node, int depth) {
+            return filter.tail(node, depth);
+        }
+
+        //whether a is an ancestor of b, or follows it in document order
+        private boolean isAncestorOrAfter(Element a, Element b) {
+            //usually a is the parent of b, or a later sibling of one of its ancestors
+            Element parent = a.parent();
+            for (Element e = b; e != null; e = e.parent()) {
+                if (e == a) {
+                    return true;
+                }
+                if (parent != null && e.parent() == parent) {
+                    return a.siblingIndex() > e.siblingIndex();
+                }
+            }
+            path(a, pathA);
+            path(b, pathB);
+            if (pathA.get(0) != pathB.get(0)) {
+                //b has been moved out of the document
+                return true;
+            }
+            int i = 1;
+            while (i < pathA.size() && i < pathB.size() && pathA.get(i) == pathB.get(i)) {
+                i++;
+            }
+            if (i == pathA.size()) {
+                return true;
+            }
+            if (i == pathB.size()) {
+                //a is a descendant of b
+                return false;
+            }
+            return pathA.get(i).siblingIndex() > pathB.get(i).siblingIndex();
+        }
+
+        //the element and its ancestors, outermost first
+        private void path(Element element, List<Element> path) {
+            path.clear();
+            for (Element e = element; e != null; e = e.parent()) {
+                path.add(e);
+            }
+            Collections.reverse(path);
+        }
+    }
+
     private static class RuntimeSAXException extends RuntimeException {
         private SAXException wrapped;
 
@@ -702,6 +702,47 @@ public class HtmlParserTest extends TikaTest {
     }
 
 
+    @Test
+    public void testStreamingMatchesDom() throws Exception {
+        for (String name : new String[]{"testHTML.html", "testHTML_head.html",
+                "testHTML_metadata.html", "testHTML_script_in_body.html", "testXHTML.html",
+                "boilerplate.html", "big-preamble.html", "tika434.html"}) {
+            String path = "/test-documents/" + name;
+            StringWriter dom = new StringWriter();
+            Metadata domMetadata = new Metadata();
+            JSoupParser parser = new JSoupParser();
+            try (InputStream is = getResourceAsStream(path)) {
+                parser.parse(is, makeHtmlTransformer(dom), domMetadata, new ParseContext());
+            }
+            StringWriter streamed = new StringWriter();
+            Metadata streamedMetadata = new Metadata();
+            parser.setStreaming(true);
+            try (InputStream is = getResourceAsStream(path)) {
+                parser.parse(is, makeHtmlTransformer(streamed), streamedMetadata,
+                        new ParseContext());
+            }
+            assertEquals(dom.toString(), streamed.toString(), name);
+            assertEquals(domMetadata.toString(), streamedMetadata.toString(), name);
+        }
+    }
+
+    @Test
+    public void testStreamingMisnestedMarkup() throws Exception {
+        //jsoup reparents nodes here after it has reported them as complete
+        String test = "<html><body><p>one <b>two <table><tr><td>three</b> four" +
+                "<template>five <i>six</template> seven</i> eight<p>nine</table> ten";
+        JSoupParser parser = new JSoupParser();
+        parser.setStreaming(true);
+        BodyContentHandler handler = new BodyContentHandler();
+        parser.parse(new ByteArrayInputStream(test.getBytes(UTF_8)), handler, new Metadata(),
+                new ParseContext());
+        String content = handler.toString();
+        for (String word : new String[]{"one", "two", "three", "four", "five", "six", "seven",
+                "eight", "nine", "ten"}) {
+            assertContains(word, content);
+        }
+    }
+
     /**
      * Create ContentHandler that transforms SAX events into textual HTML output,
      * and writes it out to <writer> - typically this is a StringWriter.
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.html;
+
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.commons.io.output.NullWriter;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.BodyContentHandler;
+
+/**
+ * Compares the DOM and the streaming modes of the {@link JSoupParser} on a
+ * large generated HTML document: a single page with paragraphs of text,
+ * links, lists and tables.
+ * <p>
+ * Prints the throughput of each mode. To compare their memory use, give each
+ * mode its own JVM (the second argument) with a small heap: with -Xmx64m, the
+ * DOM mode runs out of memory on the default document, the streaming mode
+ * doesn't.
+ * <p>
+ * Usage: JSoupParserStreamingBenchmark [sizeInMB] [dom|streaming|both] [iterations]
+ */
+public class JSoupParserStreamingBenchmark {
+
+    private static final String[] WORDS = {"the", "quick", "brown", "fox", "jumps", "over",
+            "lazy", "dog", "Tika", "parser", "content", "document", "&amp;", "&lt;tag&gt;"};
+
+    public static void main(String[] args) throws Exception {
+        int sizeInMB = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String mode = args.length > 1 ? args[1] : "both";
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path html = Files.createTempFile("tika-jsoup-benchmark", ".html");
+        try {
+            generate(html, sizeInMB * 1024L * 1024L, new Random(42));
+            for (int i = 0; i < iterations; i++) {
+                if (!mode.equals("streaming")) {
+                    run(html, false);
+                }
+                if (!mode.equals("dom")) {
+                    run(html, true);
+                }
+            }
+        } finally {
+            Files.delete(html);
+        }
+    }
+
+    private static void run(Path html, boolean streaming) throws Exception {
+        JSoupParser parser = new JSoupParser();
+        parser.setStreaming(streaming);
+        if (!streaming) {
+            //the generated document is above the automatic streaming threshold
+            parser.setStreamingThreshold(-1);
+        }
+        long start = System.nanoTime();
+        //don't keep the extracted text, only the parser's memory is of interest
+        BodyContentHandler handler = new BodyContentHandler(NullWriter.INSTANCE);
+        try (InputStream is = TikaInputStream.get(html)) {
+            parser.parse(is, handler, new Metadata(), new ParseContext());
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(String.format(Locale.ROOT, "%-9s: %7.1f ms, %6.1f MB/s",
+                streaming ? "streaming" : "dom", elapsed / 1e6,
+                Files.size(html) / (elapsed / 1e9) / 1e6));
+    }
+
+    private static void generate(Path path, long size, Random random) throws Exception {
+        try (Writer w = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            w.write("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\">" +
+                    "<title>Benchmark</title></head>\n<body>\n");
+            long written = 0;
+            int n = 0;
+            StringBuilder sb = new StringBuilder();
+            while (written < size) {
+                sb.setLength(0);
+                n++;
+                if (n % 50 == 0) {
+                    sb.append("<table>");
+                    for (int r = 0; r < 4; r++) {
+                        sb.append("<tr>");
+                        for (int c = 0; c < 4; c++) {
+                            sb.append("<td>").append(WORDS[random.nextInt(WORDS.length)]);
+                        }
+                    }
+                    sb.append("</table>\n");
+                } else if (n % 20 == 0) {
+                    sb.append("<ul>");
+                    for (int l = 0; l < 5; l++) {
+                        sb.append("<li>").append(WORDS[random.nextInt(WORDS.length)]);
+                    }
+                    sb.append("</ul>\n");
+                }
+                sb.append("<p>");
+                int numWords = 20 + random.nextInt(100);
+                for (int i = 0; i < numWords; i++) {
+                    if (i == numWords / 2) {
+                        sb.append("<a href=\"https://example.com/").append(n).append("\">")
+                                .append(WORDS[random.nextInt(WORDS.length)]).append("</a> ");
+                    } else {
+                        sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                    }
+                }
+                //leave some paragraphs unclosed, as real pages do
+                sb.append(n % 3 == 0 ? "\n" : "</p>\n");
+                w.write(sb.toString());
+                written += sb.length();
+            }
+            w.write("</body></html>\n");
+        }
+    }
+}
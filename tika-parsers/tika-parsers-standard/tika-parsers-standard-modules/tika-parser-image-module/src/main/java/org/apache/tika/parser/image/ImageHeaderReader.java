@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+
+import org.apache.tika.io.TikaInputStream;
+
+/**
+ * Reads the part of an image stream that holds the metadata into memory, so
+ * that the metadata can be extracted without spooling the stream to a
+ * temporary file.
+ * <p>
+ * At most {@link #MAX_BUFFERED_BYTES} are read. If that isn't enough, the
+ * stream is reset to where it was, <code>null</code> is returned, and the
+ * caller should fall back to {@link TikaInputStream#getFile()}.
+ */
+class ImageHeaderReader {
+
+    static final int MAX_BUFFERED_BYTES = 8 * 1024 * 1024;
+
+    //a few bytes of a jpeg marker may be read beyond the maximum
+    private static final int MARK_LIMIT = MAX_BUFFERED_BYTES + 16;
+
+    private static final int SEGMENT_IDENTIFIER = 0xFF;
+    private static final int SOS = 0xDA;
+    private static final int EOI = 0xD9;
+
+    /**
+     * Reads the segments of a JPEG up to and including the first start of
+     * scan marker, which is where the image data starts and where
+     * metadata-extractor stops reading. EXIF, IPTC, XMP and ICC data are all
+     * stored in segments before that.
+     *
+     * @return the start of the JPEG, or the whole stream if it has no start of
+     * scan, or <code>null</code> if that is longer than {@link #MAX_BUFFERED_BYTES}
+     */
+    static byte[] readJpegHeader(TikaInputStream tis) throws IOException {
+        tis.mark(MARK_LIMIT);
+        UnsynchronizedByteArrayOutputStream header =
+                UnsynchronizedByteArrayOutputStream.builder().setBufferSize(65536).get();
+        if (copyJpegHeader(tis, header)) {
+            return header.toByteArray();
+        }
+        tis.reset();
+        return null;
+    }
+
+    /**
+     * TIFF directories can be anywhere in the file, so the whole stream is
+     * read, as long as it isn't longer than {@link #MAX_BUFFERED_BYTES}.
+     *
+     * @return the whole stream or <code>null</code> if it is too long
+     */
+    static byte[] readFully(TikaInputStream tis) throws IOException {
+        if (tis.hasLength() && tis.getLength() > MAX_BUFFERED_BYTES) {
+            return null;
+        }
+        tis.mark(MARK_LIMIT);
+        UnsynchronizedByteArrayOutputStream bytes =
+                UnsynchronizedByteArrayOutputStream.builder().setBufferSize(65536).get();
+        long copied = IOUtils.copyLarge(tis, bytes, 0, MAX_BUFFERED_BYTES + 1);
+        if (copied <= MAX_BUFFERED_BYTES) {
+            return bytes.toByteArray();
+        }
+        tis.reset();
+        return null;
+    }
+
+    /**
+     * Follows the segment structure the same way as metadata-extractor's
+     * JpegSegmentReader, so that it sees the same bytes as it would have
+     * seen in the file, errors included.
+     *
+     * @return <code>false</code> if more than {@link #MAX_BUFFERED_BYTES} would
+     * have to be read
+     */
+    private static boolean copyJpegHeader(InputStream in, UnsynchronizedByteArrayOutputStream out)
+            throws IOException {
+        //metadata-extractor fails right away if this isn't the jpeg magic number
+        int b0 = copyByte(in, out);
+        int b1 = copyByte(in, out);
+        if (b0 != 0xFF || b1 != 0xD8) {
+            return true;
+        }
+        while (true) {
+            //markers are one or more 0xFF bytes followed by a byte that isn't 0x00 or 0xFF
+            int identifier = copyByte(in, out);
+            int type = copyByte(in, out);
+            while (type > -1 &&
+                    (identifier != SEGMENT_IDENTIFIER || type == SEGMENT_IDENTIFIER || type == 0)) {
+                if (out.size() > MAX_BUFFERED_BYTES) {
+                    return false;
+                }
+                identifier = type;
+                type = copyByte(in, out);
+            }
+            if (type == -1 || type == SOS || type == EOI) {
+                return true;
+            }
+            int hi = copyByte(in, out);
+            int lo = copyByte(in, out);
+            if (lo == -1) {
+                return true;
+            }
+            int length = ((hi << 8) | lo) - 2;
+            if (length < 0) {
+                return true;
+            }
+            if (out.size() + length > MAX_BUFFERED_BYTES) {
+                return false;
+            }
+            if (copy(in, out, length) < length) {
+                return true;
+            }
+        }
+    }
+
+    private static int copyByte(InputStream in, UnsynchronizedByteArrayOutputStream out)
+            throws IOException {
+        int b = in.read();
+        if (b > -1) {
+            out.write(b);
+        }
+        return b;
+    }
+
+    private static long copy(InputStream in, UnsynchronizedByteArrayOutputStream out, int length)
+            throws IOException {
+        return IOUtils.copyLarge(in, out, 0, length);
+    }
+}
@@ -126,6 +126,19 @@ public class ImageMetadataExtractor {
         }
     }
 
+    /**
+     * Reads the metadata from the start of a JPEG stream. Metadata-extractor
+     * stops reading at the start of the image data.
+     */
+    public void parseJpeg(InputStream stream) throws IOException, SAXException, TikaException {
+        try {
+            com.drew.metadata.Metadata jpegMetadata = JpegMetadataReader.readMetadata(stream);
+            handle(jpegMetadata);
+        } catch (JpegProcessingException | MetadataException e) {
+            throw new TikaException("Can't read JPEG metadata", e);
+        }
+    }
+
     public void parseTiff(File file) throws IOException, SAXException, TikaException {
         try {
             com.drew.metadata.Metadata tiffMetadata = TiffMetadataReader.readMetadata(file);
@@ -135,6 +148,16 @@ public class ImageMetadataExtractor {
         }
     }
 
+    public void parseTiff(byte[] tiff) throws IOException, SAXException, TikaException {
+        try {
+            com.drew.metadata.Metadata tiffMetadata =
+                    TiffMetadataReader.readMetadata(new ByteArrayReader(tiff));
+            handle(tiffMetadata);
+        } catch (MetadataException | TiffProcessingException e) {
+            throw new TikaException("Can't read TIFF metadata", e);
+        }
+    }
+
     public void parseWebP(File file) throws IOException, TikaException {
 
         try {
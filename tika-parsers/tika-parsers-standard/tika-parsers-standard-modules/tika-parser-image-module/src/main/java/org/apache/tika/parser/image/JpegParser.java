@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.Set;
 
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
@@ -53,8 +54,17 @@ public class JpegParser extends AbstractImageParser {
         TemporaryResources tmp = new TemporaryResources();
         try {
             TikaInputStream tis = TikaInputStream.get(stream, tmp, metadata);
-            new ImageMetadataExtractor(metadata).parseJpeg(tis.getFile());
-            new JempboxExtractor(metadata).parse(tis);
+            //the metadata is all in front of the image data, so there is no need
+            //to spool the stream to a file unless it is a file already
+            byte[] header = tis.hasFile() ? null : ImageHeaderReader.readJpegHeader(tis);
+            if (header != null) {
+                new ImageMetadataExtractor(metadata).parseJpeg(UnsynchronizedByteArrayInputStream.builder().setByteArray(header).get());
+                new JempboxExtractor(metadata).parse(
+                        UnsynchronizedByteArrayInputStream.builder().setByteArray(header).get());
+            } else {
+                new ImageMetadataExtractor(metadata).parseJpeg(tis.getFile());
+                new JempboxExtractor(metadata).parse(tis);
+            }
         } finally {
             tmp.dispose();
         }
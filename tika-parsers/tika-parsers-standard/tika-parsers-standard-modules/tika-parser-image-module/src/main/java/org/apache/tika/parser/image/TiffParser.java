@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.Set;
 
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
@@ -53,8 +54,17 @@ public class TiffParser extends AbstractImageParser {
         TemporaryResources tmp = new TemporaryResources();
         try {
             TikaInputStream tis = TikaInputStream.get(stream, tmp, metadata);
-            new ImageMetadataExtractor(metadata).parseTiff(tis.getFile());
-            new JempboxExtractor(metadata).parse(tis);
+            //directories can be anywhere, but small files can be read into memory
+            //instead of being spooled to a file
+            byte[] header = tis.hasFile() ? null : ImageHeaderReader.readFully(tis);
+            if (header != null) {
+                new ImageMetadataExtractor(metadata).parseTiff(header);
+                new JempboxExtractor(metadata).parse(
+                        UnsynchronizedByteArrayInputStream.builder().setByteArray(header).get());
+            } else {
+                new ImageMetadataExtractor(metadata).parseTiff(tis.getFile());
+                new JempboxExtractor(metadata).parse(tis);
+            }
         } finally {
             tmp.dispose();
         }
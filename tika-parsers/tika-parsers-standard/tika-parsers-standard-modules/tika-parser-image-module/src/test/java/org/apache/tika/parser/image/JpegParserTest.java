@@ -21,11 +21,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.FilterInputStream;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.TimeZone;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.junit.jupiter.api.Test;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -281,4 +285,31 @@ public class JpegParserTest {
         assertEquals("xmp.did:49E997348D4911E1AB62EBF9B374B234", metadata.get(XMPMM.DOCUMENTID));
     }
 
+    @Test
+    public void testJPEGStreamIsNotSpooled() throws Exception {
+        byte[] jpeg;
+        try (InputStream stream = getClass()
+                .getResourceAsStream("/test-documents/testJPEG_EXIF.jpg")) {
+            jpeg = IOUtils.toByteArray(stream);
+        }
+        //pad the image data, which doesn't have to be read to get the metadata
+        byte[] padded = Arrays.copyOf(jpeg, jpeg.length + 1024 * 1024);
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, "image/jpeg");
+        try (BoundedInputStream stream = BoundedInputStream.builder()
+                .setInputStream(new FilterInputStream(
+                        UnsynchronizedByteArrayInputStream.builder().setByteArray(padded).get()) {
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+                }).get()) {
+            parser.parse(stream, new DefaultHandler(), metadata, new ParseContext());
+            //allow for some read ahead, but not for the padding
+            assertTrue(stream.getCount() < jpeg.length + 65536, "read " + stream.getCount());
+        }
+        assertEquals("Canon EOS 40D", metadata.get(Metadata.EQUIPMENT_MODEL));
+        assertEquals("3888", metadata.get(Metadata.IMAGE_WIDTH));
+        assertNull(metadata.get(ImageMetadataExtractor.UNKNOWN_IMG_NS + "File Name"));
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.mailcommons;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Records the SAX events of a message that is parsed on a worker thread so
+ * that they can be replayed, in the order of the mail container, to the real
+ * handler on the parsing thread. Start and end document events are not recorded.
+ */
+public class SAXEventRecorder extends DefaultHandler {
+
+    private static final int START_ELEMENT = 0;
+    private static final int END_ELEMENT = 1;
+    private static final int CHARACTERS = 2;
+    private static final int IGNORABLE_WHITESPACE = 3;
+    private static final int START_PREFIX_MAPPING = 4;
+    private static final int END_PREFIX_MAPPING = 5;
+    private static final int PROCESSING_INSTRUCTION = 6;
+
+    private final List<Event> events = new ArrayList<>();
+
+    //character data of all events, referenced by offset and length
+    private final StringBuilder chars = new StringBuilder();
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) {
+        events.add(new Event(START_ELEMENT, uri, localName, qName, new AttributesImpl(atts)));
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        events.add(new Event(END_ELEMENT, uri, localName, qName, null));
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        addChars(CHARACTERS, ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        addChars(IGNORABLE_WHITESPACE, ch, start, length);
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+        events.add(new Event(START_PREFIX_MAPPING, prefix, uri, null, null));
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix) {
+        events.add(new Event(END_PREFIX_MAPPING, prefix, null, null, null));
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) {
+        events.add(new Event(PROCESSING_INSTRUCTION, target, data, null, null));
+    }
+
+    private void addChars(int type, char[] ch, int start, int length) {
+        if (length == 0) {
+            return;
+        }
+        Event last = events.isEmpty() ? null : events.get(events.size() - 1);
+        if (last != null && last.type == type && last.offset + last.length == chars.length()) {
+            //merge adjacent character events
+            last.length += length;
+        } else {
+            Event event = new Event(type, null, null, null, null);
+            event.offset = chars.length();
+            event.length = length;
+            events.add(event);
+        }
+        chars.append(ch, start, length);
+    }
+
+    public void replay(ContentHandler handler) throws SAXException {
+        char[] buffer = new char[0];
+        for (Event e : events) {
+            switch (e.type) {
+                case START_ELEMENT:
+                    handler.startElement(e.s1, e.s2, e.s3, e.atts);
+                    break;
+                case END_ELEMENT:
+                    handler.endElement(e.s1, e.s2, e.s3);
+                    break;
+                case CHARACTERS:
+                case IGNORABLE_WHITESPACE:
+                    if (buffer.length < e.length) {
+                        buffer = new char[e.length];
+                    }
+                    chars.getChars(e.offset, e.offset + e.length, buffer, 0);
+                    if (e.type == CHARACTERS) {
+                        handler.characters(buffer, 0, e.length);
+                    } else {
+                        handler.ignorableWhitespace(buffer, 0, e.length);
+                    }
+                    break;
+                case START_PREFIX_MAPPING:
+                    handler.startPrefixMapping(e.s1, e.s2);
+                    break;
+                case END_PREFIX_MAPPING:
+                    handler.endPrefixMapping(e.s1);
+                    break;
+                default:
+                    handler.processingInstruction(e.s1, e.s2);
+            }
+        }
+    }
+
+    private static class Event {
+        private final int type;
+        private final String s1;
+        private final String s2;
+        private final String s3;
+        private final Attributes atts;
+        private int offset;
+        private int length;
+
+        Event(int type, String s1, String s2, String s3, Attributes atts) {
+            this.type = type;
+            this.s1 = s1;
+            this.s2 = s2;
+            this.s3 = s3;
+            this.atts = atts;
+        }
+    }
+}
@@ -18,41 +18,68 @@ package org.apache.tika.parser.mbox;
 
 import static org.apache.tika.parser.mailcommons.MailDateParser.parseDateLenient;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
+import org.apache.tika.config.Field;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.EmbeddedDocumentExtractor;
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.extractor.ParsingEmbeddedDocumentExtractor;
+import org.apache.tika.io.BoundedInputStream;
+import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Message;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.CompositeParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ParseRecord;
 import org.apache.tika.parser.Parser;
 import org.apache.tika.parser.mailcommons.MailUtil;
+import org.apache.tika.parser.mailcommons.SAXEventRecorder;
 import org.apache.tika.sax.XHTMLContentHandler;
 
 /**
  * Mbox (mailbox) parser. This version extracts each mail from Mbox and uses the
  * DelegatingParser to process each mail.
+ * <p>
+ * Messages are split on the raw bytes; only the separator lines and the
+ * header blocks are decoded (as windows-1252) for the mbox-level metadata.
+ * <p>
+ * If {@link #setParseThreads(int)} is greater than 1, the mbox is spooled to
+ * disk if necessary, and messages are parsed in parallel straight from their
+ * byte ranges in the file. Their content is still written to the handler in
+ * mbox order. Parallel parsing is only used with the default
+ * {@link ParsingEmbeddedDocumentExtractor} and a {@link CompositeParser} as the
+ * embedded parser (e.g. the AutoDetectParser); anything else, such as the
+ * RecursiveParserWrapper, may keep state across embedded documents, and the
+ * messages are parsed one at a time.
  */
 public class MboxParser implements Parser {
 
@@ -70,9 +97,17 @@ public class MboxParser implements Parser {
 
     private static final String EMAIL_HEADER_METADATA_PREFIX = "MboxParser-";
     private static final String EMAIL_FROMLINE_METADATA = EMAIL_HEADER_METADATA_PREFIX + "from";
+
+    private static final Charset CHARSET = Charset.forName("windows-1252");
+
+    //only this much of each message is read for the mbox-level header metadata
+    //when messages are parsed from the file
+    private static final int MAX_HEADER_BLOCK_SIZE = 65536;
+
     private final Map<Integer, Metadata> trackingMetadata = new HashMap<>();
     private boolean tracking = false;
 
+    private int parseThreads = 1;
 
     @Override
     public Set<MediaType> getSupportedTypes(ParseContext context) {
@@ -86,69 +121,197 @@ public class MboxParser implements Parser {
         EmbeddedDocumentExtractor extractor =
                 EmbeddedDocumentUtil.getEmbeddedDocumentExtractor(context);
 
-        String charsetName = "windows-1252";
-
         metadata.set(Metadata.CONTENT_TYPE, MBOX_MIME_TYPE);
-        metadata.set(Metadata.CONTENT_ENCODING, charsetName);
+        metadata.set(Metadata.CONTENT_ENCODING, CHARSET.name());
 
         XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata);
         xhtml.startDocument();
 
-        InputStreamReader isr = new InputStreamReader(stream, charsetName);
-        try (BufferedReader reader = new BufferedReader(isr)) {
-            String curLine = reader.readLine();
-            int mailItem = 0;
-            do {
-                if (curLine.startsWith(MBOX_RECORD_DIVIDER)) {
-                    Metadata mailMetadata = new Metadata();
-                    Queue<String> multiline = new LinkedList<>();
-                    mailMetadata.add(EMAIL_FROMLINE_METADATA,
-                            curLine.substring(MBOX_RECORD_DIVIDER.length()));
-                    mailMetadata.set(Metadata.CONTENT_TYPE, "message/rfc822");
-                    mailMetadata
-                            .set(TikaCoreProperties.CONTENT_TYPE_PARSER_OVERRIDE, "message/rfc822");
-                    curLine = reader.readLine();
-                    if (curLine == null) {
-                        break;
-                    }
-                    UnsynchronizedByteArrayOutputStream message = UnsynchronizedByteArrayOutputStream.builder().setBufferSize(100000).get();
-                    do {
-                        if (curLine.startsWith(" ") || curLine.startsWith("\t")) {
-                            String latestLine = multiline.poll();
-                            latestLine += " " + curLine.trim();
-                            multiline.add(latestLine);
-                        } else {
-                            multiline.add(curLine);
-                        }
-
-                        message.write(curLine.getBytes(charsetName));
-                        message.write(0x0A);
-                        curLine = reader.readLine();
-                    } while (curLine != null && !curLine.startsWith(MBOX_RECORD_DIVIDER) &&
-                            message.size() < MAIL_MAX_SIZE);
-
-                    for (String item : multiline) {
-                        saveHeaderInMetadata(mailMetadata, item);
-                    }
-
-                    TikaInputStream msgStream = TikaInputStream.get(message.toInputStream());
-                    message = null;
-
-                    if (extractor.shouldParseEmbedded(mailMetadata)) {
-                        extractor.parseEmbedded(msgStream, xhtml, mailMetadata, true);
-                    }
-
-                    if (tracking) {
-                        getTrackingMetadata().put(mailItem++, mailMetadata);
-                    }
-                } else {
-                    curLine = reader.readLine();
+        if (parseThreads > 1 && canParseInParallel(extractor, context)) {
+            TemporaryResources tmp = new TemporaryResources();
+            try {
+                TikaInputStream tis = TikaInputStream.get(stream, tmp, metadata);
+                Path path = tis.getPath();
+                parseInParallel(new MboxSplitter(tis, CHARSET), path, xhtml,
+                        (ParsingEmbeddedDocumentExtractor) extractor, context);
+            } finally {
+                tmp.dispose();
+            }
+        } else {
+            parseSequentially(new MboxSplitter(stream, CHARSET), xhtml, extractor);
+        }
+
+        xhtml.endDocument();
+    }
+
+    private void parseSequentially(MboxSplitter splitter, XHTMLContentHandler xhtml,
+                                   EmbeddedDocumentExtractor extractor)
+            throws IOException, SAXException {
+        int mailItem = 0;
+        UnsynchronizedByteArrayOutputStream message =
+                UnsynchronizedByteArrayOutputStream.builder().setBufferSize(100000).get();
+        while (!Thread.currentThread().isInterrupted() && splitter.next()) {
+            message.reset();
+            splitter.copyMessage(message, MAIL_MAX_SIZE);
+            if (message.size() == 0) {
+                continue;
+            }
+            Metadata mailMetadata = newMailMetadata(splitter.getFromLine());
+            saveHeadersInMetadata(mailMetadata, message);
+
+            if (extractor.shouldParseEmbedded(mailMetadata)) {
+                try (TikaInputStream msgStream = TikaInputStream.get(message.toInputStream())) {
+                    extractor.parseEmbedded(msgStream, xhtml, mailMetadata, true);
                 }
+            }
 
-            } while (curLine != null && !Thread.currentThread().isInterrupted());
+            if (tracking) {
+                getTrackingMetadata().put(mailItem++, mailMetadata);
+            }
         }
+    }
 
-        xhtml.endDocument();
+    private void parseInParallel(MboxSplitter splitter, Path path, XHTMLContentHandler xhtml,
+                                 ParsingEmbeddedDocumentExtractor extractor, ParseContext context)
+            throws IOException, SAXException, TikaException {
+        //bound the number of messages whose output is held in memory
+        int maxPending = parseThreads * 2;
+        Deque<PendingMessage> pending = new ArrayDeque<>();
+        int mailItem = 0;
+        UnsynchronizedByteArrayOutputStream headerBlock =
+                UnsynchronizedByteArrayOutputStream.builder().setBufferSize(8192).get();
+        ExecutorService executorService = Executors.newFixedThreadPool(parseThreads);
+        try {
+            while (!Thread.currentThread().isInterrupted() && splitter.next()) {
+                headerBlock.reset();
+                splitter.copyMessage(headerBlock, MAX_HEADER_BLOCK_SIZE);
+                long start = splitter.getMessageStart();
+                long end = splitter.getMessageEnd();
+                if (end == start) {
+                    continue;
+                }
+                Metadata mailMetadata = newMailMetadata(splitter.getFromLine());
+                saveHeadersInMetadata(mailMetadata, headerBlock);
+
+                Future<ParsedMessage> future = null;
+                if (extractor.shouldParseEmbedded(mailMetadata)) {
+                    future = executorService.submit(
+                            () -> parseMessage(path, start, end, mailMetadata, extractor, context));
+                }
+                pending.add(new PendingMessage(mailItem++, mailMetadata, future));
+                while (pending.size() >= maxPending) {
+                    writeMessage(pending.poll(), xhtml, context);
+                }
+            }
+            while (!pending.isEmpty()) {
+                writeMessage(pending.poll(), xhtml, context);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private ParsedMessage parseMessage(Path path, long start, long end, Metadata mailMetadata,
+                                       ParsingEmbeddedDocumentExtractor extractor,
+                                       ParseContext context) throws IOException, SAXException {
+        //the context is shared with the other workers
+        ParseContext messageContext = EmbeddedDocumentUtil.newWorkerContext(context, extractor);
+        EmbeddedDocumentExtractor messageExtractor =
+                messageContext.get(EmbeddedDocumentExtractor.class);
+
+        SAXEventRecorder recorder = new SAXEventRecorder();
+        try (InputStream is = Files.newInputStream(path)) {
+            IOUtils.skipFully(is, start);
+            try (TikaInputStream msgStream =
+                         TikaInputStream.get(new BoundedInputStream(end - start, is))) {
+                messageExtractor.parseEmbedded(msgStream, recorder, mailMetadata, true);
+            }
+        }
+        return new ParsedMessage(recorder, context.get(ParseRecord.class) == null ? null :
+                messageContext.get(ParseRecord.class));
+    }
+
+    private void writeMessage(PendingMessage message, XHTMLContentHandler xhtml,
+                              ParseContext context)
+            throws IOException, SAXException, TikaException {
+        if (message.future != null) {
+            ParsedMessage parsed;
+            try {
+                parsed = message.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TikaException("interrupted while parsing mbox", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof SAXException) {
+                    throw (SAXException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new TikaException("problem parsing mbox message", cause);
+            }
+            if (parsed.record != null) {
+                context.get(ParseRecord.class).merge(parsed.record);
+            }
+            parsed.recorder.replay(xhtml);
+        }
+        if (tracking) {
+            getTrackingMetadata().put(message.mailItem, message.metadata);
+        }
+    }
+
+    private static boolean canParseInParallel(EmbeddedDocumentExtractor extractor,
+                                              ParseContext context) {
+        //subclasses and other extractors may rely on seeing the messages one at a time
+        return extractor.getClass() == ParsingEmbeddedDocumentExtractor.class &&
+                context.get(Parser.class) instanceof CompositeParser;
+    }
+
+    private static Metadata newMailMetadata(String fromLine) {
+        Metadata mailMetadata = new Metadata();
+        mailMetadata.add(EMAIL_FROMLINE_METADATA, fromLine);
+        mailMetadata.set(Metadata.CONTENT_TYPE, "message/rfc822");
+        mailMetadata.set(TikaCoreProperties.CONTENT_TYPE_PARSER_OVERRIDE, "message/rfc822");
+        return mailMetadata;
+    }
+
+    /**
+     * Decodes the header block at the start of the message, up to the first
+     * empty line, and unfolds continuation lines.
+     */
+    private void saveHeadersInMetadata(Metadata mailMetadata,
+                                       UnsynchronizedByteArrayOutputStream message) {
+        byte[] bytes = message.toByteArray();
+        List<String> headers = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < bytes.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            String line = new String(bytes, lineStart, lineEnd - lineStart, CHARSET);
+            if (line.isEmpty()) {
+                break;
+            }
+            if ((line.startsWith(" ") || line.startsWith("\t")) && !headers.isEmpty()) {
+                int last = headers.size() - 1;
+                headers.set(last, headers.get(last) + " " + line.trim());
+            } else {
+                headers.add(line);
+            }
+            lineStart = next;
+        }
+        for (String header : headers) {
+            saveHeaderInMetadata(mailMetadata, header);
+        }
     }
 
     public boolean isTracking() {
@@ -163,6 +326,20 @@ public class MboxParser implements Parser {
         return trackingMetadata;
     }
 
+    /**
+     * Number of threads used to parse the messages of an mbox. If this is
+     * greater than 1, an mbox that is not already backed by a file is spooled
+     * to a temporary file. Default is 1.
+     */
+    @Field
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
     private void saveHeaderInMetadata(Metadata metadata, String curLine) {
         Matcher headerMatcher = EMAIL_HEADER_PATTERN.matcher(curLine);
         if (!headerMatcher.matches()) {
@@ -219,4 +396,28 @@ public class MboxParser implements Parser {
             metadata.add(EMAIL_HEADER_METADATA_PREFIX + headerTag, headerContent);
         }
     }
+
+    private static class PendingMessage {
+        private final int mailItem;
+        private final Metadata metadata;
+        //null if the message was not selected for parsing
+        private final Future<ParsedMessage> future;
+
+        PendingMessage(int mailItem, Metadata metadata, Future<ParsedMessage> future) {
+            this.mailItem = mailItem;
+            this.metadata = metadata;
+            this.future = future;
+        }
+    }
+
+    private static class ParsedMessage {
+        private final SAXEventRecorder recorder;
+        //null if there is no record in the parent context to merge into
+        private final ParseRecord record;
+
+        ParsedMessage(SAXEventRecorder recorder, ParseRecord record) {
+            this.recorder = recorder;
+            this.record = record;
+        }
+    }
 }
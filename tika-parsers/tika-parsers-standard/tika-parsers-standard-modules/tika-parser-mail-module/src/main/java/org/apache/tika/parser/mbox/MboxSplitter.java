@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.mbox;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+
+/**
+ * Splits an mbox into messages by scanning the raw bytes for lines that
+ * start with {@link MboxParser#MBOX_RECORD_DIVIDER}. Nothing is decoded
+ * except for the separator lines themselves.
+ * <p>
+ * Usage: call {@link #next()} to move to the next message, and then exactly
+ * one of {@link #copyMessage(OutputStream, long)} or {@link #skipMessage()}.
+ * Afterwards, {@link #getMessageStart()} and {@link #getMessageEnd()} hold the
+ * byte range of the message (without its separator line) in the underlying
+ * stream.
+ * <p>
+ * This is not thread safe.
+ */
+class MboxSplitter {
+
+    private static final byte[] DIVIDER =
+            MboxParser.MBOX_RECORD_DIVIDER.getBytes(StandardCharsets.US_ASCII);
+
+    //separator lines longer than this are truncated
+    private static final int MAX_FROM_LINE_LENGTH = 10000;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final InputStream stream;
+    private final Charset charset;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final UnsynchronizedByteArrayOutputStream fromLine =
+            UnsynchronizedByteArrayOutputStream.builder().setBufferSize(256).get();
+
+    //offset of buffer[0] in the stream
+    private long bufferOffset = 0;
+    private int pos = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private boolean atLineStart = true;
+
+    private String currentFromLine;
+    private long messageStart = -1;
+    private long messageEnd = -1;
+
+    MboxSplitter(InputStream stream, Charset charset) {
+        this.stream = stream;
+        this.charset = charset;
+    }
+
+    /**
+     * Moves to the next separator line and reads it. Any bytes left in the
+     * current message, or before the first separator, are skipped.
+     *
+     * @return <code>false</code> if there are no more messages
+     */
+    boolean next() throws IOException {
+        if (!scanToSeparator(null, 0)) {
+            return false;
+        }
+        //skip the divider itself, scanToSeparator guarantees it is in the buffer
+        pos += DIVIDER.length;
+        fromLine.reset();
+        while (true) {
+            if (pos >= limit && !fill()) {
+                break;
+            }
+            int nl = indexOfNewLine(pos, limit);
+            int stop = nl < 0 ? limit : nl;
+            int len = Math.min(stop - pos, MAX_FROM_LINE_LENGTH - fromLine.size());
+            if (len > 0) {
+                fromLine.write(buffer, pos, len);
+            }
+            if (nl > -1) {
+                pos = nl + 1;
+                break;
+            }
+            pos = limit;
+        }
+        atLineStart = true;
+        currentFromLine = decodeFromLine();
+        messageStart = getOffset();
+        messageEnd = -1;
+        return true;
+    }
+
+    /**
+     * Copies the current message to the given stream. Only the first
+     * <code>maxBytes</code> bytes are copied, the rest of the message is skipped.
+     */
+    void copyMessage(OutputStream out, long maxBytes) throws IOException {
+        scanToSeparator(out, maxBytes);
+        messageEnd = getOffset();
+    }
+
+    void skipMessage() throws IOException {
+        copyMessage(null, 0);
+    }
+
+    /**
+     * @return the separator line without the divider and the line ending
+     */
+    String getFromLine() {
+        return currentFromLine;
+    }
+
+    /**
+     * @return the offset of the first byte after the separator line
+     */
+    long getMessageStart() {
+        return messageStart;
+    }
+
+    /**
+     * @return the offset of the next separator line, or the end of the stream
+     */
+    long getMessageEnd() {
+        return messageEnd;
+    }
+
+    /**
+     * Reads until the start of the next separator line or the end of the
+     * stream, writing up to <code>maxBytes</code> of what it passes over to
+     * <code>out</code>. On success, the divider is in the buffer at {@link #pos}.
+     *
+     * @return <code>true</code> if a separator line was found
+     */
+    private boolean scanToSeparator(OutputStream out, long maxBytes) throws IOException {
+        long remaining = out == null ? 0 : maxBytes;
+        while (true) {
+            if (pos >= limit && !fill()) {
+                return false;
+            }
+            if (atLineStart) {
+                if (ensure(DIVIDER.length) && startsWithDivider()) {
+                    return true;
+                }
+                if (pos >= limit) {
+                    //ensure() compacted and hit the end of the stream
+                    return false;
+                }
+            }
+            int nl = indexOfNewLine(pos, limit);
+            int stop = nl < 0 ? limit : nl + 1;
+            if (remaining > 0) {
+                int len = (int) Math.min(stop - pos, remaining);
+                out.write(buffer, pos, len);
+                remaining -= len;
+            }
+            pos = stop;
+            atLineStart = nl > -1;
+        }
+    }
+
+    private boolean startsWithDivider() {
+        for (int i = 0; i < DIVIDER.length; i++) {
+            if (buffer[pos + i] != DIVIDER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOfNewLine(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private long getOffset() {
+        return bufferOffset + pos;
+    }
+
+    /**
+     * Refills the buffer once it has been consumed.
+     *
+     * @return <code>false</code> at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        return readMore();
+    }
+
+    /**
+     * Makes sure that at least <code>n</code> bytes are available after
+     * {@link #pos}, moving the unread bytes to the start of the buffer if needed.
+     *
+     * @return <code>false</code> if the stream ends first
+     */
+    private boolean ensure(int n) throws IOException {
+        if (limit - pos >= n) {
+            return true;
+        }
+        if (pos > 0) {
+            int unread = limit - pos;
+            System.arraycopy(buffer, pos, buffer, 0, unread);
+            bufferOffset += pos;
+            pos = 0;
+            limit = unread;
+        }
+        while (limit < n) {
+            if (!readMore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readMore() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read = stream.read(buffer, limit, buffer.length - limit);
+        while (read == 0) {
+            read = stream.read(buffer, limit, buffer.length - limit);
+        }
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private String decodeFromLine() {
+        byte[] bytes = fromLine.toByteArray();
+        int len = bytes.length;
+        if (len > 0 && bytes[len - 1] == '\r') {
+            len--;
+        }
+        return new String(bytes, 0, len, charset);
+    }
+}
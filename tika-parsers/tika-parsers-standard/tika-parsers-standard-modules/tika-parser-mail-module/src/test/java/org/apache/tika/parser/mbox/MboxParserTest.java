@@ -17,23 +17,42 @@
 package org.apache.tika.parser.mbox;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
 
 import org.apache.tika.TikaTest;
 import org.apache.tika.detect.TypeDetector;
+import org.apache.tika.extractor.EmbeddedDocumentExtractor;
+import org.apache.tika.extractor.ParsingEmbeddedDocumentExtractor;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.mime.MediaTypeRegistry;
+import org.apache.tika.parser.AbstractParser;
 import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.CompositeParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ParseRecord;
 import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.PasswordProvider;
 import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.XHTMLContentHandler;
 
 public class MboxParserTest extends TikaTest {
 
@@ -155,6 +174,108 @@ public class MboxParserTest extends TikaTest {
         assertContains("When a Mapper completes", handler.toString());
     }
 
+    @Test
+    public void testParallel() throws Exception {
+        ContentHandler serialHandler = new BodyContentHandler();
+        try (InputStream stream = getResourceAsStream("/test-documents/complex.mbox")) {
+            mboxParser.parse(stream, serialHandler, new Metadata(), recursingContext);
+        }
+        Map<Integer, Metadata> serialMetadata = new HashMap<>(mboxParser.getTrackingMetadata());
+
+        MboxParser parallelParser = new MboxParser();
+        parallelParser.setTracking(true);
+        parallelParser.setParseThreads(3);
+        ParseContext parallelContext = new ParseContext();
+        parallelContext.set(Parser.class, autoDetectParser);
+        ContentHandler parallelHandler = new BodyContentHandler();
+        try (InputStream stream = getResourceAsStream("/test-documents/complex.mbox")) {
+            parallelParser.parse(stream, parallelHandler, new Metadata(), parallelContext);
+        }
+
+        //same content in the same order
+        assertEquals(serialHandler.toString(), parallelHandler.toString());
+        Map<Integer, Metadata> parallelMetadata = parallelParser.getTrackingMetadata();
+        assertEquals(3, parallelMetadata.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(serialMetadata.get(i).get("MboxParser-from"),
+                    parallelMetadata.get(i).get("MboxParser-from"));
+            assertEquals(serialMetadata.get(i).get(TikaCoreProperties.TITLE),
+                    parallelMetadata.get(i).get(TikaCoreProperties.TITLE));
+        }
+    }
+
+    @Test
+    public void testParallelWorkersDoNotShareState() throws Exception {
+        ParsingEmbeddedDocumentExtractor extractor =
+                new ParsingEmbeddedDocumentExtractor(recursingContext);
+        ParseRecord parseRecord = new ParseRecord();
+        AtomicInteger passwordCalls = new AtomicInteger();
+        AtomicBoolean passwordInUse = new AtomicBoolean();
+        AtomicBoolean concurrentPasswordCalls = new AtomicBoolean();
+        Set<Object> extractors = ConcurrentHashMap.newKeySet();
+        Set<Object> records = ConcurrentHashMap.newKeySet();
+
+        //a provider that isn't thread safe
+        PasswordProvider passwordProvider = metadata -> {
+            if (!passwordInUse.compareAndSet(false, true)) {
+                concurrentPasswordCalls.set(true);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            passwordCalls.incrementAndGet();
+            passwordInUse.set(false);
+            return null;
+        };
+        Parser messageParser = new AbstractParser() {
+            @Override
+            public Set<MediaType> getSupportedTypes(ParseContext context) {
+                return Collections.singleton(MediaType.parse("message/rfc822"));
+            }
+
+            @Override
+            public void parse(InputStream stream, ContentHandler handler, Metadata metadata,
+                              ParseContext context) throws IOException, SAXException {
+                extractors.add(context.get(EmbeddedDocumentExtractor.class));
+                records.add(context.get(ParseRecord.class));
+                context.get(ParseRecord.class).addWarning("parsed");
+                context.get(PasswordProvider.class).getPassword(metadata);
+                XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata);
+                xhtml.startDocument();
+                xhtml.element("p", metadata.get("MboxParser-from"));
+                xhtml.endDocument();
+            }
+        };
+        ParseContext context = new ParseContext();
+        context.set(Parser.class, new CompositeParser(new MediaTypeRegistry(), messageParser));
+        context.set(EmbeddedDocumentExtractor.class, extractor);
+        context.set(ParseRecord.class, parseRecord);
+        context.set(PasswordProvider.class, passwordProvider);
+
+        MboxParser parallelParser = new MboxParser();
+        parallelParser.setParseThreads(3);
+        ContentHandler handler = new BodyContentHandler();
+        try (InputStream stream = getResourceAsStream("/test-documents/complex.mbox")) {
+            parallelParser.parse(stream, handler, new Metadata(), context);
+        }
+
+        assertEquals(3, passwordCalls.get());
+        assertFalse(concurrentPasswordCalls.get());
+        //every message got its own extractor and record...
+        assertEquals(3, extractors.size());
+        assertEquals(3, records.size());
+        assertFalse(extractors.contains(extractor));
+        assertFalse(records.contains(parseRecord));
+        //...and the container's context wasn't changed
+        assertSame(extractor, context.get(EmbeddedDocumentExtractor.class));
+        assertSame(parseRecord, context.get(ParseRecord.class));
+        assertSame(passwordProvider, context.get(PasswordProvider.class));
+        //the records were merged back into the container's
+        assertEquals(3, parseRecord.getWarnings().size());
+    }
+
     @Test
     public void testTika2478() throws Exception {
         List<Metadata> metadataList = getRecursiveMetadata("testMBOX_complex.mbox");
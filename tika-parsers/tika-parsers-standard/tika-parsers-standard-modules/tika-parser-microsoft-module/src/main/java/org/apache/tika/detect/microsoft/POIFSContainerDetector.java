@@ -33,6 +33,7 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
 import org.apache.poi.poifs.filesystem.DirectoryNode;
@@ -258,6 +259,9 @@ public class POIFSContainerDetector implements Detector {
     @Field
     private int markLimit = -1;
 
+    @Field
+    private int inMemoryLimit = 16 * 1024 * 1024;
+
     /**
      * Internal detection of the specific kind of OLE2 document, based on the
      * names of the top-level streams within the file. In some cases the
@@ -566,7 +570,31 @@ public class POIFSContainerDetector implements Detector {
         this.markLimit = markLimit;
     }
 
+    /**
+     * If a TikaInputStream without an underlying file is no longer than this, it is
+     * read into memory and POI opens it from there, instead of spooling it to disk.
+     * The resulting POIFSFileSystem is kept as the stream's open container
+     * either way, so the parser does not have to read the file again.
+     * Set this to -1 to always spool to disk.
+     *
+     * @param inMemoryLimit
+     */
+    public void setInMemoryLimit(int inMemoryLimit) {
+        this.inMemoryLimit = inMemoryLimit;
+    }
+
+    public int getInMemoryLimit() {
+        return inMemoryLimit;
+    }
+
     private Set<String> getTopLevelNames(TikaInputStream stream) throws IOException {
+        if (!stream.hasFile() && inMemoryLimit > 0) {
+            int limit = markLimit < 0 ? inMemoryLimit : Math.min(markLimit, inMemoryLimit);
+            byte[] bytes = stream.peekFully(limit);
+            if (bytes != null) {
+                return getTopLevelNames(stream, bytes);
+            }
+        }
         // Force the document stream to a (possibly temporary) file
         // so we don't modify the current position of the stream.
         //If the markLimit is < 0, this will spool the entire file
@@ -599,6 +627,21 @@ public class POIFSContainerDetector implements Detector {
         }
     }
 
+    private Set<String> getTopLevelNames(TikaInputStream stream, byte[] bytes) {
+        try {
+            POIFSFileSystem fs = new POIFSFileSystem(
+                    UnsynchronizedByteArrayInputStream.builder().setByteArray(bytes).get());
+            stream.setOpenContainer(fs);
+            return getTopLevelNames(fs.getRoot());
+        } catch (IOException e) {
+            return Collections.emptySet();
+        } catch (SecurityException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return Collections.emptySet();
+        }
+    }
+
     public MediaType detect(InputStream input, Metadata metadata) throws IOException {
         // Check if we have access to the document
         if (input == null) {
@@ -41,8 +41,24 @@ public class ChmAssert {
         if ((data == null)) {
             throw new TikaException("data[] is null");
         }
+        assertChmBlockSegment(data.length, resetTable, blockNumber, lzxcBlockOffset,
+                lzxcBlockLength);
+    }
 
-        if ((data.length <= 0)) {
+    /**
+     * Checks a validity of the chmBlockSegment parameters
+     *
+     * @param dataLength      length of the chm file
+     * @param resetTable      ChmLzxcResetTable
+     * @param blockNumber     int
+     * @param lzxcBlockOffset long
+     * @param lzxcBlockLength int
+     * @throws TikaException
+     */
+    public static final void assertChmBlockSegment(long dataLength, ChmLzxcResetTable resetTable,
+                                                   int blockNumber, long lzxcBlockOffset,
+                                                   int lzxcBlockLength) throws TikaException {
+        if ((dataLength <= 0)) {
             throw new TikaException("data[] length should be greater than zero");
         }
 
@@ -157,7 +173,7 @@ public class ChmAssert {
         }
     }
 
-    public static void assertCopyingDataIndex(int index, int dataLength)
+    public static void assertCopyingDataIndex(long index, long dataLength)
             throws ChmParsingException {
         if (index >= dataLength) {
             throw new ChmParsingException("cannot parse chm file index > data.length");
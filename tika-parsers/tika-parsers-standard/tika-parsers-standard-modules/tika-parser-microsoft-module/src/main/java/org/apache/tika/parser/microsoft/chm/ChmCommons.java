@@ -68,6 +68,15 @@ public class ChmCommons {
                                             int lzxcBlockLength) throws TikaException {
         ChmAssert.assertChmBlockSegment(data, resetTable, blockNumber, lzxcBlockOffset,
                 lzxcBlockLength);
+        return getChmBlockSegment(ChmData.of(data), resetTable, blockNumber, lzxcBlockOffset,
+                lzxcBlockLength);
+    }
+
+    static byte[] getChmBlockSegment(ChmData data, ChmLzxcResetTable resetTable,
+                                     int blockNumber, long lzxcBlockOffset,
+                                     int lzxcBlockLength) throws TikaException {
+        ChmAssert.assertChmBlockSegment(data.length(), resetTable, blockNumber, lzxcBlockOffset,
+                lzxcBlockLength);
         int blockLength = -1;
         // TODO add int_max_value checking
         if (blockNumber < (resetTable.getBlockAddress().length - 1)) {
@@ -82,9 +91,8 @@ public class ChmCommons {
                 blockLength = (int) (lzxcBlockLength - resetTable.getBlockAddress()[blockNumber]);
             }
         }
-        byte[] t = ChmCommons.copyOfRange(data,
-                (int) (lzxcBlockOffset + resetTable.getBlockAddress()[blockNumber]),
-                (int) (lzxcBlockOffset + resetTable.getBlockAddress()[blockNumber] + blockLength));
+        byte[] t = data.copyOfRange(lzxcBlockOffset + resetTable.getBlockAddress()[blockNumber],
+                lzxcBlockOffset + resetTable.getBlockAddress()[blockNumber] + blockLength);
         return (t != null) ? t : new byte[1];
     }
 
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.chm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.tika.exception.TikaException;
+
+/**
+ * The bytes of a chm file. They are either held in memory or read on demand
+ * from a {@link FileChannel}, in which case only the parts of the file that
+ * are being decoded are held in memory.
+ */
+abstract class ChmData {
+
+    //chunk size used to search the file for a pattern
+    private static final int SEARCH_CHUNK_SIZE = 64 * 1024;
+
+    static ChmData of(byte[] data) {
+        return new ByteArrayChmData(data);
+    }
+
+    static ChmData of(FileChannel channel) throws IOException {
+        return new FileChannelChmData(channel);
+    }
+
+    abstract long length();
+
+    /**
+     * Copies the bytes from <code>from</code> (inclusive) to <code>to</code>
+     * (exclusive), with the same checks as {@link ChmCommons#copyOfRange(byte[], int, int)}.
+     */
+    abstract byte[] copyOfRange(long from, long to) throws TikaException;
+
+    /**
+     * @return the offset of the first occurrence of the pattern, or -1 if
+     * there is none
+     */
+    long indexOf(byte[] pattern) throws TikaException {
+        long length = length();
+        long position = 0;
+        while (position < length) {
+            long end = Math.min(position + SEARCH_CHUNK_SIZE, length);
+            int index = ChmCommons.indexOfDataSpaceStorageElement(
+                    copyOfRange(position, end), pattern);
+            if (index > -1) {
+                return position + index;
+            }
+            if (end == length) {
+                break;
+            }
+            //the pattern may start in this chunk and end in the next one
+            position = end - (pattern.length - 1);
+        }
+        return -1;
+    }
+
+    private static class ByteArrayChmData extends ChmData {
+
+        private final byte[] data;
+
+        private ByteArrayChmData(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        long length() {
+            return data.length;
+        }
+
+        @Override
+        byte[] copyOfRange(long from, long to) throws TikaException {
+            return ChmCommons.copyOfRange(data, toInt(from), toInt(to));
+        }
+
+        @Override
+        long indexOf(byte[] pattern) throws TikaException {
+            return ChmCommons.indexOfDataSpaceStorageElement(data, pattern);
+        }
+
+        private static int toInt(long offset) {
+            //let copyOfRange reject offsets that don't fit into the array
+            return (int) Math.max(Math.min(offset, Integer.MAX_VALUE), Integer.MIN_VALUE);
+        }
+    }
+
+    private static class FileChannelChmData extends ChmData {
+
+        private final FileChannel channel;
+        private final long length;
+
+        private FileChannelChmData(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.length = channel.size();
+        }
+
+        @Override
+        long length() {
+            return length;
+        }
+
+        @Override
+        byte[] copyOfRange(long from, long to) throws TikaException {
+            if (from < 0) {
+                throw new IllegalArgumentException(from + " should be > 0");
+            }
+            if (to < 0) {
+                throw new IllegalArgumentException(to + " should be > 0");
+            }
+            if (to > length) {
+                throw new IllegalArgumentException("can't copy beyond array length");
+            }
+            if (to < from) {
+                throw new IllegalArgumentException(from + " > " + to);
+            }
+            if (to - from > Integer.MAX_VALUE) {
+                throw new ChmParsingException("can't copy more than 2GB: " + (to - from));
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+            try {
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, from + buffer.position());
+                    if (read < 0) {
+                        throw new ChmParsingException("unexpected end of chm file");
+                    }
+                }
+            } catch (IOException e) {
+                throw new TikaException("problem reading chm file", e);
+            }
+            return buffer.array();
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class ChmDirectoryListingSet {
     private static final Logger LOG = LoggerFactory.getLogger(ChmDirectoryListingSet.class);
 
     private List<DirectoryListingEntry> dlel;
-    private byte[] data;
+    private ChmData data;
     private int placeHolder = -1;
     private long dataOffset = -1;
     private int controlDataIndex = -1;
@@ -57,12 +57,29 @@ public class ChmDirectoryListingSet {
      */
     public ChmDirectoryListingSet(byte[] data, ChmItsfHeader chmItsHeader,
                                   ChmItspHeader chmItspHeader) throws TikaException {
+        this(checkedData(data), chmItsHeader, chmItspHeader);
+    }
+
+    /**
+     * Constructs chm directory listing set
+     *
+     * @param data          the chm file
+     * @param chmItsHeader
+     * @param chmItspHeader
+     * @throws TikaException
+     */
+    ChmDirectoryListingSet(ChmData data, ChmItsfHeader chmItsHeader,
+                           ChmItspHeader chmItspHeader) throws TikaException {
         setDirectoryListingEntryList(new ArrayList<>());
-        ChmCommons.assertByteArrayNotNull(data);
         setData(data);
         enumerateChmDirectoryListingList(chmItsHeader, chmItspHeader);
     }
 
+    private static ChmData checkedData(byte[] data) throws TikaException {
+        ChmCommons.assertByteArrayNotNull(data);
+        return ChmData.of(data);
+    }
+
     public static final boolean startsWith(byte[] data, String prefix) {
         for (int i = 0; i < prefix.length(); i++) {
             if (data[i] != prefix.charAt(i)) {
@@ -148,8 +165,8 @@ public class ChmDirectoryListingSet {
             Set<Integer> processed = new HashSet<>();
             for (int i = startPmgl; i >= 0; ) {
                 int start = i * (int) chmItspHeader.getBlock_len() + dir_offset;
-                dir_chunk = ChmCommons
-                        .copyOfRange(getData(), start, start + (int) chmItspHeader.getBlock_len());
+                dir_chunk = getData()
+                        .copyOfRange(start, start + (int) chmItspHeader.getBlock_len());
 
                 PMGLheader = new ChmPmglHeader();
                 PMGLheader.parse(dir_chunk, PMGLheader);
@@ -365,7 +382,7 @@ public class ChmDirectoryListingSet {
      *
      * @return
      */
-    private byte[] getData() {
+    private ChmData getData() {
         return data;
     }
 
@@ -374,7 +391,7 @@ public class ChmDirectoryListingSet {
      *
      * @param data
      */
-    private void setData(byte[] data) {
+    private void setData(ChmData data) {
         this.data = data;
     }
 
@@ -20,8 +20,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
@@ -38,101 +41,127 @@ public class ChmExtractor {
 
     private static final Logger LOG = LoggerFactory.getLogger(ChmExtractor.class);
 
+    //decompressed lzx blocks that are kept around to decode the blocks that follow them
+    private static final int MAX_CACHED_BLOCKS = 16;
 
-    private List<ChmLzxBlock> lzxBlocksCache = null;
+    private Map<Integer, ChmLzxBlock> lzxBlocksCache = null;
     private ChmDirectoryListingSet chmDirList = null;
     private ChmItsfHeader chmItsfHeader = null;
     private ChmItspHeader chmItspHeader = null;
     private ChmLzxcResetTable chmLzxcResetTable = null;
     private ChmLzxcControlData chmLzxcControlData = null;
-    private byte[] data = null;
+    private ChmData data = null;
     private int indexOfContent;
     private long lzxBlockOffset;
     private long lzxBlockLength;
     private ChmBlockInfo chmBlockInfo = null;//this will be instantiated at first call of
 
+    /**
+     * Reads the whole chm file into memory.
+     *
+     * @see #ChmExtractor(FileChannel)
+     */
     public ChmExtractor(InputStream is) throws TikaException, IOException {
         ChmAssert.assertInputStreamNotNull(is);
         try {
-            setData(IOUtils.toByteArray(is));
-
-            /* Creates and parses chm itsf header */
-            setChmItsfHeader(new ChmItsfHeader());
-            // getChmItsfHeader().parse(Arrays.copyOfRange(getData(), 0,
-            // ChmConstants.CHM_ITSF_V3_LEN - 1), getChmItsfHeader());
-            getChmItsfHeader()
-                    .parse(ChmCommons.copyOfRange(getData(), 0,
-                            ChmConstants.CHM_ITSF_V3_LEN - 1),
-                            getChmItsfHeader());
-
-            /* Creates and parses chm itsp header */
-            setChmItspHeader(new ChmItspHeader());
-            // getChmItspHeader().parse(Arrays.copyOfRange( getData(), (int)
-            // getChmItsfHeader().getDirOffset(),
-            // (int) getChmItsfHeader().getDirOffset() +
-            // ChmConstants.CHM_ITSP_V1_LEN), getChmItspHeader());
-            getChmItspHeader().parse(ChmCommons
-                            .copyOfRange(getData(), (int) getChmItsfHeader().getDirOffset(),
-                                    (int) getChmItsfHeader().getDirOffset() +
-                                            ChmConstants.CHM_ITSP_V1_LEN),
-                    getChmItspHeader());
-
-            /* Creates instance of ChmDirListingContainer */
-            setChmDirList(
-                    new ChmDirectoryListingSet(getData(), getChmItsfHeader(), getChmItspHeader()));
-
-            int indexOfControlData = getChmDirList().getControlDataIndex();
-            int indexOfResetData =
-                    ChmCommons.indexOfResetTableBlock(getData(), ChmConstants.LZXC.getBytes(UTF_8));
-            byte[] dir_chunk = null;
-            if (indexOfResetData > 0) {
-                dir_chunk = ChmCommons.copyOfRange(getData(), indexOfResetData, indexOfResetData +
-                        getChmDirList().getDirectoryListingEntryList().get(indexOfControlData)
-                                .getLength());
-            }
-            // dir_chunk = Arrays.copyOfRange(getData(), indexOfResetData,
-            // indexOfResetData
-            // +
-            // getChmDirList().getDirectoryListingEntryList().get(indexOfControlData).getLength());
-
-            /* Creates and parses chm control data */
-            setChmLzxcControlData(new ChmLzxcControlData());
-            getChmLzxcControlData().parse(dir_chunk, getChmLzxcControlData());
-
-            int indexOfResetTable = getChmDirList().getResetTableIndex();
-            setChmLzxcResetTable(new ChmLzxcResetTable());
-
-            int startIndex = (int) getChmDirList().getDataOffset() +
-                    getChmDirList().getDirectoryListingEntryList().get(indexOfResetTable)
-                            .getOffset();
-
-            // assert startIndex < data.length
-            ChmAssert.assertCopyingDataIndex(startIndex, getData().length);
-
-            // dir_chunk = Arrays.copyOfRange(getData(), startIndex, startIndex
-            // +
-            // getChmDirList().getDirectoryListingEntryList().get(indexOfResetTable).getLength());
-            dir_chunk = ChmCommons.copyOfRange(getData(), startIndex, startIndex +
-                    getChmDirList().getDirectoryListingEntryList().get(indexOfResetTable)
-                            .getLength());
+            init(ChmData.of(IOUtils.toByteArray(is)));
+        } catch (IOException e) {
+            LOG.warn("IOException parsing chm file", e);
+        }
+    }
 
-            getChmLzxcResetTable().parse(dir_chunk, getChmLzxcResetTable());
+    /**
+     * Reads the parts of the chm file that are needed from the channel, so
+     * that memory use depends on the entries being extracted rather than on
+     * the size of the file. The channel has to stay open while this extractor
+     * is used.
+     */
+    public ChmExtractor(FileChannel channel) throws TikaException, IOException {
+        init(ChmData.of(channel));
+    }
 
-            setIndexOfContent(ChmCommons
-                    .indexOfDataSpaceStorageElement(getChmDirList().getDirectoryListingEntryList(),
-                            ChmConstants.CONTENT));
-            setLzxBlockOffset(
-                    (getChmDirList().getDirectoryListingEntryList().get(getIndexOfContent())
-                            .getOffset() + getChmItsfHeader().getDataOffset()));
-            setLzxBlockLength(
-                    getChmDirList().getDirectoryListingEntryList().get(getIndexOfContent())
+    private void init(ChmData data) throws TikaException, IOException {
+        setData(data);
+
+        /* Creates and parses chm itsf header */
+        setChmItsfHeader(new ChmItsfHeader());
+        // getChmItsfHeader().parse(Arrays.copyOfRange(getData(), 0,
+        // ChmConstants.CHM_ITSF_V3_LEN - 1), getChmItsfHeader());
+        getChmItsfHeader()
+                .parse(getData().copyOfRange(0, ChmConstants.CHM_ITSF_V3_LEN - 1),
+                        getChmItsfHeader());
+
+        /* Creates and parses chm itsp header */
+        setChmItspHeader(new ChmItspHeader());
+        // getChmItspHeader().parse(Arrays.copyOfRange( getData(), (int)
+        // getChmItsfHeader().getDirOffset(),
+        // (int) getChmItsfHeader().getDirOffset() +
+        // ChmConstants.CHM_ITSP_V1_LEN), getChmItspHeader());
+        getChmItspHeader().parse(getData()
+                        .copyOfRange(getChmItsfHeader().getDirOffset(),
+                                getChmItsfHeader().getDirOffset() +
+                                        ChmConstants.CHM_ITSP_V1_LEN),
+                getChmItspHeader());
+
+        /* Creates instance of ChmDirListingContainer */
+        setChmDirList(
+                new ChmDirectoryListingSet(getData(), getChmItsfHeader(), getChmItspHeader()));
+
+        int indexOfControlData = getChmDirList().getControlDataIndex();
+        //the control data starts 4 bytes before its signature
+        long indexOfResetData = getData().indexOf(ChmConstants.LZXC.getBytes(UTF_8)) - 4;
+        byte[] dir_chunk = null;
+        if (indexOfResetData > 0) {
+            dir_chunk = getData().copyOfRange(indexOfResetData, indexOfResetData +
+                    getChmDirList().getDirectoryListingEntryList().get(indexOfControlData)
                             .getLength());
-
-            setLzxBlocksCache(new ArrayList<>());
-
-        } catch (IOException e) {
-            LOG.warn("IOException parsing chm file", e);
         }
+        // dir_chunk = Arrays.copyOfRange(getData(), indexOfResetData,
+        // indexOfResetData
+        // +
+        // getChmDirList().getDirectoryListingEntryList().get(indexOfControlData).getLength());
+
+        /* Creates and parses chm control data */
+        setChmLzxcControlData(new ChmLzxcControlData());
+        getChmLzxcControlData().parse(dir_chunk, getChmLzxcControlData());
+
+        int indexOfResetTable = getChmDirList().getResetTableIndex();
+        setChmLzxcResetTable(new ChmLzxcResetTable());
+
+        int startIndex = (int) getChmDirList().getDataOffset() +
+                getChmDirList().getDirectoryListingEntryList().get(indexOfResetTable)
+                        .getOffset();
+
+        // assert startIndex < data.length
+        ChmAssert.assertCopyingDataIndex(startIndex, getData().length());
+
+        // dir_chunk = Arrays.copyOfRange(getData(), startIndex, startIndex
+        // +
+        // getChmDirList().getDirectoryListingEntryList().get(indexOfResetTable).getLength());
+        dir_chunk = getData().copyOfRange(startIndex, startIndex +
+                getChmDirList().getDirectoryListingEntryList().get(indexOfResetTable)
+                        .getLength());
+
+        getChmLzxcResetTable().parse(dir_chunk, getChmLzxcResetTable());
+
+        setIndexOfContent(ChmCommons
+                .indexOfDataSpaceStorageElement(getChmDirList().getDirectoryListingEntryList(),
+                        ChmConstants.CONTENT));
+        setLzxBlockOffset(
+                (getChmDirList().getDirectoryListingEntryList().get(getIndexOfContent())
+                        .getOffset() + getChmItsfHeader().getDataOffset()));
+        setLzxBlockLength(
+                getChmDirList().getDirectoryListingEntryList().get(getIndexOfContent())
+                        .getLength());
+
+        setLzxBlocksCache(new LinkedHashMap<Integer, ChmLzxBlock>(16, 0.75f, true) {
+            private static final long serialVersionUID = -2519620929436421632L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ChmLzxBlock> eldest) {
+                return size() > MAX_CACHED_BLOCKS;
+            }
+        });
     }
 
     /**
@@ -221,11 +250,11 @@ public class ChmExtractor {
         this.indexOfContent = indexOfContent;
     }
 
-    private byte[] getData() {
+    private ChmData getData() {
         return data;
     }
 
-    private void setData(byte[] data) {
+    private void setData(ChmData data) {
         this.data = data;
     }
 
@@ -259,11 +288,11 @@ public class ChmExtractor {
             if (directoryListingEntry.getEntryType() == EntryType.UNCOMPRESSED &&
                     directoryListingEntry.getLength() > 0 &&
                     !ChmCommons.hasSkip(directoryListingEntry)) {
-                int dataOffset = (int) (getChmItsfHeader().getDataOffset() +
-                        directoryListingEntry.getOffset());
+                long dataOffset = getChmItsfHeader().getDataOffset() +
+                        directoryListingEntry.getOffset();
                 // dataSegment = Arrays.copyOfRange(getData(), dataOffset,
                 // dataOffset + directoryListingEntry.getLength());
-                buffer.write(ChmCommons.copyOfRange(getData(), dataOffset,
+                buffer.write(getData().copyOfRange(dataOffset,
                         dataOffset + directoryListingEntry.getLength()));
             } else if (directoryListingEntry.getEntryType() == EntryType.COMPRESSED &&
                     !ChmCommons.hasSkip(directoryListingEntry)) {
@@ -272,46 +301,33 @@ public class ChmExtractor {
                         (int) getChmLzxcResetTable().getBlockLen(), getChmLzxcControlData(),
                         chmBlockInfo);
 
-                int i = 0, start = 0, hit_cache = 0;
+                int i = 0, start = 0;
 
                 if ((getLzxBlockLength() < Integer.MAX_VALUE) &&
                         (getLzxBlockOffset() < Integer.MAX_VALUE)) {
-                    // TODO: Improve the caching
-                    // caching ... = O(n^2) - depends on startBlock and endBlock
+                    //decoding resumes from the closest cached block in the
+                    //reset interval, or from the start of the interval
                     start = -1;
-                    if (!getLzxBlocksCache().isEmpty()) {
-                        for (i = 0; i < getLzxBlocksCache().size(); i++) {
-                            //lzxBlock = getLzxBlocksCache().get(i);
-                            int bn = getLzxBlocksCache().get(i).getBlockNumber();
-                            for (int j = chmBlockInfo.getIniBlock();
-                                    j <= chmBlockInfo.getStartBlock(); j++) {
-                                if (bn == j) {
-                                    if (j > start) {
-                                        start = j;
-                                        hit_cache = i;
-                                    }
-                                }
-                            }
-                            if (start == chmBlockInfo.getStartBlock()) {
-                                break;
-                            }
+                    for (int j = chmBlockInfo.getStartBlock(); j >= chmBlockInfo.getIniBlock();
+                            j--) {
+                        lzxBlock = getLzxBlocksCache().get(j);
+                        if (lzxBlock != null) {
+                            start = j;
+                            break;
                         }
                     }
 
-//                    if (i == getLzxBlocksCache().size() && i == 0) {
                     if (start < 0) {
                         start = chmBlockInfo.getIniBlock();
 
                         byte[] dataSegment = ChmCommons
                                 .getChmBlockSegment(getData(), getChmLzxcResetTable(), start,
-                                        (int) getLzxBlockOffset(), (int) getLzxBlockLength());
+                                        getLzxBlockOffset(), (int) getLzxBlockLength());
 
                         lzxBlock = new ChmLzxBlock(start, dataSegment,
                                 getChmLzxcResetTable().getBlockLen(), null);
 
-                        getLzxBlocksCache().add(lzxBlock);
-                    } else {
-                        lzxBlock = getLzxBlocksCache().get(hit_cache);
+                        getLzxBlocksCache().put(start, lzxBlock);
                     }
 
                     for (i = start; i <= chmBlockInfo.getEndBlock(); ) {
@@ -339,20 +355,16 @@ public class ChmExtractor {
                         if (i % getChmLzxcControlData().getResetInterval() == 0) {
                             lzxBlock = new ChmLzxBlock(i, ChmCommons
                                     .getChmBlockSegment(getData(), getChmLzxcResetTable(), i,
-                                            (int) getLzxBlockOffset(), (int) getLzxBlockLength()),
+                                            getLzxBlockOffset(), (int) getLzxBlockLength()),
                                     getChmLzxcResetTable().getBlockLen(), null);
                         } else {
                             lzxBlock = new ChmLzxBlock(i, ChmCommons
                                     .getChmBlockSegment(getData(), getChmLzxcResetTable(), i,
-                                            (int) getLzxBlockOffset(), (int) getLzxBlockLength()),
+                                            getLzxBlockOffset(), (int) getLzxBlockLength()),
                                     getChmLzxcResetTable().getBlockLen(), lzxBlock);
                         }
 
-                        getLzxBlocksCache().add(lzxBlock);
-                    }
-
-                    if (getLzxBlocksCache().size() > getChmLzxcResetTable().getBlockCount()) {
-                        getLzxBlocksCache().clear();
+                        getLzxBlocksCache().put(i, lzxBlock);
                     }
                 } //end of if
 
@@ -367,11 +379,11 @@ public class ChmExtractor {
         return buffer.toByteArray();
     }
 
-    private List<ChmLzxBlock> getLzxBlocksCache() {
+    private Map<Integer, ChmLzxBlock> getLzxBlocksCache() {
         return lzxBlocksCache;
     }
 
-    private void setLzxBlocksCache(List<ChmLzxBlock> lzxBlocksCache) {
+    private void setLzxBlocksCache(Map<Integer, ChmLzxBlock> lzxBlocksCache) {
         this.lzxBlocksCache = lzxBlocksCache;
     }
 
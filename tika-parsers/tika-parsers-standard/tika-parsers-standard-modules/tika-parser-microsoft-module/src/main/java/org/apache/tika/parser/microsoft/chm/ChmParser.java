@@ -28,6 +28,7 @@ import org.xml.sax.SAXException;
 
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
@@ -57,8 +58,18 @@ public class ChmParser implements Parser {
     @Override
     public void parse(InputStream stream, ContentHandler handler, Metadata metadata,
                       ParseContext context) throws IOException, SAXException, TikaException {
-        ChmExtractor chmExtractor = new ChmExtractor(stream);
+        TemporaryResources tmp = new TemporaryResources();
+        try {
+            //read the entries from the file instead of holding the whole chm in memory
+            TikaInputStream tis = TikaInputStream.get(stream, tmp, metadata);
+            parse(new ChmExtractor(tis.getFileChannel()), handler, metadata, context);
+        } finally {
+            tmp.dispose();
+        }
+    }
 
+    private void parse(ChmExtractor chmExtractor, ContentHandler handler, Metadata metadata,
+                       ParseContext context) throws IOException, SAXException, TikaException {
         // metadata
         metadata.set(Metadata.CONTENT_TYPE, "application/vnd.ms-htmlhelp");
 
@@ -19,31 +19,58 @@ package org.apache.tika.parser.microsoft.pst;
 import static java.lang.String.valueOf;
 import static java.util.Collections.singleton;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.pff.PSTFile;
 import com.pff.PSTFolder;
 import com.pff.PSTMessage;
+import com.pff.PSTObject;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
 
+import org.apache.tika.config.Field;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.EmbeddedDocumentExtractor;
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.extractor.ParsingEmbeddedDocumentExtractor;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.PST;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.CompositeParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ParseRecord;
 import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.mailcommons.SAXEventRecorder;
 import org.apache.tika.sax.XHTMLContentHandler;
 
 /**
  * Parser for MS Outlook PST email storage files
+ * <p>
+ * If {@link #setParseThreads(int)} is greater than 1, the messages are parsed
+ * in parallel. The folders are still walked on the parsing thread, which only
+ * lists the descriptor node ids of the messages. Each worker loads messages
+ * by their id from its own {@link PSTFile} handle on the same file, and the
+ * content is written to the handler in folder order. As in the MboxParser,
+ * parallel parsing is only used with the default
+ * {@link ParsingEmbeddedDocumentExtractor} and a {@link CompositeParser} as the
+ * embedded parser.
  */
 public class OutlookPSTParser implements Parser {
 
@@ -52,6 +79,8 @@ public class OutlookPSTParser implements Parser {
     private static final long serialVersionUID = 620998217748364063L;
     private static final Set<MediaType> SUPPORTED_TYPES = singleton(MS_OUTLOOK_PST_MIMETYPE);
 
+    private int parseThreads = 1;
+
     private static AttributesImpl createAttribute(String attName, String attValue) {
         AttributesImpl attributes = new AttributesImpl();
         attributes.addAttribute("", attName, attName, "CDATA", attValue);
@@ -87,7 +116,17 @@ public class OutlookPSTParser implements Parser {
                         "OST 2013 support not added yet. It will be when https://github.com/rjohnsondev/java-libpst/issues/60 is fixed.");
             }
             if (isValid) {
-                parseFolder(xhtml, pstFile.getRootFolder(), "/", embeddedExtractor);
+                if (parseThreads > 1 && canParseInParallel(embeddedExtractor, context)) {
+                    try (MessageQueue queue = new MessageQueue(in.getFile().getPath(), xhtml,
+                            (ParsingEmbeddedDocumentExtractor) embeddedExtractor, context,
+                            parseThreads)) {
+                        parseFolder(xhtml, pstFile.getRootFolder(), "/", embeddedExtractor,
+                                queue);
+                        queue.finish();
+                    }
+                } else {
+                    parseFolder(xhtml, pstFile.getRootFolder(), "/", embeddedExtractor, null);
+                }
             }
         } catch (TikaException e) {
             throw e;
@@ -106,32 +145,254 @@ public class OutlookPSTParser implements Parser {
         xhtml.endDocument();
     }
 
+    /**
+     * Walks the folder tree. If <code>queue</code> is not null, the messages
+     * are handed to it to be parsed in parallel, and so is the folder markup,
+     * so that it is written in between the right messages.
+     */
     private void parseFolder(XHTMLContentHandler handler, PSTFolder pstFolder, String folderPath,
-                             EmbeddedDocumentExtractor embeddedExtractor) throws Exception {
+                             EmbeddedDocumentExtractor embeddedExtractor, MessageQueue queue)
+            throws Exception {
         if (pstFolder.getContentCount() > 0) {
-            PSTMessage pstMail = (PSTMessage) pstFolder.getNextChild();
-            while (pstMail != null) {
-                Metadata metadata = new Metadata();
-                metadata.set(TikaCoreProperties.CONTENT_TYPE_PARSER_OVERRIDE, PSTMailItemParser.PST_MAIL_ITEM_STRING);
-                metadata.set(PST.PST_FOLDER_PATH, folderPath);
-                try (TikaInputStream tis = TikaInputStream.get(new byte[0])) {
-                    tis.setOpenContainer(pstMail);
+            if (queue == null) {
+                PSTMessage pstMail = (PSTMessage) pstFolder.getNextChild();
+                while (pstMail != null) {
+                    Metadata metadata = newMessageMetadata(folderPath);
                     metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, pstMail.getSubject() + ".msg");
-                    embeddedExtractor.parseEmbedded(tis, handler, metadata, true);
+                    try (TikaInputStream tis = TikaInputStream.get(new byte[0])) {
+                        tis.setOpenContainer(pstMail);
+                        embeddedExtractor.parseEmbedded(tis, handler, metadata, true);
+                    }
+                    pstMail = (PSTMessage) pstFolder.getNextChild();
                 }
-                pstMail = (PSTMessage) pstFolder.getNextChild();
+            } else {
+                queueMessages(pstFolder, folderPath, queue);
             }
         }
 
         if (pstFolder.hasSubfolders()) {
             for (PSTFolder pstSubFolder : pstFolder.getSubFolders()) {
-                handler.startElement("div", createAttribute("class", "email-folder"));
-                handler.element("h1", pstSubFolder.getDisplayName());
+                String displayName = pstSubFolder.getDisplayName();
+                write(handler, queue, xhtml -> {
+                    xhtml.startElement("div", createAttribute("class", "email-folder"));
+                    xhtml.element("h1", displayName);
+                });
                 String subFolderPath = folderPath.endsWith("/") ? folderPath + pstSubFolder.getDisplayName() :
                         folderPath + "/" + pstFolder.getDisplayName();
-                parseFolder(handler, pstSubFolder, subFolderPath, embeddedExtractor);
-                handler.endElement("div");
+                parseFolder(handler, pstSubFolder, subFolderPath, embeddedExtractor, queue);
+                write(handler, queue, xhtml -> xhtml.endElement("div"));
             }
         }
     }
+
+    /**
+     * Hands the messages of a folder to the queue by their descriptor node id,
+     * without loading them on this thread. The workers load the messages and
+     * set their resource names.
+     */
+    private static void queueMessages(PSTFolder pstFolder, String folderPath, MessageQueue queue)
+            throws Exception {
+        List<Integer> descriptorNodeIds = pstFolder.getChildDescriptorNodes();
+        if (descriptorNodeIds.isEmpty()) {
+            //libpst only lists the ids if the folder's contents table could be read;
+            //otherwise the children have to be walked with its fallback table
+            PSTObject child = pstFolder.getNextChild();
+            while (child != null) {
+                queue.addMessage(child.getDescriptorNodeId(), newMessageMetadata(folderPath));
+                child = pstFolder.getNextChild();
+            }
+            return;
+        }
+        //same bound as getNextChild()
+        int remaining = pstFolder.getContentCount();
+        for (Integer descriptorNodeId : descriptorNodeIds) {
+            if (remaining-- <= 0) {
+                break;
+            }
+            queue.addMessage(descriptorNodeId, newMessageMetadata(folderPath));
+        }
+    }
+
+    private static Metadata newMessageMetadata(String folderPath) {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.CONTENT_TYPE_PARSER_OVERRIDE, PSTMailItemParser.PST_MAIL_ITEM_STRING);
+        metadata.set(PST.PST_FOLDER_PATH, folderPath);
+        return metadata;
+    }
+
+    private static void write(XHTMLContentHandler handler, MessageQueue queue, Output output)
+            throws IOException, SAXException, TikaException {
+        if (queue == null) {
+            output.write(handler);
+        } else {
+            queue.add(output);
+        }
+    }
+
+    private static boolean canParseInParallel(EmbeddedDocumentExtractor extractor,
+                                              ParseContext context) {
+        //subclasses and other extractors may rely on seeing the messages one at a time
+        return extractor.getClass() == ParsingEmbeddedDocumentExtractor.class &&
+                context.get(Parser.class) instanceof CompositeParser;
+    }
+
+    /**
+     * Number of threads used to parse the messages of a PST. Each thread
+     * opens its own handle on the (spooled) file. Default is 1.
+     */
+    @Field
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    private interface Output {
+        void write(XHTMLContentHandler xhtml) throws IOException, SAXException, TikaException;
+    }
+
+    /**
+     * Parses messages on a pool of workers and writes their output, and
+     * anything added in between, in the order in which it was added.
+     */
+    private static class MessageQueue implements Closeable {
+
+        private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+        private final XHTMLContentHandler xhtml;
+        private final ParsingEmbeddedDocumentExtractor extractor;
+        private final ParseContext context;
+        private final ExecutorService executorService;
+        //PSTFile isn't thread safe, so every worker takes its own
+        private final List<PSTFile> pstFiles = new ArrayList<>();
+        private final BlockingQueue<PSTFile> idlePstFiles;
+        //bound the number of messages whose output is held in memory
+        private final int maxPending;
+        private final Deque<Output> pending = new ArrayDeque<>();
+
+        MessageQueue(String path, XHTMLContentHandler xhtml,
+                     ParsingEmbeddedDocumentExtractor extractor, ParseContext context,
+                     int parseThreads) throws Exception {
+            this.xhtml = xhtml;
+            this.extractor = extractor;
+            this.context = context;
+            this.maxPending = parseThreads * 2;
+            this.idlePstFiles = new ArrayBlockingQueue<>(parseThreads);
+            this.executorService = Executors.newFixedThreadPool(parseThreads);
+            try {
+                for (int i = 0; i < parseThreads; i++) {
+                    PSTFile pstFile = new PSTFile(path);
+                    pstFiles.add(pstFile);
+                    idlePstFiles.add(pstFile);
+                }
+            } catch (Exception e) {
+                close();
+                throw e;
+            }
+        }
+
+        void addMessage(long descriptorNodeId, Metadata metadata)
+                throws IOException, SAXException, TikaException {
+            Future<ParsedMessage> future =
+                    executorService.submit(() -> parseMessage(descriptorNodeId, metadata));
+            add(handler -> writeMessage(future, handler));
+        }
+
+        void add(Output output) throws IOException, SAXException, TikaException {
+            pending.add(output);
+            while (pending.size() >= maxPending) {
+                pending.poll().write(xhtml);
+            }
+        }
+
+        void finish() throws IOException, SAXException, TikaException {
+            while (!pending.isEmpty()) {
+                pending.poll().write(xhtml);
+            }
+        }
+
+        private ParsedMessage parseMessage(long descriptorNodeId, Metadata metadata)
+                throws Exception {
+            PSTFile pstFile = idlePstFiles.take();
+            try {
+                PSTMessage pstMail =
+                        (PSTMessage) PSTObject.detectAndLoadPSTObject(pstFile, descriptorNodeId);
+                metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, pstMail.getSubject() + ".msg");
+
+                //the context is shared with the other workers
+                ParseContext messageContext =
+                        EmbeddedDocumentUtil.newWorkerContext(context, extractor);
+                EmbeddedDocumentExtractor messageExtractor =
+                        messageContext.get(EmbeddedDocumentExtractor.class);
+
+                SAXEventRecorder recorder = new SAXEventRecorder();
+                try (TikaInputStream tis = TikaInputStream.get(new byte[0])) {
+                    tis.setOpenContainer(pstMail);
+                    messageExtractor.parseEmbedded(tis, recorder, metadata, true);
+                }
+                return new ParsedMessage(recorder, context.get(ParseRecord.class) == null ? null :
+                        messageContext.get(ParseRecord.class));
+            } finally {
+                idlePstFiles.add(pstFile);
+            }
+        }
+
+        private void writeMessage(Future<ParsedMessage> future, XHTMLContentHandler handler)
+                throws IOException, SAXException, TikaException {
+            ParsedMessage parsed;
+            try {
+                parsed = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TikaException("interrupted while parsing pst", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof SAXException) {
+                    throw (SAXException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new TikaException("problem parsing pst message", cause);
+            }
+            if (parsed.record != null) {
+                context.get(ParseRecord.class).merge(parsed.record);
+            }
+            parsed.recorder.replay(handler);
+        }
+
+        @Override
+        public void close() {
+            executorService.shutdownNow();
+            //don't close the handles under workers that are still reading from them
+            try {
+                executorService.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (PSTFile pstFile : pstFiles) {
+                try {
+                    pstFile.getFileHandle().close();
+                } catch (IOException e) {
+                    //swallow closing exception
+                }
+            }
+        }
+    }
+
+    private static class ParsedMessage {
+        private final SAXEventRecorder recorder;
+        //null if there is no record in the parent context to merge into
+        private final ParseRecord record;
+
+        ParsedMessage(SAXEventRecorder recorder, ParseRecord record) {
+            this.recorder = recorder;
+            this.record = record;
+        }
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.rtf;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/* Reads the RTF stream through a large byte buffer.
+ * Instead of pushing bytes back, the tokenizer peeks
+ * ahead into the buffer, and plain text runs are
+ * handed out as ranges of the buffer so that they can
+ * be copied and decoded in bulk.
+ *
+ * Reading through the InputStream methods (for \bin
+ * data) first drains the buffer, and then reads the
+ * underlying stream.
+ *
+ * This is not thread safe. */
+
+class RTFByteReader extends InputStream {
+
+    static final int BUFFER_SIZE = 65536;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    RTFByteReader(InputStream in) {
+        this.in = in;
+    }
+
+    // Is this byte part of a plain text run, ie not a
+    // control character and not an (ignored) line ending?
+    private static boolean isText(byte b) {
+        return b != '\\' && b != '{' && b != '}' && b != '\r' && b != '\n';
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    // Returns the byte that the next read() will return,
+    // or the one after that if ahead is 1, or -1 if the
+    // stream ends first:
+    int peek(int ahead) throws IOException {
+        assert ahead == 0 || ahead == 1;
+        if (limit - pos <= ahead && !ensure(ahead + 1)) {
+            return -1;
+        }
+        return buffer[pos + ahead] & 0xff;
+    }
+
+    // Skips the byte that was peeked at:
+    void skipPeeked() {
+        assert pos < limit;
+        pos++;
+    }
+
+    // Returns the length of the run of plain text that
+    // starts at the current position and is already in
+    // the buffer; see getBuffer() and getPosition():
+    int textRunLength() {
+        int end = pos;
+        while (end < limit && isText(buffer[end])) {
+            end++;
+        }
+        return end - pos;
+    }
+
+    // Skips any line endings that are already in the
+    // buffer; returns false if none were skipped:
+    boolean skipLineEndings() {
+        int start = pos;
+        while (pos < limit && (buffer[pos] == '\r' || buffer[pos] == '\n')) {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    int getPosition() {
+        return pos;
+    }
+
+    void skipBuffered(int n) {
+        assert n <= limit - pos;
+        pos += n;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos >= limit) {
+            if (eof) {
+                return -1;
+            }
+            if (len >= BUFFER_SIZE) {
+                // No point in copying large reads through the buffer
+                return in.read(b, off, len);
+            }
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        if (pos < limit) {
+            int skipped = (int) Math.min(n, limit - pos);
+            pos += skipped;
+            return skipped;
+        }
+        return eof ? 0 : in.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (limit - pos) + (eof ? 0 : in.available());
+    }
+
+    // Refills the empty buffer; returns false at the end of
+    // the stream:
+    private boolean fill() throws IOException {
+        pos = 0;
+        limit = 0;
+        return readMore();
+    }
+
+    // Makes sure that n bytes are available from pos,
+    // moving the unread bytes to the start of the
+    // buffer if needed; returns false if the stream
+    // ends first:
+    private boolean ensure(int n) throws IOException {
+        if (pos > 0) {
+            int unread = limit - pos;
+            System.arraycopy(buffer, pos, buffer, 0, unread);
+            pos = 0;
+            limit = unread;
+        }
+        while (limit < n) {
+            if (!readMore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readMore() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n = in.read(buffer, limit, buffer.length - limit);
+        while (n == 0) {
+            n = in.read(buffer, limit, buffer.length - limit);
+        }
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+}
@@ -21,7 +21,6 @@ import static org.apache.tika.sax.XHTMLContentHandler.XHTML;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
@@ -249,7 +248,7 @@ final class TextExtractor {
     }
 
     // Used when we decode bytes -> chars using CharsetDecoder:
-    private final char[] outputArray = new char[128];
+    private final char[] outputArray = new char[4096];
     private final Buffer outputCharBuffer = CharBuffer.wrap(outputArray);
     // Holds the font table from this RTF doc, mapping
     // the font number (from \fN control word) to the
@@ -413,6 +412,27 @@ final class TextExtractor {
         }
     }
 
+    // Buffers a run of bytes (units in the current charset)
+    // for output; only used outside of pictures:
+    private void addOutputBytes(byte[] bytes, int offset, int len) throws IOException,
+            SAXException, TikaException {
+        assert groupState.pictDepth == 0;
+
+        if (pendingCharCount != 0) {
+            pushChars();
+        }
+        if (pendingByteCount + len > pendingBytes.length) {
+            // Gradual but exponential growth:
+            final byte[] newArray = new byte[Math.max(pendingByteCount + len,
+                    (int) (pendingBytes.length * 1.25))];
+            System.arraycopy(pendingBytes, 0, newArray, 0, pendingByteCount);
+            pendingBytes = newArray;
+            pendingByteBuffer = ByteBuffer.wrap(pendingBytes);
+        }
+        System.arraycopy(bytes, offset, pendingBytes, pendingByteCount, len);
+        pendingByteCount += len;
+    }
+
     // Buffers a byte as part of a control word:
     private void addControl(int b) {
         assert isAlpha(b);
@@ -464,10 +484,10 @@ final class TextExtractor {
 //                return r;
 //            }
 //        };
-        extract(new PushbackInputStream(in, 2));
+        extract(new RTFByteReader(in));
     }
 
-    private void extract(PushbackInputStream in) throws IOException, SAXException, TikaException {
+    private void extract(RTFByteReader in) throws IOException, SAXException, TikaException {
 
         while (true) {
             final int b = in.read();
@@ -496,6 +516,9 @@ final class TextExtractor {
                     ansiSkip--;
                 } else {
                     addOutputByte(b);
+                    if (groupState.pictDepth == 0) {
+                        addTextRun(in);
+                    }
                 }
             }
         }
@@ -508,7 +531,26 @@ final class TextExtractor {
         }
     }
 
-    private void parseControlToken(PushbackInputStream in)
+    // Adds the plain text that directly follows in the
+    // reader's buffer in bulk, instead of byte by byte;
+    // stops at the first control character, or when the
+    // buffer needs to be refilled:
+    private void addTextRun(RTFByteReader in) throws IOException, SAXException, TikaException {
+        while (true) {
+            final int len = in.textRunLength();
+            if (len > 0) {
+                addOutputBytes(in.getBuffer(), in.getPosition(), len);
+                in.skipBuffered(len);
+            }
+            // Linefeed and carriage return are not
+            // significant
+            if (!in.skipLineEndings()) {
+                break;
+            }
+        }
+    }
+
+    private void parseControlToken(RTFByteReader in)
             throws IOException, SAXException, TikaException {
         int b = in.read();
         if (b == '\'') {
@@ -526,23 +568,23 @@ final class TextExtractor {
         }
     }
 
-    private void parseHexChar(PushbackInputStream in)
+    private void parseHexChar(RTFByteReader in)
             throws IOException, SAXException, TikaException {
-        int hex1 = in.read();
+        int hex1 = in.peek(0);
         if (!isHexChar(hex1)) {
             // DOC ERROR (malformed hex escape): ignore 
-            in.unread(hex1);
             return;
         }
+        in.skipPeeked();
 
-        int hex2 = in.read();
+        int hex2 = in.peek(0);
         if (!isHexChar(hex2)) {
             // TODO: log a warning here, somehow?
             // DOC ERROR (malformed hex escape):
             // ignore
-            in.unread(hex2);
             return;
         }
+        in.skipPeeked();
 
         if (ansiSkip != 0) {
             // Skip this ansi char since we are
@@ -555,14 +597,15 @@ final class TextExtractor {
         }
     }
 
-    private void parseControlWord(int firstChar, PushbackInputStream in)
+    private void parseControlWord(int firstChar, RTFByteReader in)
             throws IOException, SAXException, TikaException {
         addControl(firstChar);
 
-        int b = in.read();
+        int b = in.peek(0);
         while (isAlpha(b)) {
             addControl(b);
-            b = in.read();
+            in.skipPeeked();
+            b = in.peek(0);
         }
 
         boolean hasParam = false;
@@ -570,7 +613,8 @@ final class TextExtractor {
         if (b == '-') {
             negParam = true;
             hasParam = true;
-            b = in.read();
+            in.skipPeeked();
+            b = in.peek(0);
         }
 
         int param = 0;
@@ -578,14 +622,15 @@ final class TextExtractor {
             param *= 10;
             param += (b - '0');
             hasParam = true;
-            b = in.read();
+            in.skipPeeked();
+            b = in.peek(0);
         }
 
         // space is consumed as part of the
         // control word, but is not added to the
         // control word
-        if (b != ' ') {
-            in.unread(b);
+        if (b == ' ') {
+            in.skipPeeked();
         }
 
         if (hasParam) {
@@ -848,7 +893,7 @@ final class TextExtractor {
     }
 
     // Handle control word that takes a parameter:
-    private void processControlWord(int param, PushbackInputStream in)
+    private void processControlWord(int param, RTFByteReader in)
             throws IOException, SAXException, TikaException {
         // TODO: afN?  (associated font number)
 
@@ -1411,7 +1456,7 @@ final class TextExtractor {
     }
 
     // Push new GroupState
-    private void processGroupStart(PushbackInputStream in) throws IOException {
+    private void processGroupStart(RTFByteReader in) throws IOException {
         ansiSkip = 0;
         // Push current groupState onto the stack
         groupStates.add(groupState);
@@ -1429,15 +1474,9 @@ final class TextExtractor {
         // Check for ignorable groups. Note that
         // sometimes we un-ignore within this group, eg
         // when handling upr escape.
-        int b2 = in.read();
-        if (b2 == '\\') {
-            int b3 = in.read();
-            if (b3 == '*') {
-                groupState.ignore = true;
-            }
-            in.unread(b3);
+        if (in.peek(0) == '\\' && in.peek(1) == '*') {
+            groupState.ignore = true;
         }
-        in.unread(b2);
     }
 
     // Pop current GroupState
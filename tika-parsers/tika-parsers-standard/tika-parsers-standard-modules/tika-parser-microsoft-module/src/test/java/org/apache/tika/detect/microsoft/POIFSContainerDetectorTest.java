@@ -17,11 +17,14 @@
 package org.apache.tika.detect.microsoft;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.detect.Detector;
@@ -52,6 +55,25 @@ public class POIFSContainerDetectorTest {
         }
     }
 
+    @Test
+    public void testInMemory() throws Exception {
+        POIFSContainerDetector detector = new POIFSContainerDetector();
+        try (TikaInputStream tis = TikaInputStream.get(getStream("testWORD.doc"))) {
+            assertEquals("application/msword", detector.detect(tis, new Metadata()).toString());
+            //the container was opened from memory, and is kept for the parser
+            assertFalse(tis.hasFile());
+            assertTrue(tis.getOpenContainer() instanceof POIFSFileSystem);
+            assertEquals(0, tis.getPosition());
+        }
+
+        detector.setInMemoryLimit(-1);
+        try (TikaInputStream tis = TikaInputStream.get(getStream("testWORD.doc"))) {
+            assertEquals("application/msword", detector.detect(tis, new Metadata()).toString());
+            assertTrue(tis.hasFile());
+            assertTrue(tis.getOpenContainer() instanceof POIFSFileSystem);
+        }
+    }
+
     private void testStream(String fileName, String expectedMime, int markLimit) throws IOException {
         String expectedDigest = digest(getStream(fileName));
         POIFSContainerDetector detector = new POIFSContainerDetector();
@@ -16,16 +16,23 @@
  */
 package org.apache.tika.parser.microsoft.chm;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import org.apache.tika.TikaTest;
 import org.apache.tika.exception.TikaException;
@@ -61,6 +68,24 @@ public class TestChmExtractor extends TikaTest {
         assertEquals(TestParameters.VP_CHM_ENTITIES_NUMBER, count);
     }
 
+    @Test
+    public void testExtractChmEntryFromFileChannel(@TempDir Path tmp) throws Exception {
+        Path chm = tmp.resolve("test.chm");
+        Files.write(chm, TestParameters.chmData);
+        try (FileChannel channel = FileChannel.open(chm)) {
+            ChmExtractor fromChannel = new ChmExtractor(channel);
+            List<DirectoryListingEntry> entries =
+                    new ArrayList<>(fromChannel.getChmDirList().getDirectoryListingEntryList());
+            assertEquals(TestParameters.VP_CHM_ENTITIES_NUMBER, entries.size());
+            //backwards, so that decoding can't just carry on from the previous entry
+            Collections.reverse(entries);
+            for (DirectoryListingEntry entry : entries) {
+                assertArrayEquals(chmExtractor.extractChmEntry(entry),
+                        fromChannel.extractChmEntry(entry), entry.getName());
+            }
+        }
+    }
+
     @Test
     public void testOOMOnCorruptCHM() throws Exception {
         try {
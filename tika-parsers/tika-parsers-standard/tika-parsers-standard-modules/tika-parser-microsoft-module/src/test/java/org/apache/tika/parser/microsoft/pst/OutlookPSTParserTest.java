@@ -21,17 +21,27 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
 
 import org.apache.tika.TikaTest;
+import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.MAPI;
 import org.apache.tika.metadata.Message;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.PST;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
 
 public class OutlookPSTParserTest extends TikaTest {
@@ -121,4 +131,58 @@ public class OutlookPSTParserTest extends TikaTest {
         //TODO: figure out why the bold markup isn't coming through if we do extract then parse
         // the bodyhtml
     }
+
+    @Test
+    public void testParallel() throws Exception {
+        OutlookPSTParser parallelParser = new OutlookPSTParser();
+        parallelParser.setParseThreads(3);
+        for (String file : new String[]{"testPST.pst", "testPST_variousBodyTypes.pst"}) {
+            RecordingParser serialRecorder = new RecordingParser();
+            String serial = getXML(file, new OutlookPSTParser(), recordingContext(serialRecorder)).xml;
+            RecordingParser parallelRecorder = new RecordingParser();
+            String parallel =
+                    getXML(file, parallelParser, recordingContext(parallelRecorder)).xml;
+            //same content in the same folder order
+            assertEquals(serial, parallel);
+            //and the same metadata for every message and attachment, in whatever
+            //order the workers finished them
+            assertTrue(serialRecorder.getParsed().size() > 1);
+            assertEquals(serialRecorder.getParsed(), parallelRecorder.getParsed());
+        }
+    }
+
+    private static ParseContext recordingContext(RecordingParser recorder) {
+        ParseContext context = new ParseContext();
+        //still a CompositeParser, so that the messages may be parsed in parallel
+        context.set(Parser.class, recorder);
+        return context;
+    }
+
+    /**
+     * Records the metadata of every embedded document it parses.
+     */
+    private static class RecordingParser extends AutoDetectParser {
+
+        private final List<String> parsed = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void parse(InputStream stream, ContentHandler handler, Metadata metadata,
+                          ParseContext context) throws IOException, SAXException, TikaException {
+            super.parse(stream, handler, metadata, context);
+            StringBuilder sb = new StringBuilder();
+            String[] names = metadata.names();
+            Arrays.sort(names);
+            for (String name : names) {
+                sb.append(name).append('=').append(Arrays.toString(metadata.getValues(name)))
+                        .append('\n');
+            }
+            parsed.add(sb.toString());
+        }
+
+        List<String> getParsed() {
+            List<String> sorted = new ArrayList<>(parsed);
+            Collections.sort(sorted);
+            return sorted;
+        }
+    }
 }
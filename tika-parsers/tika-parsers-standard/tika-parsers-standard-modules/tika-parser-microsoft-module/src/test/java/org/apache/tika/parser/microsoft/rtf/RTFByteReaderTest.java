@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.rtf;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class RTFByteReaderTest {
+
+    @Test
+    public void testPeekAcrossBufferBoundary() throws Exception {
+        byte[] bytes = bytes(RTFByteReader.BUFFER_SIZE + 10);
+        RTFByteReader reader = new RTFByteReader(new ByteArrayInputStream(bytes));
+        for (int i = 0; i < RTFByteReader.BUFFER_SIZE - 1; i++) {
+            assertEquals(bytes[i] & 0xff, reader.read());
+        }
+        //the last buffered byte, and the first one that is not yet buffered
+        assertEquals(bytes[RTFByteReader.BUFFER_SIZE - 1] & 0xff, reader.peek(0));
+        assertEquals(bytes[RTFByteReader.BUFFER_SIZE] & 0xff, reader.peek(1));
+        reader.skipPeeked();
+        assertEquals(bytes[RTFByteReader.BUFFER_SIZE] & 0xff, reader.peek(0));
+        reader.skipPeeked();
+        for (int i = RTFByteReader.BUFFER_SIZE + 1; i < bytes.length; i++) {
+            assertEquals(bytes[i] & 0xff, reader.read());
+        }
+        assertEquals(-1, reader.peek(0));
+        assertEquals(-1, reader.read());
+    }
+
+    @Test
+    public void testPeekAtFullBuffer() throws Exception {
+        byte[] bytes = bytes(2 * RTFByteReader.BUFFER_SIZE + 1);
+        RTFByteReader reader = new RTFByteReader(new ByteArrayInputStream(bytes));
+        //the first peek fills the whole buffer; peeking one past it has to compact
+        assertEquals(bytes[0] & 0xff, reader.peek(0));
+        reader.skipBuffered(RTFByteReader.BUFFER_SIZE - 1);
+        assertEquals(bytes[RTFByteReader.BUFFER_SIZE] & 0xff, reader.peek(1));
+        assertArrayEquals(Arrays.copyOfRange(bytes, RTFByteReader.BUFFER_SIZE - 1, bytes.length),
+                readAll(reader));
+    }
+
+    @Test
+    public void testShortReads() throws Exception {
+        byte[] bytes = ("{\\rtf1\\ansi some text\\par\r\n\\'e9t\\'e9 {\\*\\generator x}}"
+                + "more text that spans several reads").getBytes(US_ASCII);
+        RTFByteReader reader = new RTFByteReader(new TrickleInputStream(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b = reader.peek(0);
+        while (b != -1) {
+            int run = reader.textRunLength();
+            if (run > 0) {
+                out.write(reader.getBuffer(), reader.getPosition(), run);
+                reader.skipBuffered(run);
+            } else if (b == '\\') {
+                //exercise the two byte peek as the \* check does
+                reader.peek(1);
+                reader.skipPeeked();
+                out.write(b);
+            } else if (!reader.skipLineEndings()) {
+                out.write(reader.read());
+            }
+            b = reader.peek(0);
+        }
+        String expected = new String(bytes, US_ASCII).replace("\r\n", "");
+        assertEquals(expected, out.toString(US_ASCII.name()));
+        assertEquals(-1, reader.read());
+    }
+
+    @Test
+    public void testShortReadsWithArrayReads() throws Exception {
+        byte[] bytes = bytes(RTFByteReader.BUFFER_SIZE + 100);
+        RTFByteReader reader = new RTFByteReader(new TrickleInputStream(bytes));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[7];
+        int i = 0;
+        while (true) {
+            int n;
+            if (i++ % 2 == 0) {
+                int b = reader.read();
+                if (b == -1) {
+                    break;
+                }
+                out.write(b);
+            } else {
+                n = reader.read(chunk, 0, chunk.length);
+                if (n == -1) {
+                    break;
+                }
+                out.write(chunk, 0, n);
+            }
+        }
+        assertArrayEquals(bytes, out.toByteArray());
+    }
+
+    @Test
+    public void testEofInControlWord() throws Exception {
+        RTFByteReader reader = new RTFByteReader(
+                new TrickleInputStream("ab\\pa".getBytes(US_ASCII)));
+        assertEquals('a', reader.read());
+        assertEquals('b', reader.read());
+        assertEquals('\\', reader.read());
+        assertEquals('p', reader.peek(0));
+        reader.skipPeeked();
+        assertEquals('a', reader.peek(0));
+        //the stream ends before the byte after the control word
+        assertEquals(-1, reader.peek(1));
+        //a failed peek must not lose the byte that was available
+        assertEquals('a', reader.peek(0));
+        reader.skipPeeked();
+        assertEquals(-1, reader.peek(0));
+        assertEquals(-1, reader.peek(1));
+        assertEquals(-1, reader.read());
+        assertEquals(-1, reader.read(new byte[10], 0, 10));
+        assertEquals(0, reader.textRunLength());
+    }
+
+    @Test
+    public void testTruncatedHexEscape() throws Exception {
+        //ends after the first hex digit
+        RTFByteReader reader = new RTFByteReader(
+                new TrickleInputStream("x\\'e".getBytes(US_ASCII)));
+        assertEquals('x', reader.read());
+        assertEquals('\\', reader.read());
+        assertEquals('\'', reader.read());
+        assertEquals('e', reader.peek(0));
+        reader.skipPeeked();
+        //never 0xff for a byte that is not there
+        assertEquals(-1, reader.peek(0));
+        assertEquals(-1, reader.read());
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = is.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31 + (i >> 8));
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns 1, 2 or 3 bytes per read, and sometimes none at all.
+     */
+    private static class TrickleInputStream extends FilterInputStream {
+        private int reads = 0;
+
+        TrickleInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = reads++ % 4;
+            if (n == 3) {
+                return 0;
+            }
+            return super.read(b, off, Math.min(len, n + 1));
+        }
+    }
+}
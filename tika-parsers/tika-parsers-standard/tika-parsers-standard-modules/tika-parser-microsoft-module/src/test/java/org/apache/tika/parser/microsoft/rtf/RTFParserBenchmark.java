@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.rtf;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.microsoft.OfficeParser;
+import org.apache.tika.sax.BodyContentHandler;
+
+/**
+ * Times text extraction from large RTF documents, and from Outlook .msg files
+ * with an RTF body. Files ending in .msg are parsed with the
+ * {@link OfficeParser}, everything else with the {@link RTFParser}. Without
+ * any files, a generated RTF document of about 10MB is used.
+ * <p>
+ * Usage: RTFParserBenchmark [iterations] [file...]
+ */
+public class RTFParserBenchmark {
+
+    private static final String[] WORDS = {"the", "quick", "brown", "fox", "jumps", "over",
+            "lazy", "dog", "Tika", "parser", "content", "document", "metadata", "extraction"};
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        if (args.length < 2) {
+            run("generated.rtf", generateRTF(50_000, new Random(42)), new RTFParser(),
+                    iterations);
+        }
+        for (int i = 1; i < args.length; i++) {
+            Parser parser = args[i].toLowerCase(Locale.ROOT).endsWith(".msg") ?
+                    new OfficeParser() : new RTFParser();
+            run(args[i], Files.readAllBytes(Paths.get(args[i])), parser, iterations);
+        }
+    }
+
+    private static void run(String name, byte[] bytes, Parser parser, int iterations)
+            throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            BodyContentHandler handler = new BodyContentHandler(-1);
+            long start = System.nanoTime();
+            try (InputStream is = new ByteArrayInputStream(bytes)) {
+                parser.parse(is, handler, new Metadata(), new ParseContext());
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(String.format(Locale.ROOT,
+                    "%s iteration %2d: %7.1f ms, %6.1f MB/s, %d chars", name, i,
+                    elapsed / 1e6, bytes.length / (elapsed / 1e9) / 1e6,
+                    handler.toString().length()));
+        }
+    }
+
+    // Paragraphs of plain text, with some formatting, hex
+    // escapes and unicode escapes, alternating between
+    // two fonts with different charsets
+    private static byte[] generateRTF(int numParagraphs, Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\\rtf1\\ansi\\ansicpg1252\\deff0{\\fonttbl{\\f0 Times;}");
+        sb.append("{\\f1\\fcharset204 Arial;}}\r\n");
+        for (int i = 0; i < numParagraphs; i++) {
+            sb.append("\\pard\\f").append(i % 2).append(' ');
+            int numWords = 20 + random.nextInt(100);
+            for (int w = 0; w < numWords; w++) {
+                if (w > 0) {
+                    sb.append(' ');
+                }
+                if (w % 17 == 0) {
+                    sb.append("{\\b ").append(WORDS[random.nextInt(WORDS.length)]).append('}');
+                } else if (w % 23 == 0) {
+                    sb.append("caf\\'e9 \\u8364?");
+                } else {
+                    sb.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+            }
+            sb.append("\\par\r\n");
+        }
+        sb.append('}');
+        return sb.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+}
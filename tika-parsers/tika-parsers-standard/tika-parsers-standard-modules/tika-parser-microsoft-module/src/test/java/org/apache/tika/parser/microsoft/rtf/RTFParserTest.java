@@ -23,11 +23,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.Tika;
@@ -503,4 +505,21 @@ public class RTFParserTest extends TikaTest {
         assertContains("this Agreement on today", getXML("testRTFTIKA_2899.rtf").xml);
     }
 
+    @Test
+    public void testTruncated() throws Exception {
+        //the document ends inside a control word, a hex escape and a \* check;
+        //none of them may turn the missing byte into a 0xFF character
+        StringBuilder big = new StringBuilder("{\\rtf1\\ansi ");
+        while (big.length() < RTFByteReader.BUFFER_SIZE - 1) {
+            big.append('a');
+        }
+        for (String rtf : new String[]{"{\\rtf1\\ansi hello \\pa", "{\\rtf1\\ansi hello \\'e",
+                "{\\rtf1\\ansi hello \\'", "{\\rtf1\\ansi hello {\\", big + "\\'e"}) {
+            String content = getText(
+                    UnsynchronizedByteArrayInputStream.builder()
+                            .setByteArray(rtf.getBytes(StandardCharsets.US_ASCII)).get(),
+                    new RTFParser());
+            assertFalse(content.contains("\u00FF"), "stray 0xFF in: " + rtf);
+        }
+    }
 }
@@ -30,6 +30,7 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
@@ -156,9 +157,11 @@ public class DefaultZipContainerDetector implements Detector {
      * If this is less than 0 and a TikaInputStream is used, the file will be spooled to disk,
      * and detection will run on the full file.
      * <p>
-     * If this is greater than 0 and a TikaInputStream is used, this will try detection
-     * on the stream up to the markLimit, and if that is greater than the length of the file,
-     * the streaming result will be returned. If the BoundedInputStream hits its bound during detection,
+     * If this is greater than 0 and a TikaInputStream is used, and the stream is no longer
+     * than the markLimit, the stream will be read into memory and detection will run
+     * on the zip's central directory without spooling to disk. Otherwise, this will try
+     * streaming detection on the stream up to the markLimit, and if a detector reaches a decision
+     * before the markLimit, the streaming result will be returned. If the BoundedInputStream hits its bound during detection,
      * the file will be spooled to disk, and detection will be run on the full file.
      * <p>
      * If a non-TikaInputStream is used, detection will only work up to the <code>markLimit</code>,
@@ -217,6 +220,12 @@ public class DefaultZipContainerDetector implements Detector {
     }
 
     private MediaType tryStreamingOnTikaInputStream(TikaInputStream tis, Metadata metadata) throws IOException {
+        //if the whole stream fits within the markLimit, read it into memory and
+        //detect on the central directory instead of the local headers
+        byte[] bytes = tis.peekFully(markLimit);
+        if (bytes != null) {
+            return detectZipFormatInMemory(bytes, tis, metadata);
+        }
         BoundedInputStream boundedInputStream = new BoundedInputStream(markLimit, tis);
         boundedInputStream.mark(markLimit);
         //try streaming detect
@@ -244,7 +253,54 @@ public class DefaultZipContainerDetector implements Detector {
         ZipFile zip = null;
         try {
             zip = ZipFile.builder().setFile(tis.getFile()).get();
+        } catch (IOException e) {
+            //do nothing
+        }
+        if (zip != null) {
+            return detectZipFormat(zip, tis);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("zip file failed to open; attempting streaming detect. Results may be imprecise");
+        }
+        //problem opening zip file (truncated?)
+        try {
+            return detectStreamingFromPath(tis.getPath(), metadata, false);
+        } catch (IOException e) {
+            //swallow
+        }
+        return MediaType.APPLICATION_ZIP;
+
+    }
 
+    /**
+     * Same as {@link #detectZipFormatOnFile(TikaInputStream, Metadata)}, but on the
+     * full contents of a short stream that were read into memory. ZipFile only reads the
+     * end of central directory and the central directory, and the ZipFile is
+     * left in TikaInputStream's openContainer for the parser, so nothing is
+     * spooled to disk.
+     */
+    private MediaType detectZipFormatInMemory(byte[] bytes, TikaInputStream tis, Metadata metadata) {
+        ZipFile zip = null;
+        try {
+            zip = ZipFile.builder().setSeekableByteChannel(new SeekableInMemoryByteChannel(bytes)).get();
+        } catch (IOException e) {
+            //do nothing
+        }
+        if (zip != null) {
+            return detectZipFormat(zip, tis);
+        }
+        //problem reading the central directory (truncated?)
+        try {
+            return detectStreaming(UnsynchronizedByteArrayInputStream.builder().setByteArray(bytes).get(),
+                    metadata, false);
+        } catch (IOException e) {
+            //swallow
+        }
+        return MediaType.APPLICATION_ZIP;
+    }
+
+    private MediaType detectZipFormat(ZipFile zip, TikaInputStream tis) {
+        try {
             for (ZipContainerDetector zipDetector : getDetectors()) {
                 MediaType type = zipDetector.detect(zip, tis);
                 if (type != null) {
@@ -270,21 +326,8 @@ public class DefaultZipContainerDetector implements Detector {
             //do nothing
         }
         // Fallback: it's still a zip file, we just don't know what kind of one
-        if (zip != null) {
-            IOUtils.closeQuietly(zip);
-            return MediaType.APPLICATION_ZIP;
-        }
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("zip file failed to open; attempting streaming detect. Results may be imprecise");
-        }
-        //problem opening zip file (truncated?)
-        try {
-            return detectStreamingFromPath(tis.getPath(), metadata, false);
-        } catch (IOException e) {
-            //swallow
-        }
+        IOUtils.closeQuietly(zip);
         return MediaType.APPLICATION_ZIP;
-
     }
 
     MediaType detectStreaming(InputStream input, Metadata metadata) throws IOException {
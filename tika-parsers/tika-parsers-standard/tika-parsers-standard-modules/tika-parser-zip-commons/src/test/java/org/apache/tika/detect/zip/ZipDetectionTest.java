@@ -17,6 +17,8 @@
 package org.apache.tika.detect.zip;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
@@ -25,6 +27,7 @@ import java.nio.file.Files;
 import java.util.List;
 
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.TikaTest;
@@ -107,6 +110,25 @@ public class ZipDetectionTest extends TikaTest {
         }
     }
 
+    @Test
+    public void testInMemory() throws Exception {
+        String expectedDigest = digest("testJAR.jar");
+        DefaultZipContainerDetector detector = new DefaultZipContainerDetector();
+        try (TikaInputStream tis = TikaInputStream.get(getStream("testJAR.jar"))) {
+            assertExpected(detector, tis, "application/java-archive", expectedDigest);
+            //detection ran on the central directory in memory, and the zip is kept for the parser
+            assertFalse(tis.hasFile());
+            assertTrue(tis.getOpenContainer() instanceof ZipFile);
+        }
+
+        //longer than the markLimit, so this has to spool to disk
+        detector.setMarkLimit(100);
+        try (TikaInputStream tis = TikaInputStream.get(getStream("testJAR.jar"))) {
+            assertExpected(detector, tis, "application/java-archive", expectedDigest);
+            assertTrue(tis.hasFile());
+        }
+    }
+
     private InputStream getStream(String fileName) {
         return ZipDetectionTest.class.getResourceAsStream("/test-documents/" + fileName);
     }
@@ -18,6 +18,7 @@ package org.apache.tika.pipes.emitter.azblob;
 
 import static org.apache.tika.config.TikaConfig.mustNotBeEmpty;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -48,6 +49,8 @@ import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.pipes.emitter.AbstractEmitter;
+import org.apache.tika.pipes.emitter.EmitBatchExecutor;
+import org.apache.tika.pipes.emitter.EmitData;
 import org.apache.tika.pipes.emitter.StreamEmitter;
 import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.serialization.JsonMetadataList;
@@ -58,7 +61,7 @@ import org.apache.tika.utils.StringUtils;
  * Emit files to Azure blob storage. Must set endpoint, sasToken and container via config.
  */
 
-public class AZBlobEmitter extends AbstractEmitter implements Initializable, StreamEmitter {
+public class AZBlobEmitter extends AbstractEmitter implements Initializable, StreamEmitter, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AZBlobEmitter.class);
     private String fileExtension = "json";
@@ -71,6 +74,8 @@ public class AZBlobEmitter extends AbstractEmitter implements Initializable, Str
     private BlobServiceClient blobServiceClient;
     private BlobContainerClient blobContainerClient;
     private boolean overwriteExisting = false;
+    private int maxInFlightUploads = 1;
+    private volatile EmitBatchExecutor emitBatchExecutor;
 
     /**
      * Requires the src-bucket/path/to/my/file.txt in the {@link TikaCoreProperties#SOURCE_PATH}.
@@ -98,7 +103,20 @@ public class AZBlobEmitter extends AbstractEmitter implements Initializable, Str
         }
         Metadata metadata = new Metadata();
         emit(emitKey, TikaInputStream.get(bos.toByteArray(), metadata), metadata, parseContext);
+    }
 
+    /**
+     * Uploads up to <code>maxInFlightUploads</code> documents of the batch at the same time.
+     * This returns once all of them have been uploaded or have failed.
+     */
+    @Override
+    public void emit(List<? extends EmitData> emitData) throws IOException, TikaEmitterException {
+        EmitBatchExecutor executor = emitBatchExecutor;
+        if (executor == null) {
+            throw new TikaEmitterException("az blob emitter has not been initialized or has been closed");
+        }
+        executor.emitAll(emitData,
+                d -> emit(d.getEmitKey().getEmitKey(), d.getMetadataList(), d.getParseContext()));
     }
 
     /**
@@ -238,6 +256,16 @@ public class AZBlobEmitter extends AbstractEmitter implements Initializable, Str
         this.fileExtension = fileExtension;
     }
 
+    /**
+     * How many documents of a batch to upload at the same time.
+     * Default: 1, which uploads the documents one after the other.
+     *
+     * @param maxInFlightUploads
+     */
+    @Field
+    public void setMaxInFlightUploads(int maxInFlightUploads) {
+        this.maxInFlightUploads = maxInFlightUploads;
+    }
 
     /**
      * This initializes the az blob container client
@@ -252,7 +280,23 @@ public class AZBlobEmitter extends AbstractEmitter implements Initializable, Str
                 .endpoint(endpoint)
                 .credential(new AzureSasCredential(sasToken))
                 .buildClient();
-        blobContainerClient = blobServiceClient.getBlobContainerClient(container);
+        initialize(blobServiceClient.getBlobContainerClient(container));
+    }
+
+    void initialize(BlobContainerClient blobContainerClient) {
+        this.blobContainerClient = blobContainerClient;
+        emitBatchExecutor = new EmitBatchExecutor("az-blob-emitter", maxInFlightUploads);
+    }
+
+    /**
+     * Shuts down the upload threads.
+     */
+    @Override
+    public void close() throws IOException {
+        if (emitBatchExecutor != null) {
+            emitBatchExecutor.close();
+            emitBatchExecutor = null;
+        }
     }
 
     @Override
@@ -16,6 +16,7 @@
  */
 package org.apache.tika.pipes.emitter.fs;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
@@ -32,6 +33,7 @@ import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.pipes.emitter.AbstractEmitter;
+import org.apache.tika.pipes.emitter.EmitData;
 import org.apache.tika.pipes.emitter.StreamEmitter;
 import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.serialization.JsonMetadataList;
@@ -41,6 +43,14 @@ import org.apache.tika.serialization.JsonMetadataList;
  * <p>
  * This calculates the path to write to based on the {@link #basePath}
  * and the value of the {@link TikaCoreProperties#SOURCE_PATH} value.
+ * <p>
+ * With <code>outputMode</code> 'segments', the metadata lists are instead
+ * appended to rolling segment files in {@link #basePath}, one line of json per
+ * document, with an index file next to each segment. This avoids creating a file
+ * per document for large crawls. Use
+ * {@link SegmentReader} to look up a document by its emit key. Streams
+ * emitted via {@link StreamEmitter} are still written to files of their own.
+ * Call {@link #close()} to close the current segment when done.
  *
  * <pre class="prettyprint">
  *  &lt;properties&gt;
@@ -60,12 +70,28 @@ import org.apache.tika.serialization.JsonMetadataList;
  *                  &lt;!-- optional; whether or not to pretty print the output
  *                      default is false --&gt;
  *                     &lt;param name="prettyPrint" type="boolean"&gt;true&lt;/param&gt;
+ *                  &lt;!-- optional; 'files' or 'segments', default is 'files' --&gt;
+ *                  &lt;param name="outputMode" type="string"&gt;segments&lt;/param&gt;
+ *                  &lt;!-- optional; only used for segments; size at which a new
+ *                      segment is started, default is 268435456 --&gt;
+ *                  &lt;param name="maxSegmentBytes" type="long"&gt;1073741824&lt;/param&gt;
+ *                  &lt;!-- optional; only used for segments; 'none' or 'gzip',
+ *                      default is 'none' --&gt;
+ *                  &lt;param name="segmentCompression" type="string"&gt;gzip&lt;/param&gt;
+ *                  &lt;!-- optional; only used for segments; fsync after this
+ *                      many documents, default is 0, which leaves it to the OS --&gt;
+ *                  &lt;param name="fsyncEvery" type="int"&gt;1000&lt;/param&gt;
+ *                  &lt;!-- optional; only used for segments; start of the segment
+ *                      file names, default is 'segment' --&gt;
+ *                  &lt;param name="segmentPrefix" type="string"&gt;crawl1&lt;/param&gt;
  *              &lt;/params&gt;
  *          &lt;/emitter&gt;
  *      &lt;/emitters&gt;
  *  &lt;/properties&gt;</pre>
  */
-public class FileSystemEmitter extends AbstractEmitter implements StreamEmitter {
+public class FileSystemEmitter extends AbstractEmitter implements StreamEmitter, Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 256L * 1024 * 1024;
 
     private Path basePath = null;
     private String fileExtension = "json";
@@ -73,12 +99,26 @@ public class FileSystemEmitter extends AbstractEmitter implements StreamEmitter
 
     private boolean prettyPrint = false;
 
+    private OUTPUT_MODE outputMode = OUTPUT_MODE.FILES;
+    private long maxSegmentBytes = DEFAULT_MAX_SEGMENT_BYTES;
+    private SegmentWriter.Compression segmentCompression = SegmentWriter.Compression.NONE;
+    private int fsyncEvery = 0;
+    private String segmentPrefix = "segment";
+
+    private SegmentWriter segmentWriter = null;
+
     @Override
     public void emit(String emitKey, List<Metadata> metadataList, ParseContext parseContext) throws IOException, TikaEmitterException {
-        Path output;
         if (metadataList == null || metadataList.isEmpty()) {
             throw new TikaEmitterException("metadata list must not be null or of size 0");
         }
+        if (outputMode == OUTPUT_MODE.SEGMENTS) {
+            SegmentWriter writer = getSegmentWriter();
+            writer.write(emitKey, metadataList);
+            writer.flush();
+            return;
+        }
+        Path output;
 
         if (fileExtension != null && ! fileExtension.isEmpty()) {
             emitKey += "." + fileExtension;
@@ -100,6 +140,54 @@ public class FileSystemEmitter extends AbstractEmitter implements StreamEmitter
         }
     }
 
+    /**
+     * In 'segments' mode, all documents of the batch are written before the
+     * segment is flushed, so that there is at most one fsync per batch.
+     */
+    @Override
+    public void emit(List<? extends EmitData> emitData) throws IOException, TikaEmitterException {
+        if (outputMode != OUTPUT_MODE.SEGMENTS) {
+            super.emit(emitData);
+            return;
+        }
+        SegmentWriter writer = getSegmentWriter();
+        try {
+            for (EmitData d : emitData) {
+                if (d.getMetadataList() == null || d.getMetadataList().isEmpty()) {
+                    throw new TikaEmitterException("metadata list must not be null or of size 0");
+                }
+                writer.write(d.getEmitKey().getEmitKey(), d.getMetadataList());
+            }
+        } finally {
+            writer.flush();
+        }
+    }
+
+    private synchronized SegmentWriter getSegmentWriter() throws TikaEmitterException {
+        if (segmentWriter != null) {
+            return segmentWriter;
+        }
+        if (basePath == null) {
+            throw new TikaEmitterException("basePath must be set for outputMode 'segments'");
+        }
+        segmentWriter = new SegmentWriter(basePath, segmentPrefix, maxSegmentBytes,
+                segmentCompression, fsyncEvery);
+        return segmentWriter;
+    }
+
+    /**
+     * Closes the current segment, if there is one. If anything is emitted
+     * after this, it goes to a new segment.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (segmentWriter != null) {
+            SegmentWriter writer = segmentWriter;
+            segmentWriter = null;
+            writer.close();
+        }
+    }
+
     @Field
     public void setBasePath(String basePath) {
         this.basePath = Paths.get(basePath);
@@ -145,6 +233,79 @@ public class FileSystemEmitter extends AbstractEmitter implements StreamEmitter
         this.prettyPrint = prettyPrint;
     }
 
+    /**
+     * 'files' (the default) writes a file per document, 'segments' appends
+     * the documents to rolling segment files.
+     *
+     * @param outputMode
+     */
+    @Field
+    public void setOutputMode(String outputMode) {
+        switch (outputMode) {
+            case "files":
+                this.outputMode = OUTPUT_MODE.FILES;
+                break;
+            case "segments":
+                this.outputMode = OUTPUT_MODE.SEGMENTS;
+                break;
+            default:
+                throw new IllegalArgumentException("Don't understand '" + outputMode + "'; must be one of: 'files', 'segments'");
+        }
+    }
+
+    /**
+     * A new segment is started once the current one would grow beyond this.
+     *
+     * @param maxSegmentBytes
+     */
+    @Field
+    public void setMaxSegmentBytes(long maxSegmentBytes) {
+        if (maxSegmentBytes < 1) {
+            throw new IllegalArgumentException("maxSegmentBytes must be > 0");
+        }
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * With 'gzip', each document in a segment is compressed on its own,
+     * so that it can still be read without reading the rest of the segment.
+     *
+     * @param segmentCompression
+     */
+    @Field
+    public void setSegmentCompression(String segmentCompression) {
+        switch (segmentCompression) {
+            case "none":
+                this.segmentCompression = SegmentWriter.Compression.NONE;
+                break;
+            case "gzip":
+                this.segmentCompression = SegmentWriter.Compression.GZIP;
+                break;
+            default:
+                throw new IllegalArgumentException("Don't understand '" + segmentCompression + "'; must be one of: 'none', 'gzip'");
+        }
+    }
+
+    /**
+     * Sync the segment to disk at the end of a batch once at least this many
+     * documents have been written since the last sync. The default, 0,
+     * leaves it to the operating system.
+     *
+     * @param fsyncEvery
+     */
+    @Field
+    public void setFsyncEvery(int fsyncEvery) {
+        if (fsyncEvery < 0) {
+            throw new IllegalArgumentException("fsyncEvery must be >= 0");
+        }
+        this.fsyncEvery = fsyncEvery;
+    }
+
+    @Field
+    public void setSegmentPrefix(String segmentPrefix) {
+        this.segmentPrefix = segmentPrefix;
+    }
+
     @Override
     public void emit(String path, InputStream inputStream, Metadata userMetadata, ParseContext parseContext) throws IOException, TikaEmitterException {
         Path target = basePath.resolve(path);
@@ -170,4 +331,8 @@ public class FileSystemEmitter extends AbstractEmitter implements StreamEmitter
     enum ON_EXISTS {
         SKIP, EXCEPTION, REPLACE
     }
+
+    enum OUTPUT_MODE {
+        FILES, SEGMENTS
+    }
 }
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter.fs;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.serialization.JsonMetadata;
+
+/**
+ * Looks up the metadata lists that {@link FileSystemEmitter} wrote to segment
+ * files by their emit key.
+ * <p>
+ * The index files of all segments in the directory are read into memory when
+ * this is created. Index lines for records that never made it to the segment,
+ * e.g. because the process that wrote them was killed, are ignored. If the
+ * same emit key was written more than once, the last record within a segment
+ * wins, but which segment wins is undefined.
+ * <p>
+ * This is thread safe.
+ */
+public class SegmentReader implements Closeable {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Path, FileChannel> channels = new ConcurrentHashMap<>();
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .setStreamReadConstraints(StreamReadConstraints
+                    .builder()
+                    .maxStringLength(TikaConfig.getMaxJsonStringFieldLength())
+                    .build());
+
+    public SegmentReader(Path directory) throws IOException {
+        try (DirectoryStream<Path> indexFiles = Files.newDirectoryStream(directory,
+                "*" + SegmentWriter.INDEX_EXTENSION)) {
+            for (Path indexFile : indexFiles) {
+                loadIndex(indexFile);
+            }
+        }
+    }
+
+    /**
+     * @return the metadata list or <code>null</code> if there is no record for this
+     * emit key
+     */
+    public List<Metadata> get(String emitKey) throws IOException {
+        Entry entry = entries.get(emitKey);
+        if (entry == null) {
+            return null;
+        }
+        byte[] record = read(entry);
+        InputStream is = new ByteArrayInputStream(record);
+        if (entry.segment.getFileName().toString().endsWith(SegmentWriter.GZIP_EXTENSION)) {
+            is = new GZIPInputStream(is);
+        }
+        try (JsonParser jParser = jsonFactory.createParser(is)) {
+            return readMetadataList(jParser);
+        }
+    }
+
+    public Set<String> getEmitKeys() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException ex = null;
+        for (FileChannel channel : channels.values()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                ex = e;
+            }
+        }
+        channels.clear();
+        if (ex != null) {
+            throw ex;
+        }
+    }
+
+    private void loadIndex(Path indexFile) throws IOException {
+        String name = indexFile.getFileName().toString();
+        String base = name.substring(0, name.length() - SegmentWriter.INDEX_EXTENSION.length());
+        Path segment = indexFile.resolveSibling(base + SegmentWriter.DATA_EXTENSION);
+        if (!Files.isRegularFile(segment)) {
+            segment = indexFile.resolveSibling(base + SegmentWriter.DATA_EXTENSION +
+                    SegmentWriter.GZIP_EXTENSION);
+            if (!Files.isRegularFile(segment)) {
+                return;
+            }
+        }
+        long segmentLength = Files.size(segment);
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                Entry entry = parseIndexLine(segment, line, segmentLength);
+                if (entry != null) {
+                    entries.put(entry.emitKey, entry);
+                }
+                line = reader.readLine();
+            }
+        }
+    }
+
+    private static Entry parseIndexLine(Path segment, String line, long segmentLength) {
+        int tab1 = line.indexOf('\t');
+        int tab2 = tab1 < 0 ? -1 : line.indexOf('\t', tab1 + 1);
+        if (tab2 < 0) {
+            return null;
+        }
+        try {
+            long offset = Long.parseLong(line.substring(0, tab1));
+            int length = Integer.parseInt(line.substring(tab1 + 1, tab2));
+            if (offset < 0 || length < 0 || offset + length > segmentLength) {
+                return null;
+            }
+            return new Entry(line.substring(tab2 + 1), segment, offset, length);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] read(Entry entry) throws IOException {
+        FileChannel channel = channels.get(entry.segment);
+        if (channel == null) {
+            channel = FileChannel.open(entry.segment, StandardOpenOption.READ);
+            FileChannel existing = channels.putIfAbsent(entry.segment, channel);
+            if (existing != null) {
+                channel.close();
+                channel = existing;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+        long position = entry.offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("unexpected end of " + entry.segment);
+            }
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    private static List<Metadata> readMetadataList(JsonParser jParser) throws IOException {
+        if (jParser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("record must start with an object");
+        }
+        while (jParser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = jParser.currentName();
+            JsonToken token = jParser.nextToken();
+            if (!"metadataList".equals(field)) {
+                jParser.skipChildren();
+                continue;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("metadataList must be an array, but I see: " + token);
+            }
+            List<Metadata> metadataList = new ArrayList<>();
+            while (jParser.nextToken() != JsonToken.END_ARRAY) {
+                metadataList.add(JsonMetadata.readMetadataObject(jParser));
+            }
+            return metadataList;
+        }
+        throw new IOException("record has no metadataList");
+    }
+
+    private static class Entry {
+        private final String emitKey;
+        private final Path segment;
+        private final long offset;
+        private final int length;
+
+        Entry(String emitKey, Path segment, long offset, int length) {
+            this.emitKey = emitKey;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter.fs;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.serialization.JsonMetadataList;
+
+/**
+ * Appends the metadata lists of many documents to a series of segment files,
+ * instead of writing one file per document.
+ * <p>
+ * Each record is a single line of json: <code>{"emitKey":"...","metadataList":[...]}</code>.
+ * With gzip compression, each record is compressed as its own gzip member, so that
+ * a segment can still be read with <code>zcat</code>, and each record can still be
+ * read on its own.
+ * <p>
+ * Next to each segment, an index file has a line per record with the offset and
+ * length of the record in the segment and the emit key, separated by tabs.
+ * {@link SegmentReader} uses these to look up records by emit key.
+ * <p>
+ * A new segment is started once the current one would grow beyond
+ * <code>maxSegmentBytes</code>. Segment names include the process id, so that
+ * several processes can write to the same directory.
+ * <p>
+ * This is thread safe.
+ */
+class SegmentWriter implements Closeable {
+
+    static final String DATA_EXTENSION = ".ndjson";
+    static final String GZIP_EXTENSION = ".gz";
+    static final String INDEX_EXTENSION = ".idx";
+
+    enum Compression {
+        NONE, GZIP
+    }
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final Path directory;
+    private final String prefix;
+    private final long maxSegmentBytes;
+    private final Compression compression;
+    private final int fsyncEvery;
+
+    private int nextSegment = 0;
+    private FileChannel dataChannel;
+    private OutputStream data;
+    private FileChannel indexChannel;
+    private Writer index;
+    private long segmentBytes = 0;
+    private int unsynced = 0;
+    private boolean closed = false;
+
+    /**
+     * @param directory       directory to write the segments to
+     * @param prefix          start of the segment file names
+     * @param maxSegmentBytes a new segment is started if the next record would make
+     *                        the current one longer than this. A single record that is
+     *                        longer than this gets a segment of its own.
+     * @param compression     how to compress the records
+     * @param fsyncEvery      call fsync on the segment and its index after this many
+     *                        records have been written, or 0 to leave that to the
+     *                        operating system. If this is greater than 0, segments
+     *                        are also synced when they are closed.
+     */
+    SegmentWriter(Path directory, String prefix, long maxSegmentBytes, Compression compression,
+                  int fsyncEvery) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.compression = compression;
+        this.fsyncEvery = fsyncEvery;
+    }
+
+    synchronized void write(String emitKey, List<Metadata> metadataList) throws IOException {
+        if (closed) {
+            throw new IOException("segment writer has been closed");
+        }
+        if (emitKey.indexOf('\n') > -1 || emitKey.indexOf('\r') > -1) {
+            throw new IOException("emit key must not contain line breaks: " + emitKey);
+        }
+        byte[] record = toRecord(emitKey, metadataList);
+        if (data != null && segmentBytes > 0 && segmentBytes + record.length > maxSegmentBytes) {
+            closeSegment();
+        }
+        if (data == null) {
+            openSegment();
+        }
+        data.write(record);
+        index.write(Long.toString(segmentBytes));
+        index.write('\t');
+        index.write(Integer.toString(record.length));
+        index.write('\t');
+        index.write(emitKey);
+        index.write('\n');
+        segmentBytes += record.length;
+        unsynced++;
+    }
+
+    /**
+     * Hands everything that has been written so far to the operating system, and
+     * syncs it to disk if <code>fsyncEvery</code> records have been written since
+     * the last sync. Call this at the end of each batch.
+     */
+    synchronized void flush() throws IOException {
+        if (data == null) {
+            return;
+        }
+        data.flush();
+        index.flush();
+        if (fsyncEvery > 0 && unsynced >= fsyncEvery) {
+            sync();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeSegment();
+    }
+
+    private byte[] toRecord(String emitKey, List<Metadata> metadataList) throws IOException {
+        UnsynchronizedByteArrayOutputStream bytes =
+                UnsynchronizedByteArrayOutputStream.builder().setBufferSize(8192).get();
+        OutputStream os = compression == Compression.GZIP ? new GZIPOutputStream(bytes) : bytes;
+        try (Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8)) {
+            writer.write("{\"emitKey\":\"");
+            writer.write(JsonStringEncoder.getInstance().quoteAsString(emitKey));
+            writer.write("\",\"metadataList\":");
+            JsonMetadataList.toJson(metadataList, writer, false);
+            writer.write("}\n");
+        }
+        return bytes.toByteArray();
+    }
+
+    private void openSegment() throws IOException {
+        Files.createDirectories(directory);
+        String dataExtension = DATA_EXTENSION +
+                (compression == Compression.GZIP ? GZIP_EXTENSION : "");
+        long pid = ProcessHandle.current().pid();
+        //segments left by an earlier process with the same pid are skipped
+        while (true) {
+            String name = String.format(Locale.ROOT, "%s-%d-%05d", prefix, pid, nextSegment++);
+            try {
+                dataChannel = FileChannel.open(directory.resolve(name + dataExtension),
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            indexChannel = FileChannel.open(directory.resolve(name + INDEX_EXTENSION),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            break;
+        }
+        data = new BufferedOutputStream(Channels.newOutputStream(dataChannel), BUFFER_SIZE);
+        index = new OutputStreamWriter(
+                new BufferedOutputStream(Channels.newOutputStream(indexChannel), BUFFER_SIZE),
+                StandardCharsets.UTF_8);
+        segmentBytes = 0;
+    }
+
+    private void sync() throws IOException {
+        //the data first, so that the index never points past the end of a segment
+        dataChannel.force(false);
+        indexChannel.force(false);
+        unsynced = 0;
+    }
+
+    private void closeSegment() throws IOException {
+        if (data == null) {
+            return;
+        }
+        OutputStream segmentData = data;
+        Writer segmentIndex = index;
+        try {
+            data.flush();
+            index.flush();
+            if (fsyncEvery > 0 && unsynced > 0) {
+                sync();
+            }
+        } finally {
+            data = null;
+            index = null;
+            dataChannel = null;
+            indexChannel = null;
+            try {
+                segmentData.close();
+            } finally {
+                segmentIndex.close();
+            }
+        }
+    }
+}
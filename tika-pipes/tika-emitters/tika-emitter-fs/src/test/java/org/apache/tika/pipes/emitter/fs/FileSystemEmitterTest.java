@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter.fs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.pipes.emitter.EmitData;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.serialization.JsonMetadataList;
+
+public class FileSystemEmitterTest {
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    public void testFiles() throws Exception {
+        FileSystemEmitter emitter = new FileSystemEmitter();
+        emitter.setBasePath(tmp.toString());
+        emitter.emit("a/b.txt", metadataList("b.txt", 1), new ParseContext());
+        try (Reader reader = Files.newBufferedReader(tmp.resolve("a/b.txt.json"),
+                StandardCharsets.UTF_8)) {
+            assertEquals(metadataList("b.txt", 1), JsonMetadataList.fromJson(reader));
+        }
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        FileSystemEmitter emitter = segmentEmitter("none");
+        List<EmitData> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String key = "dir/doc-" + i + ".txt";
+            batch.add(new EmitData(new EmitKey("fs", key), metadataList(key, i % 3)));
+        }
+        emitter.emit(batch);
+        emitter.emit("dir/é\t\"quoted\".txt", metadataList("quoted", 0), new ParseContext());
+
+        List<Path> segments = list(".ndjson");
+        assertTrue(segments.size() > 1, "should have rolled: " + segments.size());
+        assertEquals(segments.size(), list(".idx").size());
+        for (Path segment : segments) {
+            //the current segment may be longer than the limit by one record
+            assertTrue(Files.size(segment) < 8192, segment + " " + Files.size(segment));
+        }
+        int lines = 0;
+        for (Path segment : segments) {
+            lines += Files.readAllLines(segment, StandardCharsets.UTF_8).size();
+        }
+        assertEquals(101, lines);
+
+        try (SegmentReader reader = new SegmentReader(tmp)) {
+            assertEquals(101, reader.getEmitKeys().size());
+            for (int i = 0; i < 100; i++) {
+                String key = "dir/doc-" + i + ".txt";
+                assertEquals(metadataList(key, i % 3), reader.get(key));
+            }
+            assertEquals(metadataList("quoted", 0), reader.get("dir/é\t\"quoted\".txt"));
+            assertNull(reader.get("dir/missing.txt"));
+        }
+    }
+
+    @Test
+    public void testGzipSegments() throws Exception {
+        FileSystemEmitter emitter = segmentEmitter("gzip");
+        for (int i = 0; i < 50; i++) {
+            String key = "doc-" + i;
+            emitter.emit(key, metadataList(key, 2), new ParseContext());
+        }
+        List<Path> segments = list(".ndjson.gz");
+        assertTrue(segments.size() > 0);
+
+        //the segments are concatenated gzip members that can be read as a whole
+        int lines = 0;
+        for (Path segment : segments) {
+            try (InputStream is = new GZIPInputStream(Files.newInputStream(segment))) {
+                String text = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+                lines += text.split("\n").length;
+            }
+        }
+        assertEquals(50, lines);
+
+        try (SegmentReader reader = new SegmentReader(tmp)) {
+            for (int i = 0; i < 50; i++) {
+                String key = "doc-" + i;
+                assertEquals(metadataList(key, 2), reader.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        FileSystemEmitter emitter = segmentEmitter("none");
+        emitter.setMaxSegmentBytes(Long.MAX_VALUE);
+        emitter.setFsyncEvery(1000);
+        List<EmitData> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(new EmitData(new EmitKey("fs", "doc-" + i), metadataList("doc-" + i, 1)));
+        }
+        emitter.emit(batch);
+        emitter.close();
+
+        List<Path> segments = list(".ndjson");
+        assertEquals(1, segments.size());
+        //the last record of the index ends where the segment ends
+        List<String> index = Files.readAllLines(list(".idx").get(0), StandardCharsets.UTF_8);
+        assertEquals(20, index.size());
+        String[] last = index.get(19).split("\t");
+        assertEquals(Files.size(segments.get(0)),
+                Long.parseLong(last[0]) + Long.parseLong(last[1]));
+        try (SegmentReader reader = new SegmentReader(tmp)) {
+            assertEquals(20, reader.getEmitKeys().size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(metadataList("doc-" + i, 1), reader.get("doc-" + i));
+            }
+        }
+
+        //emitting after close starts a new segment
+        emitter.emit("doc-20", metadataList("doc-20", 0), new ParseContext());
+        emitter.close();
+        assertEquals(2, list(".ndjson").size());
+        try (SegmentReader reader = new SegmentReader(tmp)) {
+            assertEquals(21, reader.getEmitKeys().size());
+            assertEquals(metadataList("doc-20", 0), reader.get("doc-20"));
+        }
+    }
+
+    @Test
+    public void testTruncatedSegment() throws Exception {
+        SegmentWriter writer = new SegmentWriter(tmp, "segment", Long.MAX_VALUE,
+                SegmentWriter.Compression.NONE, 1);
+        writer.write("a", metadataList("a", 0));
+        writer.write("b", metadataList("b", 0));
+        writer.close();
+
+        //as if the process had been killed after writing the index, but not the data
+        Path segment = list(".ndjson").get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 10));
+
+        try (SegmentReader reader = new SegmentReader(tmp)) {
+            assertEquals(metadataList("a", 0), reader.get("a"));
+            assertNull(reader.get("b"));
+        }
+    }
+
+    private FileSystemEmitter segmentEmitter(String compression) {
+        FileSystemEmitter emitter = new FileSystemEmitter();
+        emitter.setBasePath(tmp.toString());
+        emitter.setOutputMode("segments");
+        emitter.setMaxSegmentBytes(2048);
+        emitter.setSegmentCompression(compression);
+        emitter.setFsyncEvery(10);
+        return emitter;
+    }
+
+    private List<Path> list(String extension) throws Exception {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(tmp, "*" + extension)) {
+            ds.forEach(paths::add);
+        }
+        return paths;
+    }
+
+    private static List<Metadata> metadataList(String name, int embedded) {
+        List<Metadata> metadataList = new ArrayList<>();
+        Metadata m = new Metadata();
+        m.set(TikaCoreProperties.RESOURCE_NAME_KEY, name);
+        m.add("multi", "one");
+        m.add("multi", "two");
+        m.set(TikaCoreProperties.TIKA_CONTENT, "some content\nwith a line break");
+        metadataList.add(m);
+        for (int i = 0; i < embedded; i++) {
+            Metadata e = new Metadata();
+            e.set(TikaCoreProperties.EMBEDDED_RESOURCE_PATH, "/" + name + "-" + i);
+            metadataList.add(e);
+        }
+        return metadataList;
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.tika.pipes.emitter.gcs;
 
 import static org.apache.tika.config.TikaConfig.mustNotBeEmpty;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -47,20 +48,24 @@ import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.pipes.emitter.AbstractEmitter;
+import org.apache.tika.pipes.emitter.EmitBatchExecutor;
+import org.apache.tika.pipes.emitter.EmitData;
 import org.apache.tika.pipes.emitter.StreamEmitter;
 import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.serialization.JsonMetadataList;
 import org.apache.tika.utils.StringUtils;
 
 
-public class GCSEmitter extends AbstractEmitter implements Initializable, StreamEmitter {
+public class GCSEmitter extends AbstractEmitter implements Initializable, StreamEmitter, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GCSEmitter.class);
     private String projectId;
     private String bucket;
     private String fileExtension = "json";
     private String prefix = null;
+    private int maxInFlightUploads = 1;
     private Storage storage;
+    private volatile EmitBatchExecutor emitBatchExecutor;
 
     /**
      * Requires the src-bucket/path/to/my/file.txt in the {@link TikaCoreProperties#SOURCE_PATH}.
@@ -88,6 +93,20 @@ public class GCSEmitter extends AbstractEmitter implements Initializable, Stream
 
     }
 
+    /**
+     * Uploads up to <code>maxInFlightUploads</code> documents of the batch at the same time.
+     * This returns once all of them have been uploaded or have failed.
+     */
+    @Override
+    public void emit(List<? extends EmitData> emitData) throws IOException, TikaEmitterException {
+        EmitBatchExecutor executor = emitBatchExecutor;
+        if (executor == null) {
+            throw new TikaEmitterException("gcs emitter has not been initialized or has been closed");
+        }
+        executor.emitAll(emitData,
+                d -> emit(d.getEmitKey().getEmitKey(), d.getMetadataList(), d.getParseContext()));
+    }
+
     /**
      * @param path         -- object path, not including the bucket
      * @param is           inputStream to copy
@@ -168,6 +187,16 @@ public class GCSEmitter extends AbstractEmitter implements Initializable, Stream
         this.fileExtension = fileExtension;
     }
 
+    /**
+     * How many documents of a batch to upload at the same time.
+     * Default: 1, which uploads the documents one after the other.
+     *
+     * @param maxInFlightUploads
+     */
+    @Field
+    public void setMaxInFlightUploads(int maxInFlightUploads) {
+        this.maxInFlightUploads = maxInFlightUploads;
+    }
 
     /**
      * This initializes the gcs client.
@@ -179,11 +208,27 @@ public class GCSEmitter extends AbstractEmitter implements Initializable, Stream
     public void initialize(Map<String, Param> params) throws TikaConfigException {
         //params have already been set...ignore them
         //TODO -- add other params to the builder as needed
-        storage = StorageOptions
+        initialize(StorageOptions
                 .newBuilder()
                 .setProjectId(projectId)
                 .build()
-                .getService();
+                .getService());
+    }
+
+    void initialize(Storage storage) {
+        this.storage = storage;
+        emitBatchExecutor = new EmitBatchExecutor("gcs-emitter", maxInFlightUploads);
+    }
+
+    /**
+     * Shuts down the upload threads.
+     */
+    @Override
+    public void close() throws IOException {
+        if (emitBatchExecutor != null) {
+            emitBatchExecutor.close();
+            emitBatchExecutor = null;
+        }
     }
 
     @Override
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter.gcs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.pipes.emitter.EmitData;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.emitter.TikaEmitterException;
+import org.apache.tika.serialization.JsonMetadataList;
+
+public class GCSEmitterTest {
+
+    private final Map<String, String> uploaded = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Test
+    public void testNotInitialized() {
+        GCSEmitter emitter = new GCSEmitter();
+        assertThrows(TikaEmitterException.class,
+                () -> emitter.emit(Collections.singletonList(emitData("a"))));
+    }
+
+    @Test
+    public void testConcurrentBatch() throws Exception {
+        GCSEmitter emitter = new GCSEmitter();
+        emitter.setBucket("bucket");
+        emitter.setPrefix("out/");
+        emitter.setMaxInFlightUploads(4);
+        emitter.initialize(fakeStorage());
+
+        List<EmitData> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(emitData("doc-" + i));
+        }
+        batch.add(emitData("bad"));
+        TikaEmitterException e;
+        try {
+            e = assertThrows(TikaEmitterException.class, () -> emitter.emit(batch));
+        } finally {
+            emitter.close();
+        }
+        assertTrue(e.getMessage().contains("failed to emit 1 of 21 documents: [bad]"),
+                e.getMessage());
+        assertEquals(20, uploaded.size());
+        for (int i = 0; i < 20; i++) {
+            String json = uploaded.get("out/doc-" + i + ".json");
+            List<Metadata> metadataList = JsonMetadataList.fromJson(new StringReader(json));
+            assertEquals("doc-" + i, metadataList.get(0).get(TikaCoreProperties.RESOURCE_NAME_KEY));
+        }
+        assertTrue(maxInFlight.get() > 1, "max in flight: " + maxInFlight.get());
+        assertThrows(TikaEmitterException.class, () -> emitter.emit(batch));
+    }
+
+    private Storage fakeStorage() {
+        return Mockito.mock(Storage.class, invocation -> {
+            if (!"create".equals(invocation.getMethod().getName())) {
+                return null;
+            }
+            BlobInfo blobInfo = invocation.getArgument(0);
+            byte[] bytes = invocation.getArgument(1);
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+                if (blobInfo.getName().endsWith("bad.json")) {
+                    throw new StorageException(503, "unavailable");
+                }
+                uploaded.put(blobInfo.getName(), new String(bytes, StandardCharsets.UTF_8));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return null;
+        });
+    }
+
+    private static EmitData emitData(String key) {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, key);
+        return new EmitData(new EmitKey("gcs", key), Collections.singletonList(metadata));
+    }
+}
@@ -17,11 +17,18 @@
 package org.apache.tika.pipes.emitter.opensearch;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,10 +36,13 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.AbstractHttpEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
@@ -55,54 +65,144 @@ public class OpenSearchClient {
 
     private final MetadataToJsonWriter metadataToJsonWriter;
     private final String embeddedFileFieldName;
+    private final long maxBulkBytes;
+    private final boolean gzipRequests;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+
     protected OpenSearchClient(String openSearchUrl, HttpClient httpClient,
                                OpenSearchEmitter.AttachmentStrategy attachmentStrategy,
                                OpenSearchEmitter.UpdateStrategy updateStrategy,
                                String embeddedFileFieldName) {
+        this(openSearchUrl, httpClient, attachmentStrategy, updateStrategy, embeddedFileFieldName,
+                OpenSearchEmitter.DEFAULT_MAX_BULK_BYTES, false,
+                OpenSearchEmitter.DEFAULT_MAX_RETRIES,
+                OpenSearchEmitter.DEFAULT_RETRY_BACKOFF_MILLIS);
+    }
+
+    protected OpenSearchClient(String openSearchUrl, HttpClient httpClient,
+                               OpenSearchEmitter.AttachmentStrategy attachmentStrategy,
+                               OpenSearchEmitter.UpdateStrategy updateStrategy,
+                               String embeddedFileFieldName, long maxBulkBytes,
+                               boolean gzipRequests, int maxRetries, long retryBackoffMillis) {
         this.openSearchUrl = openSearchUrl;
         this.httpClient = httpClient;
         this.attachmentStrategy = attachmentStrategy;
         this.metadataToJsonWriter = (updateStrategy == OpenSearchEmitter.UpdateStrategy.OVERWRITE) ?
                 new InsertMetadataToJsonWriter() : new UpsertMetadataToJsonWriter();
         this.embeddedFileFieldName = embeddedFileFieldName;
+        this.maxBulkBytes = maxBulkBytes;
+        this.gzipRequests = gzipRequests;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = retryBackoffMillis;
     }
 
-
+    /**
+     * Sends the documents with as few bulk requests as possible, while keeping each
+     * request below <code>maxBulkBytes</code>. A document is never split across requests,
+     * so a document that is bigger than that is sent on its own.
+     */
     public void emitDocuments(List<? extends EmitData> emitData) throws IOException, TikaClientException {
-        StringBuilder json = new StringBuilder();
+        List<byte[]> batch = new ArrayList<>();
+        long batchBytes = 0;
         for (EmitData d : emitData) {
-            appendDoc(d.getEmitKey().getEmitKey(), d.getMetadataList(), json);
+            List<byte[]> actions = new ArrayList<>();
+            long docBytes = appendDoc(d.getEmitKey().getEmitKey(), d.getMetadataList(), actions);
+            if (!batch.isEmpty() && batchBytes + docBytes > maxBulkBytes) {
+                emitBulk(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.addAll(actions);
+            batchBytes += docBytes;
+        }
+        if (!batch.isEmpty()) {
+            emitBulk(batch);
         }
-        emitJson(json);
     }
 
-    private void emitJson(StringBuilder json) throws IOException, TikaClientException {
+    public void emitDocument(String emitKey, List<Metadata> metadataList) throws IOException,
+            TikaClientException {
+        List<byte[]> actions = new ArrayList<>();
+        appendDoc(emitKey, metadataList, actions);
+        emitBulk(actions);
+    }
+
+    /**
+     * Sends the actions and then resends the ones that failed with a status that
+     * may go away, e.g. 429 when the cluster is overloaded, up to
+     * <code>maxRetries</code> times. Actions that succeeded aren't sent again.
+     */
+    private void emitBulk(List<byte[]> actions) throws IOException, TikaClientException {
         String requestUrl = openSearchUrl + "/_bulk";
-        JsonResponse response = postJson(requestUrl, json.toString());
-        if (response.getStatus() != 200) {
-            throw new TikaClientException(response.getMsg());
-        } else {
-            //if there's a single error, throw the full json.
+        List<String> errors = new ArrayList<>();
+        List<byte[]> pending = actions;
+        for (int attempt = 0; ; attempt++) {
+            JsonResponse response = postBulk(requestUrl, pending);
+            if (response.getStatus() != 200) {
+                throw new TikaClientException(response.getMsg());
+            }
             //this has not been thoroughly tested with versions of es < 7
-            JsonNode errorNode = response.getJson().get("errors");
-            if (errorNode.asText().equals("true")) {
-                throw new TikaClientException(response.getJson().toString());
+            JsonNode root = response.getJson();
+            if (!root.path("errors").asBoolean()) {
+                break;
             }
+            List<byte[]> retry = new ArrayList<>();
+            JsonNode items = root.path("items");
+            for (int i = 0; i < items.size() && i < pending.size(); i++) {
+                //each item has a single field named after the action, e.g. "index"
+                JsonNode result = items.get(i).elements().next();
+                int status = result.path("status").asInt();
+                if (status >= 200 && status < 300) {
+                    continue;
+                }
+                if (isRetryable(status) && attempt < maxRetries) {
+                    retry.add(pending.get(i));
+                } else {
+                    errors.add(result.toString());
+                }
+            }
+            if (retry.isEmpty()) {
+                break;
+            }
+            LOG.warn("retrying {} of {} bulk actions", retry.size(), pending.size());
+            backoff(attempt);
+            pending = retry;
+        }
+        if (!errors.isEmpty()) {
+            throw new TikaClientException(
+                    "failed to emit " + errors.size() + " of " + actions.size() +
+                            " bulk actions: " + errors);
         }
     }
 
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
 
-    public void emitDocument(String emitKey, List<Metadata> metadataList) throws IOException,
-            TikaClientException {
-
-        StringBuilder json = new StringBuilder();
-        appendDoc(emitKey, metadataList, json);
-        emitJson(json);
+    private void backoff(int attempt) throws IOException {
+        long millis = retryBackoffMillis << Math.min(attempt, 10);
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting to retry");
+        }
     }
 
-    private void appendDoc(String emitKey, List<Metadata> metadataList, StringBuilder json)
+    /**
+     * Adds one bulk action per metadata object, each with its action line and
+     * its source line.
+     *
+     * @return the number of bytes that were added
+     */
+    private long appendDoc(String emitKey, List<Metadata> metadataList, List<byte[]> actions)
             throws IOException {
         int i = 0;
+        long bytes = 0;
         String routing = (attachmentStrategy == OpenSearchEmitter.AttachmentStrategy.PARENT_CHILD) ?
                 emitKey : null;
 
@@ -111,6 +211,7 @@ public class OpenSearchClient {
             if (i > 0) {
                 id.append("-").append(UUID.randomUUID());
             }
+            StringBuilder json = new StringBuilder();
             String indexJson = metadataToJsonWriter.getBulkJson(id.toString(), routing);
             json.append(indexJson).append("\n");
             if (i == 0) {
@@ -120,8 +221,12 @@ public class OpenSearchClient {
                         embeddedFileFieldName));
             }
             json.append("\n");
+            byte[] action = json.toString().getBytes(StandardCharsets.UTF_8);
+            actions.add(action);
+            bytes += action.length;
             i++;
         }
+        return bytes;
     }
 
     //Only here for testing. These may disappear without notice in the future.
@@ -141,8 +246,19 @@ public class OpenSearchClient {
     }
 
     public JsonResponse postJson(String url, String json) throws IOException {
+        return post(url, new StringEntity(json, StandardCharsets.UTF_8));
+    }
+
+    private JsonResponse postBulk(String url, List<byte[]> actions) throws IOException {
+        HttpEntity entity = new BulkEntity(actions);
+        if (gzipRequests) {
+            entity = new GzipCompressingEntity(entity);
+        }
+        return post(url, entity);
+    }
+
+    private JsonResponse post(String url, HttpEntity entity) throws IOException {
         HttpPost httpRequest = new HttpPost(url);
-        StringEntity entity = new StringEntity(json, StandardCharsets.UTF_8);
         httpRequest.setEntity(entity);
         httpRequest.setHeader("Accept", "application/json");
         httpRequest.setHeader("Content-type", "application/json; charset=utf-8");
@@ -180,6 +296,57 @@ public class OpenSearchClient {
         }
     }
 
+    /**
+     * Writes the bulk actions one after the other, without copying them into
+     * one big request body first.
+     */
+    private static class BulkEntity extends AbstractHttpEntity {
+
+        private final List<byte[]> actions;
+        private final long length;
+
+        private BulkEntity(List<byte[]> actions) {
+            this.actions = actions;
+            long sum = 0;
+            for (byte[] action : actions) {
+                sum += action.length;
+            }
+            this.length = sum;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getContent() {
+            List<InputStream> streams = new ArrayList<>(actions.size());
+            for (byte[] action : actions) {
+                streams.add(new ByteArrayInputStream(action));
+            }
+            return new SequenceInputStream(Collections.enumeration(streams));
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            for (byte[] action : actions) {
+                outputStream.write(action);
+            }
+            outputStream.flush();
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
     private interface MetadataToJsonWriter {
         String writeContainer(Metadata metadata, OpenSearchEmitter.AttachmentStrategy attachmentStrategy)
                 throws IOException;
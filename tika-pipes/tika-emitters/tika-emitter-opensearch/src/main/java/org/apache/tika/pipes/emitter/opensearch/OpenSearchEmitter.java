@@ -18,15 +18,18 @@ package org.apache.tika.pipes.emitter.opensearch;
 
 import static org.apache.tika.config.TikaConfig.mustNotBeEmpty;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.http.client.HttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.tika.client.HttpClientFactory;
+import org.apache.tika.client.HttpClientRegistry;
 import org.apache.tika.client.TikaClientException;
 import org.apache.tika.config.Field;
 import org.apache.tika.config.Initializable;
@@ -41,7 +44,7 @@ import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.utils.StringUtils;
 
 
-public class OpenSearchEmitter extends AbstractEmitter implements Initializable {
+public class OpenSearchEmitter extends AbstractEmitter implements Initializable, Closeable {
 
 
     public enum AttachmentStrategy {
@@ -55,6 +58,9 @@ public class OpenSearchEmitter extends AbstractEmitter implements Initializable
     }
 
     public static String DEFAULT_EMBEDDED_FILE_FIELD_NAME = "embedded";
+    public static final long DEFAULT_MAX_BULK_BYTES = 10 * 1024 * 1024;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 1000;
     private static final Logger LOG = LoggerFactory.getLogger(OpenSearchEmitter.class);
     private AttachmentStrategy attachmentStrategy = AttachmentStrategy.PARENT_CHILD;
 
@@ -62,9 +68,14 @@ public class OpenSearchEmitter extends AbstractEmitter implements Initializable
     private String openSearchUrl = null;
     private String idField = "_id";
     private int commitWithin = 1000;
+    private HttpClient httpClient;
     private OpenSearchClient openSearchClient;
     private final HttpClientFactory httpClientFactory;
     private String embeddedFileFieldName = DEFAULT_EMBEDDED_FILE_FIELD_NAME;
+    private long maxBulkBytes = DEFAULT_MAX_BULK_BYTES;
+    private boolean gzipRequests = false;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
 
     public OpenSearchEmitter() throws TikaConfigException {
         httpClientFactory = new HttpClientFactory();
@@ -219,15 +230,69 @@ public class OpenSearchEmitter extends AbstractEmitter implements Initializable
     }
 
 
+    /**
+     * Batches are split into bulk requests of at most this many bytes of NDJSON.
+     * A document that is bigger than this on its own is sent in its own request.
+     * Default is 10MB.
+     *
+     * @param maxBulkBytes
+     */
+    @Field
+    public void setMaxBulkBytes(long maxBulkBytes) {
+        this.maxBulkBytes = maxBulkBytes;
+    }
+
+    /**
+     * Gzip the bodies of the bulk requests. Default is <code>false</code>.
+     *
+     * @param gzipRequests
+     */
+    @Field
+    public void setGzipRequests(boolean gzipRequests) {
+        this.gzipRequests = gzipRequests;
+    }
+
+    /**
+     * How many times to resend the items of a bulk request that failed with a
+     * status of 429 or 5xx. Items that succeeded are not sent again. Default is 3.
+     *
+     * @param maxRetries
+     */
+    @Field
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * How long to wait before the first retry. This doubles with each retry.
+     * Default is 1000 ms.
+     *
+     * @param retryBackoffMillis
+     */
+    @Field
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
     @Override
     public void initialize(Map<String, Param> params) throws TikaConfigException {
         if (StringUtils.isBlank(openSearchUrl)) {
             throw new TikaConfigException("Must specify an open search url!");
         } else {
+            httpClient = httpClientFactory.buildShared();
             openSearchClient =
                     new OpenSearchClient(openSearchUrl,
-                            httpClientFactory.build(), attachmentStrategy, updateStrategy,
-                            embeddedFileFieldName);
+                            httpClient, attachmentStrategy, updateStrategy,
+                            embeddedFileFieldName, maxBulkBytes, gzipRequests, maxRetries,
+                            retryBackoffMillis);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (httpClient != null) {
+            HttpClientRegistry.getInstance().release(httpClient);
+            httpClient = null;
         }
     }
 
@@ -16,13 +16,65 @@
  */
 package org.apache.tika.pipes.emitter.opensearch;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.apache.tika.TikaTest;
+import org.apache.tika.client.TikaClientException;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.pipes.emitter.EmitData;
+import org.apache.tika.pipes.emitter.EmitKey;
 
 public class OpenSearchClientTest extends TikaTest {
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    //ids of the bulk actions in each request that the stub server received
+    private final List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+    private final List<Boolean> gzipped = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> seen = Collections.synchronizedSet(new HashSet<>());
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/my-index/_bulk", this::handleBulk);
+        server.start();
+        httpClient = HttpClients.createDefault();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
     @Test
     public void testSerialization() throws Exception {
         Metadata metadata = new Metadata();
@@ -49,4 +101,120 @@ public class OpenSearchClientTest extends TikaTest {
         }
 
     }
+
+    @Test
+    public void testSplitByBytes() throws Exception {
+        List<EmitData> docs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            docs.add(emitData("doc" + i, 1000));
+        }
+        //one byte per request means one document per request
+        newClient(1, false).emitDocuments(docs);
+        assertEquals(5, requests.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Collections.singletonList("doc" + i), requests.get(i));
+        }
+
+        requests.clear();
+        newClient(2500, false).emitDocuments(docs);
+        assertEquals(3, requests.size());
+        assertEquals(List.of("doc0", "doc1"), requests.get(0));
+        assertEquals(List.of("doc2", "doc3"), requests.get(1));
+        assertEquals(List.of("doc4"), requests.get(2));
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        newClient(OpenSearchEmitter.DEFAULT_MAX_BULK_BYTES, true)
+                .emitDocuments(List.of(emitData("doc0", 100), emitData("doc1", 100)));
+        assertEquals(List.of(List.of("doc0", "doc1")), requests);
+        assertEquals(List.of(true), gzipped);
+    }
+
+    @Test
+    public void testRetryFailedItems() throws Exception {
+        List<EmitData> docs = List.of(emitData("doc0", 10), emitData("retry-doc1", 10),
+                emitData("doc2", 10));
+        newClient(OpenSearchEmitter.DEFAULT_MAX_BULK_BYTES, false).emitDocuments(docs);
+        //only the item that failed with a 429 is sent again
+        assertEquals(List.of(List.of("doc0", "retry-doc1", "doc2"), List.of("retry-doc1")),
+                requests);
+
+        requests.clear();
+        List<EmitData> withBadDoc = List.of(emitData("doc3", 10), emitData("bad-doc4", 10),
+                emitData("retry-doc5", 10));
+        TikaClientException e = assertThrows(TikaClientException.class,
+                () -> newClient(OpenSearchEmitter.DEFAULT_MAX_BULK_BYTES, false)
+                        .emitDocuments(withBadDoc));
+        //a 400 isn't retried
+        assertEquals(List.of(List.of("doc3", "bad-doc4", "retry-doc5"), List.of("retry-doc5")),
+                requests);
+        assertTrue(e.getMessage().startsWith("failed to emit 1 of 3 bulk actions"));
+        assertContains("mapper_parsing_exception", e.getMessage());
+    }
+
+    private OpenSearchClient newClient(long maxBulkBytes, boolean gzip) {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/my-index";
+        return new OpenSearchClient(url, httpClient,
+                OpenSearchEmitter.AttachmentStrategy.SEPARATE_DOCUMENTS,
+                OpenSearchEmitter.UpdateStrategy.OVERWRITE,
+                OpenSearchEmitter.DEFAULT_EMBEDDED_FILE_FIELD_NAME, maxBulkBytes, gzip, 3, 0);
+    }
+
+    private static EmitData emitData(String id, int contentLength) {
+        Metadata metadata = new Metadata();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < contentLength; i++) {
+            content.append('a');
+        }
+        metadata.set("content", content.toString());
+        return new EmitData(new EmitKey("os", id), List.of(metadata));
+    }
+
+    /**
+     * Items with an id that starts with "retry-" fail with a 429 the first time and
+     * items with an id that starts with "bad-" always fail with a 400.
+     */
+    private void handleBulk(HttpExchange exchange) throws IOException {
+        boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        gzipped.add(gzip);
+        List<String> ids = new ArrayList<>();
+        StringBuilder items = new StringBuilder();
+        boolean errors = false;
+        InputStream body = gzip ? new GZIPInputStream(exchange.getRequestBody()) :
+                exchange.getRequestBody();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            while (line != null) {
+                JsonNode action = MAPPER.readTree(line).get("index");
+                //skip the source
+                reader.readLine();
+                String id = action.get("_id").asText();
+                ids.add(id);
+                String item;
+                if (id.startsWith("bad-")) {
+                    item = "{\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\"}}";
+                    errors = true;
+                } else if (id.startsWith("retry-") && seen.add(id)) {
+                    item = "{\"status\":429,\"error\":{\"type\":\"es_rejected_execution\"}}";
+                    errors = true;
+                } else {
+                    item = "{\"status\":201}";
+                }
+                if (items.length() > 0) {
+                    items.append(',');
+                }
+                items.append("{\"index\":").append(item).append('}');
+                line = reader.readLine();
+            }
+        }
+        requests.add(ids);
+        byte[] response = ("{\"errors\":" + errors + ",\"items\":[" + items + "]}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
 }
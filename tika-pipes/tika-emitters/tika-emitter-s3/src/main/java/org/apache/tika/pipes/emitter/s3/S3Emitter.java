@@ -19,6 +19,7 @@ package org.apache.tika.pipes.emitter.s3;
 import static org.apache.tika.config.TikaConfig.mustNotBeEmpty;
 
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -29,6 +30,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.ClientConfiguration;
@@ -42,6 +45,8 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +63,8 @@ import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.pipes.emitter.AbstractEmitter;
+import org.apache.tika.pipes.emitter.EmitBatchExecutor;
+import org.apache.tika.pipes.emitter.EmitData;
 import org.apache.tika.pipes.emitter.StreamEmitter;
 import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.serialization.JsonMetadataList;
@@ -91,12 +98,15 @@ import org.apache.tika.utils.StringUtils;
  *                  &lt;!-- optional; default is 'true'-- whether to copy the
  *                     json to a local file before putting to s3 --&gt;
  *                  &lt;param name="spoolToTemp" type="bool"&gt;true&lt;/param&gt;
+ *                  &lt;!-- optional; default is 1-- how many documents of a batch to
+ *                     upload at the same time --&gt;
+ *                  &lt;param name="maxInFlightUploads" type="int"&gt;1&lt;/param&gt;
  *              &lt;/params&gt;
  *          &lt;/emitter&gt;
  *      &lt;/emitters&gt;
  *  &lt;/properties&gt;</pre>
  */
-public class S3Emitter extends AbstractEmitter implements Initializable, StreamEmitter {
+public class S3Emitter extends AbstractEmitter implements Initializable, StreamEmitter, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(S3Emitter.class);
     private String region;
@@ -111,7 +121,10 @@ public class S3Emitter extends AbstractEmitter implements Initializable, StreamE
     private String prefix = null;
     private int maxConnections = ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
     private boolean pathStyleAccessEnabled = false;
+    private int maxInFlightUploads = 1;
     private AmazonS3 s3Client;
+    private volatile TransferManager transferManager;
+    private volatile EmitBatchExecutor emitBatchExecutor;
 
     /**
      * Requires the src-bucket/path/to/my/file.txt in the {@link TikaCoreProperties#SOURCE_PATH}.
@@ -154,6 +167,20 @@ public class S3Emitter extends AbstractEmitter implements Initializable, StreamE
         }
     }
 
+    /**
+     * Uploads up to <code>maxInFlightUploads</code> documents of the batch at the same time.
+     * This returns once all of them have been uploaded or have failed.
+     */
+    @Override
+    public void emit(List<? extends EmitData> emitData) throws IOException, TikaEmitterException {
+        EmitBatchExecutor executor = emitBatchExecutor;
+        if (executor == null) {
+            throw new TikaEmitterException("s3 emitter has not been initialized or has been closed");
+        }
+        executor.emitAll(emitData,
+                d -> emit(d.getEmitKey().getEmitKey(), d.getMetadataList(), d.getParseContext()));
+    }
+
     /**
      * @param path         -- object path, not including the bucket
      * @param is           inputStream to copy
@@ -188,9 +215,20 @@ public class S3Emitter extends AbstractEmitter implements Initializable, StreamE
             if (((TikaInputStream) is).hasFile()) {
                 try {
                     PutObjectRequest putObjectRequest = new PutObjectRequest(bucket, path, ((TikaInputStream) is).getFile()).withMetadata(objectMetadata);
-                    s3Client.putObject(putObjectRequest);
+                    TransferManager tm = transferManager;
+                    if (tm != null) {
+                        //large files are uploaded in parts
+                        tm.upload(putObjectRequest).waitForCompletion();
+                    } else {
+                        s3Client.putObject(putObjectRequest);
+                    }
                 } catch (IOException e) {
                     throw new TikaEmitterException("exception sending underlying file", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TikaEmitterException("interrupted while uploading", e);
+                } catch (AmazonClientException e) {
+                    throw new IOException("problem writing s3object", e);
                 }
                 return;
             }
@@ -279,6 +317,19 @@ public class S3Emitter extends AbstractEmitter implements Initializable, StreamE
         this.maxConnections = maxConnections;
     }
 
+    /**
+     * How many documents of a batch to upload at the same time. If this is greater
+     * than 1, files are uploaded with a {@link TransferManager}, which uploads large
+     * files in parts. Default: 1, which uploads the documents one after the other.
+     * Each upload needs its own http connection, see {@link #setMaxConnections(int)}.
+     *
+     * @param maxInFlightUploads
+     */
+    @Field
+    public void setMaxInFlightUploads(int maxInFlightUploads) {
+        this.maxInFlightUploads = maxInFlightUploads;
+    }
+
     @Field
     public void setEndpointConfigurationService(String endpointConfigurationService) {
         this.endpointConfigurationService = endpointConfigurationService;
@@ -317,9 +368,38 @@ public class S3Emitter extends AbstractEmitter implements Initializable, StreamE
                 amazonS3ClientBuilder.withRegion(region);
             }
             s3Client = amazonS3ClientBuilder.build();
+            if (maxInFlightUploads > 1) {
+                //the default pool's threads aren't daemons and would keep the jvm alive
+                AtomicInteger threadCount = new AtomicInteger();
+                transferManager = TransferManagerBuilder
+                        .standard()
+                        .withS3Client(s3Client)
+                        .withExecutorFactory(() -> Executors.newFixedThreadPool(maxInFlightUploads, r -> {
+                            Thread thread = new Thread(r, "s3-emitter-transfer-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }))
+                        .build();
+            }
         } catch (AmazonClientException e) {
             throw new TikaConfigException("can't initialize s3 emitter", e);
         }
+        emitBatchExecutor = new EmitBatchExecutor("s3-emitter", maxInFlightUploads);
+    }
+
+    /**
+     * Shuts down the upload threads. The s3 client itself is left alone.
+     */
+    @Override
+    public void close() throws IOException {
+        if (transferManager != null) {
+            transferManager.shutdownNow(false);
+            transferManager = null;
+        }
+        if (emitBatchExecutor != null) {
+            emitBatchExecutor.close();
+            emitBatchExecutor = null;
+        }
     }
 
     @Override
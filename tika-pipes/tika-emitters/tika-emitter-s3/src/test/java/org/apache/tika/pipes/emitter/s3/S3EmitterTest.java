@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter.s3;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.pipes.emitter.EmitData;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.emitter.TikaEmitterException;
+
+public class S3EmitterTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final Set<String> uploaded = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        //a minimal stand-in for s3's put object
+        server.createContext("/", exchange -> {
+            byte[] body;
+            try (InputStream is = exchange.getRequestBody()) {
+                body = is.readAllBytes();
+            }
+            if ("PUT".equals(exchange.getRequestMethod())) {
+                uploaded.add(exchange.getRequestURI().getPath());
+            }
+            //the body may be aws-chunked, so echo the client's md5 when it sends one
+            String contentMd5 = exchange.getRequestHeaders().getFirst("Content-MD5");
+            byte[] md5 = contentMd5 != null ? Base64.getDecoder().decode(contentMd5) : md5(body);
+            exchange.getResponseHeaders().add("ETag", "\"" + hex(md5) + "\"");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testNotInitialized() {
+        S3Emitter emitter = new S3Emitter();
+        assertThrows(TikaEmitterException.class,
+                () -> emitter.emit(Collections.singletonList(emitData("a"))));
+    }
+
+    @Test
+    public void testConcurrentBatch() throws Exception {
+        S3Emitter emitter = getEmitter(4);
+        List<EmitData> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(emitData("doc-" + i));
+        }
+        try {
+            emitter.emit(batch);
+        } finally {
+            emitter.close();
+        }
+        assertEquals(20, uploaded.size());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(uploaded.contains("/bucket/doc-" + i + ".json"), "doc-" + i);
+        }
+        //after close, no upload threads are left to keep the jvm alive
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.isAlive() && t.getName().startsWith("s3-emitter")) {
+                t.join(10000);
+                assertFalse(t.isAlive(), t.getName());
+            }
+        }
+        assertThrows(TikaEmitterException.class, () -> emitter.emit(batch));
+    }
+
+    private S3Emitter getEmitter(int maxInFlightUploads) throws Exception {
+        S3Emitter emitter = new S3Emitter();
+        emitter.setBucket("bucket");
+        emitter.setRegion("us-east-1");
+        emitter.setCredentialsProvider("key_secret");
+        emitter.setAccessKey("key");
+        emitter.setSecretKey("secret");
+        emitter.setPathStyleAccessEnabled(true);
+        emitter.setEndpointConfigurationService(
+                "http://localhost:" + server.getAddress().getPort());
+        emitter.setMaxInFlightUploads(maxInFlightUploads);
+        emitter.initialize(new HashMap<>());
+        return emitter;
+    }
+
+    private static EmitData emitData(String key) {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, key);
+        return new EmitData(new EmitKey("s3", key), Collections.singletonList(metadata));
+    }
+
+    private static byte[] md5(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format(Locale.ROOT, "%02x", b));
+        }
+        return sb.toString();
+    }
+}
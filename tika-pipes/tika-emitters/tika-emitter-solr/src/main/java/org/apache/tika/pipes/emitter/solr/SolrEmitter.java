@@ -18,8 +18,10 @@ package org.apache.tika.pipes.emitter.solr;
 
 import static org.apache.tika.config.TikaConfig.mustNotBeEmpty;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,17 +29,21 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.http.client.HttpClient;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
 import org.apache.solr.client.solrj.impl.LBHttpSolrClient;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.tika.client.HttpClientFactory;
+import org.apache.tika.client.HttpClientRegistry;
 import org.apache.tika.config.Field;
 import org.apache.tika.config.Initializable;
 import org.apache.tika.config.InitializableProblemHandler;
@@ -51,9 +57,10 @@ import org.apache.tika.pipes.emitter.TikaEmitterException;
 import org.apache.tika.utils.StringUtils;
 
 
-public class SolrEmitter extends AbstractEmitter implements Initializable {
+public class SolrEmitter extends AbstractEmitter implements Initializable, Closeable {
 
     public static String DEFAULT_EMBEDDED_FILE_FIELD_NAME = "embedded";
+    public static final long DEFAULT_MAX_BATCH_BYTES = 10 * 1024 * 1024;
     private static final Logger LOG = LoggerFactory.getLogger(SolrEmitter.class);
     private final HttpClientFactory httpClientFactory;
     private AttachmentStrategy attachmentStrategy = AttachmentStrategy.PARENT_CHILD;
@@ -70,7 +77,10 @@ public class SolrEmitter extends AbstractEmitter implements Initializable {
     private int connectionTimeout = 10000;
     private int socketTimeout = 60000;
     private SolrClient solrClient;
+    //only set if it came from the HttpClientRegistry
+    private HttpClient httpClient;
     private String embeddedFileFieldName = DEFAULT_EMBEDDED_FILE_FIELD_NAME;
+    private long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
 
     public SolrEmitter() throws TikaConfigException {
         httpClientFactory = new HttpClientFactory();
@@ -150,21 +160,122 @@ public class SolrEmitter extends AbstractEmitter implements Initializable {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Emitting solr doc batch: {}", docsToUpdate);
         }
-        if (!docsToUpdate.isEmpty()) {
-            try {
-                UpdateRequest req = new UpdateRequest();
-                req.add(docsToUpdate);
-                req.setCommitWithin(commitWithin);
-                req.setParam("failOnVersionConflicts", "false");
-                UpdateResponse updateResponse = req.process(solrClient, solrCollection);
-                LOG.debug("update response: " + updateResponse);
-                if (updateResponse.getStatus() != 0) {
-                    throw new TikaEmitterException("Bad status: " + updateResponse);
+        List<String> failedIds = new ArrayList<>();
+        List<Exception> badRequests = new ArrayList<>();
+        List<SolrInputDocument> batch = new ArrayList<>();
+        long batchSize = 0;
+        try {
+            for (SolrInputDocument doc : docsToUpdate) {
+                long docSize = estimateSize(doc);
+                if (!batch.isEmpty() && batchSize + docSize > maxBatchBytes) {
+                    emitSolrBatch(batch, failedIds, badRequests);
+                    batch = new ArrayList<>();
+                    batchSize = 0;
                 }
-            } catch (Exception e) {
+                batch.add(doc);
+                batchSize += docSize;
+            }
+            if (!batch.isEmpty()) {
+                emitSolrBatch(batch, failedIds, badRequests);
+            }
+        } catch (TikaEmitterException e) {
+            if (!failedIds.isEmpty()) {
+                LOG.warn("solr rejected these docs before the batch failed: {}", failedIds);
+            }
+            throw e;
+        }
+        if (failedIds.isEmpty()) {
+            return;
+        }
+        throw new TikaEmitterException("Could not add " + failedIds.size() + " of " +
+                docsToUpdate.size() + " docs to solr: " + failedIds, badRequests.get(0));
+    }
+
+    /**
+     * Sends one update request. If solr rejects a request with more than one
+     * document as a bad request, the request is split in two and each half is sent
+     * again, so that only the bad documents are left out. Any other failure, e.g.
+     * solr being down, is thrown right away, and the rest of the batch is not sent.
+     */
+    private void emitSolrBatch(List<SolrInputDocument> batch, List<String> failedIds,
+                               List<Exception> badRequests) throws TikaEmitterException {
+        UpdateResponse updateResponse;
+        try {
+            UpdateRequest req = new UpdateRequest();
+            req.add(batch);
+            req.setCommitWithin(commitWithin);
+            req.setParam("failOnVersionConflicts", "false");
+            updateResponse = req.process(solrClient, solrCollection);
+        } catch (Exception e) {
+            if (!isBadRequest(e)) {
                 throw new TikaEmitterException("Could not add batch to solr", e);
+            } else if (batch.size() == 1) {
+                failedIds.add(String.valueOf(batch.get(0).getFieldValue(idField)));
+                badRequests.add(e);
+            } else {
+                LOG.warn("solr rejected a batch of {} docs, splitting it to find the bad ones",
+                        batch.size());
+                int half = batch.size() / 2;
+                emitSolrBatch(batch.subList(0, half), failedIds, badRequests);
+                emitSolrBatch(batch.subList(half, batch.size()), failedIds, badRequests);
+            }
+            return;
+        }
+        LOG.debug("update response: " + updateResponse);
+        if (updateResponse.getStatus() != 0) {
+            throw new TikaEmitterException("Bad status: " + updateResponse);
+        }
+    }
+
+    private static boolean isBadRequest(Throwable t) {
+        while (t != null) {
+            if (t instanceof SolrException) {
+                return ((SolrException) t).code() == SolrException.ErrorCode.BAD_REQUEST.code;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of characters in the field names and values, which is a
+     * rough estimate of the size of the document in the request
+     */
+    private static long estimateSize(SolrInputDocument doc) {
+        long size = 0;
+        for (SolrInputField field : doc) {
+            size += field.getName().length() + estimateSize(field.getValue());
+        }
+        if (doc.hasChildDocuments()) {
+            for (SolrInputDocument child : doc.getChildDocuments()) {
+                size += estimateSize(child);
             }
         }
+        return size;
+    }
+
+    private static long estimateSize(Object value) {
+        long size = 0;
+        if (value == null) {
+            return size;
+        } else if (value instanceof SolrInputDocument) {
+            size = estimateSize((SolrInputDocument) value);
+        } else if (value instanceof Collection) {
+            for (Object o : (Collection<?>) value) {
+                size += estimateSize(o);
+            }
+        } else if (value instanceof Object[]) {
+            for (Object o : (Object[]) value) {
+                size += estimateSize(o);
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                size += estimateSize(e.getKey()) + estimateSize(e.getValue());
+            }
+        } else {
+            size = value.toString().length();
+        }
+        return size;
     }
 
     private void addMetadataToSolrInputDocument(Metadata metadata,
@@ -307,6 +418,19 @@ public class SolrEmitter extends AbstractEmitter implements Initializable {
         this.embeddedFileFieldName = embeddedFileFieldName;
     }
 
+    /**
+     * Batches are split into update requests of about this many bytes. The size
+     * of a document is estimated from the length of its field names and values.
+     * A document that is bigger than this on its own is sent in its own request.
+     * Default is 10MB.
+     *
+     * @param maxBatchBytes
+     */
+    @Field
+    public void setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
     @Override
     public void initialize(Map<String, Param> params) throws TikaConfigException {
         if (solrUrls == null || solrUrls.isEmpty()) {
@@ -326,12 +450,36 @@ public class SolrEmitter extends AbstractEmitter implements Initializable {
                     .build();
 
         } else {
+            httpClient = httpClientFactory.buildShared();
             solrClient = new LBHttpSolrClient.Builder().withConnectionTimeout(connectionTimeout, TimeUnit.MILLISECONDS)
-                    .withSocketTimeout(socketTimeout, TimeUnit.MILLISECONDS).withHttpClient(httpClientFactory.build())
+                    .withSocketTimeout(socketTimeout, TimeUnit.MILLISECONDS).withHttpClient(httpClient)
                     .withBaseEndpoints(solrUrls.toArray(new String[]{})).build();
         }
     }
 
+    void initialize(SolrClient solrClient) {
+        this.solrClient = solrClient;
+    }
+
+    /**
+     * Closes the solr client and hands the shared http client back to the
+     * {@link HttpClientRegistry}.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (solrClient != null) {
+                solrClient.close();
+                solrClient = null;
+            }
+        } finally {
+            if (httpClient != null) {
+                HttpClientRegistry.getInstance().release(httpClient);
+                httpClient = null;
+            }
+        }
+    }
+
     @Override
     public void checkInitialization(InitializableProblemHandler problemHandler)
             throws TikaConfigException {
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.pipes.emitter.solr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.pipes.emitter.EmitData;
+import org.apache.tika.pipes.emitter.EmitKey;
+import org.apache.tika.pipes.emitter.TikaEmitterException;
+
+public class SolrEmitterTest {
+
+    @Test
+    public void testSplitBySize() throws Exception {
+        StubSolrClient client = new StubSolrClient();
+        SolrEmitter emitter = getEmitter(client);
+        //each doc is a bit over 100 chars
+        emitter.setMaxBatchBytes(350);
+        emitter.emit(batch(10));
+
+        assertEquals(4, client.requests.size());
+        assertEquals(10, client.indexedIds().size());
+        for (List<String> request : client.requests) {
+            assertTrue(request.size() <= 3, "request size: " + request.size());
+        }
+    }
+
+    @Test
+    public void testBadRequestIsBisected() throws Exception {
+        StubSolrClient client = new StubSolrClient();
+        client.badIds.add("doc-5");
+        SolrEmitter emitter = getEmitter(client);
+        TikaEmitterException e = assertThrows(TikaEmitterException.class,
+                () -> emitter.emit(batch(8)));
+
+        assertTrue(e.getMessage().contains("Could not add 1 of 8 docs to solr: [doc-5]"),
+                e.getMessage());
+        List<String> indexed = client.indexedIds();
+        assertEquals(7, indexed.size());
+        assertTrue(!indexed.contains("doc-5"));
+        //8 -> 4 + 4 -> 2 + 2 -> 1 + 1
+        assertEquals(7, client.requests.size());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        StubSolrClient client = new StubSolrClient();
+        client.down = true;
+        SolrEmitter emitter = getEmitter(client);
+        emitter.setMaxBatchBytes(350);
+        TikaEmitterException e = assertThrows(TikaEmitterException.class,
+                () -> emitter.emit(batch(10)));
+        assertTrue(e.getCause() instanceof SolrServerException);
+        //the remaining chunks are not sent to a server that is down
+        assertEquals(1, client.requests.size());
+    }
+
+    private static SolrEmitter getEmitter(SolrClient client) throws Exception {
+        SolrEmitter emitter = new SolrEmitter();
+        emitter.setSolrCollection("collection");
+        emitter.initialize(client);
+        return emitter;
+    }
+
+    private static List<EmitData> batch(int size) {
+        List<EmitData> batch = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Metadata metadata = new Metadata();
+            metadata.set(TikaCoreProperties.TIKA_CONTENT, String.format("%090d", i));
+            batch.add(new EmitData(new EmitKey("solr", "doc-" + i),
+                    Collections.singletonList(metadata)));
+        }
+        return batch;
+    }
+
+    private static class StubSolrClient extends SolrClient {
+        private final List<List<String>> requests = new ArrayList<>();
+        private final List<List<String>> indexed = new ArrayList<>();
+        private final List<String> badIds = new ArrayList<>();
+        private boolean down = false;
+
+        @Override
+        public NamedList<Object> request(SolrRequest<?> request, String collection)
+                throws SolrServerException, IOException {
+            List<String> ids = new ArrayList<>();
+            for (SolrInputDocument doc : ((UpdateRequest) request).getDocuments()) {
+                ids.add((String) doc.getFieldValue("id"));
+            }
+            requests.add(ids);
+            if (down) {
+                throw new SolrServerException("connection refused");
+            }
+            for (String id : ids) {
+                if (badIds.contains(id)) {
+                    throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "bad doc " + id);
+                }
+            }
+            indexed.add(ids);
+            NamedList<Object> header = new NamedList<>();
+            header.add("status", 0);
+            NamedList<Object> response = new NamedList<>();
+            response.add("responseHeader", header);
+            return response;
+        }
+
+        List<String> indexedIds() {
+            List<String> ids = new ArrayList<>();
+            indexed.forEach(ids::addAll);
+            return ids;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.apache.tika.pipes.fetcher.http;
 
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -62,6 +63,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.tika.client.HttpClientFactory;
+import org.apache.tika.client.HttpClientRegistry;
 import org.apache.tika.config.Field;
 import org.apache.tika.config.Initializable;
 import org.apache.tika.config.InitializableProblemHandler;
@@ -88,7 +90,7 @@ import org.apache.tika.utils.StringUtils;
 /**
  * Based on Apache httpclient
  */
-public class HttpFetcher extends AbstractFetcher implements Initializable, RangeFetcher {
+public class HttpFetcher extends AbstractFetcher implements Initializable, RangeFetcher, Closeable {
     public HttpFetcher() {
 
     }
@@ -645,10 +647,10 @@ public class HttpFetcher extends AbstractFetcher implements Initializable, Range
             httpClientFactory.setProxyHost(httpFetcherConfig.getProxyHost());
             httpClientFactory.setProxyPort(httpFetcherConfig.getProxyPort());
         }
-        httpClient = httpClientFactory.build();
+        httpClient = httpClientFactory.buildShared();
         HttpClientFactory cp = httpClientFactory.copy();
         cp.setDisableContentCompression(true);
-        noCompressHttpClient = cp.build();
+        noCompressHttpClient = cp.buildShared();
 
         if (!StringUtils.isBlank(httpFetcherConfig.getJwtPrivateKeyBase64())) {
             PrivateKey key = JwtPrivateKeyCreds.convertBase64ToPrivateKey(httpFetcherConfig.getJwtPrivateKeyBase64());
@@ -661,6 +663,25 @@ public class HttpFetcher extends AbstractFetcher implements Initializable, Range
         }
     }
 
+    /**
+     * Hands the shared http clients back to the {@link HttpClientRegistry}.
+     */
+    @Override
+    public void close() throws IOException {
+        HttpClientRegistry registry = HttpClientRegistry.getInstance();
+        try {
+            if (httpClient != null) {
+                registry.release(httpClient);
+                httpClient = null;
+            }
+        } finally {
+            if (noCompressHttpClient != null) {
+                registry.release(noCompressHttpClient);
+                noCompressHttpClient = null;
+            }
+        }
+    }
+
     @Override
     public void checkInitialization(InitializableProblemHandler problemHandler) throws TikaConfigException {
         if (!StringUtils.isBlank(httpFetcherConfig.getJwtSecret()) && !StringUtils.isBlank(httpFetcherConfig.getJwtPrivateKeyBase64())) {
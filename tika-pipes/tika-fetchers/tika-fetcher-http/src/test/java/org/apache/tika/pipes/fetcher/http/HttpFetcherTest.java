@@ -63,6 +63,7 @@ import org.mockito.Mockito;
 
 import org.apache.tika.TikaTest;
 import org.apache.tika.client.HttpClientFactory;
+import org.apache.tika.client.HttpClientRegistry;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.metadata.Metadata;
@@ -265,6 +266,23 @@ class HttpFetcherTest extends TikaTest {
         }
     }
 
+    @Test
+    public void testCloseReleasesClients() throws Exception {
+        //a configuration that no other fetcher shares a client with
+        httpFetcherConfig.setSocketTimeout(123_456);
+        HttpFetcher fetcher = new HttpFetcher();
+        fetcher.setHttpFetcherConfig(httpFetcherConfig);
+        fetcher.initialize(Collections.emptyMap());
+        HttpClient client = fetcher.getHttpClient();
+        int clients = HttpClientRegistry.getInstance().size();
+
+        fetcher.close();
+        //the fetcher held the last references, so both of its clients are closed
+        assertEquals(clients - 2, HttpClientRegistry.getInstance().size());
+        assertThrows(IllegalStateException.class,
+                () -> client.execute(new HttpGet("http://localhost:1/")));
+    }
+
     FetcherManager getFetcherManager(String path) throws Exception {
         return FetcherManager.load(Paths.get(HttpFetcherTest.class
                 .getResource("/" + path)
@@ -278,7 +296,7 @@ class HttpFetcherTest extends TikaTest {
         final HttpClientFactory clientFactory = mock(HttpClientFactory.class);
 
         when(httpClient.execute(any(HttpUriRequest.class), any(HttpContext.class))).thenReturn(response);
-        when(clientFactory.build()).thenReturn(httpClient);
+        when(clientFactory.buildShared()).thenReturn(httpClient);
         when(clientFactory.copy()).thenReturn(clientFactory);
 
         httpFetcher.setHttpClientFactory(clientFactory);
@@ -29,7 +29,9 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
@@ -258,6 +260,32 @@ public class HttpClientFactory {
 
 
     public HttpClient build() throws TikaConfigException {
+        return newBuilder().build();
+    }
+
+    /**
+     * Returns a client from {@link HttpClientRegistry#getInstance()}. Components that
+     * are configured the same way get the same client, so they share one connection pool
+     * and reuse each other's connections to a host.
+     * <p>
+     * Hand the client back with {@link HttpClientRegistry#release(HttpClient)} when
+     * it is no longer needed.
+     */
+    public HttpClient buildShared() throws TikaConfigException {
+        return HttpClientRegistry.getInstance().acquire(this);
+    }
+
+    /**
+     * @return everything that goes into the client that {@link #build()} would return
+     */
+    List<Object> getConfigKey() {
+        return Arrays.asList(proxyHost, proxyPort, new TreeSet<>(allowedHostsForRedirect),
+                maxConnectionsPerRoute, maxConnections, requestTimeout, connectTimeout,
+                socketTimeout, keepAliveOnBadKeepAliveValueMs, userName, password, ntDomain,
+                authScheme, credentialsAESEncrypted, disableContentCompression);
+    }
+
+    HttpClientBuilder newBuilder() throws TikaConfigException {
         LOG.info("http client does not verify ssl at this point.  " +
                 "If you need that, please open a ticket.");
         TrustStrategy acceptingTrustStrategy = (cert, authType) -> true;
@@ -294,8 +322,7 @@ public class HttpClientFactory {
                         .setConnectionRequestTimeout(requestTimeout)
                         .setConnectionRequestTimeout(connectTimeout).setSocketTimeout(socketTimeout)
                         .build()).setKeepAliveStrategy(getKeepAliveStrategy())
-                .setSSLSocketFactory(sslsf).setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
-                .build();
+                .setSSLSocketFactory(sslsf).setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE);
     }
 
     private void addProxy(HttpClientBuilder builder) {
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.client;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import org.apache.tika.exception.TikaConfigException;
+
+/**
+ * Hands out http clients that are shared by every component that was configured the
+ * same way, e.g. the http fetcher and the OpenSearch emitter and reporter of a pipes
+ * process. Each client has one connection pool, which keeps up to
+ * {@link HttpClientFactory#getMaxConnectionsPerRoute()} connections per host, so the
+ * components reuse each other's keep-alive connections instead of each opening their own.
+ * <p>
+ * Clients are reference counted. A client is closed once every component that
+ * acquired it has released it.
+ * <p>
+ * The registry also keeps the {@link HttpHostMetrics} of every host that its
+ * clients sent requests to.
+ * <p>
+ * This is thread safe.
+ */
+public class HttpClientRegistry {
+
+    private static final String START_NANOS_ATTRIBUTE = "tika.request.startNanos";
+
+    private static final HttpClientRegistry INSTANCE = new HttpClientRegistry();
+
+    private final Map<List<Object>, SharedClient> clients = new HashMap<>();
+    private final Map<HttpClient, SharedClient> leased = new IdentityHashMap<>();
+    private final Map<String, HttpHostMetrics> hostMetrics = new ConcurrentHashMap<>();
+
+    HttpClientRegistry() {
+    }
+
+    public static HttpClientRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the client for the factory's configuration, building it if no other
+     * component holds one. Every call must be matched by a call to
+     * {@link #release(HttpClient)}.
+     */
+    public synchronized HttpClient acquire(HttpClientFactory factory)
+            throws TikaConfigException {
+        List<Object> key = factory.getConfigKey();
+        SharedClient shared = clients.get(key);
+        if (shared == null) {
+            HttpClientBuilder builder = factory.newBuilder();
+            LatencyInterceptor latencyInterceptor = new LatencyInterceptor();
+            builder.addInterceptorFirst((HttpRequestInterceptor) latencyInterceptor);
+            builder.addInterceptorLast((HttpResponseInterceptor) latencyInterceptor);
+            shared = new SharedClient(key, builder.build());
+            clients.put(key, shared);
+            leased.put(shared.client, shared);
+        }
+        shared.references++;
+        return shared.client;
+    }
+
+    /**
+     * Gives back a client from {@link #acquire(HttpClientFactory)}. The last release
+     * closes the client and its connection pool. Clients that didn't come from this
+     * registry are ignored.
+     */
+    public synchronized void release(HttpClient client) throws IOException {
+        SharedClient shared = leased.get(client);
+        if (shared == null) {
+            return;
+        }
+        if (--shared.references > 0) {
+            return;
+        }
+        clients.remove(shared.key);
+        leased.remove(client);
+        shared.client.close();
+    }
+
+    /**
+     * @return the number of clients that are currently held
+     */
+    public synchronized int size() {
+        return clients.size();
+    }
+
+    /**
+     * @param host host and port, e.g. <code>localhost:9200</code>
+     * @return the metrics of the host or <code>null</code> if no request was sent to it
+     */
+    public HttpHostMetrics getHostMetrics(String host) {
+        return hostMetrics.get(host);
+    }
+
+    /**
+     * @return the metrics of every host, sorted by host
+     */
+    public Map<String, HttpHostMetrics> getHostMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(hostMetrics));
+    }
+
+    private static class SharedClient {
+        private final List<Object> key;
+        private final CloseableHttpClient client;
+        private int references = 0;
+
+        private SharedClient(List<Object> key, CloseableHttpClient client) {
+            this.key = key;
+            this.client = client;
+        }
+    }
+
+    private class LatencyInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+        @Override
+        public void process(HttpRequest request, HttpContext context) {
+            context.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+        }
+
+        @Override
+        public void process(HttpResponse response, HttpContext context) {
+            Object start = context.getAttribute(START_NANOS_ATTRIBUTE);
+            HttpHost target = HttpCoreContext.adapt(context).getTargetHost();
+            if (!(start instanceof Long) || target == null) {
+                return;
+            }
+            long elapsed = System.nanoTime() - (Long) start;
+            String host = target.toHostString();
+            hostMetrics.computeIfAbsent(host, HttpHostMetrics::new)
+                    .record(elapsed, response.getStatusLine().getStatusCode());
+        }
+    }
+}
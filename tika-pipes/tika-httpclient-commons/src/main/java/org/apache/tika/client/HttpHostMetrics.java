@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of the requests that the clients from {@link HttpClientRegistry} sent to one
+ * host. The latency of a request is the time from sending it until the response
+ * headers arrived. Requests that failed without a response are not counted.
+ * <p>
+ * This is thread safe.
+ */
+public class HttpHostMetrics {
+
+    private final String host;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    HttpHostMetrics(String host) {
+        this.host = host;
+    }
+
+    void record(long nanos, int statusCode) {
+        requests.increment();
+        if (statusCode >= 400) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return the host and port, e.g. <code>localhost:9200</code>
+     */
+    public String getHost() {
+        return host;
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of responses with a status code of 400 or above
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getTotalLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    public double getMeanLatencyMillis() {
+        long count = requests.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) totalNanos.sum() / count / 1_000_000;
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "HttpHostMetrics{" + "host='" + host + '\'' + ", requests=" + getRequestCount() +
+                ", errors=" + getErrorCount() + ", meanLatencyMillis=" + getMeanLatencyMillis() +
+                ", maxLatencyMillis=" + getMaxLatencyMillis() + '}';
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HttpClientRegistryTest {
+
+    private HttpServer server;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSharing() throws Exception {
+        HttpClientRegistry registry = new HttpClientRegistry();
+        HttpClientFactory fetcherFactory = new HttpClientFactory();
+        HttpClientFactory emitterFactory = new HttpClientFactory();
+        HttpClientFactory otherFactory = new HttpClientFactory();
+        otherFactory.setSocketTimeout(1000);
+
+        HttpClient fetcherClient = registry.acquire(fetcherFactory);
+        HttpClient emitterClient = registry.acquire(emitterFactory);
+        HttpClient otherClient = registry.acquire(otherFactory);
+        assertSame(fetcherClient, emitterClient);
+        assertNotSame(fetcherClient, otherClient);
+        assertEquals(2, registry.size());
+
+        //the components take turns and keep using the same connection
+        for (int i = 0; i < 5; i++) {
+            get(fetcherClient, "/fetch");
+            get(emitterClient, "/_bulk");
+        }
+        assertEquals(1, clientPorts.size());
+
+        registry.release(fetcherClient);
+        assertEquals(2, registry.size());
+        get(emitterClient, "/_bulk");
+
+        registry.release(emitterClient);
+        registry.release(otherClient);
+        assertEquals(0, registry.size());
+        //the last release closes the pool
+        assertThrows(IllegalStateException.class, () -> get(emitterClient, "/_bulk"));
+
+        //releasing a client that isn't from the registry does nothing
+        registry.release(new HttpClientFactory().build());
+    }
+
+    @Test
+    public void testHostMetrics() throws Exception {
+        HttpClientRegistry registry = new HttpClientRegistry();
+        HttpClient client = registry.acquire(new HttpClientFactory());
+        String host = "localhost:" + server.getAddress().getPort();
+        assertNull(registry.getHostMetrics(host));
+        for (int i = 0; i < 3; i++) {
+            get(client, "/fetch");
+        }
+        get(client, "/missing");
+        registry.release(client);
+
+        HttpHostMetrics metrics = registry.getHostMetrics(host);
+        assertEquals(host, metrics.getHost());
+        assertEquals(4, metrics.getRequestCount());
+        assertEquals(1, metrics.getErrorCount());
+        assertTrue(metrics.getMeanLatencyMillis() >= 0);
+        assertTrue(metrics.getMaxLatencyMillis() >= metrics.getMeanLatencyMillis());
+        assertEquals(1, registry.getHostMetrics().size());
+    }
+
+    private void get(HttpClient client, String path) throws IOException {
+        HttpResponse response =
+                client.execute(new HttpGet("http://localhost:" + server.getAddress().getPort() +
+                        path));
+        EntityUtils.consume(response.getEntity());
+    }
+}
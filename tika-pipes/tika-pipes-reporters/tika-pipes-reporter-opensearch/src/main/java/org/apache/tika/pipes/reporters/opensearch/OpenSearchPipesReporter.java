@@ -24,10 +24,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.http.client.HttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.tika.client.HttpClientFactory;
+import org.apache.tika.client.HttpClientRegistry;
 import org.apache.tika.client.TikaClientException;
 import org.apache.tika.config.Field;
 import org.apache.tika.config.Initializable;
@@ -54,6 +56,7 @@ public class OpenSearchPipesReporter extends PipesReporter implements Initializa
     public static String DEFAULT_EXIT_VALUE_KEY = "exit_value";
 
     private OpenSearchClient openSearchClient;
+    private HttpClient httpClient;
     private String openSearchUrl;
     private HttpClientFactory httpClientFactory = new HttpClientFactory();
 
@@ -198,9 +201,15 @@ public class OpenSearchPipesReporter extends PipesReporter implements Initializa
         if (StringUtils.isBlank(openSearchUrl)) {
             throw new TikaConfigException("Must specify an open search url!");
         } else {
-            openSearchClient =
-                    new OpenSearchClient(openSearchUrl,
-                            httpClientFactory.build());
+            httpClient = httpClientFactory.buildShared();
+            openSearchClient = new OpenSearchClient(openSearchUrl, httpClient);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (httpClient != null) {
+            HttpClientRegistry.getInstance().release(httpClient);
         }
     }
 
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of in-process parses that may run at the same time.
+ * <p>
+ * Requests that arrive when all parse slots are taken wait in a fair queue
+ * for up to {@link TikaServerConfig#getMaxParseQueueWaitMillis()}. If the queue
+ * already holds {@link TikaServerConfig#getMaxQueuedParses()} requests, or if
+ * the wait times out, the request is rejected and the caller should return
+ * a 503 with a <code>Retry-After</code> header.
+ * <p>
+ * If {@link TikaServerConfig#getMaxConcurrentParses()} is &lt;= 0, there is no
+ * limit, and this only keeps track of the number of active parses.
+ */
+public class ParseAdmissionController {
+
+    private final int maxConcurrentParses;
+    private final int maxQueuedParses;
+    private final long maxQueueWaitMillis;
+    private final int retryAfterSeconds;
+
+    //null if unlimited
+    private final Semaphore slots;
+
+    private final AtomicInteger activeParses = new AtomicInteger(0);
+    private final AtomicInteger queuedParses = new AtomicInteger(0);
+    private final LongAdder rejectedParses = new LongAdder();
+    private final LongAdder queuedTotal = new LongAdder();
+    private final LongAdder queueWaitMillisTotal = new LongAdder();
+    private final AtomicLong queueWaitMillisMax = new AtomicLong(0);
+
+    public static ParseAdmissionController unlimited() {
+        return new ParseAdmissionController(-1, 0, 0, TikaServerConfig.DEFAULT_PARSE_RETRY_AFTER_SECONDS);
+    }
+
+    public static ParseAdmissionController load(TikaServerConfig tikaServerConfig) {
+        return new ParseAdmissionController(tikaServerConfig.getMaxConcurrentParses(),
+                tikaServerConfig.getMaxQueuedParses(),
+                tikaServerConfig.getMaxParseQueueWaitMillis(),
+                tikaServerConfig.getParseRetryAfterSeconds());
+    }
+
+    public ParseAdmissionController(int maxConcurrentParses, int maxQueuedParses,
+                                    long maxQueueWaitMillis, int retryAfterSeconds) {
+        this.maxConcurrentParses = maxConcurrentParses;
+        this.maxQueuedParses = maxQueuedParses;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.slots = maxConcurrentParses > 0 ? new Semaphore(maxConcurrentParses, true) : null;
+    }
+
+    /**
+     * Try to take a parse slot, waiting in the queue if necessary.
+     * Every successful call must be followed by a call to {@link #release()}.
+     *
+     * @return <code>true</code> if a slot was acquired, <code>false</code> if the
+     * request should be rejected
+     */
+    public boolean tryAcquire() {
+        if (slots == null) {
+            activeParses.incrementAndGet();
+            return true;
+        }
+        try {
+            //the timed version respects the fairness of the semaphore; the untimed one barges
+            if (slots.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                activeParses.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedParses.increment();
+            return false;
+        }
+        if (queuedParses.incrementAndGet() > maxQueuedParses) {
+            queuedParses.decrementAndGet();
+            rejectedParses.increment();
+            return false;
+        }
+        queuedTotal.increment();
+        long start = System.nanoTime();
+        try {
+            boolean acquired = slots.tryAcquire(maxQueueWaitMillis, TimeUnit.MILLISECONDS);
+            recordQueueWait(start);
+            if (!acquired) {
+                rejectedParses.increment();
+                return false;
+            }
+            activeParses.incrementAndGet();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedParses.increment();
+            return false;
+        } finally {
+            queuedParses.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        activeParses.decrementAndGet();
+        if (slots != null) {
+            slots.release();
+        }
+    }
+
+    private void recordQueueWait(long startNanos) {
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        queueWaitMillisTotal.add(waitMillis);
+        queueWaitMillisMax.accumulateAndGet(waitMillis, Math::max);
+    }
+
+    public int getMaxConcurrentParses() {
+        return maxConcurrentParses;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getActiveParses() {
+        return activeParses.get();
+    }
+
+    public int getQueuedParses() {
+        return queuedParses.get();
+    }
+
+    public long getRejectedParses() {
+        return rejectedParses.sum();
+    }
+
+    /**
+     * @return the number of requests that have had to wait for a parse slot
+     */
+    public long getTotalQueued() {
+        return queuedTotal.sum();
+    }
+
+    public long getQueueWaitMillisTotal() {
+        return queueWaitMillisTotal.sum();
+    }
+
+    public long getQueueWaitMillisMax() {
+        return queueWaitMillisMax.get();
+    }
+}
@@ -19,11 +19,24 @@ package org.apache.tika.server.core;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.tika.server.core.metrics.ServerMetrics;
+
+/**
+ * Status of this server and the tasks that are currently running.
+ * <p>
+ * None of the methods take a lock, so {@link #start(TASK, String, long)} and
+ * {@link #complete(long)} scale with the number of request threads. Timeouts are
+ * only tracked once {@link #trackTimeouts(long)} has been called by the
+ * {@link ServerStatusWatcher}; from then on, {@link #expireTimedOutTasks(Consumer)}
+ * finds overdue tasks via a timing wheel instead of scanning every running task.
+ */
 public class ServerStatus {
 
     private static final Logger LOG = LoggerFactory.getLogger(ServerStatus.class);
@@ -31,12 +44,16 @@ public class ServerStatus {
     private final int numRestarts;
 
     private final boolean isLegacy;
-    private AtomicLong counter = new AtomicLong(0);
-    private Map<Long, TaskStatus> tasks = new HashMap<>();
-    private STATUS status = STATUS.OPERATING;
+    private final AtomicLong counter = new AtomicLong(0);
+    private final Map<Long, RunningTask> tasks = new ConcurrentHashMap<>();
+    private volatile STATUS status = STATUS.OPERATING;
     private volatile long lastStarted = Instant
             .now()
             .toEpochMilli();
+    private volatile ParseAdmissionController parseAdmissionController =
+            ParseAdmissionController.unlimited();
+    private final ServerMetrics serverMetrics = new ServerMetrics();
+    private volatile TaskTimeoutWheel timeoutWheel = null;
 
     public ServerStatus(String serverId, int numRestarts) {
         this(serverId, numRestarts, false);
@@ -48,11 +65,13 @@ public class ServerStatus {
         this.isLegacy = isLegacy;
     }
 
-    public synchronized long start(TASK task, String fileName, long timeoutMillis) {
+    public long start(TASK task, String fileName, long timeoutMillis) {
         long taskId = counter.incrementAndGet();
         Instant now = Instant.now();
         lastStarted = now.toEpochMilli();
-        tasks.put(taskId, new TaskStatus(task, now, fileName, timeoutMillis));
+        TaskStatus taskStatus = new TaskStatus(task, now, fileName, timeoutMillis);
+        TaskTimeoutWheel wheel = timeoutWheel;
+        tasks.put(taskId, new RunningTask(taskStatus, wheel == null ? null : wheel.schedule(wheel.newEntry(taskStatus))));
         return taskId;
     }
 
@@ -62,26 +81,43 @@ public class ServerStatus {
      * @param taskId
      * @throws IllegalArgumentException if there is no task by that taskId in the collection
      */
-    public synchronized void complete(long taskId) throws IllegalArgumentException {
-        TaskStatus status = tasks.remove(taskId);
-        if (status == null) {
+    public void complete(long taskId) throws IllegalArgumentException {
+        RunningTask runningTask = tasks.remove(taskId);
+        if (runningTask == null) {
             throw new IllegalArgumentException("TaskId is not in map:" + taskId);
         }
+        if (runningTask.timeout != null) {
+            timeoutWheel.cancel(runningTask.timeout);
+        }
     }
 
-    public synchronized STATUS getStatus() {
+    public STATUS getStatus() {
         return status;
     }
 
-    public synchronized void setStatus(STATUS status) {
+    public void setStatus(STATUS status) {
         this.status = status;
     }
 
-    public synchronized Map<Long, TaskStatus> getTasks() {
-        return new HashMap<>(tasks);
+    /**
+     * @return a snapshot of the currently running tasks
+     */
+    public Map<Long, TaskStatus> getTasks() {
+        Map<Long, TaskStatus> copy = new HashMap<>();
+        for (Map.Entry<Long, RunningTask> e : tasks.entrySet()) {
+            copy.put(e.getKey(), e.getValue().taskStatus);
+        }
+        return copy;
     }
 
-    public synchronized long getFilesProcessed() {
+    /**
+     * @return the number of currently running tasks, without copying them
+     */
+    public int getNumActiveTasks() {
+        return tasks.size();
+    }
+
+    public long getFilesProcessed() {
         return counter.get();
     }
 
@@ -94,13 +130,59 @@ public class ServerStatus {
     /**
      * @return true if this is legacy, otherwise whether or not status == OPERATING.
      */
-    public synchronized boolean isOperating() {
+    public boolean isOperating() {
         if (isLegacy) {
             return true;
         }
         return status == STATUS.OPERATING;
     }
 
+    /**
+     * Start tracking task timeouts. Tasks that are already running are added too.
+     * This must be called before {@link #expireTimedOutTasks(Consumer)}.
+     *
+     * @param tickMillis resolution of the timeout check
+     */
+    synchronized void trackTimeouts(long tickMillis) {
+        if (timeoutWheel != null) {
+            return;
+        }
+        TaskTimeoutWheel wheel = new TaskTimeoutWheel(tickMillis, System.currentTimeMillis());
+        timeoutWheel = wheel;
+        for (Map.Entry<Long, RunningTask> e : tasks.entrySet()) {
+            RunningTask runningTask = e.getValue();
+            if (runningTask.timeout != null) {
+                //started after the wheel was set
+                continue;
+            }
+            TaskTimeoutWheel.Entry timeout = wheel.newEntry(runningTask.taskStatus);
+            //only schedule if the task hasn't completed in the meantime
+            if (tasks.replace(e.getKey(), runningTask, new RunningTask(runningTask.taskStatus, timeout))) {
+                wheel.schedule(timeout);
+            }
+        }
+    }
+
+    /**
+     * Hands each task that has run past its timeout to the consumer, once.
+     * This must only be called from a single thread.
+     */
+    void expireTimedOutTasks(Consumer<TaskStatus> timedOut) {
+        timeoutWheel.expire(System.currentTimeMillis(), timedOut);
+    }
+
+    public ParseAdmissionController getParseAdmissionController() {
+        return parseAdmissionController;
+    }
+
+    public void setParseAdmissionController(ParseAdmissionController parseAdmissionController) {
+        this.parseAdmissionController = parseAdmissionController;
+    }
+
+    public ServerMetrics getServerMetrics() {
+        return serverMetrics;
+    }
+
     public String getServerId() {
         return serverId;
     }
@@ -153,4 +235,15 @@ public class ServerStatus {
     public enum TASK {
         PARSE, DETECT, TRANSLATE
     }
+
+    private static class RunningTask {
+        private final TaskStatus taskStatus;
+        //null if timeouts aren't tracked
+        private final TaskTimeoutWheel.Entry timeout;
+
+        private RunningTask(TaskStatus taskStatus, TaskTimeoutWheel.Entry timeout) {
+            this.taskStatus = taskStatus;
+            this.timeout = timeout;
+        }
+    }
 }
@@ -26,8 +26,7 @@ import java.nio.channels.FileLock;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.time.Duration;
-import java.time.Instant;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,11 +37,15 @@ public class ServerStatusWatcher implements Runnable {
 
 
     private static final Logger LOG = LoggerFactory.getLogger(ServerStatusWatcher.class);
+    private static final long WATCHER_SLEEP_MILLIS = 100;
     private final ServerStatus serverStatus;
     private final InputStream fromParent;
     private final TikaServerConfig tikaServerConfig;
     private final Path forkedStatusPath;
     private final ByteBuffer statusBuffer = ByteBuffer.allocate(16);
+    private final Consumer<TaskStatus> timeoutHandler = this::handleTimeout;
+    //kept open so that the regular heartbeat doesn't have to reopen the file
+    private FileChannel statusChannel;
     private volatile boolean shuttingDown = false;
 
     public ServerStatusWatcher(ServerStatus serverStatus, InputStream inputStream, Path forkedStatusPath, TikaServerConfig tikaServerConfig) throws InterruptedException {
@@ -50,6 +53,7 @@ public class ServerStatusWatcher implements Runnable {
         this.tikaServerConfig = tikaServerConfig;
         this.forkedStatusPath = forkedStatusPath;
         serverStatus.setStatus(ServerStatus.STATUS.OPERATING);
+        serverStatus.trackTimeouts(WATCHER_SLEEP_MILLIS);
         this.fromParent = inputStream;
         Thread statusWatcher = new Thread(new StatusWatcher());
         statusWatcher.setDaemon(true);
@@ -85,35 +89,30 @@ public class ServerStatusWatcher implements Runnable {
             this.shuttingDown = true;
         }
 
-        Instant started = Instant.now();
-        long elapsed = Duration
-                .between(started, Instant.now())
-                .toMillis();
-        try (FileChannel channel = FileChannel.open(forkedStatusPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        long started = System.currentTimeMillis();
+        long elapsed = 0;
+        try {
+            if (statusChannel == null) {
+                statusChannel = FileChannel.open(forkedStatusPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
             while (elapsed < tikaServerConfig.getTaskTimeoutMillis()) {
-                try (FileLock lock = channel.tryLock()) {
+                try (FileLock lock = statusChannel.tryLock()) {
                     if (lock != null) {
-                        ((Buffer) statusBuffer).position(0);
-                        statusBuffer.putLong(0, Instant
-                                .now()
-                                .toEpochMilli());
+                        ((Buffer) statusBuffer).clear();
+                        statusBuffer.putLong(0, System.currentTimeMillis());
                         statusBuffer.putInt(8, serverStatus
                                 .getStatus()
                                 .getInt());
-                        statusBuffer.putInt(12, serverStatus
-                                .getTasks()
-                                .size());
-                        channel.write(statusBuffer);
-                        channel.force(true);
+                        statusBuffer.putInt(12, serverStatus.getNumActiveTasks());
+                        statusChannel.write(statusBuffer, 0);
+                        statusChannel.force(true);
                         return;
                     }
                 } catch (IOException e) {
                     LOG.warn("Problem writing to status file", e);
                 }
                 Thread.sleep(100);
-                elapsed = Duration
-                        .between(started, Instant.now())
-                        .toMillis();
+                elapsed = System.currentTimeMillis() - started;
             }
         } catch (IOException e) {
             LOG.warn("Couldn't open forked status file for writing", e);
@@ -121,6 +120,18 @@ public class ServerStatusWatcher implements Runnable {
         throw new FatalException("Couldn't write to status file after trying for " + elapsed + " millis.");
     }
 
+    private synchronized void closeStatusChannel() {
+        if (statusChannel == null) {
+            return;
+        }
+        try {
+            statusChannel.close();
+        } catch (IOException e) {
+            //swallow
+        }
+        statusChannel = null;
+    }
+
     private void checkForHitMaxFiles() {
         if (tikaServerConfig.getMaxFiles() < 0) {
             return;
@@ -132,24 +143,19 @@ public class ServerStatusWatcher implements Runnable {
     }
 
     private void checkForTaskTimeouts() {
-        Instant now = Instant.now();
-        for (TaskStatus status : serverStatus
-                .getTasks()
-                .values()) {
-            long millisElapsed = Duration
-                    .between(status.started, now)
-                    .toMillis();
-            if (millisElapsed > status.timeoutMillis) {
-                serverStatus.setStatus(ServerStatus.STATUS.TIMEOUT);
-                if (status.fileName.isPresent()) {
-                    LOG.error("Timeout task {}, millis elapsed {}, timeoutMillis {}, file id {}" + "consider increasing the allowable time with the " +
-                                    "<taskTimeoutMillis/> parameter or the {} header", status.task.toString(), millisElapsed, status.timeoutMillis, status.fileName.get(),
-                            TimeoutConfig.X_TIKA_TIMEOUT_MILLIS);
-                } else {
-                    LOG.error("Timeout task {}, millis elapsed {}; " + "consider increasing the allowable time with the " + "<taskTimeoutMillis/> parameter or the {} header",
-                            status.task.toString(), millisElapsed, TimeoutConfig.X_TIKA_TIMEOUT_MILLIS);
-                }
-            }
+        serverStatus.expireTimedOutTasks(timeoutHandler);
+    }
+
+    private void handleTimeout(TaskStatus status) {
+        long millisElapsed = System.currentTimeMillis() - status.started.toEpochMilli();
+        serverStatus.setStatus(ServerStatus.STATUS.TIMEOUT);
+        if (status.fileName.isPresent()) {
+            LOG.error("Timeout task {}, millis elapsed {}, timeoutMillis {}, file id {}" + "consider increasing the allowable time with the " +
+                            "<taskTimeoutMillis/> parameter or the {} header", status.task.toString(), millisElapsed, status.timeoutMillis, status.fileName.get(),
+                    TimeoutConfig.X_TIKA_TIMEOUT_MILLIS);
+        } else {
+            LOG.error("Timeout task {}, millis elapsed {}; " + "consider increasing the allowable time with the " + "<taskTimeoutMillis/> parameter or the {} header",
+                    status.task.toString(), millisElapsed, TimeoutConfig.X_TIKA_TIMEOUT_MILLIS);
         }
     }
 
@@ -157,6 +163,7 @@ public class ServerStatusWatcher implements Runnable {
         //if something went wrong with the parent,
         //the forked process should try to delete the tmp file
         if (status == ServerStatus.STATUS.PARENT_EXCEPTION) {
+            closeStatusChannel();
             try {
                 Files.delete(forkedStatusPath);
             } catch (IOException e) {
@@ -190,7 +197,7 @@ public class ServerStatusWatcher implements Runnable {
 
         @Override
         public void run() {
-            Instant lastWrite = Instant.now();
+            long lastWrite = System.currentTimeMillis();
             while (true) {
                 checkForHitMaxFiles();
                 checkForTaskTimeouts();
@@ -199,13 +206,11 @@ public class ServerStatusWatcher implements Runnable {
                     LOG.warn("forked process observed " + currStatus.name() + " and is shutting down.");
                     shutdown(currStatus);
                 } else {
-                    long elapsed = Duration
-                            .between(lastWrite, Instant.now())
-                            .toMillis();
+                    long elapsed = System.currentTimeMillis() - lastWrite;
                     if (elapsed > tikaServerConfig.getTaskPulseMillis()) {
                         try {
                             writeStatus(false);
-                            lastWrite = Instant.now();
+                            lastWrite = System.currentTimeMillis();
                         } catch (InterruptedException e) {
                             LOG.debug("interrupted", e);
                         }
@@ -213,7 +218,7 @@ public class ServerStatusWatcher implements Runnable {
                 }
 
                 try {
-                    Thread.sleep(100);
+                    Thread.sleep(WATCHER_SLEEP_MILLIS);
                 } catch (InterruptedException e) {
                     LOG.warn("status watcher sees interrupted exception");
                     return;
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel that detects tasks that have run past their timeout
+ * without scanning every running task on every tick.
+ * <p>
+ * {@link #schedule(Entry)} and {@link #cancel(Entry)} may be called from any
+ * thread; they only append to lock-free queues. All changes to the wheel itself
+ * happen in {@link #expire(long, Consumer)}, which must only be called from a
+ * single thread (the {@link ServerStatusWatcher}).
+ */
+class TaskTimeoutWheel {
+
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickMillis;
+    private final int mask;
+    private final Entry[] buckets;
+    private final Queue<Entry> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<>();
+
+    //only touched by the expiring thread
+    private long lastTick;
+
+    TaskTimeoutWheel(long tickMillis, long nowMillis) {
+        this(tickMillis, DEFAULT_WHEEL_SIZE, nowMillis);
+    }
+
+    /**
+     * @param wheelSize number of buckets, must be a power of two
+     */
+    TaskTimeoutWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be > 0");
+        }
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Entry[wheelSize];
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    Entry newEntry(TaskStatus taskStatus) {
+        return new Entry(taskStatus);
+    }
+
+    Entry schedule(Entry entry) {
+        scheduled.add(entry);
+        return entry;
+    }
+
+    void cancel(Entry entry) {
+        entry.cancelled = true;
+        cancelled.add(entry);
+    }
+
+    /**
+     * Advances the wheel to <code>nowMillis</code> and hands every task that
+     * is past its deadline to the consumer. Each task is reported at most once.
+     */
+    void expire(long nowMillis, Consumer<TaskStatus> timedOut) {
+        Entry e;
+        while ((e = cancelled.poll()) != null) {
+            unlink(e);
+        }
+        long currentTick = nowMillis / tickMillis;
+        while ((e = scheduled.poll()) != null) {
+            if (!e.cancelled) {
+                //round up so that the deadline has passed by the time we visit the bucket;
+                //deadlines that are already in the past go in the next bucket we visit
+                long deadlineTick = (e.deadlineMillis + tickMillis - 1) / tickMillis;
+                link(e, Math.max(deadlineTick, lastTick + 1));
+            }
+        }
+        //if we fell behind by more than one rotation, each bucket only needs one visit
+        long firstTick = Math.max(lastTick + 1, currentTick - mask);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Entry next;
+            for (e = buckets[(int) (tick & mask)]; e != null; e = next) {
+                next = e.next;
+                if (e.deadlineMillis <= nowMillis) {
+                    unlink(e);
+                    if (!e.cancelled) {
+                        timedOut.accept(e.taskStatus);
+                    }
+                }
+            }
+        }
+        if (currentTick > lastTick) {
+            lastTick = currentTick;
+        }
+    }
+
+    private void link(Entry e, long tick) {
+        int bucket = (int) (tick & mask);
+        e.bucket = bucket;
+        e.next = buckets[bucket];
+        if (e.next != null) {
+            e.next.prev = e;
+        }
+        buckets[bucket] = e;
+    }
+
+    private void unlink(Entry e) {
+        if (e.bucket < 0) {
+            //expired already, or cancelled before it was linked
+            return;
+        }
+        if (e.prev != null) {
+            e.prev.next = e.next;
+        } else {
+            buckets[e.bucket] = e.next;
+        }
+        if (e.next != null) {
+            e.next.prev = e.prev;
+        }
+        e.prev = null;
+        e.next = null;
+        e.bucket = -1;
+    }
+
+    static class Entry {
+        private final TaskStatus taskStatus;
+        private final long deadlineMillis;
+        private volatile boolean cancelled = false;
+        //only touched by the expiring thread
+        private Entry prev;
+        private Entry next;
+        private int bucket = -1;
+
+        private Entry(TaskStatus taskStatus) {
+            this.taskStatus = taskStatus;
+            long started = taskStatus.started.toEpochMilli();
+            //leave headroom so that adding the timeout and rounding up to the next tick can't overflow
+            this.deadlineMillis = started + Math.min(Math.max(0, taskStatus.timeoutMillis),
+                    Long.MAX_VALUE / 4);
+        }
+    }
+}
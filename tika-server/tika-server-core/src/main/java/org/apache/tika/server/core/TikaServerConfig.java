@@ -69,6 +69,24 @@ public class TikaServerConfig extends ConfigBase {
      * Number of milliseconds to wait for forked process to startup
      */
     public static final long DEFAULT_FORKED_STARTUP_MILLIS = 120000;
+    /**
+     * Maximum number of parses to run at the same time in the server process.
+     * The default (-1) does not limit concurrent parses.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_PARSES = -1;
+    /**
+     * Maximum number of requests to queue for a parse slot before returning 503.
+     */
+    public static final int DEFAULT_MAX_QUEUED_PARSES = 100;
+    /**
+     * Maximum number of milliseconds for a request to wait for a parse slot
+     * before returning 503.
+     */
+    public static final long DEFAULT_MAX_PARSE_QUEUE_WAIT_MILLIS = 60000;
+    /**
+     * Value of the Retry-After header sent when a parse is rejected.
+     */
+    public static final int DEFAULT_PARSE_RETRY_AFTER_SECONDS = 5;
     private static final Logger LOG = LoggerFactory.getLogger(TikaServerConfig.class);
     //used in fork mode -- restart after processing this many files
     private static final long DEFAULT_MAX_FILES = 100000;
@@ -130,6 +148,12 @@ private long forkedProcessShutdownMillis = DEFAULT_FORKED_PROCESS_SHUTDOWN_MILLI
 
     private boolean preventStopMethod = false;
 
+    private int maxConcurrentParses = DEFAULT_MAX_CONCURRENT_PARSES;
+    private int maxQueuedParses = DEFAULT_MAX_QUEUED_PARSES;
+    private long maxParseQueueWaitMillis = DEFAULT_MAX_PARSE_QUEUE_WAIT_MILLIS;
+    private int parseRetryAfterSeconds = DEFAULT_PARSE_RETRY_AFTER_SECONDS;
+    private boolean useVirtualThreads = false;
+
     private TlsConfig tlsConfig = new TlsConfig();
 
     /**
@@ -626,6 +650,76 @@ private long forkedProcessShutdownMillis = DEFAULT_FORKED_PROCESS_SHUTDOWN_MILLI
         this.preventStopMethod = preventStopMethod;
     }
 
+    /**
+     * Maximum number of parses that may run at the same time in the server
+     * process. Other requests wait for a slot; see {@link #getMaxQueuedParses()}.
+     * If &lt;= 0, the number of concurrent parses is not limited.
+     *
+     * @return
+     */
+    public int getMaxConcurrentParses() {
+        return maxConcurrentParses;
+    }
+
+    public void setMaxConcurrentParses(int maxConcurrentParses) {
+        this.maxConcurrentParses = maxConcurrentParses;
+    }
+
+    /**
+     * Maximum number of requests that may wait for a parse slot. Requests
+     * beyond this receive a 503 immediately.
+     *
+     * @return
+     */
+    public int getMaxQueuedParses() {
+        return maxQueuedParses;
+    }
+
+    public void setMaxQueuedParses(int maxQueuedParses) {
+        this.maxQueuedParses = maxQueuedParses;
+    }
+
+    /**
+     * Maximum time a request may wait for a parse slot before it receives a 503.
+     *
+     * @return
+     */
+    public long getMaxParseQueueWaitMillis() {
+        return maxParseQueueWaitMillis;
+    }
+
+    public void setMaxParseQueueWaitMillis(long maxParseQueueWaitMillis) {
+        this.maxParseQueueWaitMillis = maxParseQueueWaitMillis;
+    }
+
+    /**
+     * Number of seconds sent in the Retry-After header when a parse is rejected.
+     *
+     * @return
+     */
+    public int getParseRetryAfterSeconds() {
+        return parseRetryAfterSeconds;
+    }
+
+    public void setParseRetryAfterSeconds(int parseRetryAfterSeconds) {
+        this.parseRetryAfterSeconds = parseRetryAfterSeconds;
+    }
+
+    /**
+     * If <code>true</code> and the server is running on a JVM that supports
+     * virtual threads (Java 21+), requests are handled on virtual threads.
+     * This is ignored with a warning on older JVMs.
+     *
+     * @return
+     */
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
     public int[] getPorts() {
         return getPorts(port);
     }
@@ -52,7 +52,9 @@ import org.apache.cxf.rs.security.cors.CrossOriginResourceSharingFilter;
 import org.apache.cxf.service.factory.ServiceConstructionException;
 import org.apache.cxf.transport.common.gzip.GZIPInInterceptor;
 import org.apache.cxf.transport.common.gzip.GZIPOutInterceptor;
+import org.apache.cxf.transport.http_jetty.JettyHTTPServerEngine;
 import org.apache.cxf.transport.http_jetty.JettyHTTPServerEngineFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
@@ -77,6 +79,7 @@ import org.apache.tika.server.core.resource.TikaMimeTypes;
 import org.apache.tika.server.core.resource.TikaParsers;
 import org.apache.tika.server.core.resource.TikaResource;
 import org.apache.tika.server.core.resource.TikaServerResource;
+import org.apache.tika.server.core.resource.TikaServerMetrics;
 import org.apache.tika.server.core.resource.TikaServerStatus;
 import org.apache.tika.server.core.resource.TikaVersion;
 import org.apache.tika.server.core.resource.TikaWelcome;
@@ -225,6 +228,7 @@ public class TikaServerProcess {
             serverStatus = new ServerStatus(serverId, tikaServerConfig.getNumRestarts(), false);
             System.setOut(System.err);
         }
+        serverStatus.setParseAdmissionController(ParseAdmissionController.load(tikaServerConfig));
         TikaResource.init(tika, tikaServerConfig, digester, inputStreamFactory, serverStatus);
         JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
 
@@ -263,6 +267,9 @@ public class TikaServerProcess {
             factory.setBus(sf.getBus());
             manager.registerBindingFactory(JAXRSBindingFactory.JAXRS_BINDING_ID, factory);
         }
+        if (tikaServerConfig.isUseVirtualThreads()) {
+            configureVirtualThreads(sf, host, port, protocol);
+        }
         ServerDetails details = new ServerDetails();
         details.sf = sf;
         details.url = url;
@@ -271,6 +278,47 @@ public class TikaServerProcess {
         return details;
     }
 
+    /**
+     * The build targets Java 17, so virtual thread support is checked for at runtime.
+     * Jetty's thread pool creates the virtual threads itself once it is told to use them.
+     */
+    private static void configureVirtualThreads(JAXRSServerFactoryBean sf, String host, int port, String protocol)
+            throws GeneralSecurityException, IOException {
+        if (!areVirtualThreadsSupported()) {
+            LOG.warn("useVirtualThreads is set, but this JVM ({}) does not support virtual threads. " + "Using platform threads.", Runtime.version());
+            return;
+        }
+        JettyHTTPServerEngineFactory factory = sf
+                .getBus()
+                .getExtension(JettyHTTPServerEngineFactory.class);
+        if (factory == null) {
+            factory = new JettyHTTPServerEngineFactory();
+            factory.setBus(sf.getBus());
+        }
+        JettyHTTPServerEngine engine = factory.retrieveJettyHTTPServerEngine(port);
+        if (engine == null) {
+            engine = factory.createJettyHTTPServerEngine(host, port, protocol);
+        }
+        QueuedThreadPool threadPool = new QueuedThreadPool();
+        threadPool.setName("tika-server");
+        threadPool.setUseVirtualThreads(true);
+        engine.setThreadPool(threadPool);
+        LOG.info("Handling requests on virtual threads");
+    }
+
+    static boolean areVirtualThreadsSupported() {
+        //virtual threads are a preview feature before 21
+        if (Runtime.version().feature() < 21) {
+            return false;
+        }
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     private static TLSServerParameters getTlsParams(TlsConfig tlsConfig) throws GeneralSecurityException, IOException {
         KeyStoreType keyStore = new KeyStoreType();
         keyStore.setType(tlsConfig.getKeyStoreType());
@@ -374,6 +422,7 @@ public class TikaServerProcess {
                     addPipesResource = true;
                 }
                 resourceProviders.add(new SingletonResourceProvider(new TikaServerStatus(serverStatus)));
+                resourceProviders.add(new SingletonResourceProvider(new TikaServerMetrics(serverStatus)));
             }
         } else {
             for (String endPoint : tikaServerConfig.getEndpoints()) {
@@ -405,6 +454,8 @@ public class TikaServerProcess {
                     addAsyncResource = true;
                 } else if ("status".equals(endPoint)) {
                     resourceProviders.add(new SingletonResourceProvider(new TikaServerStatus(serverStatus)));
+                } else if ("metrics".equals(endPoint)) {
+                    resourceProviders.add(new SingletonResourceProvider(new TikaServerMetrics(serverStatus)));
                 }
             }
         }
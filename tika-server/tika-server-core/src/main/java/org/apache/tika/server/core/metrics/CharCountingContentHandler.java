@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.metrics;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import org.apache.tika.sax.ContentHandlerDecorator;
+
+/**
+ * Counts the characters that pass through to the decorated handler.
+ */
+public class CharCountingContentHandler extends ContentHandlerDecorator {
+
+    private long chars = 0;
+
+    public CharCountingContentHandler(ContentHandler handler) {
+        super(handler);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        chars += length;
+        super.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+        chars += length;
+        super.ignorableWhitespace(ch, start, length);
+    }
+
+    public long getChars() {
+        return chars;
+    }
+}
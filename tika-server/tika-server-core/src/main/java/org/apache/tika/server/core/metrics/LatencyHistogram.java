@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of
+ * HdrHistogram.
+ * <p>
+ * Values are recorded in milliseconds. Values below 8ms each get their own
+ * bucket; above that, every power of two is split into 8 equal sub-buckets, so
+ * the relative error of a reported value is at most 12.5%. Values above
+ * {@link #MAX_MILLIS} are recorded in the last bucket.
+ * <p>
+ * Recording is a couple of atomic increments and never blocks. Reads are not
+ * atomic across buckets, which is fine for monitoring.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Largest value that gets its own bucket, ~24 days
+     */
+    static final long MAX_MILLIS = (1L << 31) - 1;
+    static final int NUM_BUCKETS = bucketIndex(MAX_MILLIS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketIndex(TimeUnit.NANOSECONDS.toMillis(nanos)));
+        sumNanos.add(nanos);
+        count.increment();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * @param powerOfTwo exponent k
+     * @return the number of recorded values that are less than 2^k milliseconds
+     */
+    public long getCountBelowPowerOfTwo(int powerOfTwo) {
+        int end = firstBucketAtOrAbove(1L << powerOfTwo);
+        long total = 0;
+        for (int i = 0; i < end && i < NUM_BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return the upper bound in milliseconds of the bucket that contains the
+     * value at this quantile, or 0 if nothing has been recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(NUM_BUCKETS - 1);
+    }
+
+    static int bucketIndex(long millis) {
+        if (millis > MAX_MILLIS) {
+            millis = MAX_MILLIS;
+        }
+        if (millis < SUB_BUCKETS) {
+            return (int) millis;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(millis);
+        int shift = msb - SUB_BUCKET_BITS;
+        int mantissa = (int) (millis >>> shift);
+        return (shift + 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    /**
+     * @return the exclusive upper bound of the bucket in milliseconds
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+        return (mantissa + 1) << shift;
+    }
+
+    private static int firstBucketAtOrAbove(long millis) {
+        //powers of two always fall on a bucket boundary
+        return bucketIndex(millis);
+    }
+}
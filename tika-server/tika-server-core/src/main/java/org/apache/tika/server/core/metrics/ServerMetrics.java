@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.utils.StringUtils;
+
+/**
+ * Parse metrics for tika-server, keyed by endpoint, detected media type
+ * and the parser that handled the document (the last value of
+ * {@link TikaCoreProperties#TIKA_PARSED_BY}).
+ * <p>
+ * All updates are lock-free. To protect the server from unbounded label
+ * cardinality, endpoints are labelled with a fixed set of names (path
+ * parameters such as the field of <code>/meta/{field}</code> are dropped), and
+ * parses beyond {@link #MAX_SERIES} distinct keys are recorded under
+ * {@link #OTHER} for all three labels.
+ */
+public class ServerMetrics {
+
+    public static final int MAX_SERIES = 2000;
+
+    public static final String OTHER = "other";
+
+    public static final String UNKNOWN = "unknown";
+
+    /**
+     * Upper bounds of the exported histogram buckets are 2^k milliseconds
+     * for k in [0, MAX_EXPORTED_POWER_OF_TWO] (1ms to ~524s).
+     */
+    static final int MAX_EXPORTED_POWER_OF_TWO = 19;
+
+    private static final Set<String> ENDPOINTS = Set.of("tika", "rmeta", "meta", "unpack");
+
+    //sub-paths that are part of a resource's @Path rather than a path parameter
+    private static final Set<String> STATIC_SUB_PATHS = Set.of("form", "main", "all");
+
+    private final Map<SeriesKey, ParseSeries> series = new ConcurrentHashMap<>();
+
+    /**
+     * @param endpoint     the server endpoint, e.g. /tika or /rmeta
+     * @param metadata     the metadata of the container document after the parse
+     * @param elapsedNanos time spent in the parse
+     * @param bytesIn      number of bytes read from the client, or -1 if unknown
+     * @param charsOut     number of characters written to the content handler
+     * @param success      whether the parse completed without an exception
+     */
+    public void recordParse(String endpoint, Metadata metadata, long elapsedNanos, long bytesIn,
+                            long charsOut, boolean success) {
+        SeriesKey key = new SeriesKey(normalizeEndpoint(endpoint), getMediaType(metadata),
+                getParser(metadata));
+        ParseSeries parseSeries = series.get(key);
+        if (parseSeries == null) {
+            if (series.size() >= MAX_SERIES) {
+                key = new SeriesKey(OTHER, OTHER, OTHER);
+            }
+            parseSeries = series.computeIfAbsent(key, k -> new ParseSeries());
+        }
+        parseSeries.latency.recordNanos(elapsedNanos);
+        if (bytesIn > 0) {
+            parseSeries.bytesIn.add(bytesIn);
+        }
+        if (charsOut > 0) {
+            parseSeries.charsOut.add(charsOut);
+        }
+        if (!success) {
+            parseSeries.errors.increment();
+        }
+    }
+
+    /**
+     * @return the histogram for this key or <code>null</code> if nothing has been recorded
+     */
+    public LatencyHistogram getLatencyHistogram(String endpoint, String mediaType, String parser) {
+        ParseSeries parseSeries =
+                series.get(new SeriesKey(normalizeEndpoint(endpoint), mediaType, parser));
+        return parseSeries == null ? null : parseSeries.latency;
+    }
+
+    /**
+     * Writes the parse metrics in the Prometheus text exposition format (version 0.0.4).
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        List<Map.Entry<SeriesKey, ParseSeries>> entries = new ArrayList<>(series.entrySet());
+        entries.sort(Map.Entry.comparingByKey(SeriesKey.COMPARATOR));
+
+        writer.write("# HELP tika_server_parse_duration_seconds Time spent parsing, " +
+                "by endpoint, detected media type and parser\n");
+        writer.write("# TYPE tika_server_parse_duration_seconds histogram\n");
+        for (Map.Entry<SeriesKey, ParseSeries> e : entries) {
+            String labels = e.getKey().toLabels();
+            LatencyHistogram h = e.getValue().latency;
+            long count = h.getCount();
+            for (int k = 0; k <= MAX_EXPORTED_POWER_OF_TWO; k++) {
+                writer.write("tika_server_parse_duration_seconds_bucket{" + labels + ",le=\"" +
+                        formatSeconds((1L << k) / 1000.0) + "\"} " +
+                        h.getCountBelowPowerOfTwo(k) + "\n");
+            }
+            writer.write("tika_server_parse_duration_seconds_bucket{" + labels +
+                    ",le=\"+Inf\"} " + count + "\n");
+            writer.write("tika_server_parse_duration_seconds_sum{" + labels + "} " +
+                    formatSeconds(h.getSumNanos() / 1_000_000_000.0) + "\n");
+            writer.write("tika_server_parse_duration_seconds_count{" + labels + "} " + count + "\n");
+        }
+        writeCounter(writer, entries, "tika_server_parse_errors_total",
+                "Parses that ended with an exception", Counter.ERRORS);
+        writeCounter(writer, entries, "tika_server_parse_bytes_in_total",
+                "Bytes read from clients for parsing", Counter.BYTES_IN);
+        writeCounter(writer, entries, "tika_server_parse_chars_out_total",
+                "Characters of extracted content written", Counter.CHARS_OUT);
+    }
+
+    private enum Counter {
+        ERRORS, BYTES_IN, CHARS_OUT
+    }
+
+    private static void writeCounter(Writer writer, List<Map.Entry<SeriesKey, ParseSeries>> entries,
+                                     String name, String help, Counter counter) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " counter\n");
+        for (Map.Entry<SeriesKey, ParseSeries> e : entries) {
+            long val;
+            switch (counter) {
+                case ERRORS:
+                    val = e.getValue().errors.sum();
+                    break;
+                case BYTES_IN:
+                    val = e.getValue().bytesIn.sum();
+                    break;
+                default:
+                    val = e.getValue().charsOut.sum();
+            }
+            writer.write(name + "{" + e.getKey().toLabels() + "} " + val + "\n");
+        }
+    }
+
+    static String formatSeconds(double seconds) {
+        return String.format(Locale.ROOT, "%.6f", seconds);
+    }
+
+    /**
+     * Maps a request path to its endpoint label: the root resource, followed by
+     * any static sub-paths, e.g. <code>/meta/form</code>. Path parameters are
+     * dropped, so <code>/meta/Content-Type</code> is labelled <code>/meta</code>,
+     * and paths outside the parse resources are labelled {@link #OTHER}.
+     */
+    static String normalizeEndpoint(String endpoint) {
+        if (StringUtils.isBlank(endpoint)) {
+            return UNKNOWN;
+        }
+        //UriInfo#getPath() does not include the leading slash
+        String[] segments = (endpoint.startsWith("/") ? endpoint.substring(1) : endpoint)
+                .split("/");
+        if (!ENDPOINTS.contains(segments[0])) {
+            return OTHER;
+        }
+        StringBuilder sb = new StringBuilder("/").append(segments[0]);
+        for (int i = 1; i < segments.length && STATIC_SUB_PATHS.contains(segments[i]); i++) {
+            sb.append('/').append(segments[i]);
+        }
+        return sb.toString();
+    }
+
+    static String getMediaType(Metadata metadata) {
+        String contentType = metadata.get(Metadata.CONTENT_TYPE);
+        if (StringUtils.isBlank(contentType)) {
+            return UNKNOWN;
+        }
+        int i = contentType.indexOf(';');
+        if (i > -1) {
+            contentType = contentType.substring(0, i);
+        }
+        return contentType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String getParser(Metadata metadata) {
+        String[] parsedBy = metadata.getValues(TikaCoreProperties.TIKA_PARSED_BY);
+        if (parsedBy.length == 0) {
+            return UNKNOWN;
+        }
+        return parsedBy[parsedBy.length - 1];
+    }
+
+    static String escapeLabelValue(String v) {
+        StringBuilder sb = new StringBuilder(v.length());
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class ParseSeries {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder charsOut = new LongAdder();
+    }
+
+    private static class SeriesKey {
+        private static final Comparator<SeriesKey> COMPARATOR = Comparator
+                .comparing((SeriesKey k) -> k.endpoint)
+                .thenComparing(k -> k.mediaType)
+                .thenComparing(k -> k.parser);
+
+        private final String endpoint;
+        private final String mediaType;
+        private final String parser;
+
+        SeriesKey(String endpoint, String mediaType, String parser) {
+            this.endpoint = endpoint;
+            this.mediaType = mediaType;
+            this.parser = parser;
+        }
+
+        String toLabels() {
+            return "endpoint=\"" + escapeLabelValue(endpoint) + "\",mime=\"" +
+                    escapeLabelValue(mediaType) + "\",parser=\"" + escapeLabelValue(parser) + "\"";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            SeriesKey seriesKey = (SeriesKey) o;
+            return endpoint.equals(seriesKey.endpoint) && mediaType.equals(seriesKey.mediaType) &&
+                    parser.equals(seriesKey.parser);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, mediaType, parser);
+        }
+    }
+}
@@ -68,6 +68,7 @@ import org.apache.tika.config.TikaTaskTimeout;
 import org.apache.tika.exception.EncryptedDocumentException;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.AutoDetectParser;
@@ -75,17 +76,21 @@ import org.apache.tika.parser.DigestingParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
 import org.apache.tika.pipes.HandlerConfig;
+import org.apache.tika.sax.AbstractRecursiveParserWrapperHandler;
 import org.apache.tika.sax.BasicContentHandlerFactory;
 import org.apache.tika.sax.BodyContentHandler;
 import org.apache.tika.sax.ExpandedTitleContentHandler;
+import org.apache.tika.sax.RecursiveParserWrapperHandler;
 import org.apache.tika.sax.RichTextContentHandler;
 import org.apache.tika.sax.boilerpipe.BoilerpipeContentHandler;
 import org.apache.tika.server.core.CompositeParseContextConfig;
 import org.apache.tika.server.core.InputStreamFactory;
+import org.apache.tika.server.core.ParseAdmissionController;
 import org.apache.tika.server.core.ParseContextConfig;
 import org.apache.tika.server.core.ServerStatus;
 import org.apache.tika.server.core.TikaServerConfig;
 import org.apache.tika.server.core.TikaServerParseException;
+import org.apache.tika.server.core.metrics.CharCountingContentHandler;
 import org.apache.tika.utils.ExceptionUtils;
 import org.apache.tika.utils.XMLReaderUtils;
 
@@ -360,9 +365,27 @@ public class TikaResource {
         String fileName = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
         long timeoutMillis = getTaskTimeout(parseContext);
 
+        ParseAdmissionController admission = SERVER_STATUS.getParseAdmissionController();
+        if (!admission.tryAcquire()) {
+            inputStream.close();
+            logger.warn("{}: Rejecting parse, no parse slot available ({})", path, fileName);
+            throw new WebApplicationException(Response
+                    .status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, admission.getRetryAfterSeconds())
+                    .build());
+        }
         long taskId = SERVER_STATUS.start(ServerStatus.TASK.PARSE, fileName, timeoutMillis);
+        //RecursiveParserWrapper needs the handler itself, so count its content afterwards
+        CharCountingContentHandler charCounter = null;
+        if (!(handler instanceof AbstractRecursiveParserWrapperHandler)) {
+            charCounter = new CharCountingContentHandler(handler);
+            handler = charCounter;
+        }
+        boolean success = false;
+        long started = System.nanoTime();
         try {
             parser.parse(inputStream, handler, metadata, parseContext);
+            success = true;
         } catch (SAXException e) {
             throw new TikaServerParseException(e);
         } catch (EncryptedDocumentException e) {
@@ -378,9 +401,45 @@ public class TikaResource {
             SERVER_STATUS.setStatus(ServerStatus.STATUS.ERROR);
             throw e;
         } finally {
+            long elapsed = System.nanoTime() - started;
             SERVER_STATUS.complete(taskId);
+            admission.release();
+            long bytesIn = getBytesIn(inputStream);
             inputStream.close();
+            long charsOut = charCounter != null ? charCounter.getChars() : getChars(handler);
+            SERVER_STATUS.getServerMetrics().recordParse(path, metadata, elapsed, bytesIn,
+                    charsOut, success);
+        }
+    }
+
+    private static long getBytesIn(InputStream inputStream) {
+        if (!(inputStream instanceof TikaInputStream)) {
+            return -1;
+        }
+        TikaInputStream tis = (TikaInputStream) inputStream;
+        //don't call getLength() if the length is unknown, it would spool the stream
+        if (!tis.hasLength()) {
+            return tis.getPosition();
+        }
+        try {
+            return tis.getLength();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long getChars(ContentHandler handler) {
+        if (!(handler instanceof RecursiveParserWrapperHandler)) {
+            return -1;
+        }
+        long chars = 0;
+        for (Metadata m : ((RecursiveParserWrapperHandler) handler).getMetadataList()) {
+            String content = m.get(TikaCoreProperties.TIKA_CONTENT);
+            if (content != null) {
+                chars += content.length();
+            }
         }
+        return chars;
     }
 
     protected static long getTaskTimeout(ParseContext parseContext) {
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.resource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.apache.tika.server.core.ParseAdmissionController;
+import org.apache.tika.server.core.ServerStatus;
+
+/**
+ * Exposes server gauges and per-parser latency histograms in the Prometheus
+ * text exposition format.
+ */
+@Path("/metrics")
+public class TikaServerMetrics {
+
+    private final ServerStatus serverStatus;
+
+    public TikaServerMetrics(ServerStatus serverStatus) {
+        this.serverStatus = serverStatus;
+    }
+
+    @GET
+    @Produces("text/plain; version=0.0.4")
+    public StreamingOutput getMetrics() {
+        return outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, UTF_8);
+            writeGauges(writer);
+            serverStatus.getServerMetrics().writePrometheus(writer);
+            writer.flush();
+        };
+    }
+
+    private void writeGauges(Writer writer) throws IOException {
+        ParseAdmissionController admission = serverStatus.getParseAdmissionController();
+        writeMetric(writer, "tika_server_files_processed_total", "counter",
+                "Tasks started since the server (re)started", serverStatus.getFilesProcessed());
+        writeMetric(writer, "tika_server_active_parses", "gauge",
+                "Parses currently running", admission.getActiveParses());
+        writeMetric(writer, "tika_server_queued_parses", "gauge",
+                "Parses waiting for a parse slot", admission.getQueuedParses());
+        writeMetric(writer, "tika_server_rejected_parses_total", "counter",
+                "Parses rejected because no parse slot was available",
+                admission.getRejectedParses());
+        writeMetric(writer, "tika_server_restarts", "gauge",
+                "Number of times the forked server process has been restarted",
+                serverStatus.getNumRestarts());
+    }
+
+    private static void writeMetric(Writer writer, String name, String type, String help,
+                                    long value) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+        writer.write(name + " " + value + "\n");
+    }
+}
@@ -23,6 +23,7 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 
+import org.apache.tika.server.core.ParseAdmissionController;
 import org.apache.tika.server.core.ServerStatus;
 
 @Path("/status")
@@ -42,6 +43,14 @@ public class TikaServerStatus {
         map.put("millis_since_last_parse_started", serverStatus.getMillisSinceLastParseStarted());
         map.put("files_processed", serverStatus.getFilesProcessed());
         map.put("num_restarts", serverStatus.getNumRestarts());
+        ParseAdmissionController admission = serverStatus.getParseAdmissionController();
+        map.put("max_concurrent_parses", admission.getMaxConcurrentParses());
+        map.put("active_parses", admission.getActiveParses());
+        map.put("queued_parses", admission.getQueuedParses());
+        map.put("rejected_parses", admission.getRejectedParses());
+        map.put("total_queued_parses", admission.getTotalQueued());
+        map.put("parse_queue_wait_millis_total", admission.getQueueWaitMillisTotal());
+        map.put("parse_queue_wait_millis_max", admission.getQueueWaitMillisMax());
         return map;
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+public class ParseAdmissionControllerTest {
+
+    @Test
+    public void testUnlimited() {
+        ParseAdmissionController controller = ParseAdmissionController.unlimited();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(controller.tryAcquire());
+        }
+        assertEquals(100, controller.getActiveParses());
+        for (int i = 0; i < 100; i++) {
+            controller.release();
+        }
+        assertEquals(0, controller.getActiveParses());
+        assertEquals(0, controller.getRejectedParses());
+    }
+
+    @Test
+    public void testQueueWaitTimesOut() {
+        ParseAdmissionController controller = new ParseAdmissionController(1, 10, 50, 3);
+        assertTrue(controller.tryAcquire());
+        assertFalse(controller.tryAcquire());
+        assertEquals(1, controller.getActiveParses());
+        assertEquals(0, controller.getQueuedParses());
+        assertEquals(1, controller.getRejectedParses());
+        assertEquals(1, controller.getTotalQueued());
+        assertTrue(controller.getQueueWaitMillisMax() >= 40);
+        controller.release();
+        assertTrue(controller.tryAcquire());
+        controller.release();
+        assertEquals(3, controller.getRetryAfterSeconds());
+    }
+
+    @Test
+    @Timeout(60)
+    public void testQueueFullRejectsImmediately() throws Exception {
+        ParseAdmissionController controller = new ParseAdmissionController(1, 1, 60000, 5);
+        assertTrue(controller.tryAcquire());
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<Boolean> queued = executorService.submit(() -> {
+                started.countDown();
+                return controller.tryAcquire();
+            });
+            started.await();
+            while (controller.getQueuedParses() < 1) {
+                Thread.sleep(10);
+            }
+            //queue is full, so this should not wait for the 60 seconds
+            assertFalse(controller.tryAcquire());
+            assertEquals(1, controller.getRejectedParses());
+
+            controller.release();
+            assertTrue(queued.get());
+            assertEquals(1, controller.getActiveParses());
+            controller.release();
+            assertEquals(0, controller.getActiveParses());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
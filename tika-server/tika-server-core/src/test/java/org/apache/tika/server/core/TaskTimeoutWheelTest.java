@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskTimeoutWheelTest {
+
+    @Test
+    public void testExpire() {
+        TaskTimeoutWheel wheel = new TaskTimeoutWheel(10, 8, 1000);
+        TaskStatus shortTask = newTask("short", 1000, 25);
+        TaskStatus cancelledTask = newTask("cancelled", 1000, 25);
+        //more than one rotation of the wheel
+        TaskStatus longTask = newTask("long", 1000, 500);
+        wheel.schedule(wheel.newEntry(shortTask));
+        TaskTimeoutWheel.Entry cancelled = wheel.schedule(wheel.newEntry(cancelledTask));
+        wheel.schedule(wheel.newEntry(longTask));
+
+        List<TaskStatus> timedOut = new ArrayList<>();
+        wheel.cancel(cancelled);
+        for (long now = 1000; now < 1025; now++) {
+            wheel.expire(now, timedOut::add);
+        }
+        assertTrue(timedOut.isEmpty());
+        for (long now = 1025; now < 1500; now++) {
+            wheel.expire(now, timedOut::add);
+        }
+        assertEquals(List.of(shortTask), timedOut);
+        for (long now = 1500; now < 2000; now += 7) {
+            wheel.expire(now, timedOut::add);
+        }
+        assertEquals(List.of(shortTask, longTask), timedOut);
+    }
+
+    @Test
+    public void testFallingBehind() {
+        TaskTimeoutWheel wheel = new TaskTimeoutWheel(10, 8, 0);
+        TaskStatus task = newTask("task", 0, 30);
+        wheel.schedule(wheel.newEntry(task));
+        List<TaskStatus> timedOut = new ArrayList<>();
+        //skip many rotations at once
+        wheel.expire(100_000, timedOut::add);
+        assertEquals(List.of(task), timedOut);
+        wheel.expire(200_000, timedOut::add);
+        assertEquals(1, timedOut.size());
+    }
+
+    @Test
+    public void testServerStatusTimeouts() throws Exception {
+        ServerStatus serverStatus = new ServerStatus("", 0);
+        long before = serverStatus.start(ServerStatus.TASK.PARSE, "before", 0);
+        serverStatus.trackTimeouts(1);
+        serverStatus.start(ServerStatus.TASK.PARSE, "after", 0);
+        long completed = serverStatus.start(ServerStatus.TASK.PARSE, "completed", 0);
+        serverStatus.start(ServerStatus.TASK.PARSE, "not yet", 60000);
+        serverStatus.complete(completed);
+        Thread.sleep(10);
+
+        List<String> timedOut = new ArrayList<>();
+        serverStatus.expireTimedOutTasks(t -> timedOut.add(t.fileName.get()));
+        timedOut.sort(null);
+        assertEquals(List.of("after", "before"), timedOut);
+        assertEquals(3, serverStatus.getNumActiveTasks());
+        serverStatus.complete(before);
+        assertEquals(2, serverStatus.getNumActiveTasks());
+    }
+
+    private static TaskStatus newTask(String name, long startedMillis, long timeoutMillis) {
+        return new TaskStatus(ServerStatus.TASK.PARSE, Instant.ofEpochMilli(startedMillis), name,
+                timeoutMillis);
+    }
+}
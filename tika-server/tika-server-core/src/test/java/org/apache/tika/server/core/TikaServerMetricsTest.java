@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+
+import jakarta.ws.rs.core.Response;
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.server.core.resource.MetadataResource;
+import org.apache.tika.server.core.resource.TikaServerMetrics;
+
+public class TikaServerMetricsTest extends CXFTestBase {
+
+    private final static String METRICS_PATH = "/metrics";
+
+    @Override
+    protected void setUpResources(JAXRSServerFactoryBean sf) {
+        sf.setResourceClasses(TikaServerMetrics.class, MetadataResource.class);
+        sf.setResourceProvider(TikaServerMetrics.class, new SingletonResourceProvider(new TikaServerMetrics(serverStatus)));
+        sf.setResourceProvider(MetadataResource.class, new SingletonResourceProvider(new MetadataResource()));
+    }
+
+    @Override
+    protected void setUpProviders(JAXRSServerFactoryBean sf) {
+    }
+
+    @Test
+    public void testBasic() throws Exception {
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, "application/pdf");
+        serverStatus
+                .getServerMetrics()
+                .recordParse("/tika", metadata, 1_000_000, 10, 10, true);
+
+        Response response = WebClient
+                .create(endPoint + METRICS_PATH)
+                .get();
+        assertEquals(200, response.getStatus());
+        String metrics = getStringFromInputStream((InputStream) response.getEntity());
+        assertTrue(metrics.contains("tika_server_active_parses 0\n"), metrics);
+        assertTrue(metrics.contains("tika_server_parse_duration_seconds_count{endpoint=\"/tika\"," +
+                "mime=\"application/pdf\",parser=\"unknown\"} 1\n"), metrics);
+    }
+
+    @Test
+    public void testPathParametersDoNotAddSeries() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            WebClient
+                    .create(endPoint + "/meta/field-" + i)
+                    .accept("text/plain")
+                    .put("some text");
+        }
+        Response response = WebClient
+                .create(endPoint + METRICS_PATH)
+                .get();
+        String metrics = getStringFromInputStream((InputStream) response.getEntity());
+        int series = 0;
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith("tika_server_parse_duration_seconds_count{")) {
+                series++;
+                assertTrue(line.contains("endpoint=\"/meta\""), line);
+                assertTrue(line.endsWith(" 50"), line);
+            }
+        }
+        assertEquals(1, series, metrics);
+    }
+}
@@ -66,6 +66,9 @@ public class TikaServerStatusTest extends CXFTestBase {
         assertTrue(root.has("status"));
         assertTrue(root.has("millis_since_last_parse_started"));
         assertTrue(root.has("files_processed"));
+        assertTrue(root.has("active_parses"));
+        assertTrue(root.has("queued_parses"));
+        assertTrue(root.has("rejected_parses"));
         assertEquals("OPERATING", root
                 .get("status")
                 .asText());
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long millis = 0; millis < 100_000; millis++) {
+            int index = LatencyHistogram.bucketIndex(millis);
+            assertTrue(millis < LatencyHistogram.bucketUpperBound(index), "millis=" + millis);
+            if (index > 0) {
+                assertTrue(millis >= LatencyHistogram.bucketUpperBound(index - 1), "millis=" + millis);
+            }
+        }
+        for (int k = 0; k < 31; k++) {
+            //powers of two must start a bucket so that the exported "le" buckets are exact
+            int index = LatencyHistogram.bucketIndex(1L << k);
+            assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) == 1L << k);
+        }
+        assertEquals(LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCountsAndQuantiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getValueAtQuantile(0.5));
+        for (int i = 1; i <= 100; i++) {
+            h.recordNanos(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5050), h.getSumNanos());
+        //values less than 16ms: 1..15
+        assertEquals(15, h.getCountBelowPowerOfTwo(4));
+        assertEquals(100, h.getCountBelowPowerOfTwo(7));
+
+        long p50 = h.getValueAtQuantile(0.5);
+        assertTrue(p50 > 50 && p50 <= 50 * 1.125 + 1, "p50=" + p50);
+        long p99 = h.getValueAtQuantile(0.99);
+        assertTrue(p99 > 99 && p99 <= 99 * 1.125 + 1, "p99=" + p99);
+    }
+}
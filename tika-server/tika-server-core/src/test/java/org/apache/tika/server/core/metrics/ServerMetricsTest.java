@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server.core.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+
+public class ServerMetricsTest {
+
+    @Test
+    public void testRecordAndWrite() throws Exception {
+        ServerMetrics serverMetrics = new ServerMetrics();
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        metadata.add(TikaCoreProperties.TIKA_PARSED_BY, "org.apache.tika.parser.DefaultParser");
+        metadata.add(TikaCoreProperties.TIKA_PARSED_BY, "org.apache.tika.parser.csv.TextAndCSVParser");
+
+        serverMetrics.recordParse("tika", metadata, TimeUnit.MILLISECONDS.toNanos(3), 100, 50, true);
+        serverMetrics.recordParse("/tika", metadata, TimeUnit.MILLISECONDS.toNanos(3000), 200, 0,
+                false);
+
+        LatencyHistogram h = serverMetrics.getLatencyHistogram("/tika", "text/plain",
+                "org.apache.tika.parser.csv.TextAndCSVParser");
+        assertNotNull(h);
+        assertEquals(2, h.getCount());
+
+        StringWriter writer = new StringWriter();
+        serverMetrics.writePrometheus(writer);
+        String out = writer.toString();
+        String labels = "endpoint=\"/tika\",mime=\"text/plain\"," +
+                "parser=\"org.apache.tika.parser.csv.TextAndCSVParser\"";
+        assertContains("# TYPE tika_server_parse_duration_seconds histogram", out);
+        assertContains("tika_server_parse_duration_seconds_bucket{" + labels +
+                ",le=\"0.004000\"} 1\n", out);
+        assertContains("tika_server_parse_duration_seconds_bucket{" + labels +
+                ",le=\"4.096000\"} 2\n", out);
+        assertContains("tika_server_parse_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 2\n", out);
+        assertContains("tika_server_parse_duration_seconds_count{" + labels + "} 2\n", out);
+        assertContains("tika_server_parse_errors_total{" + labels + "} 1\n", out);
+        assertContains("tika_server_parse_bytes_in_total{" + labels + "} 300\n", out);
+        assertContains("tika_server_parse_chars_out_total{" + labels + "} 50\n", out);
+    }
+
+    @Test
+    public void testUnknownAndEscaping() throws Exception {
+        ServerMetrics serverMetrics = new ServerMetrics();
+        serverMetrics.recordParse(null, new Metadata(), 0, -1, -1, true);
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, "application/x-\"weird\"");
+        serverMetrics.recordParse("/rmeta", metadata, 0, -1, -1, true);
+
+        StringWriter writer = new StringWriter();
+        serverMetrics.writePrometheus(writer);
+        String out = writer.toString();
+        assertContains("tika_server_parse_duration_seconds_count{endpoint=\"unknown\"," +
+                "mime=\"unknown\",parser=\"unknown\"} 1\n", out);
+        assertContains("mime=\"application/x-\\\"weird\\\"\"", out);
+    }
+
+    @Test
+    public void testMaxSeries() {
+        ServerMetrics serverMetrics = new ServerMetrics();
+        for (int i = 0; i < ServerMetrics.MAX_SERIES + 10; i++) {
+            Metadata metadata = new Metadata();
+            metadata.set(Metadata.CONTENT_TYPE, "application/x-test-" + i);
+            serverMetrics.recordParse("/tika", metadata, 0, -1, -1, true);
+        }
+        LatencyHistogram other = serverMetrics.getLatencyHistogram(ServerMetrics.OTHER,
+                ServerMetrics.OTHER, ServerMetrics.OTHER);
+        assertNotNull(other);
+        assertEquals(10, other.getCount());
+        //once full, new endpoints don't add series either
+        serverMetrics.recordParse("/rmeta", new Metadata(), 0, -1, -1, true);
+        assertEquals(11, other.getCount());
+    }
+
+    @Test
+    public void testEndpointLabels() {
+        assertEquals("/tika", ServerMetrics.normalizeEndpoint("tika"));
+        assertEquals("/tika", ServerMetrics.normalizeEndpoint("/tika/text"));
+        assertEquals("/tika/form/main", ServerMetrics.normalizeEndpoint("tika/form/main"));
+        assertEquals("/meta", ServerMetrics.normalizeEndpoint("meta/Content-Type"));
+        assertEquals("/meta/form", ServerMetrics.normalizeEndpoint("meta/form"));
+        assertEquals("/rmeta", ServerMetrics.normalizeEndpoint("rmeta/formxml"));
+        assertEquals("/unpack/all", ServerMetrics.normalizeEndpoint("unpack/all/some/id"));
+        assertEquals("/unpack", ServerMetrics.normalizeEndpoint("unpack/some/id"));
+        assertEquals(ServerMetrics.OTHER, ServerMetrics.normalizeEndpoint("anything/else"));
+        assertEquals(ServerMetrics.UNKNOWN, ServerMetrics.normalizeEndpoint(""));
+    }
+
+    private static void assertContains(String needle, String haystack) {
+        assertTrue(haystack.contains(needle), needle + " not found in:\n" + haystack);
+    }
+}